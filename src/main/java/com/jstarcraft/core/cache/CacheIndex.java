@@ -1,5 +1,7 @@
 package com.jstarcraft.core.cache;
 
+import java.io.Serializable;
+
 import org.apache.commons.lang3.builder.CompareToBuilder;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -9,7 +11,9 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
  * 
  * @author Birdy
  */
-public class CacheIndex implements Comparable<CacheIndex> {
+public class CacheIndex implements Comparable<CacheIndex>, Serializable {
+
+	private static final long serialVersionUID = 5826047815637489153L;
 
 	/** 索引名 */
 	private final String name;
@@ -4,13 +4,16 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,12 +23,19 @@ import com.jstarcraft.core.cache.annotation.CacheConfiguration;
 import com.jstarcraft.core.cache.annotation.CacheConfiguration.Unit;
 import com.jstarcraft.core.cache.exception.CacheConfigurationException;
 import com.jstarcraft.core.cache.exception.CacheException;
+import com.jstarcraft.core.cache.proxy.IndexAccessor;
+import com.jstarcraft.core.cache.proxy.JavassistIndexAccessor;
 import com.jstarcraft.core.cache.proxy.ProxyObject;
 import com.jstarcraft.core.utility.ClassUtility;
 import com.jstarcraft.core.utility.JsonUtility;
 import com.jstarcraft.core.utility.ReflectionUtility;
 import com.jstarcraft.core.utility.StringUtility;
 
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
 /**
  * 缓存信息
  * 
@@ -45,14 +55,22 @@ public class CacheInformation {
 
 	/** 缓存类型 */
 	private Class<? extends CacheObject> cacheClass;
+	/** 标识类型 */
+	private Class<?> idClass;
 	/** 缓存配置 */
 	private CacheConfiguration cacheConfiguration;
-	/** 索引信息 */
-	private Map<String, Field> indexInformations;
+	/** 索引名称(按照序号) */
+	private String[] indexNames;
+	/** 索引访问器(按照序号) */
+	private IndexAccessor[] indexAccessors;
+	/** 索引名称 -> 序号 */
+	private Map<String, Integer> indexOrdinals;
 	/** 变更信息 */
 	private Map<Method, Integer> methodIds;
 
 	private List<HashSet<Object>> methodChanges;
+	/** 变更字段(null表示整个对象) */
+	private List<String[]> methodFields;
 
 	private CacheInformation() {
 	}
@@ -63,68 +81,123 @@ public class CacheInformation {
 	 * @return
 	 */
 	public boolean hasIndexes() {
-		if (!indexInformations.isEmpty()) {
+		if (indexNames.length != 0) {
 			return true;
 		}
 		return false;
 	}
 
 	/**
-	 * 获取索引的名称集合
+	 * 是否为范围索引
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean isRangeIndex(String name) {
+		return cacheConfiguration.rangeIndex() && hasIndex(name);
+	}
+
+	/**
+	 * 获取索引的名称集合(按照序号)
 	 * 
 	 * @return
 	 */
 	public Collection<String> getIndexNames() {
-		HashSet<String> result = new HashSet<String>();
-		for (String name : indexInformations.keySet()) {
-			result.add(name);
-		}
-		return result;
+		return Collections.unmodifiableList(Arrays.asList(indexNames));
+	}
+
+	/**
+	 * 获取索引的数量
+	 * 
+	 * @return
+	 */
+	public int getIndexSize() {
+		return indexNames.length;
+	}
+
+	/**
+	 * 获取指定序号的索引名称
+	 * 
+	 * @param ordinal
+	 * @return
+	 */
+	public String getIndexName(int ordinal) {
+		return indexNames[ordinal];
+	}
+
+	/**
+	 * 获取指定名称的索引序号
+	 * 
+	 * @param name
+	 * @return 不存在时返回-1
+	 */
+	public int getIndexOrdinal(String name) {
+		Integer ordinal = indexOrdinals.get(name);
+		return ordinal == null ? -1 : ordinal;
 	}
 
 	/**
-	 * 获取实体的索引键=值
+	 * 获取实体的索引值
 	 * 
 	 * @param entity
+	 * @param name
 	 * @return
 	 */
 	public Comparable getIndexValue(CacheObject entity, String name) {
+		return getIndexValue(entity, indexOrdinals.get(name));
+	}
+
+	/**
+	 * 获取实体的索引值
+	 * 
+	 * @param entity
+	 * @param ordinal
+	 * @return
+	 */
+	public Comparable getIndexValue(CacheObject entity, int ordinal) {
 		if (entity instanceof ProxyObject) {
 			entity = ((ProxyObject) entity).getInstance();
 		}
-		Field information = indexInformations.get(name);
 		try {
-			Object value = information.get(entity);
-			return (Comparable) value;
+			return indexAccessors[ordinal].getValue(entity);
 		} catch (Exception exception) {
-			String message = StringUtility.format("获取缓存[{}]的索引[{}]异常", cacheClass.getName(), name);
+			String message = StringUtility.format("获取缓存[{}]的索引[{}]异常", cacheClass.getName(), indexNames[ordinal]);
 			LOGGER.error(message, exception);
 			throw new CacheException(message, exception);
 		}
 	}
 
 	/**
-	 * 获取实体的索引键=值
+	 * 获取实体的索引值(按照序号)
 	 * 
 	 * @param entity
 	 * @return
 	 */
-	public Map<String, Comparable> getIndexValues(CacheObject entity) {
+	public Comparable[] getIndexValues(CacheObject entity) {
+		Comparable[] values = new Comparable[indexNames.length];
+		getIndexValues(entity, values);
+		return values;
+	}
+
+	/**
+	 * 获取实体的索引值(按照序号填充到指定数组,数组可以重复使用)
+	 * 
+	 * @param entity
+	 * @param values
+	 */
+	public void getIndexValues(CacheObject entity, Comparable[] values) {
 		if (entity instanceof ProxyObject) {
 			entity = ((ProxyObject) entity).getInstance();
 		}
-		Map<String, Comparable> values = new HashMap<>();
-		for (Entry<String, Field> keyValue : indexInformations.entrySet()) {
+		for (int ordinal = 0; ordinal < indexAccessors.length; ordinal++) {
 			try {
-				Object value = keyValue.getValue().get(entity);
-				values.put(keyValue.getKey(), (Comparable) value);
+				values[ordinal] = indexAccessors[ordinal].getValue(entity);
 			} catch (Exception exception) {
-				String message = StringUtility.format("获取缓存[{}]的索引[{}]异常", cacheClass.getName(), keyValue.getKey());
+				String message = StringUtility.format("获取缓存[{}]的索引[{}]异常", cacheClass.getName(), indexNames[ordinal]);
 				LOGGER.error(message, exception);
 				throw new CacheException(message, exception);
 			}
 		}
-		return values;
 	}
 
 	/**
@@ -134,10 +207,10 @@ public class CacheInformation {
 	 * @return
 	 */
 	public boolean hasIndex(String name) {
-		if (indexInformations == null) {
+		if (indexOrdinals == null) {
 			return false;
 		}
-		if (indexInformations.containsKey(name)) {
+		if (indexOrdinals.containsKey(name)) {
 			return true;
 		}
 		return false;
@@ -152,6 +225,59 @@ public class CacheInformation {
 		return cacheClass;
 	}
 
+	/**
+	 * 获取标识类型
+	 * 
+	 * @return
+	 */
+	public Class<?> getIdClass() {
+		return idClass;
+	}
+
+	/**
+	 * 创建标识集合(非线程安全)
+	 * 
+	 * <pre>
+	 * 标识为Long/Integer时使用原始类型的开放寻址哈希集合,避免装箱与链表节点.
+	 * </pre>
+	 * 
+	 * @param identities
+	 * @return
+	 */
+	public <K> Set<K> newIdentitySet(Collection<K> identities) {
+		Set set;
+		if (idClass == Long.class) {
+			set = new LongOpenHashSet(identities.size());
+		} else if (idClass == Integer.class) {
+			set = new IntOpenHashSet(identities.size());
+		} else {
+			set = new HashSet<>(identities.size());
+		}
+		set.addAll(identities);
+		return set;
+	}
+
+	/**
+	 * 创建标识映射(非线程安全)
+	 * 
+	 * <pre>
+	 * 标识为Long/Integer时使用原始类型的开放寻址哈希映射,避免装箱与链表节点.
+	 * </pre>
+	 * 
+	 * @return
+	 */
+	public <K, V> Map<K, V> newIdentityMap() {
+		Map map;
+		if (idClass == Long.class) {
+			map = new Long2ObjectOpenHashMap<>();
+		} else if (idClass == Integer.class) {
+			map = new Int2ObjectOpenHashMap<>();
+		} else {
+			map = new HashMap<>();
+		}
+		return map;
+	}
+
 	/**
 	 * 获取缓存单位
 	 * 
@@ -178,6 +304,16 @@ public class CacheInformation {
 		return methodChanges.get(methodId);
 	}
 
+	/**
+	 * 获取指定方法变更的字段
+	 * 
+	 * @param methodId
+	 * @return 变更的字段,null表示变更整个对象
+	 */
+	public String[] getMethodFields(Integer methodId) {
+		return methodFields.get(methodId);
+	}
+
 	/**
 	 * 检查指定类型是否为缓存类型
 	 * 
@@ -210,14 +346,55 @@ public class CacheInformation {
 		CacheInformation instance = new CacheInformation();
 		instance.cacheClass = clazz;
 		instance.cacheConfiguration = clazz.getAnnotation(CacheConfiguration.class);
-		// 索引信息
-		HashMap<String, Field> indexInformations = new HashMap<>();
+		try {
+			// 存在桥接方法时getMethod返回声明类型最具体的方法
+			instance.idClass = clazz.getMethod("getId").getReturnType();
+		} catch (Exception exception) {
+			String message = StringUtility.format("类型[{}]的标识方法不存在", clazz.getName());
+			LOGGER.error(message, exception);
+			throw new CacheConfigurationException(message);
+		}
 		if (instance.cacheConfiguration.unit().equals(Unit.REGION) && instance.cacheConfiguration.indexes().length != 1) {
 			String message = StringUtility.format("类型[{}]的缓存配置必须有且只有一个索引", clazz.getName());
 			LOGGER.error(message);
 			throw new CacheConfigurationException(message);
 		}
-		for (String index : instance.cacheConfiguration.indexes()) {
+		int lockStripes = instance.cacheConfiguration.lockStripes();
+		if (lockStripes < 0 || (lockStripes > 0 && Integer.bitCount(lockStripes) != 1)) {
+			String message = StringUtility.format("类型[{}]的缓存配置锁条纹数量[{}]必须为0或者2的幂", clazz.getName(), lockStripes);
+			LOGGER.error(message);
+			throw new CacheConfigurationException(message);
+		}
+		long offHeapCapacity = instance.cacheConfiguration.offHeapCapacity();
+		if (offHeapCapacity < 0L || (offHeapCapacity > 0L && instance.cacheConfiguration.unit().equals(Unit.REGION))) {
+			String message = StringUtility.format("类型[{}]的缓存配置堆外容量[{}]必须为非负数且只能用于实体", clazz.getName(), offHeapCapacity);
+			LOGGER.error(message);
+			throw new CacheConfigurationException(message);
+		}
+		int preloadSize = instance.cacheConfiguration.preloadSize();
+		if (preloadSize < 0 || (preloadSize > 0 && instance.cacheConfiguration.unit().equals(Unit.REGION))) {
+			String message = StringUtility.format("类型[{}]的缓存配置预加载数量[{}]必须为非负数且只能用于实体", clazz.getName(), preloadSize);
+			LOGGER.error(message);
+			throw new CacheConfigurationException(message);
+		}
+		int absenceSize = instance.cacheConfiguration.absenceSize();
+		int absenceExpire = instance.cacheConfiguration.absenceExpire();
+		if (absenceSize < 0 || absenceExpire <= 0 || (absenceSize > 0 && instance.cacheConfiguration.unit().equals(Unit.REGION))) {
+			String message = StringUtility.format("类型[{}]的缓存配置缺失数量[{}]必须为非负数且只能用于实体,缺失过期时间[{}]必须为正数", clazz.getName(), absenceSize, absenceExpire);
+			LOGGER.error(message);
+			throw new CacheConfigurationException(message);
+		}
+		if (instance.cacheConfiguration.rangeIndex() && !instance.cacheConfiguration.unit().equals(Unit.REGION)) {
+			String message = StringUtility.format("类型[{}]的缓存配置范围索引只能用于区域", clazz.getName());
+			LOGGER.error(message);
+			throw new CacheConfigurationException(message);
+		}
+		// 索引信息
+		String[] indexes = instance.cacheConfiguration.indexes();
+		String[] indexNames = new String[indexes.length];
+		IndexAccessor[] indexAccessors = new IndexAccessor[indexes.length];
+		HashMap<String, Integer> indexOrdinals = new HashMap<>();
+		for (String index : indexes) {
 			Field field = null;
 			try {
 				field = clazz.getDeclaredField(index);
@@ -231,13 +408,23 @@ public class CacheInformation {
 				LOGGER.error(message);
 				throw new CacheConfigurationException(message);
 			}
-			ReflectionUtility.makeAccessible(field);
-			indexInformations.put(field.getName(), field);
+			if (indexOrdinals.containsKey(field.getName())) {
+				String message = StringUtility.format("类型[{}]的缓存配置指定的索引[{}]重复", clazz.getName(), index);
+				LOGGER.error(message);
+				throw new CacheConfigurationException(message);
+			}
+			int ordinal = indexOrdinals.size();
+			indexNames[ordinal] = field.getName();
+			indexAccessors[ordinal] = JavassistIndexAccessor.instanceOf(field);
+			indexOrdinals.put(field.getName(), ordinal);
 		}
-		instance.indexInformations = indexInformations;
+		instance.indexNames = indexNames;
+		instance.indexAccessors = indexAccessors;
+		instance.indexOrdinals = indexOrdinals;
 		// 方法信息
 		HashMap<Method, Integer> methodIds = new HashMap<>();
 		List<HashSet<Object>> methodChanges = new LinkedList<>();
+		List<String[]> methodFields = new LinkedList<>();
 		ReflectionUtility.doWithMethods(clazz, (method) -> {
 			Integer methodId = methodIds.get(method);
 			if (methodId == null) {
@@ -245,13 +432,28 @@ public class CacheInformation {
 				methodIds.put(method, methodId);
 			}
 			HashSet<Object> cacheValues = new HashSet<>();
+			String[] cacheFields = null;
 			CacheChange cacheChange = method.getAnnotation(CacheChange.class);
 			if (cacheChange != null) {
 				for (String json : cacheChange.values()) {
 					cacheValues.add(JsonUtility.string2Object(json, method.getGenericReturnType()));
 				}
+				if (cacheChange.fields().length > 0) {
+					TreeSet<String> names = new TreeSet<>();
+					for (String name : cacheChange.fields()) {
+						Field field = ReflectionUtility.findField(clazz, name);
+						if (field == null || Modifier.isStatic(field.getModifiers())) {
+							String message = StringUtility.format("类型[{}]的方法[{}]指定的变更字段[{}]不存在", clazz.getName(), method.getName(), name);
+							LOGGER.error(message);
+							throw new CacheConfigurationException(message);
+						}
+						names.add(name);
+					}
+					cacheFields = names.toArray(new String[names.size()]);
+				}
 			}
 			methodChanges.add(cacheValues);
+			methodFields.add(cacheFields);
 		}, (method) -> {
 			if (OBJECT_METHODS.contains(method)) {
 				return false;
@@ -263,6 +465,7 @@ public class CacheInformation {
 		});
 		instance.methodIds = methodIds;
 		instance.methodChanges = new ArrayList<>(methodChanges);
+		instance.methodFields = new ArrayList<>(methodFields);
 		return instance;
 	}
 
@@ -0,0 +1,188 @@
+package com.jstarcraft.core.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jstarcraft.core.cache.invalidation.InvalidationChannel;
+import com.jstarcraft.core.cache.invalidation.InvalidationMessage;
+import com.jstarcraft.core.cache.persistence.PersistenceMonitor;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+import com.jstarcraft.core.utility.NameThreadFactory;
+import com.jstarcraft.core.utility.StringUtility;
+
+/**
+ * 缓存失效器
+ *
+ * <pre>
+ * 发布:通过{@link PersistenceMonitor}收集本节点持久成功的标识与新的索引值,每个间隔合并为一条{@link InvalidationMessage}发布.
+ * 同一个间隔内重复修改的标识与索引只发布一次.
+ * 接收:忽略本节点发布的消息,其它节点的消息交给对应类型的缓存管理器,从内存与索引中删除.
+ * 接收者只删除缓存,不处理自己尚未持久的元素,所以同一个实例应该只由一个节点修改.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+class CacheInvalidator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidator.class);
+
+	/** 节点 */
+	private final String node = UUID.randomUUID().toString();
+	/** 通道 */
+	private final InvalidationChannel channel;
+	/** 发布间隔(毫秒) */
+	private final long interval;
+	/** 类型名称 -> 失效处理 */
+	private final Map<String, BiConsumer<Set<Comparable>, Set<CacheIndex>>> handlers = new ConcurrentHashMap<>();
+
+	/** 等待发布的标识(类型名称 -> 标识集合) */
+	private HashMap<String, HashSet<Comparable>> identities = new HashMap<>();
+	/** 等待发布的索引(类型名称 -> 索引集合) */
+	private HashMap<String, HashSet<CacheIndex>> indexes = new HashMap<>();
+	/** 等待发布的锁 */
+	private final Object lock = new Object();
+
+	/** 发布线程 */
+	private ScheduledExecutorService scheduler;
+
+	CacheInvalidator(InvalidationChannel channel, long interval) {
+		if (channel == null || interval <= 0L) {
+			throw new IllegalArgumentException();
+		}
+		this.channel = channel;
+		this.interval = interval;
+	}
+
+	void start() {
+		channel.start(this::receive);
+		scheduler = Executors.newSingleThreadScheduledExecutor(new NameThreadFactory("缓存失效"));
+		scheduler.scheduleWithFixedDelay(this::publish, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	void stop() {
+		scheduler.shutdown();
+		try {
+			scheduler.awaitTermination(interval * 10L, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+		// 持久策略已经停止,发布最后一个批次
+		publish();
+		channel.stop();
+	}
+
+	/**
+	 * 注册指定类型的失效处理
+	 *
+	 * @param information
+	 * @param handler
+	 */
+	void register(CacheInformation information, BiConsumer<Set<Comparable>, Set<CacheIndex>> handler) {
+		handlers.put(information.getCacheClass().getName(), handler);
+	}
+
+	/**
+	 * 获取指定类型的持久监听器(收集持久成功的标识与索引)
+	 *
+	 * @param information
+	 * @return
+	 */
+	PersistenceMonitor getMonitor(CacheInformation information) {
+		String name = information.getCacheClass().getName();
+		return new PersistenceMonitor() {
+
+			@Override
+			public void notifyOperate(PersistenceOperation operation, Object id, CacheObject<?> object, Exception exception) {
+				if (exception != null) {
+					return;
+				}
+				// 新的索引值在其它节点可能已经加载,同样需要失效
+				Comparable[] values = object == null ? null : information.getIndexValues(object);
+				synchronized (lock) {
+					identities.computeIfAbsent(name, (key) -> new HashSet<>()).add((Comparable) id);
+					if (values != null) {
+						HashSet<CacheIndex> indexes = CacheInvalidator.this.indexes.computeIfAbsent(name, (key) -> new HashSet<>());
+						for (int ordinal = 0; ordinal < values.length; ordinal++) {
+							if (values[ordinal] != null) {
+								indexes.add(new CacheIndex(information.getIndexName(ordinal), values[ordinal]));
+							}
+						}
+					}
+				}
+			}
+
+		};
+	}
+
+	/**
+	 * 发布等待的标识与索引
+	 */
+	private void publish() {
+		HashMap<String, HashSet<Comparable>> identities;
+		HashMap<String, HashSet<CacheIndex>> indexes;
+		synchronized (lock) {
+			if (this.identities.isEmpty() && this.indexes.isEmpty()) {
+				return;
+			}
+			identities = this.identities;
+			indexes = this.indexes;
+			this.identities = new HashMap<>();
+			this.indexes = new HashMap<>();
+		}
+		InvalidationMessage message = new InvalidationMessage(node, identities, indexes);
+		try {
+			channel.publish(message);
+		} catch (Exception exception) {
+			String error = StringUtility.format("节点[{}]发布失效消息[{}]异常", node, message);
+			LOGGER.error(error, exception);
+		}
+	}
+
+	/**
+	 * 接收其它节点的消息
+	 *
+	 * @param message
+	 */
+	private void receive(InvalidationMessage message) {
+		if (node.equals(message.getSource())) {
+			return;
+		}
+		HashSet<String> names = new HashSet<>(message.getIdentities().keySet());
+		names.addAll(message.getIndexes().keySet());
+		for (String name : names) {
+			BiConsumer<Set<Comparable>, Set<CacheIndex>> handler = handlers.get(name);
+			if (handler == null) {
+				// 本节点尚未使用此类型
+				continue;
+			}
+			try {
+				handler.accept(message.getIdentities(name), message.getIndexes(name));
+			} catch (Exception exception) {
+				String error = StringUtility.format("节点[{}]处理类型[{}]的失效消息异常", node, name);
+				LOGGER.error(error, exception);
+			}
+		}
+	}
+
+	/**
+	 * 获取节点
+	 *
+	 * @return
+	 */
+	String getNode() {
+		return node;
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.jstarcraft.core.cache;
+
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 缓存锁管理器
+ *
+ * <pre>
+ * 负责{@link EntityCacheManager}与{@link RegionCacheManager}的标识锁与索引锁
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ */
+interface CacheLockManager<K> {
+
+	/**
+	 * 锁定指定的键
+	 *
+	 * @param key
+	 * @return
+	 */
+	ReentrantLock lockKey(K key);
+
+	/**
+	 * 尝试锁定指定的键(不等待)
+	 *
+	 * @param key
+	 * @return 锁被其它线程持有时返回null
+	 */
+	ReentrantLock tryLockKey(K key);
+
+	/**
+	 * 解锁指定的键
+	 *
+	 * @param key
+	 * @param lock
+	 */
+	void unlockKey(K key, ReentrantLock lock);
+
+	/**
+	 * 按照统一的顺序锁定指定的键集合(防止死锁)
+	 *
+	 * @param keys
+	 * @return
+	 */
+	List<ReentrantLock> lockKeys(SortedSet<K> keys);
+
+	/**
+	 * 解锁指定的键集合
+	 *
+	 * @param keys
+	 * @param locks
+	 */
+	void unlockKeys(SortedSet<K> keys, List<ReentrantLock> locks);
+
+	/**
+	 * 根据条纹数量获取锁管理器
+	 *
+	 * @param stripes
+	 *            条纹数量(0表示每个键独立锁)
+	 * @return
+	 */
+	static <K> CacheLockManager<K> instanceOf(int stripes) {
+		if (stripes == 0) {
+			return new MapLockManager<>();
+		} else {
+			return new StripeLockManager<>(stripes);
+		}
+	}
+
+}
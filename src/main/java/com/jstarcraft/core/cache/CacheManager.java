@@ -24,4 +24,11 @@ public interface CacheManager<K extends Comparable, T extends CacheObject<K>> {
 	 */
 	Map<String, Integer> getIndexesCount();
 
+	/**
+	 * 获取缓存指标
+	 * 
+	 * @return
+	 */
+	CacheMetrics getMetrics();
+
 }
@@ -0,0 +1,255 @@
+package com.jstarcraft.core.cache;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存指标
+ * 
+ * <pre>
+ * 每个缓存管理器拥有一个,统计命中,加载,创建,索引,锁等待与查询持久层的延迟.
+ * 使用{@link LongAdder}条纹计数,记录不需要分配对象,也不会在多个线程之间竞争同一个计数器.
+ * 读取是各个计数器的近似快照.
+ * </pre>
+ * 
+ * @author Birdy
+ */
+public class CacheMetrics implements CacheMetricsMonitor {
+
+	/** 延迟直方图的桶数量(最后一个桶约为2^31微秒以上) */
+	public static final int BUCKET_SIZE = 32;
+
+	/** 缓存类型名称 */
+	private final String name;
+	/** 内存命中 */
+	private final LongAdder hitCount = new LongAdder();
+	/** 内存未命中 */
+	private final LongAdder missCount = new LongAdder();
+	/** 加载 */
+	private final LongAdder loadCount = new LongAdder();
+	/** 创建 */
+	private final LongAdder createCount = new LongAdder();
+	/** 索引命中 */
+	private final LongAdder indexHitCount = new LongAdder();
+	/** 索引加载 */
+	private final LongAdder indexLoadCount = new LongAdder();
+	/** 缺失命中 */
+	private final LongAdder absenceHitCount = new LongAdder();
+	/** 加锁 */
+	private final LongAdder lockCount = new LongAdder();
+	/** 加锁等待时间 */
+	private final LongAdder lockWaitTime = new LongAdder();
+	/** 查询持久层 */
+	private final LongAdder fetchCount = new LongAdder();
+	/** 查询持久层时间 */
+	private final LongAdder fetchTime = new LongAdder();
+	/** 查询持久层延迟直方图 */
+	private final LongAdder[] fetchHistogram = new LongAdder[BUCKET_SIZE];
+	/** 刷新 */
+	private final LongAdder refreshCount = new LongAdder();
+	/** 刷新失败 */
+	private final LongAdder refreshFailureCount = new LongAdder();
+	/** 刷新延迟时间 */
+	private final LongAdder refreshLagTime = new LongAdder();
+	/** 最大刷新延迟 */
+	private final LongAccumulator refreshMaximumLag = new LongAccumulator(Math::max, 0L);
+
+	CacheMetrics(String name) {
+		this.name = name;
+		for (int index = 0; index < BUCKET_SIZE; index++) {
+			fetchHistogram[index] = new LongAdder();
+		}
+	}
+
+	void recordHit() {
+		hitCount.increment();
+	}
+
+	void recordMiss() {
+		missCount.increment();
+	}
+
+	void recordLoad(int count) {
+		loadCount.add(count);
+	}
+
+	void recordCreate() {
+		createCount.increment();
+	}
+
+	void recordIndexHit() {
+		indexHitCount.increment();
+	}
+
+	void recordIndexLoad() {
+		indexLoadCount.increment();
+	}
+
+	void recordAbsenceHit() {
+		absenceHitCount.increment();
+	}
+
+	/**
+	 * 记录加锁等待
+	 * 
+	 * @param begin
+	 *            开始加锁的{@link System#nanoTime()}
+	 */
+	void recordLock(long begin) {
+		lockCount.increment();
+		lockWaitTime.add(System.nanoTime() - begin);
+	}
+
+	/**
+	 * 记录查询持久层
+	 * 
+	 * @param begin
+	 *            开始查询的{@link System#nanoTime()}
+	 */
+	void recordFetch(long begin) {
+		long time = System.nanoTime() - begin;
+		fetchCount.increment();
+		fetchTime.add(time);
+		long micros = time / 1000L;
+		int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_SIZE - 1);
+		fetchHistogram[bucket].increment();
+	}
+
+	/**
+	 * 记录刷新
+	 * 
+	 * @param lag
+	 *            到期至刷新完成的时间(毫秒)
+	 */
+	void recordRefresh(long lag) {
+		lag = Math.max(lag, 0L);
+		refreshCount.increment();
+		refreshLagTime.add(lag);
+		refreshMaximumLag.accumulate(lag);
+	}
+
+	void recordRefreshFailure() {
+		refreshFailureCount.increment();
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	@Override
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	@Override
+	public double getHitRatio() {
+		long hit = hitCount.sum();
+		long total = hit + missCount.sum();
+		return total == 0L ? 0D : hit * 1D / total;
+	}
+
+	@Override
+	public long getLoadCount() {
+		return loadCount.sum();
+	}
+
+	@Override
+	public long getCreateCount() {
+		return createCount.sum();
+	}
+
+	@Override
+	public long getIndexHitCount() {
+		return indexHitCount.sum();
+	}
+
+	@Override
+	public long getIndexLoadCount() {
+		return indexLoadCount.sum();
+	}
+
+	@Override
+	public long getAbsenceHitCount() {
+		return absenceHitCount.sum();
+	}
+
+	@Override
+	public long getLockCount() {
+		return lockCount.sum();
+	}
+
+	@Override
+	public long getLockWaitTime() {
+		return lockWaitTime.sum();
+	}
+
+	@Override
+	public long getFetchCount() {
+		return fetchCount.sum();
+	}
+
+	@Override
+	public long getFetchTime() {
+		return fetchTime.sum();
+	}
+
+	@Override
+	public long[] getFetchHistogram() {
+		long[] histogram = new long[BUCKET_SIZE];
+		for (int index = 0; index < BUCKET_SIZE; index++) {
+			histogram[index] = fetchHistogram[index].sum();
+		}
+		return histogram;
+	}
+
+	@Override
+	public long getFetchPercentile(double percentile) {
+		if (percentile <= 0D || percentile > 1D) {
+			throw new IllegalArgumentException();
+		}
+		long[] histogram = getFetchHistogram();
+		long total = 0L;
+		for (long count : histogram) {
+			total += count;
+		}
+		if (total == 0L) {
+			return 0L;
+		}
+		long threshold = (long) Math.ceil(total * percentile);
+		long count = 0L;
+		for (int index = 0; index < BUCKET_SIZE; index++) {
+			count += histogram[index];
+			if (count >= threshold) {
+				return 1L << index;
+			}
+		}
+		return 1L << (BUCKET_SIZE - 1);
+	}
+
+	@Override
+	public long getRefreshCount() {
+		return refreshCount.sum();
+	}
+
+	@Override
+	public long getRefreshFailureCount() {
+		return refreshFailureCount.sum();
+	}
+
+	@Override
+	public long getRefreshLagTime() {
+		return refreshLagTime.sum();
+	}
+
+	@Override
+	public long getRefreshMaximumLag() {
+		return refreshMaximumLag.get();
+	}
+
+}
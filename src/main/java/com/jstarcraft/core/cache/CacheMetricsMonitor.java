@@ -0,0 +1,156 @@
+package com.jstarcraft.core.cache;
+
+import javax.management.MXBean;
+
+/**
+ * 缓存指标监控器(JMX)
+ * 
+ * @author Birdy
+ */
+@MXBean
+public interface CacheMetricsMonitor {
+
+	/**
+	 * 获取缓存类型名称
+	 * 
+	 * @return
+	 */
+	String getName();
+
+	/**
+	 * 获取内存命中次数
+	 * 
+	 * @return
+	 */
+	long getHitCount();
+
+	/**
+	 * 获取内存未命中次数
+	 * 
+	 * @return
+	 */
+	long getMissCount();
+
+	/**
+	 * 获取内存命中率
+	 * 
+	 * @return
+	 */
+	double getHitRatio();
+
+	/**
+	 * 获取从堆外或者持久层加载的实例数量
+	 * 
+	 * @return
+	 */
+	long getLoadCount();
+
+	/**
+	 * 获取使用工厂创建的实例数量
+	 * 
+	 * @return
+	 */
+	long getCreateCount();
+
+	/**
+	 * 获取索引命中次数
+	 * 
+	 * @return
+	 */
+	long getIndexHitCount();
+
+	/**
+	 * 获取索引加载次数
+	 * 
+	 * @return
+	 */
+	long getIndexLoadCount();
+
+	/**
+	 * 获取缺失命中次数(即节省的持久层查询次数)
+	 * 
+	 * @return
+	 */
+	long getAbsenceHitCount();
+
+	/**
+	 * 获取加锁次数
+	 * 
+	 * @return
+	 */
+	long getLockCount();
+
+	/**
+	 * 获取加锁等待的总时间(纳秒)
+	 * 
+	 * @return
+	 */
+	long getLockWaitTime();
+
+	/**
+	 * 获取查询持久层的次数
+	 * 
+	 * @return
+	 */
+	long getFetchCount();
+
+	/**
+	 * 获取查询持久层的总时间(纳秒)
+	 * 
+	 * @return
+	 */
+	long getFetchTime();
+
+	/**
+	 * 获取查询持久层的延迟直方图
+	 * 
+	 * <pre>
+	 * 第i个桶为延迟小于2^i微秒(并且不小于2^(i-1)微秒)的次数,最后一个桶包含所有更大的延迟.
+	 * </pre>
+	 * 
+	 * @return
+	 */
+	long[] getFetchHistogram();
+
+	/**
+	 * 获取查询持久层的延迟百分位(微秒,所在桶的上限)
+	 * 
+	 * @param percentile
+	 *            (0,1]
+	 * @return
+	 */
+	long getFetchPercentile(double percentile);
+
+	/**
+	 * 获取后台刷新的次数
+	 * 
+	 * @return
+	 */
+	long getRefreshCount();
+
+	/**
+	 * 获取后台刷新失败(异常或者被拒绝)的次数
+	 * 
+	 * @return
+	 */
+	long getRefreshFailureCount();
+
+	/**
+	 * 获取刷新延迟的总时间(毫秒)
+	 * 
+	 * <pre>
+	 * 刷新延迟为实例到期至刷新完成的时间,即旧的实例在到期以后继续被使用的时间.
+	 * </pre>
+	 * 
+	 * @return
+	 */
+	long getRefreshLagTime();
+
+	/**
+	 * 获取最大的刷新延迟(毫秒)
+	 * 
+	 * @return
+	 */
+	long getRefreshMaximumLag();
+
+}
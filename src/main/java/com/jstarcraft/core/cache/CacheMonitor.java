@@ -23,4 +23,11 @@ public interface CacheMonitor {
 	 */
 	Map<String, Map<String, Integer>> getIndexesCounts();
 
+	/**
+	 * 获取缓存内存命中率(详细指标见{@link CacheMetricsMonitor})
+	 * 
+	 * @return
+	 */
+	Map<String, Double> getHitRatios();
+
 }
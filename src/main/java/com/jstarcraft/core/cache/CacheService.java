@@ -1,11 +1,30 @@
 package com.jstarcraft.core.cache;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,17 +32,25 @@ import com.jstarcraft.core.cache.annotation.CacheConfiguration;
 import com.jstarcraft.core.cache.annotation.CacheConfiguration.Unit;
 import com.jstarcraft.core.cache.exception.CacheConfigurationException;
 import com.jstarcraft.core.cache.exception.CacheException;
+import com.jstarcraft.core.cache.invalidation.InvalidationChannel;
 import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceManager;
+import com.jstarcraft.core.cache.persistence.PersistenceMonitor;
 import com.jstarcraft.core.cache.persistence.PersistenceStrategy;
 import com.jstarcraft.core.cache.persistence.PromptPersistenceStrategy;
 import com.jstarcraft.core.cache.persistence.QueuePersistenceStrategy;
 import com.jstarcraft.core.cache.persistence.SchedulePersistenceStrategy;
 import com.jstarcraft.core.cache.transience.DelayedTransienceStrategy;
 import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TinyLeastFrequentlyUsedTransienceStrategy;
 import com.jstarcraft.core.cache.transience.TransienceConfiguration;
 import com.jstarcraft.core.cache.transience.TransienceStrategy;
 import com.jstarcraft.core.cache.transience.UserDefinedTransienceStrategy;
+import com.jstarcraft.core.codec.specification.CodecDefinition;
 import com.jstarcraft.core.orm.OrmAccessor;
+import com.jstarcraft.core.orm.OrmPagination;
+import com.jstarcraft.core.utility.NameThreadFactory;
+import com.jstarcraft.core.utility.StringUtility;
 
 /**
  * 缓存服务
@@ -35,6 +62,19 @@ public class CacheService implements CacheMonitor {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(CacheService.class);
 
+	/** 预加载批次大小 */
+	private static final int PRELOAD_BATCH_SIZE = 1000;
+	/** 预加载进度报告间隔 */
+	private static final int PRELOAD_REPORT_SIZE = 100000;
+	/** 异步加载队列大小 */
+	private static final int LOADER_QUEUE_SIZE = 10000;
+	/** 后台刷新队列大小 */
+	private static final int REFRESHER_QUEUE_SIZE = 1000;
+	/** 停止时等待加载与刷新线程池的时间(毫秒) */
+	private static final long TERMINATION_TIMEOUT = 10000L;
+	/** 缓存指标的JMX名称 */
+	private static final String METRICS_NAME = "com.jstarcraft.core.cache:type=CacheMetrics,name={}";
+
 	/** 访问器 */
 	private final OrmAccessor accessor;
 
@@ -54,14 +94,77 @@ public class CacheService implements CacheMonitor {
 	/** 区域缓存管理器 */
 	private final Map<Class<? extends CacheObject>, RegionCacheManager> regionManagers = new HashMap<>();
 
+	/** 异步加载线程池(有界队列,队列已满时拒绝,保证调用线程不会阻塞在持久层) */
+	private final ThreadPoolExecutor loader;
+	/** 后台刷新线程池(有界队列,队列已满时拒绝,实例在下次命中时重新提交) */
+	private final ThreadPoolExecutor refresher;
+
+	/** 失效器(没有配置失效通道时为null) */
+	private final CacheInvalidator invalidator;
+	/** 快照(没有配置快照文件时为null) */
+	private final CacheSnapshot snapshot;
+
+	/** 已经注册到JMX的缓存指标 */
+	private final List<ObjectName> metricsNames = new LinkedList<>();
+
 	/** 状态 */
 	private AtomicReference<CacheState> state = new AtomicReference<>(null);
 
 	public CacheService(Set<Class<CacheObject>> cacheClasses, OrmAccessor accessor, Map<String, TransienceConfiguration> transienceConfigurations, Map<String, PersistenceConfiguration> persistenceConfigurations) {
+		this(cacheClasses, accessor, transienceConfigurations, persistenceConfigurations, null, 0L);
+	}
+
+	/**
+	 * 构造带有失效通道的缓存服务
+	 * 
+	 * <pre>
+	 * 本节点持久成功的标识与索引每隔interval毫秒合并发布一次,其它节点收到以后从内存与索引中删除.
+	 * 失效器会占用持久管理器的监控器.
+	 * </pre>
+	 * 
+	 * @param cacheClasses
+	 * @param accessor
+	 * @param transienceConfigurations
+	 * @param persistenceConfigurations
+	 * @param channel
+	 *            失效通道(null表示不使用)
+	 * @param interval
+	 *            发布间隔(毫秒)
+	 */
+	public CacheService(Set<Class<CacheObject>> cacheClasses, OrmAccessor accessor, Map<String, TransienceConfiguration> transienceConfigurations, Map<String, PersistenceConfiguration> persistenceConfigurations, InvalidationChannel channel, long interval) {
+		this(cacheClasses, accessor, transienceConfigurations, persistenceConfigurations, channel, interval, null);
+	}
+
+	/**
+	 * 构造带有失效通道与快照的缓存服务
+	 * 
+	 * <pre>
+	 * 停止时把实体缓存写到快照文件,下次启动时恢复(参考{@link CacheSnapshot}),恢复的类型不再预加载.
+	 * </pre>
+	 * 
+	 * @param cacheClasses
+	 * @param accessor
+	 * @param transienceConfigurations
+	 * @param persistenceConfigurations
+	 * @param channel
+	 *            失效通道(null表示不使用)
+	 * @param interval
+	 *            发布间隔(毫秒)
+	 * @param snapshot
+	 *            快照文件(null表示不使用)
+	 */
+	public CacheService(Set<Class<CacheObject>> cacheClasses, OrmAccessor accessor, Map<String, TransienceConfiguration> transienceConfigurations, Map<String, PersistenceConfiguration> persistenceConfigurations, InvalidationChannel channel, long interval, File snapshot) {
 		if (cacheClasses == null || accessor == null) {
 			throw new IllegalArgumentException();
 		}
 		this.accessor = accessor;
+		this.invalidator = channel == null ? null : new CacheInvalidator(channel, interval);
+		this.snapshot = snapshot == null ? null : new CacheSnapshot(snapshot, accessor);
+		int threadSize = Runtime.getRuntime().availableProcessors() * 2;
+		this.loader = new ThreadPoolExecutor(threadSize, threadSize, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(LOADER_QUEUE_SIZE), new NameThreadFactory("缓存加载"), new ThreadPoolExecutor.AbortPolicy());
+		this.loader.allowCoreThreadTimeOut(true);
+		this.refresher = new ThreadPoolExecutor(threadSize / 2, threadSize / 2, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(REFRESHER_QUEUE_SIZE), new NameThreadFactory("缓存刷新"), new ThreadPoolExecutor.AbortPolicy());
+		this.refresher.allowCoreThreadTimeOut(true);
 		this.transienceConfigurations = new HashMap<>(transienceConfigurations);
 		this.persistenceConfigurations = new HashMap<>(persistenceConfigurations);
 		for (Class<? extends CacheObject> cacheClass : cacheClasses) {
@@ -81,6 +184,142 @@ public class CacheService implements CacheMonitor {
 		if (!state.compareAndSet(null, CacheState.STARTED)) {
 			throw new CacheConfigurationException();
 		}
+		if (invalidator != null) {
+			invalidator.start();
+		}
+		Set<Class<?>> restores = Collections.emptySet();
+		if (snapshot != null) {
+			restores = snapshot.read(getSnapshotDefinition(), (cacheClass) -> {
+				CacheInformation information = cacheInformations.get(cacheClass);
+				if (information == null || information.getCacheUnit() != Unit.ENTITY) {
+					return null;
+				}
+				return (EntityCacheManager) getEntityManager((Class) cacheClass);
+			});
+		}
+		for (CacheInformation information : cacheInformations.values()) {
+			if (restores.contains(information.getCacheClass())) {
+				continue;
+			}
+			if (information.getCacheConfiguration().preloadSize() > 0) {
+				preloadInstances(information);
+			}
+		}
+	}
+
+	/**
+	 * 预加载实例
+	 * 
+	 * <pre>
+	 * 当前线程通过{@link OrmAccessor#iterate}流式读取,按批次交给与处理器数量相同的线程并行缓存.
+	 * 读取的数量少于上限时说明已经加载所有实例,此时同时预加载索引.
+	 * </pre>
+	 * 
+	 * @param information
+	 */
+	private void preloadInstances(CacheInformation information) {
+		Class cacheClass = information.getCacheClass();
+		int preloadSize = information.getCacheConfiguration().preloadSize();
+		EntityCacheManager manager = (EntityCacheManager) getEntityManager(cacheClass);
+		// 索引名称 -> 索引值 -> 主键集合
+		Map<String, Map<Comparable, Collection<Comparable>>> indexes = new HashMap<>();
+		for (String name : information.getIndexNames()) {
+			indexes.put(name, new ConcurrentHashMap<>());
+		}
+		AtomicInteger count = new AtomicInteger();
+		long begin = System.currentTimeMillis();
+		int threadSize = Runtime.getRuntime().availableProcessors();
+		// 有界队列配合调用者执行,防止读取速度超过缓存速度
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threadSize, threadSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threadSize * 2), new NameThreadFactory("缓存预加载"), new ThreadPoolExecutor.CallerRunsPolicy());
+		List<Future<?>> futures = new LinkedList<>();
+		try {
+			List<CacheObject>[] batch = new List[] { new ArrayList<>(PRELOAD_BATCH_SIZE) };
+			accessor.iterate((object) -> {
+				batch[0].add((CacheObject) object);
+				if (batch[0].size() == PRELOAD_BATCH_SIZE) {
+					futures.add(executor.submit(new PreloadTask(information, manager, batch[0], indexes, count, begin)));
+					batch[0] = new ArrayList<>(PRELOAD_BATCH_SIZE);
+				}
+			}, cacheClass, OrmPagination.valueOf(1, preloadSize));
+			if (!batch[0].isEmpty()) {
+				futures.add(executor.submit(new PreloadTask(information, manager, batch[0], indexes, count, begin)));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (ExecutionException exception) {
+			String message = StringUtility.format("类型[{}]预加载异常", cacheClass.getName());
+			LOGGER.error(message, exception.getCause());
+			throw new CacheException(message, exception.getCause());
+		} catch (InterruptedException exception) {
+			String message = StringUtility.format("类型[{}]预加载中断", cacheClass.getName());
+			LOGGER.error(message, exception);
+			throw new CacheException(message, exception);
+		} finally {
+			executor.shutdownNow();
+		}
+		int size = count.get();
+		if (size < preloadSize) {
+			for (Entry<String, Map<Comparable, Collection<Comparable>>> keyValue : indexes.entrySet()) {
+				String name = keyValue.getKey();
+				for (Entry<Comparable, Collection<Comparable>> values : keyValue.getValue().entrySet()) {
+					manager.preloadIdentities(name, values.getKey(), values.getValue());
+				}
+			}
+		}
+		long time = System.currentTimeMillis() - begin;
+		String message = StringUtility.format("类型[{}]预加载完成,实例数量[{}],索引是否加载[{}],耗时[{}]毫秒,速度[{}]个/秒", cacheClass.getName(), size, size < preloadSize, time, size * 1000L / Math.max(time, 1L));
+		LOGGER.info(message);
+	}
+
+	/**
+	 * 预加载任务
+	 */
+	private static class PreloadTask implements Runnable {
+
+		private final CacheInformation information;
+
+		private final EntityCacheManager manager;
+
+		private final List<CacheObject> instances;
+
+		private final Map<String, Map<Comparable, Collection<Comparable>>> indexes;
+
+		private final AtomicInteger count;
+
+		private final long begin;
+
+		private PreloadTask(CacheInformation information, EntityCacheManager manager, List<CacheObject> instances, Map<String, Map<Comparable, Collection<Comparable>>> indexes, AtomicInteger count, long begin) {
+			this.information = information;
+			this.manager = manager;
+			this.instances = instances;
+			this.indexes = indexes;
+			this.count = count;
+			this.begin = begin;
+		}
+
+		@Override
+		public void run() {
+			manager.cacheInstances(instances);
+			Comparable[] values = new Comparable[information.getIndexSize()];
+			for (CacheObject instance : instances) {
+				information.getIndexValues(instance, values);
+				for (int ordinal = 0; ordinal < values.length; ordinal++) {
+					if (values[ordinal] == null) {
+						continue;
+					}
+					Collection<Comparable> identities = indexes.get(information.getIndexName(ordinal)).computeIfAbsent(values[ordinal], (value) -> ConcurrentHashMap.newKeySet());
+					identities.add(instance.getId());
+				}
+			}
+			int size = count.addAndGet(instances.size());
+			if (size / PRELOAD_REPORT_SIZE != (size - instances.size()) / PRELOAD_REPORT_SIZE) {
+				long time = System.currentTimeMillis() - begin;
+				String message = StringUtility.format("类型[{}]预加载进度,实例数量[{}],耗时[{}]毫秒,速度[{}]个/秒", information.getCacheClass().getName(), size, time, size * 1000L / Math.max(time, 1L));
+				LOGGER.info(message);
+			}
+		}
+
 	}
 
 	/**
@@ -90,9 +329,88 @@ public class CacheService implements CacheMonitor {
 		if (!state.compareAndSet(CacheState.STARTED, CacheState.STOPPED)) {
 			throw new CacheConfigurationException();
 		}
+		// 先停止加载与刷新,保证持久策略与失效器停止以后不会再有任务修改缓存
+		loader.shutdown();
+		refresher.shutdown();
+		terminate(loader);
+		terminate(refresher);
 		for (PersistenceStrategy strategy : persistenceStrategies.values()) {
 			strategy.stop();
 		}
+		if (invalidator != null) {
+			invalidator.stop();
+		}
+		if (snapshot != null) {
+			snapshot.write(getSnapshotDefinition(), entityManagers.values());
+		}
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		synchronized (metricsNames) {
+			for (ObjectName name : metricsNames) {
+				try {
+					server.unregisterMBean(name);
+				} catch (Exception exception) {
+					String message = StringUtility.format("注销缓存指标[{}]异常", name);
+					LOGGER.error(message, exception);
+				}
+			}
+			metricsNames.clear();
+		}
+	}
+
+	/**
+	 * 等待线程池终止
+	 * 
+	 * @param executor
+	 */
+	private void terminate(ThreadPoolExecutor executor) {
+		try {
+			if (!executor.awaitTermination(TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				String message = StringUtility.format("缓存服务停止时线程池[{}]仍然有[{}]个任务未完成", executor, executor.getActiveCount() + executor.getQueue().size());
+				LOGGER.error(message);
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 获取快照的编解码定义(所有实体缓存类型)
+	 * 
+	 * @return
+	 */
+	private CodecDefinition getSnapshotDefinition() {
+		Collection<Type> types = new ArrayList<>();
+		for (CacheInformation information : cacheInformations.values()) {
+			if (information.getCacheUnit() == Unit.ENTITY) {
+				types.add(information.getCacheClass());
+			}
+		}
+		return CodecDefinition.instanceOf(types);
+	}
+
+	/**
+	 * 注册缓存指标到JMX
+	 * 
+	 * <pre>
+	 * 同一个JVM中多个缓存服务管理同一个类型时,只有第一个注册成功.
+	 * </pre>
+	 * 
+	 * @param metrics
+	 */
+	private void registerMetrics(CacheMetrics metrics) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			ObjectName name = new ObjectName(StringUtility.format(METRICS_NAME, metrics.getName()));
+			server.registerMBean(metrics, name);
+			synchronized (metricsNames) {
+				metricsNames.add(name);
+			}
+		} catch (InstanceAlreadyExistsException exception) {
+			LOGGER.warn("缓存指标[{}]已经注册", metrics.getName());
+		} catch (Exception exception) {
+			String message = StringUtility.format("注册缓存指标[{}]异常", metrics.getName());
+			LOGGER.error(message, exception);
+		}
 	}
 
 	/**
@@ -126,11 +444,27 @@ public class CacheService implements CacheMonitor {
 		CacheConfiguration configuration = information.getCacheConfiguration();
 		TransienceStrategy transienceStrategy = getTransienceStrategy(configuration.transienceStrategy());
 		PersistenceStrategy persistenceStrategy = getPersistenceStrategy(configuration.persistenceStrategy());
-		manager = new EntityCacheManager(information, transienceStrategy, persistenceStrategy);
+		manager = new EntityCacheManager(information, transienceStrategy, persistenceStrategy, loader, refresher);
+		if (invalidator != null) {
+			invalidator.register(information, manager::invalidateInstances);
+			monitor(persistenceStrategy.getPersistenceManager(cacheClass), invalidator.getMonitor(information));
+		}
 		entityManagers.put(information.getCacheClass(), manager);
+		registerMetrics(manager.getMetrics());
 		return manager;
 	}
 
+	/**
+	 * 为持久管理器增加监听器(保留已经存在的监听器)
+	 * 
+	 * @param manager
+	 * @param monitor
+	 */
+	private void monitor(PersistenceManager manager, PersistenceMonitor monitor) {
+		PersistenceMonitor current = manager.getMonitor();
+		manager.setMonitor(current == null ? monitor : current.andThen(monitor));
+	}
+
 	/**
 	 * 获取指定的区域缓存管理器
 	 * 
@@ -156,10 +490,29 @@ public class CacheService implements CacheMonitor {
 		TransienceStrategy transienceStrategy = getTransienceStrategy(configuration.transienceStrategy());
 		PersistenceStrategy persistenceStrategy = getPersistenceStrategy(configuration.persistenceStrategy());
 		manager = new RegionCacheManager(information, transienceStrategy, persistenceStrategy);
+		if (invalidator != null) {
+			invalidator.register(information, manager::invalidateInstances);
+			monitor(persistenceStrategy.getPersistenceManager(cacheClass), invalidator.getMonitor(information));
+		}
 		regionManagers.put(information.getCacheClass(), manager);
+		registerMetrics(manager.getMetrics());
 		return manager;
 	}
 
+	/**
+	 * 获取指定类型的缓存指标
+	 * 
+	 * @param cacheClass
+	 * @return 缓存管理器尚未创建时返回null
+	 */
+	public CacheMetrics getMetrics(Class<? extends CacheObject> cacheClass) {
+		CacheManager manager = entityManagers.get(cacheClass);
+		if (manager == null) {
+			manager = regionManagers.get(cacheClass);
+		}
+		return manager == null ? null : manager.getMetrics();
+	}
+
 	/**
 	 * 获取访问器
 	 * 
@@ -186,6 +539,9 @@ public class CacheService implements CacheMonitor {
 		case LEAST_RECENTLY_UESED:
 			result = new LeastRecentlyUesedTransienceStrategy();
 			break;
+		case TINY_LEAST_FREQUENTLY_USED:
+			result = new TinyLeastFrequentlyUsedTransienceStrategy();
+			break;
 		case USER_DEFINED:
 			result = new UserDefinedTransienceStrategy();
 			break;
@@ -252,4 +608,16 @@ public class CacheService implements CacheMonitor {
 		}
 		return result;
 	}
+
+	@Override
+	public Map<String, Double> getHitRatios() {
+		Map<String, Double> result = new HashMap<String, Double>();
+		for (Entry<Class<? extends CacheObject>, EntityCacheManager> keyValue : entityManagers.entrySet()) {
+			result.put(keyValue.getKey().getName(), keyValue.getValue().getMetrics().getHitRatio());
+		}
+		for (Entry<Class<? extends CacheObject>, RegionCacheManager> keyValue : regionManagers.entrySet()) {
+			result.put(keyValue.getKey().getName(), keyValue.getValue().getMetrics().getHitRatio());
+		}
+		return result;
+	}
 }
@@ -0,0 +1,334 @@
+package com.jstarcraft.core.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jstarcraft.core.codec.ContentCodec;
+import com.jstarcraft.core.codec.ProtocolContentCodec;
+import com.jstarcraft.core.codec.specification.CodecDefinition;
+import com.jstarcraft.core.orm.OrmAccessor;
+import com.jstarcraft.core.utility.StringUtility;
+
+/**
+ * 缓存快照
+ *
+ * <pre>
+ * 停止时把实体缓存的内存实例与索引主键集合写到文件,启动时通过内存映射读取并恢复,避免重启以后从持久层重建缓存.
+ * 实例,索引值与主键集合使用{@link ProtocolContentCodec}编码.
+ * 一致性:
+ * 1.只有持久层没有等待与异常的类型才会写入;
+ * 2.每个类型记录写入时持久层的数量作为高水位,读取时数量不一致的类型丢弃;
+ * 3.编解码定义不一致(类型结构变化)时整个快照丢弃;
+ * 4.快照读取以后立即删除,只能用于紧接着的一次启动,中途崩溃以后不会使用过期的快照.
+ * 停机期间绕过缓存的修改(数量不变)无法发现,此时不应该使用快照.
+ * 单个内存映射不能超过2GB,所以按照窗口分段映射读取,快照的大小不受限制.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+class CacheSnapshot {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CacheSnapshot.class);
+
+	/** 魔数 */
+	private static final int MAGIC = 0x4A534353;
+	/** 版本 */
+	private static final int VERSION = 1;
+	/** 结束标记 */
+	private static final int END = -1;
+	/** 恢复批次大小 */
+	private static final int BATCH_SIZE = 1000;
+	/** 映射窗口大小 */
+	private static final int WINDOW_SIZE = 256 * 1024 * 1024;
+
+	/** 文件 */
+	private final File file;
+	/** 访问器 */
+	private final OrmAccessor accessor;
+
+	CacheSnapshot(File file, OrmAccessor accessor) {
+		this.file = file;
+		this.accessor = accessor;
+	}
+
+	private static void writeString(DataOutputStream stream, String string) throws Exception {
+		byte[] data = string.getBytes(StringUtility.CHARSET);
+		stream.writeInt(data.length);
+		stream.write(data);
+	}
+
+	private static void writeBytes(DataOutputStream stream, byte[] data) throws Exception {
+		stream.writeInt(data.length);
+		stream.write(data);
+	}
+
+	private static String readString(Window window) throws IOException {
+		return new String(readBytes(window), StringUtility.CHARSET);
+	}
+
+	private static byte[] readBytes(Window window) throws IOException {
+		return window.getBytes(window.getInt());
+	}
+
+	private static void skipBytes(Window window) throws IOException {
+		window.skip(window.getInt());
+	}
+
+	/**
+	 * 映射窗口
+	 * 
+	 * <pre>
+	 * 每次映射文件的一个窗口,读取跨越窗口时从当前位置重新映射(窗口至少能够容纳本次读取的数据).
+	 * </pre>
+	 * 
+	 * @author Birdy
+	 */
+	private static class Window {
+
+		/** 文件通道 */
+		private final FileChannel channel;
+		/** 文件大小 */
+		private final long size;
+		/** 窗口在文件中的位置 */
+		private long offset;
+		/** 映射 */
+		private MappedByteBuffer buffer;
+
+		private Window(FileChannel channel) throws IOException {
+			this.channel = channel;
+			this.size = channel.size();
+			map(0L, 0);
+		}
+
+		private void map(long position, int length) throws IOException {
+			if (position + length > size) {
+				throw new EOFException();
+			}
+			offset = position;
+			buffer = channel.map(MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_SIZE, length), size - position));
+		}
+
+		private void require(int length) throws IOException {
+			if (buffer.remaining() < length) {
+				map(offset + buffer.position(), length);
+			}
+		}
+
+		private int getInt() throws IOException {
+			require(Integer.BYTES);
+			return buffer.getInt();
+		}
+
+		private long getLong() throws IOException {
+			require(Long.BYTES);
+			return buffer.getLong();
+		}
+
+		private byte[] getBytes(int length) throws IOException {
+			require(length);
+			byte[] data = new byte[length];
+			buffer.get(data);
+			return data;
+		}
+
+		private void skip(int length) throws IOException {
+			if (buffer.remaining() < length) {
+				map(offset + buffer.position() + length, 0);
+			} else {
+				buffer.position(buffer.position() + length);
+			}
+		}
+
+	}
+
+	/**
+	 * 写入快照
+	 *
+	 * @param definition
+	 * @param managers
+	 */
+	void write(CodecDefinition definition, Collection<EntityCacheManager> managers) {
+		List<EntityCacheManager> snapshots = new ArrayList<>(managers.size());
+		for (EntityCacheManager manager : managers) {
+			if (manager.isPersisted()) {
+				snapshots.add(manager);
+			} else {
+				LOGGER.warn("类型[{}]存在未持久或者持久异常的实例,不写入快照", manager.getCacheClass().getName());
+			}
+		}
+		ContentCodec codec = new ProtocolContentCodec(definition);
+		File temporary = new File(file.getPath() + ".tmp");
+		long begin = System.currentTimeMillis();
+		try {
+			if (file.getParentFile() != null) {
+				file.getParentFile().mkdirs();
+			}
+			try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+				stream.writeInt(MAGIC);
+				stream.writeInt(VERSION);
+				writeBytes(stream, CodecDefinition.toBytes(definition));
+				stream.writeInt(snapshots.size());
+				for (EntityCacheManager manager : snapshots) {
+					Class<? extends CacheObject> cacheClass = manager.getCacheClass();
+					Class<?> idClass = manager.getCacheInformation().getIdClass();
+					Class<?> idsClass = Array.newInstance(idClass, 0).getClass();
+					writeString(stream, cacheClass.getName());
+					stream.writeLong(accessor.count(cacheClass));
+					Exception[] exceptions = new Exception[1];
+					manager.iterateInstances((instance) -> {
+						if (exceptions[0] != null) {
+							return;
+						}
+						try {
+							writeBytes(stream, codec.encode(cacheClass, instance));
+						} catch (Exception exception) {
+							exceptions[0] = exception;
+						}
+					});
+					stream.writeInt(END);
+					manager.iterateIdentities((key, values) -> {
+						if (exceptions[0] != null) {
+							return;
+						}
+						CacheIndex index = (CacheIndex) key;
+						Collection<?> identities = (Collection<?>) values;
+						try {
+							Object value = index.getValue();
+							writeString(stream, index.getName());
+							writeString(stream, value.getClass().getName());
+							writeBytes(stream, codec.encode(value.getClass(), value));
+							Object[] ids = identities.toArray((Object[]) Array.newInstance(idClass, identities.size()));
+							writeBytes(stream, codec.encode(idsClass, ids));
+						} catch (Exception exception) {
+							exceptions[0] = exception;
+						}
+					});
+					stream.writeInt(END);
+					if (exceptions[0] != null) {
+						throw exceptions[0];
+					}
+				}
+			}
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			LOGGER.info("写入缓存快照[{}]完成,类型数量[{}],耗时[{}]毫秒", file.getPath(), snapshots.size(), System.currentTimeMillis() - begin);
+		} catch (Exception exception) {
+			temporary.delete();
+			String message = StringUtility.format("写入缓存快照[{}]异常", file.getPath());
+			LOGGER.error(message, exception);
+		}
+	}
+
+	/**
+	 * 读取快照(读取以后删除)
+	 *
+	 * @param definition
+	 * @param managers
+	 *            类型 -> 实体缓存管理器(不是实体缓存时返回null)
+	 * @return 已经恢复的类型
+	 */
+	Set<Class<?>> read(CodecDefinition definition, Function<Class<?>, EntityCacheManager> managers) {
+		Set<Class<?>> restores = new HashSet<>();
+		if (!file.exists()) {
+			return restores;
+		}
+		ContentCodec codec = new ProtocolContentCodec(definition);
+		long begin = System.currentTimeMillis();
+		Class<?> current = null;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			Window window = new Window(channel);
+			if (window.getInt() != MAGIC || window.getInt() != VERSION) {
+				LOGGER.warn("缓存快照[{}]格式不一致,丢弃", file.getPath());
+				return restores;
+			}
+			if (!definition.equals(CodecDefinition.fromBytes(readBytes(window)))) {
+				LOGGER.warn("缓存快照[{}]的编解码定义不一致,丢弃", file.getPath());
+				return restores;
+			}
+			int size = window.getInt();
+			for (int index = 0; index < size; index++) {
+				String name = readString(window);
+				long count = window.getLong();
+				Class<?> cacheClass = Class.forName(name);
+				EntityCacheManager manager = managers.apply(cacheClass);
+				boolean valid = manager != null;
+				if (valid && accessor.count((Class) cacheClass) != count) {
+					LOGGER.warn("类型[{}]的持久数量与缓存快照不一致,丢弃", name);
+					valid = false;
+				}
+				current = valid ? cacheClass : null;
+				List<CacheObject> instances = new ArrayList<>(BATCH_SIZE);
+				int length;
+				while ((length = window.getInt()) != END) {
+					if (!valid) {
+						window.skip(length);
+						continue;
+					}
+					byte[] data = window.getBytes(length);
+					instances.add((CacheObject) codec.decode(cacheClass, data));
+					if (instances.size() == BATCH_SIZE) {
+						manager.cacheInstances(instances);
+						instances = new ArrayList<>(BATCH_SIZE);
+					}
+				}
+				if (!instances.isEmpty()) {
+					manager.cacheInstances(instances);
+				}
+				Type idsClass = valid ? Array.newInstance(manager.getCacheInformation().getIdClass(), 0).getClass() : null;
+				while ((length = window.getInt()) != END) {
+					if (!valid) {
+						window.skip(length);
+						skipBytes(window);
+						skipBytes(window);
+						skipBytes(window);
+						continue;
+					}
+					byte[] data = window.getBytes(length);
+					String indexName = new String(data, StringUtility.CHARSET);
+					Class<?> valueClass = Class.forName(readString(window));
+					Comparable value = (Comparable) codec.decode(valueClass, readBytes(window));
+					Object[] ids = (Object[]) codec.decode(idsClass, readBytes(window));
+					manager.preloadIdentities(indexName, value, Arrays.asList(ids));
+				}
+				if (valid) {
+					restores.add(cacheClass);
+				}
+				current = null;
+			}
+			LOGGER.info("读取缓存快照[{}]完成,恢复类型数量[{}],耗时[{}]毫秒", file.getPath(), restores.size(), System.currentTimeMillis() - begin);
+		} catch (Exception exception) {
+			// 已经恢复的部分仍然有效,未完成的类型由预加载或者按需加载补充
+			String message = StringUtility.format("读取缓存快照[{}]的类型[{}]异常", file.getPath(), current == null ? null : current.getName());
+			LOGGER.error(message, exception);
+		} finally {
+			if (!file.delete()) {
+				LOGGER.error("删除缓存快照[{}]失败", file.getPath());
+			}
+		}
+		return restores;
+	}
+
+}
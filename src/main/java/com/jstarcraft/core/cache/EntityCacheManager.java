@@ -1,27 +1,49 @@
 package com.jstarcraft.core.cache;
 
 import java.io.Serializable;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap.Builder;
+import com.jstarcraft.core.cache.exception.CacheConfigurationException;
 import com.jstarcraft.core.cache.exception.CacheException;
 import com.jstarcraft.core.cache.exception.CacheIdentityException;
 import com.jstarcraft.core.cache.persistence.PersistenceManager;
 import com.jstarcraft.core.cache.persistence.PersistenceStrategy;
 import com.jstarcraft.core.cache.proxy.JavassistEntityProxy;
+import com.jstarcraft.core.cache.proxy.ProxyObject;
 import com.jstarcraft.core.cache.proxy.ProxyTransformer;
+import com.jstarcraft.core.cache.transience.OffHeapTransienceManager;
 import com.jstarcraft.core.cache.transience.TransienceManager;
+import com.jstarcraft.core.cache.transience.TransienceMonitor;
 import com.jstarcraft.core.cache.transience.TransienceStrategy;
+import com.jstarcraft.core.codec.ContentCodec;
+import com.jstarcraft.core.codec.ProtocolContentCodec;
+import com.jstarcraft.core.codec.specification.CodecDefinition;
+import com.jstarcraft.core.utility.ReflectionUtility;
+import com.jstarcraft.core.utility.StringUtility;
 
 /**
  * 实体缓存管理器
@@ -48,6 +70,8 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 
 	/** 内存 */
 	private TransienceManager<K, T> transience;
+	/** 堆外(可选的二级缓存,保存被内存淘汰的实例) */
+	private TransienceManager<K, T> secondary;
 	/** 持久 */
 	private PersistenceManager<K, T> persistence;
 	/**
@@ -60,17 +84,81 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 	private Map<String, TransienceManager<Object, Collection<K>>> indexes;
 
 	/** 标识锁 */
-	private Map<K, ReentrantLock> idLocks = new ConcurrentHashMap<K, ReentrantLock>();
+	private CacheLockManager<K> idLocks;
 	/** 索引锁 */
-	private Map<CacheIndex, ReentrantLock> indexLocks = new ConcurrentHashMap<>();
+	private CacheLockManager<CacheIndex> indexLocks;
+	/** 指标 */
+	private CacheMetrics metrics;
+	/** 缺失(可选,key:持久层不存在的标识, value:过期时间点) */
+	private ConcurrentLinkedHashMap<K, Long> absences;
+	/** 缺失过期时间(毫秒) */
+	private long absenceExpire;
+	/** 异步加载线程池 */
+	private Executor loader;
+	/** 正在异步获取的实例 */
+	private final ConcurrentHashMap<K, CompletableFuture<T>> gettings = new ConcurrentHashMap<>();
+	/** 正在异步加载的实例 */
+	private final ConcurrentHashMap<K, CompletableFuture<T>> loadings = new ConcurrentHashMap<>();
+	/** 刷新间隔(毫秒) */
+	private long refreshInterval;
+	/** 刷新线程池 */
+	private Executor refresher;
+	/** 刷新时间(可选,key:标识, value:首次命中或者最后刷新的时间点) */
+	private ConcurrentHashMap<K, Long> refreshTimes;
+	/** 正在刷新的标识 */
+	private Set<K> refreshings;
+	/** 修改戳(可选,key:标识, value:最后修改的序号,刷新期间被修改的实例放弃刷新) */
+	private ConcurrentHashMap<K, Long> modifications;
+	/** 修改序号 */
+	private AtomicLong modificationSequence;
 
-	EntityCacheManager(final CacheInformation information, TransienceStrategy transienceStrategy, PersistenceStrategy persistenceStrategy) {
+	EntityCacheManager(final CacheInformation information, TransienceStrategy transienceStrategy, PersistenceStrategy persistenceStrategy, Executor loader, Executor refresher) {
+		long offHeapCapacity = information.getCacheConfiguration().offHeapCapacity();
+		if (offHeapCapacity > 0L) {
+			// 在其它初始化以前检查编解码,不支持时立即失败
+			ContentCodec codec;
+			try {
+				CodecDefinition definition = CodecDefinition.instanceOf(Collections.<Type>singleton(information.getCacheClass()));
+				codec = new ProtocolContentCodec(definition);
+			} catch (Exception exception) {
+				String message = StringUtility.format("类型[{}]不支持堆外缓存的编解码", information.getCacheClass().getName());
+				throw new CacheConfigurationException(message, exception);
+			}
+			this.secondary = new OffHeapTransienceManager<>((Class<T>) information.getCacheClass(), codec, offHeapCapacity);
+		}
+		this.loader = loader;
+		int refreshInterval = information.getCacheConfiguration().refreshInterval();
+		if (refreshInterval > 0) {
+			this.refreshInterval = refreshInterval * 1000L;
+			this.refresher = refresher;
+			this.refreshTimes = new ConcurrentHashMap<>();
+			this.refreshings = ConcurrentHashMap.newKeySet();
+			this.modifications = new ConcurrentHashMap<>();
+			this.modificationSequence = new AtomicLong();
+		}
 		this.cacheInformation = information;
 		this.cacheClass = (Class<T>) information.getCacheClass();
 		this.transienceStrategy = transienceStrategy;
 		this.persistenceStrategy = persistenceStrategy;
 		this.transformer = new JavassistEntityProxy(this, this.cacheInformation);
-		this.transience = this.transienceStrategy.getTransienceManager(null);
+		this.metrics = new CacheMetrics(cacheClass.getName());
+		if (secondary != null || refreshTimes != null) {
+			this.transience = this.transienceStrategy.getTransienceManager(information.getIdClass(), new TransienceMonitor() {
+
+				@Override
+				public void notifyExchanged(Object key, Object value) {
+					if (refreshTimes != null) {
+						removeRefresh((K) key);
+					}
+					if (secondary != null) {
+						exchangeInstance((K) key, (T) value);
+					}
+				}
+
+			});
+		} else {
+			this.transience = this.transienceStrategy.getTransienceManager(information.getIdClass(), null);
+		}
 		this.indexes = new ConcurrentHashMap<>();
 		Collection<String> indexNames = information.getIndexNames();
 		for (String name : indexNames) {
@@ -78,6 +166,250 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 			indexes.put(name, manager);
 		}
 		this.persistence = persistenceStrategy.getPersistenceManager(cacheClass);
+		int lockStripes = information.getCacheConfiguration().lockStripes();
+		this.idLocks = CacheLockManager.instanceOf(lockStripes);
+		this.indexLocks = CacheLockManager.instanceOf(lockStripes);
+		int absenceSize = information.getCacheConfiguration().absenceSize();
+		if (absenceSize > 0) {
+			Builder<K, Long> builder = new Builder<>();
+			builder.maximumWeightedCapacity(absenceSize);
+			this.absences = builder.build();
+			this.absenceExpire = information.getCacheConfiguration().absenceExpire() * 1000L;
+		}
+	}
+
+	/**
+	 * 是否已知在持久层缺失(必须在标识锁中执行)
+	 * 
+	 * @param id
+	 * @return
+	 */
+	private boolean isAbsent(K id) {
+		if (absences == null) {
+			return false;
+		}
+		Long expire = absences.get(id);
+		if (expire == null) {
+			return false;
+		}
+		if (expire < System.currentTimeMillis()) {
+			absences.remove(id, expire);
+			return false;
+		}
+		metrics.recordAbsenceHit();
+		return true;
+	}
+
+	/**
+	 * 记录持久层缺失的标识(必须在标识锁中执行)
+	 * 
+	 * @param id
+	 */
+	private void markAbsence(K id) {
+		if (absences != null) {
+			absences.put(id, System.currentTimeMillis() + absenceExpire);
+		}
+	}
+
+	/**
+	 * 清除持久层缺失的标识(必须在标识锁中执行)
+	 * 
+	 * @param id
+	 */
+	private void clearAbsence(K id) {
+		if (absences != null) {
+			absences.remove(id);
+		}
+	}
+
+	/**
+	 * 记录内存命中(超过刷新间隔的实例提交到后台刷新)
+	 * 
+	 * @param id
+	 */
+	private void recordHit(K id) {
+		metrics.recordHit();
+		if (refreshTimes == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Long time = refreshTimes.putIfAbsent(id, now);
+		if (time == null || now - time < refreshInterval || !refreshings.add(id)) {
+			return;
+		}
+		long expire = time + refreshInterval;
+		try {
+			refresher.execute(() -> {
+				refreshInstance(id, expire);
+			});
+		} catch (RejectedExecutionException exception) {
+			// 下次命中时重试
+			refreshings.remove(id);
+			metrics.recordRefreshFailure();
+		}
+	}
+
+	/**
+	 * 清除刷新状态
+	 * 
+	 * @param id
+	 */
+	private void removeRefresh(K id) {
+		refreshTimes.remove(id);
+		modifications.remove(id);
+	}
+
+	/**
+	 * 刷新实例
+	 * 
+	 * <pre>
+	 * 在锁外查询持久层,刷新完成以前继续返回旧的实例.
+	 * 查询以前记录实例与修改戳,在标识锁中比较,刷新期间被替换或者被本节点修改的实例放弃本次刷新.
+	 * 持久层返回本节点等待持久的对象时,同样放弃本次刷新.
+	 * 刷新把最新的状态复制到已经缓存的实例,调用者持有的实例仍然有效.
+	 * 代理方法在实例的监视器中修改实例与修改戳,刷新在同一个监视器中比较修改戳与复制状态,所以复制不会覆盖尚未记录的修改,读取也不会看到复制一半的状态.
+	 * </pre>
+	 * 
+	 * @param id
+	 * @param expire
+	 *            到期的时间点
+	 */
+	private void refreshInstance(K id, long expire) {
+		try {
+			T current = transience.retrieveInstance(id);
+			Long stamp = modifications.get(id);
+			long begin = System.nanoTime();
+			T instance = persistence.getInstance(id);
+			metrics.recordFetch(begin);
+			ReentrantLock lock = lockIdLock(id);
+			try {
+				T object = transience.retrieveInstance(id);
+				if (object == null) {
+					// 刷新期间已经被淘汰或者删除
+					removeRefresh(id);
+					return;
+				}
+				T source = object instanceof ProxyObject ? (T) ((ProxyObject) object).getInstance() : object;
+				synchronized (source) {
+					if (object != current || !Objects.equals(stamp, modifications.get(id)) || instance == source) {
+						// 下个间隔再刷新
+						refreshTimes.put(id, System.currentTimeMillis());
+						return;
+					}
+					Comparable[] olds = cacheInformation.getIndexValues(source);
+					Comparable[] news = instance == null ? null : cacheInformation.getIndexValues(instance);
+					for (int ordinal = 0; ordinal < olds.length; ordinal++) {
+						if (news != null && Objects.equals(olds[ordinal], news[ordinal])) {
+							continue;
+						}
+						// 索引值变化时旧的索引与新的索引同时失效
+						String name = cacheInformation.getIndexName(ordinal);
+						if (olds[ordinal] != null) {
+							invalidateIndex(new CacheIndex(name, olds[ordinal]));
+						}
+						if (news != null && news[ordinal] != null) {
+							invalidateIndex(new CacheIndex(name, news[ordinal]));
+						}
+					}
+					if (instance == null) {
+						// 已经被外部删除,下次访问时重新查询
+						transience.deleteInstance(id);
+						removeRefresh(id);
+					} else {
+						ReflectionUtility.shallowCopyFieldState(instance, source);
+						refreshTimes.put(id, System.currentTimeMillis());
+					}
+					metrics.recordRefresh(System.currentTimeMillis() - expire);
+				}
+			} finally {
+				unlockIdLock(id, lock);
+			}
+		} catch (Exception exception) {
+			metrics.recordRefreshFailure();
+			String message = StringUtility.format("类型[{}]的实例[{}]刷新异常", cacheClass.getName(), id);
+			LOGGER.error(message, exception);
+		} finally {
+			refreshings.remove(id);
+		}
+	}
+
+	/**
+	 * 把被内存淘汰的实例保存到堆外
+	 * 
+	 * <pre>
+	 * 在实例的监视器与标识锁中保存,与修改和取回互斥.
+	 * 淘汰可能发生在持有其它标识锁的线程中,所以只尝试加锁,加锁失败时放弃保存(堆外只是缓存).
+	 * </pre>
+	 * 
+	 * @param id
+	 * @param object
+	 */
+	private void exchangeInstance(K id, T object) {
+		if (object instanceof ProxyObject) {
+			object = (T) ((ProxyObject) object).getInstance();
+		}
+		synchronized (object) {
+			ReentrantLock lock = idLocks.tryLockKey(id);
+			if (lock == null) {
+				return;
+			}
+			try {
+				if (transience.retrieveInstance(id) != null) {
+					// 淘汰以后已经被重新加载
+					return;
+				}
+				secondary.createInstance(id, object);
+			} catch (Exception exception) {
+				// 堆外只是缓存,失败不影响淘汰
+				String message = StringUtility.format("类型[{}]的实例[{}]保存到堆外异常", cacheClass.getName(), id);
+				LOGGER.error(message, exception);
+			} finally {
+				unlockIdLock(id, lock);
+			}
+		}
+	}
+
+	/**
+	 * 从堆外取回实例(必须在标识锁中执行,取回以后由内存管理)
+	 * 
+	 * <pre>
+	 * 指定标识存在等待持久的元素时以持久层为准,防止同一个标识同时存在等待持久的实例与堆外解码的实例.
+	 * </pre>
+	 * 
+	 * @param id
+	 * @return
+	 */
+	private T retrieveInstance(K id) {
+		if (secondary == null) {
+			return null;
+		}
+		T object = secondary.deleteInstance(id);
+		if (object != null) {
+			if (persistence.isWaiting(id)) {
+				// 持久层返回等待持久的实例或者数据库的状态
+				long begin = System.nanoTime();
+				object = persistence.getInstance(id);
+				metrics.recordFetch(begin);
+			}
+			metrics.recordLoad(1);
+		}
+		return object;
+	}
+
+	/**
+	 * 从持久层查询实例
+	 * 
+	 * @param id
+	 * @return
+	 */
+	private T fetchInstance(K id) {
+		long begin = System.nanoTime();
+		T object = persistence.getInstance(id);
+		metrics.recordFetch(begin);
+		if (object != null) {
+			metrics.recordLoad(1);
+		}
+		return object;
 	}
 
 	private Collection<K> getIndexValueMap(CacheIndex index) {
@@ -87,10 +419,14 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 	private Collection<K> loadIndexValueMap(CacheIndex index) {
 		Collection<K> elements = indexes.get(index.getName()).retrieveInstance(index.getValue());
 		if (elements == null) {
-			elements = new HashSet<>();
-			indexes.get(index.getName()).createInstance(index.getValue(), elements);
+			metrics.recordIndexLoad();
+			long begin = System.nanoTime();
 			Map<K, Object> identities = persistence.getIdentities(index.getName(), index.getValue());
-			elements.addAll(identities.keySet());
+			metrics.recordFetch(begin);
+			elements = cacheInformation.newIdentitySet(identities.keySet());
+			indexes.get(index.getName()).createInstance(index.getValue(), elements);
+		} else {
+			metrics.recordIndexHit();
 		}
 		return elements;
 	}
@@ -109,40 +445,85 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 		return count;
 	}
 
-	private ReentrantLock lockIdLock(K id) {
-		ReentrantLock lock = idLocks.get(id);
-		if (lock == null) {
-			lock = new ReentrantLock();
-			ReentrantLock value = idLocks.putIfAbsent(id, lock);
-			lock = value != null ? value : lock;
+	@Override
+	public CacheMetrics getMetrics() {
+		return metrics;
+	}
+
+	Class<T> getCacheClass() {
+		return cacheClass;
+	}
+
+	CacheInformation getCacheInformation() {
+		return cacheInformation;
+	}
+
+	/**
+	 * 是否所有修改都已经持久(没有等待与异常)
+	 * 
+	 * @return
+	 */
+	boolean isPersisted() {
+		return persistence == null || (persistence.getWaitSize() == 0 && persistence.getExceptionCount() == 0L);
+	}
+
+	/**
+	 * 遍历内存中的实例(代理对象转换为原始对象)
+	 * 
+	 * @param iterator
+	 */
+	void iterateInstances(Consumer<T> iterator) {
+		transience.iterateInstances((id, object) -> {
+			T instance = object;
+			if (instance instanceof ProxyObject) {
+				instance = (T) ((ProxyObject) instance).getInstance();
+			}
+			iterator.accept(instance);
+		});
+	}
+
+	/**
+	 * 遍历内存中的索引主键集合
+	 * 
+	 * @param iterator
+	 */
+	void iterateIdentities(BiConsumer<CacheIndex, Collection<K>> iterator) {
+		for (Entry<String, TransienceManager<Object, Collection<K>>> term : indexes.entrySet()) {
+			String name = term.getKey();
+			term.getValue().iterateInstances((value, identities) -> {
+				CacheIndex index = new CacheIndex(name, (Comparable) value);
+				Collection<K> copy;
+				ReentrantLock lock = lockIndexLock(index);
+				try {
+					copy = new ArrayList<>(identities);
+				} finally {
+					unlockIndexLock(index, lock);
+				}
+				iterator.accept(index, copy);
+			});
 		}
-		lock.lock();
+	}
+
+	private ReentrantLock lockIdLock(K id) {
+		long begin = System.nanoTime();
+		ReentrantLock lock = idLocks.lockKey(id);
+		metrics.recordLock(begin);
 		return lock;
 	}
 
 	private void unlockIdLock(K id, ReentrantLock lock) {
-		lock.unlock();
-		if (lock.getHoldCount() == 0) {
-			idLocks.remove(id, lock);
-		}
+		idLocks.unlockKey(id, lock);
 	}
 
 	private ReentrantLock lockIndexLock(CacheIndex index) {
-		ReentrantLock lock = indexLocks.get(index);
-		if (lock == null) {
-			lock = new ReentrantLock();
-			ReentrantLock value = indexLocks.putIfAbsent(index, lock);
-			lock = value != null ? value : lock;
-		}
-		lock.lock();
+		long begin = System.nanoTime();
+		ReentrantLock lock = indexLocks.lockKey(index);
+		metrics.recordLock(begin);
 		return lock;
 	}
 
 	private void unlockIndexLock(CacheIndex index, ReentrantLock lock) {
-		lock.unlock();
-		if (lock.getHoldCount() == 0) {
-			indexLocks.remove(index, lock);
-		}
+		indexLocks.unlockKey(index, lock);
 	}
 
 	@Override
@@ -151,12 +532,22 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 		try {
 			T object = transience.retrieveInstance(id);
 			if (object != null) {
+				recordHit(id);
 				return object;
 			}
-			object = persistence.getInstance(id);
+			metrics.recordMiss();
+			object = retrieveInstance(id);
+			if (object == null) {
+				if (isAbsent(id)) {
+					return null;
+				}
+				object = fetchInstance(id);
+			}
 			if (object != null) {
 				object = transformer.transform(object);
 				transience.createInstance(id, object);
+			} else {
+				markAbsence(id);
 			}
 			return object;
 		} finally {
@@ -170,53 +561,242 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 		try {
 			T object = transience.retrieveInstance(id);
 			if (object != null) {
+				recordHit(id);
 				return object;
 			}
-			if (persistenceStrategy != null) {
-				object = persistence.getInstance(id);
+			metrics.recordMiss();
+			object = retrieveInstance(id);
+			if (object == null && persistenceStrategy != null && !isAbsent(id)) {
+				object = fetchInstance(id);
 			}
 			if (object == null) {
-				object = factory.instanceOf(id);
-				if (object == null) {
-					throw new CacheException();
-				}
-				if (object.getId() == null) {
-					throw new CacheIdentityException();
-				}
-				if (cacheInformation.hasIndexes()) {
-					// 使用indexLock与getIndexValuesMap更新缓存
-					Map<String, Comparable> values = cacheInformation.getIndexValues(object);
-					TreeSet<CacheIndex> indexes = new TreeSet<>();
-					for (Entry<String, Comparable> keyValue : values.entrySet()) {
-						indexes.add(new CacheIndex(keyValue.getKey(), keyValue.getValue()));
-					}
-					ArrayList<ReentrantLock> locks = new ArrayList<>(indexes.size());
+				object = createInstance(id, factory);
+			}
+			object = transformer.transform(object);
+			transience.createInstance(id, object);
+			return object;
+		} finally {
+			unlockIdLock(id, lock);
+		}
+	}
+
+	@Override
+	public CompletableFuture<T> getInstanceAsync(K id) {
+		T object = transience.retrieveInstance(id);
+		if (object != null) {
+			recordHit(id);
+			return CompletableFuture.completedFuture(object);
+		}
+		return submitInstance(gettings, id, () -> getInstance(id));
+	}
+
+	@Override
+	public CompletableFuture<T> loadInstanceAsync(K id, CacheObjectFactory<K, T> factory) {
+		T object = transience.retrieveInstance(id);
+		if (object != null) {
+			recordHit(id);
+			return CompletableFuture.completedFuture(object);
+		}
+		return submitInstance(loadings, id, () -> loadInstance(id, factory));
+	}
+
+	/**
+	 * 提交异步任务(同一个标识正在执行的任务共享结果)
+	 * 
+	 * @param futures
+	 * @param id
+	 * @param supplier
+	 * @return
+	 */
+	private CompletableFuture<T> submitInstance(ConcurrentHashMap<K, CompletableFuture<T>> futures, K id, Supplier<T> supplier) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		CompletableFuture<T> current = futures.putIfAbsent(id, future);
+		if (current == null) {
+			try {
+				loader.execute(() -> {
 					try {
-						for (CacheIndex index : indexes) {
-							locks.add(lockIndexLock(index));
-						}
-						for (CacheIndex index : indexes) {
-							Collection<K> identities = getIndexValueMap(index);
-							if (identities != null) {
-								identities.add(id);
-							}
-						}
-					} finally {
-						int number = 0;
-						for (CacheIndex index : indexes) {
-							unlockIndexLock(index, locks.get(number++));
-						}
+						T object = supplier.get();
+						// 先移除再完成,之后的调用直接命中内存
+						futures.remove(id, future);
+						future.complete(object);
+					} catch (Throwable throwable) {
+						futures.remove(id, future);
+						future.completeExceptionally(throwable);
+					}
+				});
+			} catch (RejectedExecutionException exception) {
+				futures.remove(id, future);
+				String message = StringUtility.format("类型[{}]的实例[{}]异步加载被拒绝", cacheClass.getName(), id);
+				future.completeExceptionally(new CacheException(message, exception));
+			}
+			current = future;
+		}
+		// 每个调用者获得独立的结果,防止手动完成影响其它调用者
+		return current.thenApply((object) -> object);
+	}
+
+	/**
+	 * 使用工厂创建实例(必须在标识锁中执行)
+	 * 
+	 * @param id
+	 * @param factory
+	 * @return
+	 */
+	private T createInstance(K id, CacheObjectFactory<K, T> factory) {
+		T object = factory.instanceOf(id);
+		if (object == null) {
+			throw new CacheException();
+		}
+		metrics.recordCreate();
+		if (object.getId() == null) {
+			throw new CacheIdentityException();
+		}
+		clearAbsence(id);
+		if (cacheInformation.hasIndexes()) {
+			// 使用indexLock与getIndexValuesMap更新缓存
+			Comparable[] values = cacheInformation.getIndexValues(object);
+			TreeSet<CacheIndex> indexes = new TreeSet<>();
+			for (int ordinal = 0; ordinal < values.length; ordinal++) {
+				indexes.add(new CacheIndex(cacheInformation.getIndexName(ordinal), values[ordinal]));
+			}
+			List<ReentrantLock> locks = indexLocks.lockKeys(indexes);
+			try {
+				for (CacheIndex index : indexes) {
+					Collection<K> identities = getIndexValueMap(index);
+					if (identities != null) {
+						identities.add(id);
 					}
 				}
-				if (persistence != null) {
-					persistence.createInstance(object);
+			} finally {
+				indexLocks.unlockKeys(indexes, locks);
+			}
+		}
+		if (persistence != null) {
+			persistence.createInstance(object);
+		}
+		return object;
+	}
+
+	/**
+	 * 批量检索实例(必须在标识锁中执行)
+	 * 
+	 * <pre>
+	 * 内存与堆外命中的实例放到instances,一次查询持久层获取其余实例.
+	 * </pre>
+	 * 
+	 * @param ids
+	 * @param instances
+	 * @return 未命中的主键
+	 */
+	private Collection<K> retrieveInstances(Collection<K> ids, Map<K, T> instances) {
+		List<K> misses = new ArrayList<>(ids.size());
+		for (K id : ids) {
+			// 加锁期间可能已经被其它线程加载
+			T object = transience.retrieveInstance(id);
+			if (object == null) {
+				object = retrieveInstance(id);
+				if (object != null) {
+					object = transformer.transform(object);
+					transience.createInstance(id, object);
 				}
 			}
-			object = transformer.transform(object);
+			if (object == null) {
+				misses.add(id);
+			} else {
+				instances.put(id, object);
+			}
+		}
+		if (misses.isEmpty() || persistenceStrategy == null) {
+			return misses;
+		}
+		List<K> fetches = new ArrayList<>(misses.size());
+		for (K id : misses) {
+			if (!isAbsent(id)) {
+				fetches.add(id);
+			}
+		}
+		if (fetches.isEmpty()) {
+			return misses;
+		}
+		long begin = System.nanoTime();
+		Map<K, T> objects = persistence.getInstances(fetches);
+		metrics.recordFetch(begin);
+		metrics.recordLoad(objects.size());
+		for (Entry<K, T> keyValue : objects.entrySet()) {
+			K id = keyValue.getKey();
+			T object = transformer.transform(keyValue.getValue());
 			transience.createInstance(id, object);
-			return object;
+			instances.put(id, object);
+		}
+		for (K id : fetches) {
+			if (!objects.containsKey(id)) {
+				markAbsence(id);
+			}
+		}
+		misses.removeAll(objects.keySet());
+		return misses;
+	}
+
+	@Override
+	public Map<K, T> getInstances(Collection<K> ids) {
+		Map<K, T> instances = new HashMap<>();
+		TreeSet<K> misses = new TreeSet<>();
+		// 内存命中的实例不需要加锁
+		for (K id : ids) {
+			T object = transience.retrieveInstance(id);
+			if (object == null) {
+				metrics.recordMiss();
+				misses.add(id);
+			} else {
+				recordHit(id);
+				instances.put(id, object);
+			}
+		}
+		if (misses.isEmpty()) {
+			return instances;
+		}
+		long begin = System.nanoTime();
+		List<ReentrantLock> locks = idLocks.lockKeys(misses);
+		metrics.recordLock(begin);
+		try {
+			retrieveInstances(misses, instances);
+			return instances;
 		} finally {
-			unlockIdLock(id, lock);
+			idLocks.unlockKeys(misses, locks);
+		}
+	}
+
+	@Override
+	public Map<K, T> loadInstances(Collection<K> ids, CacheObjectFactory<K, T> factory) {
+		Map<K, T> instances = new HashMap<>();
+		TreeSet<K> misses = new TreeSet<>();
+		// 内存命中的实例不需要加锁
+		for (K id : ids) {
+			T object = transience.retrieveInstance(id);
+			if (object == null) {
+				metrics.recordMiss();
+				misses.add(id);
+			} else {
+				recordHit(id);
+				instances.put(id, object);
+			}
+		}
+		if (misses.isEmpty()) {
+			return instances;
+		}
+		long begin = System.nanoTime();
+		List<ReentrantLock> locks = idLocks.lockKeys(misses);
+		metrics.recordLock(begin);
+		try {
+			for (K id : retrieveInstances(misses, instances)) {
+				T object = createInstance(id, factory);
+				object = transformer.transform(object);
+				transience.createInstance(id, object);
+				instances.put(id, object);
+			}
+			return instances;
+		} finally {
+			idLocks.unlockKeys(misses, locks);
 		}
 	}
 
@@ -225,19 +805,25 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 		ReentrantLock lock = lockIdLock(id);
 		try {
 			T object = transience.deleteInstance(id);
+			if (refreshTimes != null) {
+				removeRefresh(id);
+			}
+			if (secondary != null) {
+				T instance = secondary.deleteInstance(id);
+				if (object == null) {
+					object = instance;
+				}
+			}
 			if (object != null) {
 				if (cacheInformation.hasIndexes()) {
 					// 使用indexLock与getIndexValuesMap更新缓存
-					Map<String, Comparable> values = cacheInformation.getIndexValues(object);
+					Comparable[] values = cacheInformation.getIndexValues(object);
 					TreeSet<CacheIndex> indexes = new TreeSet<>();
-					for (Entry<String, Comparable> keyValue : values.entrySet()) {
-						indexes.add(new CacheIndex(keyValue.getKey(), keyValue.getValue()));
+					for (int ordinal = 0; ordinal < values.length; ordinal++) {
+						indexes.add(new CacheIndex(cacheInformation.getIndexName(ordinal), values[ordinal]));
 					}
-					ArrayList<ReentrantLock> locks = new ArrayList<>(indexes.size());
+					List<ReentrantLock> locks = indexLocks.lockKeys(indexes);
 					try {
-						for (CacheIndex index : indexes) {
-							locks.add(lockIndexLock(index));
-						}
 						for (CacheIndex index : indexes) {
 							Collection<K> identities = getIndexValueMap(index);
 							if (identities != null) {
@@ -245,15 +831,14 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 							}
 						}
 					} finally {
-						int number = 0;
-						for (CacheIndex index : indexes) {
-							unlockIndexLock(index, locks.get(number++));
-						}
+						indexLocks.unlockKeys(indexes, locks);
 					}
 				}
 				if (persistence != null) {
 					persistence.deleteInstance(id);
 				}
+				// 删除以后重复查询不需要访问持久层
+				markAbsence(id);
 			}
 			return object;
 		} finally {
@@ -281,6 +866,7 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 			K id = instance.getId();
 			ReentrantLock lock = lockIdLock(id);
 			try {
+				clearAbsence(id);
 				T object = transience.retrieveInstance(id);
 				if (object == null) {
 					object = transformer.transform(instance);
@@ -294,9 +880,100 @@ public class EntityCacheManager<K extends Comparable<K> & Serializable, T extend
 		return caches;
 	}
 
+	/**
+	 * 预加载指定索引的主键集合
+	 * 
+	 * <pre>
+	 * 只有在所有实例都已经加载时主键集合才是完整的,由{@link CacheService}保证.
+	 * </pre>
+	 * 
+	 * @param name
+	 * @param value
+	 * @param identities
+	 */
+	void preloadIdentities(String name, Comparable value, Collection<K> identities) {
+		CacheIndex index = new CacheIndex(name, value);
+		ReentrantLock lock = lockIndexLock(index);
+		try {
+			if (getIndexValueMap(index) == null) {
+				indexes.get(name).createInstance(value, cacheInformation.newIdentitySet(identities));
+			}
+		} finally {
+			unlockIndexLock(index, lock);
+		}
+	}
+
+	/**
+	 * 使其它节点修改过的实例与索引失效
+	 * 
+	 * <pre>
+	 * 只删除缓存,下次访问时从持久层重新加载;本节点尚未持久的修改不受影响.
+	 * </pre>
+	 * 
+	 * @param ids
+	 * @param indexes
+	 */
+	void invalidateInstances(Collection<K> ids, Collection<CacheIndex> indexes) {
+		for (K id : ids) {
+			ReentrantLock lock = lockIdLock(id);
+			try {
+				clearAbsence(id);
+				T object = transience.deleteInstance(id);
+				if (refreshTimes != null) {
+					removeRefresh(id);
+				}
+				if (secondary != null) {
+					T instance = secondary.deleteInstance(id);
+					if (object == null) {
+						object = instance;
+					}
+				}
+				if (object != null && cacheInformation.hasIndexes()) {
+					// 旧的索引值同样失效
+					Comparable[] values = cacheInformation.getIndexValues(object);
+					for (int ordinal = 0; ordinal < values.length; ordinal++) {
+						if (values[ordinal] != null) {
+							invalidateIndex(new CacheIndex(cacheInformation.getIndexName(ordinal), values[ordinal]));
+						}
+					}
+				}
+			} finally {
+				unlockIdLock(id, lock);
+			}
+		}
+		for (CacheIndex index : indexes) {
+			invalidateIndex(index);
+		}
+	}
+
+	private void invalidateIndex(CacheIndex index) {
+		TransienceManager<Object, Collection<K>> manager = indexes.get(index.getName());
+		if (manager == null) {
+			return;
+		}
+		ReentrantLock lock = lockIndexLock(index);
+		try {
+			manager.deleteInstance(index.getValue());
+		} finally {
+			unlockIndexLock(index, lock);
+		}
+	}
+
 	@Override
 	public void modifyInstance(T object) {
-		persistence.updateInstance(object);
+		modifyInstance(object, null);
+	}
+
+	@Override
+	public void modifyInstance(T object, String[] fields) {
+		if (modifications != null) {
+			modifications.put(object.getId(), modificationSequence.incrementAndGet());
+		}
+		if (secondary != null) {
+			// 淘汰以后仍然被修改的实例,堆外的内容已经过期
+			secondary.deleteInstance(object.getId());
+		}
+		persistence.updateInstance(object, fields);
 	}
 
 }
@@ -2,6 +2,8 @@ package com.jstarcraft.core.cache;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.jstarcraft.core.cache.proxy.ProxyManager;
 
@@ -40,6 +42,60 @@ public interface EntityManager<K extends Comparable<K> & Serializable, T extends
 	 */
 	T loadInstance(K id, CacheObjectFactory<K, T> factory);
 
+	/**
+	 * 异步获取指定主键的缓存
+	 * 
+	 * <pre>
+	 * 内存命中时返回已经完成的结果;未命中时由缓存服务的加载线程访问持久层,同一个主键并发的未命中共享一次加载.
+	 * 加载线程已满时返回异常完成的结果.
+	 * 非异步的后续操作在加载线程执行,耗时的后续操作应该使用自己的线程池.
+	 * </pre>
+	 * 
+	 * @param id
+	 * @return
+	 */
+	CompletableFuture<T> getInstanceAsync(K id);
+
+	/**
+	 * 异步加载指定主键的缓存
+	 * 
+	 * <pre>
+	 * 与{@link #getInstanceAsync(Comparable)}一样,不存在的缓存使用工厂创建.
+	 * 同一个主键并发的加载共享一次加载,只有第一个工厂会被使用.
+	 * </pre>
+	 * 
+	 * @param id
+	 * @param factory
+	 * @return
+	 */
+	CompletableFuture<T> loadInstanceAsync(K id, CacheObjectFactory<K, T> factory);
+
+	/**
+	 * 批量获取指定主键的缓存
+	 * 
+	 * <pre>
+	 * 内存命中的缓存一次遍历获取,未命中的缓存一次查询持久层获取;
+	 * 不存在的主键不会出现在返回的映射中.
+	 * </pre>
+	 * 
+	 * @param ids
+	 * @return
+	 */
+	Map<K, T> getInstances(Collection<K> ids);
+
+	/**
+	 * 批量加载指定主键的缓存
+	 * 
+	 * <pre>
+	 * 与{@link #getInstances(Collection)}一样,不存在的缓存使用工厂创建.
+	 * </pre>
+	 * 
+	 * @param ids
+	 * @param factory
+	 * @return
+	 */
+	Map<K, T> loadInstances(Collection<K> ids, CacheObjectFactory<K, T> factory);
+
 	/**
 	 * 删除指定主键的缓存
 	 * 
@@ -0,0 +1,101 @@
+package com.jstarcraft.core.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 映射锁管理器
+ *
+ * <pre>
+ * 每个键独立一个锁,锁在无人持有或者等待时从映射中删除.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ */
+class MapLockManager<K> implements CacheLockManager<K> {
+
+	/** 锁映射 */
+	private Map<K, CountLock> locks = new ConcurrentHashMap<>();
+
+	@Override
+	public ReentrantLock lockKey(K key) {
+		// 引用计数保证锁在被持有或者等待期间不会从映射中删除
+		CountLock lock = locks.compute(key, (id, value) -> {
+			if (value == null) {
+				value = new CountLock();
+			}
+			value.count++;
+			return value;
+		});
+		lock.lock();
+		return lock;
+	}
+
+	@Override
+	public ReentrantLock tryLockKey(K key) {
+		CountLock lock = locks.compute(key, (id, value) -> {
+			if (value == null) {
+				value = new CountLock();
+			}
+			value.count++;
+			return value;
+		});
+		if (lock.tryLock()) {
+			return lock;
+		}
+		locks.computeIfPresent(key, (id, value) -> {
+			return --value.count == 0 ? null : value;
+		});
+		return null;
+	}
+
+	@Override
+	public void unlockKey(K key, ReentrantLock lock) {
+		lock.unlock();
+		locks.computeIfPresent(key, (id, value) -> {
+			return --value.count == 0 ? null : value;
+		});
+	}
+
+	@Override
+	public List<ReentrantLock> lockKeys(SortedSet<K> keys) {
+		ArrayList<ReentrantLock> locks = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			locks.add(lockKey(key));
+		}
+		return locks;
+	}
+
+	@Override
+	public void unlockKeys(SortedSet<K> keys, List<ReentrantLock> locks) {
+		int number = 0;
+		for (K key : keys) {
+			if (number == locks.size()) {
+				break;
+			}
+			unlockKey(key, locks.get(number++));
+		}
+	}
+
+	/**
+	 * 计数锁
+	 *
+	 * <pre>
+	 * 计数只在{@link ConcurrentHashMap#compute}中修改
+	 * </pre>
+	 */
+	private static class CountLock extends ReentrantLock {
+
+		private static final long serialVersionUID = 1L;
+
+		private int count;
+
+	}
+
+}
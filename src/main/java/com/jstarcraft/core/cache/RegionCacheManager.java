@@ -8,10 +8,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +25,7 @@ import com.jstarcraft.core.cache.transience.TransienceElement;
 import com.jstarcraft.core.cache.transience.TransienceManager;
 import com.jstarcraft.core.cache.transience.TransienceStrategy;
 import com.jstarcraft.core.cache.transience.WeakElementManager;
+import com.jstarcraft.core.utility.StringUtility;
 
 /**
  * 区域缓存管理器
@@ -52,13 +53,15 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 	private WeakElementManager<K, T> transience;
 	/** 持久 */
 	private PersistenceManager<K, T> persistence;
-	/** 区域索引 */
-	private Map<String, TransienceManager<Object, Map<K, TransienceElement>>> indexes;
+	/** 区域索引(索引名称 -> 索引值 -> 区域快照) */
+	private Map<String, TransienceManager<Object, RegionSnapshot<K, T>>> indexes;
 
 	/** 标识锁 */
-	private Map<K, ReentrantLock> idLocks = new ConcurrentHashMap<>();
+	private CacheLockManager<K> idLocks;
 	/** 索引锁 */
-	private Map<CacheIndex, ReentrantLock> indexLocks = new ConcurrentHashMap<>();
+	private CacheLockManager<CacheIndex> indexLocks;
+	/** 指标 */
+	private CacheMetrics metrics;
 
 	RegionCacheManager(CacheInformation information, TransienceStrategy transienceStrategy, PersistenceStrategy persistenceStrategy) {
 		this.cacheInformation = information;
@@ -67,30 +70,53 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 		this.persistenceStrategy = persistenceStrategy;
 		JavassistRegionProxy transformer = new JavassistRegionProxy(this, this.cacheInformation);
 		this.transience = new WeakElementManager<>(transformer);
+		this.metrics = new CacheMetrics(cacheClass.getName());
 		this.indexes = new ConcurrentHashMap<>(information.getIndexNames().size());
 		for (String name : information.getIndexNames()) {
-			TransienceManager manager = this.transienceStrategy.getTransienceManager(null);
+			TransienceManager manager = information.isRangeIndex(name) ? new RegionRangeIndex<>() : this.transienceStrategy.getTransienceManager(null);
 			this.indexes.put(name, manager);
 		}
 		this.persistence = persistenceStrategy.getPersistenceManager(cacheClass);
+		int lockStripes = information.getCacheConfiguration().lockStripes();
+		this.idLocks = CacheLockManager.instanceOf(lockStripes);
+		this.indexLocks = CacheLockManager.instanceOf(lockStripes);
 	}
 
-	private Map<K, TransienceElement> getIndexValueMap(CacheIndex index) {
+	/**
+	 * 获取区域快照(不需要加锁,不记录命中指标)
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private RegionSnapshot<K, T> getIndexValueMap(CacheIndex index) {
 		return indexes.get(index.getName()).retrieveInstance(index.getValue());
 	}
 
-	private Map<K, TransienceElement> loadIndexValueMap(CacheIndex index) {
-		Map<K, TransienceElement> elements = indexes.get(index.getName()).retrieveInstance(index.getValue());
-		if (elements == null) {
-			elements = new HashMap<>();
-			indexes.get(index.getName()).createInstance(index.getValue(), elements);
+	/**
+	 * 加载区域快照(必须在索引锁中执行)
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private RegionSnapshot<K, T> loadIndexValueMap(CacheIndex index) {
+		RegionSnapshot<K, T> snapshot = getIndexValueMap(index);
+		if (snapshot == null) {
+			// 区域缓存以索引为单位加载
+			metrics.recordIndexLoad();
+			long begin = System.nanoTime();
 			List<T> objects = persistence.getInstances(index.getName(), index.getValue());
+			metrics.recordFetch(begin);
+			metrics.recordLoad(objects.size());
+			Map<K, TransienceElement> elements = new HashMap<>();
 			for (T object : objects) {
 				TransienceElement element = transience.putElement(object);
 				elements.put(object.getId(), element);
 			}
+			// 快照完整以后才能发布,因为读取不加锁
+			snapshot = new RegionSnapshot<>(elements);
+			indexes.get(index.getName()).createInstance(index.getValue(), snapshot);
 		}
-		return elements;
+		return snapshot;
 	}
 
 	@Override
@@ -101,7 +127,7 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 	@Override
 	public Map<String, Integer> getIndexesCount() {
 		Map<String, Integer> count = new HashMap<>();
-		for (Entry<String, TransienceManager<Object, Map<K, TransienceElement>>> keyValue : indexes.entrySet()) {
+		for (Entry<String, TransienceManager<Object, RegionSnapshot<K, T>>> keyValue : indexes.entrySet()) {
 			int size = 0;
 			size += keyValue.getValue().getSize();
 			count.put(keyValue.getKey(), size);
@@ -109,46 +135,59 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 		return count;
 	}
 
+	@Override
+	public CacheMetrics getMetrics() {
+		return metrics;
+	}
+
 	private ReentrantLock lockIdLock(K id) {
-		ReentrantLock lock = idLocks.get(id);
-		if (lock == null) {
-			lock = new ReentrantLock();
-			ReentrantLock value = idLocks.putIfAbsent(id, lock);
-			lock = value != null ? value : lock;
-		}
-		lock.lock();
+		long begin = System.nanoTime();
+		ReentrantLock lock = idLocks.lockKey(id);
+		metrics.recordLock(begin);
 		return lock;
 	}
 
 	private void unlockIdLock(K id, ReentrantLock lock) {
-		lock.unlock();
-		if (lock.getHoldCount() == 0) {
-			idLocks.remove(id, lock);
-		}
+		idLocks.unlockKey(id, lock);
 	}
 
 	private ReentrantLock lockIndexLock(CacheIndex index) {
-		ReentrantLock lock = indexLocks.get(index);
-		if (lock == null) {
-			lock = new ReentrantLock();
-			ReentrantLock value = indexLocks.putIfAbsent(index, lock);
-			lock = value != null ? value : lock;
-		}
-		lock.lock();
+		long begin = System.nanoTime();
+		ReentrantLock lock = indexLocks.lockKey(index);
+		metrics.recordLock(begin);
 		return lock;
 	}
 
 	private void unlockIndexLock(CacheIndex index, ReentrantLock lock) {
-		lock.unlock();
-		if (lock.getHoldCount() == 0) {
-			indexLocks.remove(index, lock);
-		}
+		indexLocks.unlockKey(index, lock);
 	}
 
-	private Collection<T> elementsToObjects(Collection<TransienceElement> elements) {
-		return elements.stream().map((element) -> {
-			return (T) element.getCacheObject();
-		}).collect(Collectors.toSet());
+	/**
+	 * 获取区域快照
+	 * 
+	 * <pre>
+	 * 已经加载的快照不可变,直接读取,不需要加锁.
+	 * 没有加载时使用indexLock与loadIndexValuesMap更新缓存.
+	 * 只有外部读取记录命中指标,创建/删除等内部维护不影响命中率.
+	 * </pre>
+	 * 
+	 * @param index
+	 * @return
+	 */
+	private RegionSnapshot<K, T> getSnapshot(CacheIndex index) {
+		RegionSnapshot<K, T> snapshot = getIndexValueMap(index);
+		if (snapshot != null) {
+			metrics.recordHit();
+			metrics.recordIndexHit();
+			return snapshot;
+		}
+		metrics.recordMiss();
+		ReentrantLock lock = lockIndexLock(index);
+		try {
+			return loadIndexValueMap(index);
+		} finally {
+			unlockIndexLock(index, lock);
+		}
 	}
 
 	@Override
@@ -156,14 +195,109 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 		if (!cacheInformation.hasIndex(index.getName())) {
 			throw new CacheException();
 		}
-		// 使用indexLock与loadIndexValuesMap更新缓存
-		ReentrantLock lock = lockIndexLock(index);
-		try {
-			Map<K, TransienceElement> elements = loadIndexValueMap(index);
-			return Collections.unmodifiableCollection(elementsToObjects(elements.values()));
-		} finally {
-			unlockIndexLock(index, lock);
+		RegionSnapshot<K, T> snapshot = getSnapshot(index);
+		return snapshot.getInstances();
+	}
+
+	/**
+	 * 获取指定范围的区域快照
+	 * 
+	 * <pre>
+	 * 已经加载的范围直接读取跳表,不需要加锁.
+	 * 没有加载时把范围下推到持久层查询,按照索引值分组,在各自的索引锁中补充尚未加载的快照,再记录范围.
+	 * 已经存在的快照由创建/删除维护,不会被查询结果覆盖.
+	 * 加载期间存在失效时不记录范围,直接返回查询结果.
+	 * </pre>
+	 * 
+	 * @param name
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	private List<Collection<T>> getRangeSnapshots(String name, Comparable from, Comparable to) {
+		if (!cacheInformation.isRangeIndex(name)) {
+			throw new CacheException(StringUtility.format("类型[{}]的索引[{}]不是范围索引", cacheClass.getName(), name));
+		}
+		if (from == null || to == null || from.compareTo(to) > 0) {
+			throw new CacheException(StringUtility.format("类型[{}]的索引[{}]范围[{},{}]无效", cacheClass.getName(), name, from, to));
+		}
+		RegionRangeIndex<K, T> manager = (RegionRangeIndex<K, T>) indexes.get(name);
+		if (!manager.isLoaded(from, to)) {
+			metrics.recordMiss();
+			metrics.recordIndexLoad();
+			long version = manager.getVersion();
+			long begin = System.nanoTime();
+			List<T> objects = persistence.getInstances(name, from, to);
+			metrics.recordFetch(begin);
+			metrics.recordLoad(objects.size());
+			TreeMap<Comparable, Map<K, TransienceElement>> groups = new TreeMap<>();
+			for (T object : objects) {
+				TransienceElement element = transience.putElement(object);
+				Comparable value = cacheInformation.getIndexValue(object, name);
+				groups.computeIfAbsent(value, (key) -> new HashMap<>()).put(object.getId(), element);
+			}
+			boolean valid = true;
+			for (Entry<Comparable, Map<K, TransienceElement>> keyValue : groups.entrySet()) {
+				CacheIndex index = new CacheIndex(name, keyValue.getKey());
+				ReentrantLock lock = lockIndexLock(index);
+				try {
+					if (manager.getVersion() != version) {
+						valid = false;
+						break;
+					}
+					if (manager.getSnapshot(keyValue.getKey()) == null) {
+						manager.createInstance(keyValue.getKey(), new RegionSnapshot<>(keyValue.getValue()));
+					}
+				} finally {
+					unlockIndexLock(index, lock);
+				}
+			}
+			if (!valid || !manager.loadRange(from, to, version)) {
+				List<Collection<T>> instances = new ArrayList<>(groups.size());
+				for (Map<K, TransienceElement> elements : groups.values()) {
+					instances.add(new RegionSnapshot<K, T>(elements).getInstances());
+				}
+				return instances;
+			}
+		} else {
+			metrics.recordHit();
+			metrics.recordIndexHit();
+		}
+		List<Collection<T>> instances = new ArrayList<>();
+		for (RegionSnapshot<K, T> snapshot : manager.getSnapshots(from, to).values()) {
+			instances.add(snapshot.getInstances());
+		}
+		return instances;
+	}
+
+	@Override
+	public Collection<T> getInstances(String name, Comparable from, Comparable to) {
+		List<T> instances = new ArrayList<>();
+		for (Collection<T> snapshot : getRangeSnapshots(name, from, to)) {
+			instances.addAll(snapshot);
+		}
+		return Collections.unmodifiableList(instances);
+	}
+
+	@Override
+	public List<T> getInstances(String name, Comparable from, Comparable to, int size, boolean descending) {
+		if (size < 0) {
+			throw new CacheException(StringUtility.format("类型[{}]的数量[{}]无效", cacheClass.getName(), size));
 		}
+		List<Collection<T>> snapshots = getRangeSnapshots(name, from, to);
+		if (descending) {
+			Collections.reverse(snapshots);
+		}
+		List<T> instances = new ArrayList<>(size);
+		for (Collection<T> snapshot : snapshots) {
+			for (T instance : snapshot) {
+				if (instances.size() == size) {
+					return Collections.unmodifiableList(instances);
+				}
+				instances.add(instance);
+			}
+		}
+		return Collections.unmodifiableList(instances);
 	}
 
 	@Override
@@ -171,19 +305,8 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 		if (!cacheInformation.hasIndex(index.getName())) {
 			throw new CacheException();
 		}
-		// 使用indexLock与loadIndexValuesMap更新缓存
-		ReentrantLock lock = lockIndexLock(index);
-		try {
-			Map<K, TransienceElement> elements = loadIndexValueMap(index);
-			TransienceElement element = elements.get(id);
-			if (element != null) {
-				return (T) element.getCacheObject();
-			} else {
-				return null;
-			}
-		} finally {
-			unlockIndexLock(index, lock);
-		}
+		RegionSnapshot<K, T> snapshot = getSnapshot(index);
+		return snapshot.getInstance(id);
 	}
 
 	@Override
@@ -191,25 +314,20 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 		if (!cacheInformation.hasIndex(index.getName())) {
 			throw new CacheException();
 		}
-		// 使用indexLock与loadIndexValuesMap更新缓存
-		ReentrantLock lock = lockIndexLock(index);
-		try {
-			Map<K, TransienceElement> elements = loadIndexValueMap(index);
-			TransienceElement element = elements.get(id);
-			if (element != null) {
-				return (T) element.getCacheObject();
-			}
-		} finally {
-			unlockIndexLock(index, lock);
+		RegionSnapshot<K, T> snapshot = getSnapshot(index);
+		T instance = snapshot.getInstance(id);
+		if (instance != null) {
+			return instance;
 		}
 
-		lock = lockIdLock(id);
+		ReentrantLock lock = lockIdLock(id);
 		try {
 			T object = factory.instanceOf(id);
 			TransienceElement element = transience.getElement(object);
 			if (element != null) {
 				return (T) element.getCacheObject();
 			}
+			metrics.recordCreate();
 			return createInstance(object);
 		} finally {
 			unlockIdLock(id, lock);
@@ -233,25 +351,20 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 			persistence.createInstance(object);
 			TransienceElement element = transience.putElement(object);
 			// 使用indexLock与loadIndexValuesMap更新缓存
-			Map<String, Comparable> values = cacheInformation.getIndexValues(object);
+			Comparable[] values = cacheInformation.getIndexValues(object);
 			TreeSet<CacheIndex> indexes = new TreeSet<>();
-			for (Entry<String, Comparable> keyValue : values.entrySet()) {
-				indexes.add(new CacheIndex(keyValue.getKey(), keyValue.getValue()));
+			for (int ordinal = 0; ordinal < values.length; ordinal++) {
+				indexes.add(new CacheIndex(cacheInformation.getIndexName(ordinal), values[ordinal]));
 			}
-			ArrayList<ReentrantLock> locks = new ArrayList<>(indexes.size());
+			List<ReentrantLock> locks = indexLocks.lockKeys(indexes);
 			try {
 				for (CacheIndex index : indexes) {
-					locks.add(lockIndexLock(index));
-				}
-				for (CacheIndex index : indexes) {
-					Map<K, TransienceElement> elements = loadIndexValueMap(index);
-					elements.put(id, element);
+					// 复制并替换快照
+					RegionSnapshot<K, T> snapshot = loadIndexValueMap(index);
+					this.indexes.get(index.getName()).createInstance(index.getValue(), snapshot.putElement(id, element));
 				}
 			} finally {
-				int number = 0;
-				for (CacheIndex index : indexes) {
-					unlockIndexLock(index, locks.get(number++));
-				}
+				indexLocks.unlockKeys(indexes, locks);
 			}
 			return (T) element.getCacheObject();
 		} finally {
@@ -266,25 +379,20 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 		try {
 			persistence.deleteInstance(id);
 			// 使用indexLock与loadIndexValuesMap更新缓存
-			Map<String, Comparable> values = cacheInformation.getIndexValues(object);
+			Comparable[] values = cacheInformation.getIndexValues(object);
 			TreeSet<CacheIndex> indexes = new TreeSet<>();
-			for (Entry<String, Comparable> keyValue : values.entrySet()) {
-				indexes.add(new CacheIndex(keyValue.getKey(), keyValue.getValue()));
+			for (int ordinal = 0; ordinal < values.length; ordinal++) {
+				indexes.add(new CacheIndex(cacheInformation.getIndexName(ordinal), values[ordinal]));
 			}
-			ArrayList<ReentrantLock> locks = new ArrayList<>(indexes.size());
+			List<ReentrantLock> locks = indexLocks.lockKeys(indexes);
 			try {
 				for (CacheIndex index : indexes) {
-					locks.add(lockIndexLock(index));
-				}
-				for (CacheIndex index : indexes) {
-					Map<K, TransienceElement> elements = loadIndexValueMap(index);
-					elements.remove(id);
+					// 复制并替换快照
+					RegionSnapshot<K, T> snapshot = loadIndexValueMap(index);
+					this.indexes.get(index.getName()).createInstance(index.getValue(), snapshot.removeElement(id));
 				}
 			} finally {
-				int number = 0;
-				for (CacheIndex index : indexes) {
-					unlockIndexLock(index, locks.get(number++));
-				}
+				indexLocks.unlockKeys(indexes, locks);
 			}
 			transience.takeElement(object);
 		} finally {
@@ -301,24 +409,18 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 			ReentrantLock lock = lockIdLock(id);
 			try {
 				// 使用indexLock与loadIndexValuesMap更新缓存
-				Map<String, Comparable> values = cacheInformation.getIndexValues(instance);
+				Comparable[] values = cacheInformation.getIndexValues(instance);
 				TreeSet<CacheIndex> indexes = new TreeSet<>();
-				for (Entry<String, Comparable> keyValue : values.entrySet()) {
-					indexes.add(new CacheIndex(keyValue.getKey(), keyValue.getValue()));
+				for (int ordinal = 0; ordinal < values.length; ordinal++) {
+					indexes.add(new CacheIndex(cacheInformation.getIndexName(ordinal), values[ordinal]));
 				}
-				ArrayList<ReentrantLock> locks = new ArrayList<>(indexes.size());
+				List<ReentrantLock> locks = indexLocks.lockKeys(indexes);
 				try {
 					for (CacheIndex index : indexes) {
-						locks.add(lockIndexLock(index));
-					}
-					for (CacheIndex index : indexes) {
-						Map<K, TransienceElement> elements = loadIndexValueMap(index);
+						loadIndexValueMap(index);
 					}
 				} finally {
-					int number = 0;
-					for (CacheIndex index : indexes) {
-						unlockIndexLock(index, locks.get(number++));
-					}
+					indexLocks.unlockKeys(indexes, locks);
 				}
 				TransienceElement element = transience.putElement(instance);
 				caches.add((T) element.getCacheObject());
@@ -329,9 +431,62 @@ public class RegionCacheManager<K extends Comparable<K> & Serializable, T extend
 		return caches;
 	}
 
+	/**
+	 * 使其它节点修改过的实例与索引失效
+	 * 
+	 * <pre>
+	 * 删除实例所在的快照,下次访问时从持久层重新加载;本节点尚未持久的修改不受影响.
+	 * </pre>
+	 * 
+	 * @param ids
+	 * @param indexes
+	 */
+	void invalidateInstances(Collection<K> ids, Collection<CacheIndex> indexes) {
+		for (K id : ids) {
+			ReentrantLock lock = lockIdLock(id);
+			try {
+				TransienceElement element = transience.retrieveElement(id);
+				if (element != null) {
+					T object = (T) element.getCacheObject();
+					// 旧的索引值同样失效
+					Comparable[] values = cacheInformation.getIndexValues(object);
+					for (int ordinal = 0; ordinal < values.length; ordinal++) {
+						if (values[ordinal] != null) {
+							invalidateIndex(new CacheIndex(cacheInformation.getIndexName(ordinal), values[ordinal]));
+						}
+					}
+					transience.takeElement(object);
+				}
+			} finally {
+				unlockIdLock(id, lock);
+			}
+		}
+		for (CacheIndex index : indexes) {
+			invalidateIndex(index);
+		}
+	}
+
+	private void invalidateIndex(CacheIndex index) {
+		TransienceManager<Object, RegionSnapshot<K, T>> manager = indexes.get(index.getName());
+		if (manager == null) {
+			return;
+		}
+		ReentrantLock lock = lockIndexLock(index);
+		try {
+			manager.deleteInstance(index.getValue());
+		} finally {
+			unlockIndexLock(index, lock);
+		}
+	}
+
 	@Override
 	public void modifyInstance(T object) {
 		persistence.updateInstance(object);
 	}
 
+	@Override
+	public void modifyInstance(T object, String[] fields) {
+		persistence.updateInstance(object, fields);
+	}
+
 }
@@ -2,6 +2,7 @@ package com.jstarcraft.core.cache;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.List;
 
 import com.jstarcraft.core.cache.proxy.ProxyManager;
 
@@ -31,6 +32,38 @@ public interface RegionManager<K extends Comparable<K> & Serializable, T extends
 	 */
 	Collection<T> getInstances(CacheIndex index);
 
+	/**
+	 * 获取指定索引范围的缓存集合(按照索引值升序,需要{@link com.jstarcraft.core.cache.annotation.CacheConfiguration#rangeIndex()})
+	 * 
+	 * @param name
+	 * @param from
+	 *            下限(包含)
+	 * @param to
+	 *            上限(包含)
+	 * @return
+	 */
+	Collection<T> getInstances(String name, Comparable from, Comparable to);
+
+	/**
+	 * 获取指定索引范围的前N个缓存(需要{@link com.jstarcraft.core.cache.annotation.CacheConfiguration#rangeIndex()})
+	 * 
+	 * <pre>
+	 * 索引值相同的缓存之间没有顺序.
+	 * </pre>
+	 * 
+	 * @param name
+	 * @param from
+	 *            下限(包含)
+	 * @param to
+	 *            上限(包含)
+	 * @param size
+	 *            数量
+	 * @param descending
+	 *            是否按照索引值降序
+	 * @return
+	 */
+	List<T> getInstances(String name, Comparable from, Comparable to, int size, boolean descending);
+
 	/**
 	 * 获取指定区域的缓存集合
 	 * 
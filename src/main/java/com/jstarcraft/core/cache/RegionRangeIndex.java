@@ -0,0 +1,174 @@
+package com.jstarcraft.core.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import com.jstarcraft.core.cache.transience.TransienceManager;
+
+/**
+ * 区域范围索引
+ *
+ * <pre>
+ * 索引值 -> 区域快照保存在{@link ConcurrentSkipListMap},按照索引值的自然顺序遍历.
+ * 另外记录已经完整加载的范围(互不重叠的闭区间),范围内没有快照的索引值视为空区域.
+ * 读取不需要加锁;快照的修改与{@link RegionCacheManager}一样在索引锁中执行;范围的修改在本对象的锁中执行.
+ * 删除(失效)索引值时同时删除覆盖它的范围,并且增加版本,使删除以前开始的范围加载放弃缓存.
+ * null索引值单独保存,不属于任何范围.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ * @param <T>
+ */
+class RegionRangeIndex<K extends Comparable, T extends CacheObject<K>> implements TransienceManager<Object, RegionSnapshot<K, T>> {
+
+	/** 索引值 -> 区域快照 */
+	private final ConcurrentSkipListMap<Comparable, RegionSnapshot<K, T>> snapshots = new ConcurrentSkipListMap<>();
+	/** null索引值的区域快照 */
+	private volatile RegionSnapshot<K, T> nullSnapshot;
+	/** 已经加载的范围(下限 -> 上限,修改时复制并替换) */
+	private volatile TreeMap<Comparable, Comparable> ranges = new TreeMap<>();
+	/** 版本(每次删除索引值增加) */
+	private final AtomicLong version = new AtomicLong();
+
+	@Override
+	public void createInstance(Object value, RegionSnapshot<K, T> snapshot) {
+		if (value == null) {
+			nullSnapshot = snapshot;
+		} else {
+			snapshots.put((Comparable) value, snapshot);
+		}
+	}
+
+	@Override
+	public RegionSnapshot<K, T> deleteInstance(Object value) {
+		version.incrementAndGet();
+		if (value == null) {
+			RegionSnapshot<K, T> snapshot = nullSnapshot;
+			nullSnapshot = null;
+			return snapshot;
+		}
+		synchronized (this) {
+			Entry<Comparable, Comparable> range = ranges.floorEntry((Comparable) value);
+			if (range != null && range.getValue().compareTo(value) >= 0) {
+				TreeMap<Comparable, Comparable> ranges = new TreeMap<>(this.ranges);
+				ranges.remove(range.getKey());
+				this.ranges = ranges;
+			}
+		}
+		return snapshots.remove(value);
+	}
+
+	/**
+	 * 获取指定索引值的区域快照(已经加载的范围内没有快照时返回空快照)
+	 */
+	@Override
+	public RegionSnapshot<K, T> retrieveInstance(Object value) {
+		if (value == null) {
+			return nullSnapshot;
+		}
+		RegionSnapshot<K, T> snapshot = snapshots.get(value);
+		if (snapshot == null && isLoaded((Comparable) value, (Comparable) value)) {
+			snapshot = new RegionSnapshot<>(Collections.emptyMap());
+		}
+		return snapshot;
+	}
+
+	@Override
+	public int getSize() {
+		return snapshots.size() + (nullSnapshot == null ? 0 : 1);
+	}
+
+	@Override
+	public void iterateInstances(BiConsumer<Object, RegionSnapshot<K, T>> iterator) {
+		RegionSnapshot<K, T> snapshot = nullSnapshot;
+		if (snapshot != null) {
+			iterator.accept(null, snapshot);
+		}
+		snapshots.forEach(iterator);
+	}
+
+	/**
+	 * 获取版本
+	 *
+	 * @return
+	 */
+	long getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * 指定范围是否已经加载
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	boolean isLoaded(Comparable from, Comparable to) {
+		Entry<Comparable, Comparable> range = ranges.floorEntry(from);
+		return range != null && range.getValue().compareTo(to) >= 0;
+	}
+
+	/**
+	 * 获取指定索引值的区域快照(不包括空快照)
+	 *
+	 * @param value
+	 * @return
+	 */
+	RegionSnapshot<K, T> getSnapshot(Comparable value) {
+		return snapshots.get(value);
+	}
+
+	/**
+	 * 获取指定范围的区域快照
+	 *
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	NavigableMap<Comparable, RegionSnapshot<K, T>> getSnapshots(Comparable from, Comparable to) {
+		return snapshots.subMap(from, true, to, true);
+	}
+
+	/**
+	 * 记录已经加载的范围(与重叠的范围合并)
+	 *
+	 * @param from
+	 * @param to
+	 * @param version
+	 *            开始加载时的版本
+	 * @return 加载期间存在删除时返回false
+	 */
+	synchronized boolean loadRange(Comparable from, Comparable to, long version) {
+		if (this.version.get() != version) {
+			return false;
+		}
+		TreeMap<Comparable, Comparable> ranges = new TreeMap<>(this.ranges);
+		Entry<Comparable, Comparable> floor = ranges.floorEntry(from);
+		if (floor != null && floor.getValue().compareTo(from) >= 0) {
+			from = floor.getKey();
+		}
+		Iterator<Entry<Comparable, Comparable>> iterator = ranges.tailMap(from, true).entrySet().iterator();
+		while (iterator.hasNext()) {
+			Entry<Comparable, Comparable> range = iterator.next();
+			if (range.getKey().compareTo(to) > 0) {
+				break;
+			}
+			if (range.getValue().compareTo(to) > 0) {
+				to = range.getValue();
+			}
+			iterator.remove();
+		}
+		ranges.put(from, to);
+		this.ranges = ranges;
+		return true;
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.jstarcraft.core.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.jstarcraft.core.cache.transience.TransienceElement;
+
+/**
+ * 区域快照
+ *
+ * <pre>
+ * 每个索引值对应一个不可变的快照,修改时复制为新的快照并替换(必须在索引锁中执行).
+ * 读取直接使用当前的快照,不需要加锁也不需要复制.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ * @param <T>
+ */
+class RegionSnapshot<K extends Comparable, T extends CacheObject<K>> {
+
+	/** 元素(持有元素的强引用,保证内存中弱引用的元素不会被回收) */
+	private final Map<K, TransienceElement> elements;
+	/** 实例 */
+	private final Collection<T> instances;
+
+	RegionSnapshot(Map<K, TransienceElement> elements) {
+		this.elements = elements;
+		ArrayList<T> instances = new ArrayList<>(elements.size());
+		for (TransienceElement element : elements.values()) {
+			instances.add((T) element.getCacheObject());
+		}
+		this.instances = Collections.unmodifiableList(instances);
+	}
+
+	/**
+	 * 获取指定标识的实例
+	 *
+	 * @param id
+	 * @return
+	 */
+	T getInstance(K id) {
+		TransienceElement element = elements.get(id);
+		return element == null ? null : (T) element.getCacheObject();
+	}
+
+	/**
+	 * 获取所有实例(不可修改)
+	 *
+	 * @return
+	 */
+	Collection<T> getInstances() {
+		return instances;
+	}
+
+	/**
+	 * 复制并放入元素
+	 *
+	 * @param id
+	 * @param element
+	 * @return 新的快照
+	 */
+	RegionSnapshot<K, T> putElement(K id, TransienceElement element) {
+		Map<K, TransienceElement> elements = new HashMap<>(this.elements);
+		elements.put(id, element);
+		return new RegionSnapshot<>(elements);
+	}
+
+	/**
+	 * 复制并删除元素
+	 *
+	 * @param id
+	 * @return 新的快照(不存在指定元素时返回当前快照)
+	 */
+	RegionSnapshot<K, T> removeElement(K id) {
+		if (!this.elements.containsKey(id)) {
+			return this;
+		}
+		Map<K, TransienceElement> elements = new HashMap<>(this.elements);
+		elements.remove(id);
+		return new RegionSnapshot<>(elements);
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.jstarcraft.core.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.jstarcraft.core.cache.exception.CacheConfigurationException;
+import com.jstarcraft.core.utility.StringUtility;
+
+/**
+ * 条纹锁管理器
+ *
+ * <pre>
+ * 使用固定数量(2的幂)的锁,按照键的哈希选择条纹.
+ * 锁定/解锁过程没有任何分配,但是不同的键可能共享同一个条纹.
+ * 同时锁定多个键时按照条纹位置排序,防止死锁.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ */
+class StripeLockManager<K> implements CacheLockManager<K> {
+
+	/** 条纹掩码 */
+	private final int mask;
+	/** 条纹锁 */
+	private final ReentrantLock[] locks;
+
+	StripeLockManager(int stripes) {
+		if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+			throw new CacheConfigurationException(StringUtility.format("锁条纹数量[{}]必须为2的幂", stripes));
+		}
+		this.mask = stripes - 1;
+		this.locks = new ReentrantLock[stripes];
+		for (int index = 0; index < stripes; index++) {
+			this.locks[index] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * 获取指定键的条纹位置
+	 *
+	 * @param key
+	 * @return
+	 */
+	int getStripe(K key) {
+		int hash = key.hashCode();
+		// 与HashMap一样扩散高位
+		hash ^= (hash >>> 16);
+		return hash & mask;
+	}
+
+	@Override
+	public ReentrantLock lockKey(K key) {
+		ReentrantLock lock = locks[getStripe(key)];
+		lock.lock();
+		return lock;
+	}
+
+	@Override
+	public ReentrantLock tryLockKey(K key) {
+		ReentrantLock lock = locks[getStripe(key)];
+		return lock.tryLock() ? lock : null;
+	}
+
+	@Override
+	public void unlockKey(K key, ReentrantLock lock) {
+		lock.unlock();
+	}
+
+	@Override
+	public List<ReentrantLock> lockKeys(SortedSet<K> keys) {
+		int size = 0;
+		int[] stripes = new int[keys.size()];
+		for (K key : keys) {
+			stripes[size++] = getStripe(key);
+		}
+		Arrays.sort(stripes);
+		ArrayList<ReentrantLock> locks = new ArrayList<>(size);
+		int last = -1;
+		for (int stripe : stripes) {
+			if (stripe == last) {
+				continue;
+			}
+			ReentrantLock lock = this.locks[stripe];
+			lock.lock();
+			locks.add(lock);
+			last = stripe;
+		}
+		return locks;
+	}
+
+	@Override
+	public void unlockKeys(SortedSet<K> keys, List<ReentrantLock> locks) {
+		for (ReentrantLock lock : locks) {
+			lock.unlock();
+		}
+	}
+
+}
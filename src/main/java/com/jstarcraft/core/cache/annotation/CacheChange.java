@@ -21,4 +21,14 @@ public @interface CacheChange {
 	/** 触发变更的方法返回值 */
 	String[] values() default {};
 
+	/**
+	 * 变更的字段
+	 * 
+	 * <pre>
+	 * 为空表示变更整个对象;
+	 * 不为空时持久层只更新这些字段(例如只更新JSON列中的一列),合并期间任意一次变更整个对象则退化为整个对象.
+	 * </pre>
+	 */
+	String[] fields() default {};
+
 }
@@ -48,10 +48,76 @@ public @interface CacheConfiguration {
 	/** 缓存索引 */
 	String[] indexes() default {};
 
+	/**
+	 * 范围索引
+	 *
+	 * <pre>
+	 * false表示索引只支持等值查询(默认);
+	 * true时索引值按照自然顺序保存在跳表中,支持{@link com.jstarcraft.core.cache.RegionManager#getInstances(String, Comparable, Comparable)}范围查询.
+	 * 已经加载的范围常驻内存,不被内存策略淘汰.仅对{@link Unit#REGION}有效.
+	 * </pre>
+	 */
+	boolean rangeIndex() default false;
+
 	/** 内存策略,配合{@link TransienceStrategy}使用. */
 	String transienceStrategy();
 
 	/** 持久策略,配合{@link PersistenceStrategy}使用. */
 	String persistenceStrategy();
 
+	/**
+	 * 锁条纹数量
+	 *
+	 * <pre>
+	 * 0表示标识锁与索引锁按键独立分配(默认);
+	 * 大于0时必须为2的幂,标识锁与索引锁按照哈希共享固定数量的锁,避免热点路径上的分配.
+	 * </pre>
+	 */
+	int lockStripes() default 0;
+
+	/**
+	 * 堆外容量(字节)
+	 *
+	 * <pre>
+	 * 0表示不使用堆外二级缓存(默认);
+	 * 大于0时被内存策略淘汰的实例序列化到堆外,未命中内存时先于持久层检索.仅对{@link Unit#ENTITY}有效.
+	 * </pre>
+	 */
+	long offHeapCapacity() default 0L;
+
+	/**
+	 * 预加载数量上限
+	 *
+	 * <pre>
+	 * 0表示不预加载(默认);
+	 * 大于0时{@link com.jstarcraft.core.cache.CacheService#start()}并行加载最多指定数量的实例到内存.仅对{@link Unit#ENTITY}有效.
+	 * </pre>
+	 */
+	int preloadSize() default 0;
+
+	/**
+	 * 缺失数量上限
+	 *
+	 * <pre>
+	 * 0表示不记录缺失的标识(默认);
+	 * 大于0时持久层查询不到的标识记录在有界的缺失缓存中(最近最少使用淘汰),过期以前重复查询不再访问持久层.仅对{@link Unit#ENTITY}有效.
+	 * </pre>
+	 */
+	int absenceSize() default 0;
+
+	/** 缺失过期时间(秒),配合{@link #absenceSize()}使用. */
+	int absenceExpire() default 60;
+
+	/**
+	 * 刷新间隔(秒)
+	 *
+	 * <pre>
+	 * 0表示不刷新(默认);
+	 * 大于0时内存中超过间隔(从首次命中开始计算)的实例被访问时,由缓存服务的刷新线程在后台通过持久层重新加载,刷新完成以前继续返回旧的实例.
+	 * 配合{@link com.jstarcraft.core.cache.transience.DelayedTransienceStrategy}时应该小于过期时间,使热点实例在过期以前刷新.
+	 * 刷新把持久层的状态复制到内存中的实例(与代理方法互斥),所以只适用于被外部程序修改,本节点很少修改的类型.仅对{@link Unit#ENTITY}有效.
+	 * </pre>
+	 */
+	int refreshInterval() default 0;
+
 }
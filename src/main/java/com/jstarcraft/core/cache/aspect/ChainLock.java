@@ -40,6 +40,26 @@ public class ChainLock implements Closeable {
 		}
 	}
 
+	/**
+	 * 开启排序锁(记录竞争)
+	 * 
+	 * <pre>
+	 * 每个锁先尝试立即获得,失败时才计时等待,并且把等待时间记录到锁的名称.
+	 * </pre>
+	 * 
+	 * @param profiler
+	 */
+	public void open(ChainLockProfiler profiler) {
+		for (Lock lock : locks) {
+			if (lock.tryLock()) {
+				continue;
+			}
+			long begin = System.nanoTime();
+			lock.lock();
+			profiler.recordContention(lock, System.nanoTime() - begin);
+		}
+	}
+
 	/**
 	 * 关闭排序锁
 	 */
@@ -1,8 +1,13 @@
 package com.jstarcraft.core.cache.aspect;
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
@@ -12,10 +17,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.jstarcraft.core.cache.annotation.Lock4Method;
+import com.jstarcraft.core.utility.StringUtility;
 
 /**
  * 自动锁切面
  * 
+ * <pre>
+ * 开启剖析时,通过{@link ChainLockProfiler}记录每个方法的加锁等待与持有锁时间,以及竞争最激烈的锁,并且注册到JMX.
+ * </pre>
+ * 
  * @author Birdy
  */
 @Aspect
@@ -23,10 +33,65 @@ public class ChainLockAspect {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(ChainLockAspect.class);
 
+	/** 链锁剖析器的JMX名称 */
+	public static final String PROFILER_NAME = "com.jstarcraft.core.cache:type=ChainLockProfiler";
+
 	/** 链映射 */
 	private ConcurrentHashMap<Method, ChainLockManager> factories = new ConcurrentHashMap<Method, ChainLockManager>();
 	/** 标记映射(用于非强制锁) */
 	private ThreadLocal<Object> marks = new ThreadLocal<Object>();
+	/** 剖析器(没有开启剖析时为null) */
+	private final ChainLockProfiler profiler;
+	/** 已经注册到JMX的剖析器 */
+	private ObjectName profilerName;
+
+	public ChainLockAspect() {
+		this(false);
+	}
+
+	public ChainLockAspect(boolean profile) {
+		if (profile) {
+			this.profiler = new ChainLockProfiler();
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			try {
+				ObjectName name = new ObjectName(PROFILER_NAME);
+				server.registerMBean(profiler, name);
+				this.profilerName = name;
+			} catch (InstanceAlreadyExistsException exception) {
+				LOGGER.warn("链锁剖析器[{}]已经注册", PROFILER_NAME);
+			} catch (Exception exception) {
+				String message = StringUtility.format("注册链锁剖析器[{}]异常", PROFILER_NAME);
+				LOGGER.error(message, exception);
+			}
+		} else {
+			this.profiler = null;
+		}
+	}
+
+	/**
+	 * 获取剖析器
+	 * 
+	 * @return 没有开启剖析时为null
+	 */
+	public ChainLockMonitor getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * 关闭(从JMX注销剖析器)
+	 */
+	public void close() {
+		if (profilerName != null) {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			try {
+				server.unregisterMBean(profilerName);
+			} catch (Exception exception) {
+				String message = StringUtility.format("注销链锁剖析器[{}]异常", PROFILER_NAME);
+				LOGGER.error(message, exception);
+			}
+			profilerName = null;
+		}
+	}
 
 	/** 锁方法拦截处理 */
 	@Around("@annotation(lock4Method)")
@@ -53,20 +118,29 @@ public class ChainLockAspect {
 
 	private Object execute(ProceedingJoinPoint point, Signature signature) throws Throwable {
 		Method method = ((MethodSignature) signature).getMethod();
-		// 获取自动链
-		ChainLockManager factory = null;
-		synchronized (method) {
-			factory = factories.get(method);
-			if (factory == null) {
-				factory = ChainLockManager.instanceOf(method);
-				factories.put(method, factory);
-			}
+		// 获取自动链(命中时不加锁)
+		ChainLockManager factory = factories.get(method);
+		if (factory == null) {
+			factory = factories.computeIfAbsent(method, ChainLockManager::instanceOf);
 		}
 
 		Object[] arguments = point.getArgs();
-		try (ChainLock lock = factory.getLock(arguments)) {
-			lock.open();
+		if (profiler == null) {
+			try (ChainLock lock = factory.getLock(arguments)) {
+				lock.open();
+				return point.proceed(arguments);
+			}
+		}
+		ChainLockProfile profile = profiler.getProfile(method);
+		ChainLock lock = factory.getLock(arguments);
+		long begin = System.nanoTime();
+		lock.open(profiler);
+		long acquire = System.nanoTime();
+		try {
 			return point.proceed(arguments);
+		} finally {
+			lock.close();
+			profile.record(acquire - begin, System.nanoTime() - acquire);
 		}
 	}
 
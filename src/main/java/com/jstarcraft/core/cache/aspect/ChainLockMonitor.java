@@ -0,0 +1,77 @@
+package com.jstarcraft.core.cache.aspect;
+
+import javax.management.MXBean;
+
+/**
+ * 链锁监控器(JMX)
+ * 
+ * <pre>
+ * 方法名称格式为类型.方法(参数类型,...),直方图的第i个桶为时间小于2^i微秒(并且不小于2^(i-1)微秒)的次数.
+ * </pre>
+ * 
+ * @author Birdy
+ */
+@MXBean
+public interface ChainLockMonitor {
+
+	/**
+	 * 获取已经记录的方法名称
+	 * 
+	 * @return
+	 */
+	String[] getMethodNames();
+
+	/**
+	 * 获取指定方法的加锁次数
+	 * 
+	 * @param method
+	 * @return
+	 */
+	long getLockCount(String method);
+
+	/**
+	 * 获取指定方法的加锁等待时间(纳秒)
+	 * 
+	 * @param method
+	 * @return
+	 */
+	long getWaitTime(String method);
+
+	/**
+	 * 获取指定方法的持有锁时间(纳秒)
+	 * 
+	 * @param method
+	 * @return
+	 */
+	long getHoldTime(String method);
+
+	/**
+	 * 获取指定方法的加锁等待直方图
+	 * 
+	 * @param method
+	 * @return
+	 */
+	long[] getWaitHistogram(String method);
+
+	/**
+	 * 获取指定方法的持有锁直方图
+	 * 
+	 * @param method
+	 * @return
+	 */
+	long[] getHoldHistogram(String method);
+
+	/**
+	 * 获取竞争最激烈(等待时间最长)的锁
+	 * 
+	 * @param size
+	 * @return 锁[次数,等待微秒]
+	 */
+	String[] getContendedKeys(int size);
+
+	/**
+	 * 清空记录
+	 */
+	void reset();
+
+}
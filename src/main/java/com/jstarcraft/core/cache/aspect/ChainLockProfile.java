@@ -0,0 +1,82 @@
+package com.jstarcraft.core.cache.aspect;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 链锁剖析(每个方法一个)
+ * 
+ * @author Birdy
+ */
+class ChainLockProfile {
+
+	/** 直方图的桶数量(最后一个桶约为2^31微秒以上) */
+	static final int BUCKET_SIZE = 32;
+
+	/** 加锁 */
+	private final LongAdder lockCount = new LongAdder();
+	/** 加锁等待时间 */
+	private final LongAdder waitTime = new LongAdder();
+	/** 持有锁时间 */
+	private final LongAdder holdTime = new LongAdder();
+	/** 加锁等待直方图 */
+	private final LongAdder[] waitHistogram = new LongAdder[BUCKET_SIZE];
+	/** 持有锁直方图 */
+	private final LongAdder[] holdHistogram = new LongAdder[BUCKET_SIZE];
+
+	ChainLockProfile() {
+		for (int index = 0; index < BUCKET_SIZE; index++) {
+			waitHistogram[index] = new LongAdder();
+			holdHistogram[index] = new LongAdder();
+		}
+	}
+
+	private static int getBucket(long time) {
+		long micros = time / 1000L;
+		return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_SIZE - 1);
+	}
+
+	private static long[] getHistogram(LongAdder[] adders) {
+		long[] histogram = new long[BUCKET_SIZE];
+		for (int index = 0; index < BUCKET_SIZE; index++) {
+			histogram[index] = adders[index].sum();
+		}
+		return histogram;
+	}
+
+	/**
+	 * 记录一次加锁
+	 * 
+	 * @param wait
+	 *            加锁等待时间(纳秒)
+	 * @param hold
+	 *            持有锁时间(纳秒)
+	 */
+	void record(long wait, long hold) {
+		lockCount.increment();
+		waitTime.add(wait);
+		holdTime.add(hold);
+		waitHistogram[getBucket(wait)].increment();
+		holdHistogram[getBucket(hold)].increment();
+	}
+
+	long getLockCount() {
+		return lockCount.sum();
+	}
+
+	long getWaitTime() {
+		return waitTime.sum();
+	}
+
+	long getHoldTime() {
+		return holdTime.sum();
+	}
+
+	long[] getWaitHistogram() {
+		return getHistogram(waitHistogram);
+	}
+
+	long[] getHoldHistogram() {
+		return getHistogram(holdHistogram);
+	}
+
+}
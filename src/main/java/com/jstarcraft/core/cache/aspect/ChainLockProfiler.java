@@ -0,0 +1,152 @@
+package com.jstarcraft.core.cache.aspect;
+
+import java.lang.reflect.Method;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+
+import com.jstarcraft.core.utility.StringUtility;
+
+/**
+ * 链锁剖析器
+ * 
+ * <pre>
+ * 按方法记录加锁等待与持有锁的时间直方图,按锁记录竞争(没有立即获得锁)的次数与等待时间.
+ * 只有竞争的时候才会生成锁的名称,没有竞争时的开销只是一次{@link Lock#tryLock()}与计数.
+ * 记录的锁数量达到上限以后,新的锁不再记录.
+ * </pre>
+ * 
+ * @author Birdy
+ */
+public class ChainLockProfiler implements ChainLockMonitor {
+
+	/** 记录的锁数量上限 */
+	public static final int MAXIMUM_KEY_SIZE = 10000;
+
+	/** 方法 -> 剖析 */
+	private final ConcurrentHashMap<Method, ChainLockProfile> methods = new ConcurrentHashMap<>();
+	/** 方法名称 -> 剖析 */
+	private final ConcurrentHashMap<String, ChainLockProfile> names = new ConcurrentHashMap<>();
+	/** 锁名称 -> 竞争(次数,等待时间) */
+	private final ConcurrentHashMap<String, LongAdder[]> contentions = new ConcurrentHashMap<>();
+
+	private static String getName(Method method) {
+		StringBuilder buffer = new StringBuilder();
+		for (Class<?> clazz : method.getParameterTypes()) {
+			if (buffer.length() > 0) {
+				buffer.append(',');
+			}
+			buffer.append(clazz.getSimpleName());
+		}
+		return StringUtility.format("{}.{}({})", method.getDeclaringClass().getName(), method.getName(), buffer.toString());
+	}
+
+	private static String getKey(Lock lock) {
+		if (lock instanceof CompareLock) {
+			CompareLock compareLock = (CompareLock) lock;
+			return StringUtility.format("{}[{}]", compareLock.getClazz().getName(), compareLock.getValue());
+		}
+		return lock.toString();
+	}
+
+	/**
+	 * 获取指定方法的剖析
+	 * 
+	 * @param method
+	 * @return
+	 */
+	ChainLockProfile getProfile(Method method) {
+		ChainLockProfile profile = methods.get(method);
+		if (profile == null) {
+			profile = methods.computeIfAbsent(method, (key) -> {
+				return names.computeIfAbsent(getName(key), (name) -> new ChainLockProfile());
+			});
+		}
+		return profile;
+	}
+
+	/**
+	 * 记录锁竞争
+	 * 
+	 * @param lock
+	 * @param wait
+	 *            等待时间(纳秒)
+	 */
+	void recordContention(Lock lock, long wait) {
+		String key = getKey(lock);
+		LongAdder[] contention = contentions.get(key);
+		if (contention == null) {
+			if (contentions.size() >= MAXIMUM_KEY_SIZE) {
+				return;
+			}
+			contention = contentions.computeIfAbsent(key, (name) -> new LongAdder[] { new LongAdder(), new LongAdder() });
+		}
+		contention[0].increment();
+		contention[1].add(wait);
+	}
+
+	@Override
+	public String[] getMethodNames() {
+		return names.keySet().toArray(new String[names.size()]);
+	}
+
+	@Override
+	public long getLockCount(String method) {
+		ChainLockProfile profile = names.get(method);
+		return profile == null ? 0L : profile.getLockCount();
+	}
+
+	@Override
+	public long getWaitTime(String method) {
+		ChainLockProfile profile = names.get(method);
+		return profile == null ? 0L : profile.getWaitTime();
+	}
+
+	@Override
+	public long getHoldTime(String method) {
+		ChainLockProfile profile = names.get(method);
+		return profile == null ? 0L : profile.getHoldTime();
+	}
+
+	@Override
+	public long[] getWaitHistogram(String method) {
+		ChainLockProfile profile = names.get(method);
+		return profile == null ? new long[ChainLockProfile.BUCKET_SIZE] : profile.getWaitHistogram();
+	}
+
+	@Override
+	public long[] getHoldHistogram(String method) {
+		ChainLockProfile profile = names.get(method);
+		return profile == null ? new long[ChainLockProfile.BUCKET_SIZE] : profile.getHoldHistogram();
+	}
+
+	@Override
+	public String[] getContendedKeys(int size) {
+		List<Entry<String, long[]>> keys = new ArrayList<>(contentions.size());
+		for (Entry<String, LongAdder[]> keyValue : contentions.entrySet()) {
+			LongAdder[] contention = keyValue.getValue();
+			keys.add(new SimpleImmutableEntry<>(keyValue.getKey(), new long[] { contention[0].sum(), contention[1].sum() }));
+		}
+		keys.sort(Comparator.comparingLong((Entry<String, long[]> keyValue) -> keyValue.getValue()[1]).reversed());
+		size = Math.min(size, keys.size());
+		String[] contendedKeys = new String[size];
+		for (int index = 0; index < size; index++) {
+			Entry<String, long[]> keyValue = keys.get(index);
+			contendedKeys[index] = StringUtility.format("{}[{},{}]", keyValue.getKey(), keyValue.getValue()[0], keyValue.getValue()[1] / 1000L);
+		}
+		return contendedKeys;
+	}
+
+	@Override
+	public void reset() {
+		methods.clear();
+		names.clear();
+		contentions.clear();
+	}
+
+}
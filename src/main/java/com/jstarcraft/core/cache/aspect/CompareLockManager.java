@@ -1,10 +1,11 @@
 package com.jstarcraft.core.cache.aspect;
 
-import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.jstarcraft.core.utility.ConcurrentWeakHashMap;
+
 /**
  * 排序锁管理器
  * 
@@ -16,11 +17,21 @@ public class CompareLockManager {
 	/** 排序锁管理器 */
 	private static final ConcurrentHashMap<Class, CompareLockManager> sortLockManagers = new ConcurrentHashMap<Class, CompareLockManager>();
 	/** 类型锁 */
-	private final Lock clazzLock = new ReentrantLock();
+	private final Lock clazzLock;
 	/** 实例锁(使用弱引用缓存) */
-	private final WeakHashMap<Object, CompareLock> instanceLocks = new WeakHashMap<Object, CompareLock>();
+	private final ConcurrentWeakHashMap<Object, CompareLock> instanceLocks = new ConcurrentWeakHashMap<Object, CompareLock>();
+
+	private CompareLockManager(Class clazz) {
+		String name = clazz.getName();
+		this.clazzLock = new ReentrantLock() {
+
+			@Override
+			public String toString() {
+				// 用于剖析时识别类型锁
+				return name;
+			}
 
-	private CompareLockManager() {
+		};
 	}
 
 	/**
@@ -30,14 +41,9 @@ public class CompareLockManager {
 	 * @return
 	 */
 	public CompareLock getInstanceLock(Comparable instance) {
-		synchronized (instance) {
-			CompareLock value = instanceLocks.get(instance);
-			if (value == null) {
-				value = new CompareLock(instance, false);
-				instanceLocks.put(instance, value);
-			}
-			return value;
-		}
+		return instanceLocks.computeIfAbsent(instance, (key) -> {
+			return new CompareLock(instance, false);
+		});
 	}
 
 	/**
@@ -50,14 +56,12 @@ public class CompareLockManager {
 	}
 
 	public static CompareLockManager getManager(Class clazz) {
-		synchronized (clazz) {
-			CompareLockManager manager = sortLockManagers.get(clazz);
-			if (manager == null) {
-				manager = new CompareLockManager();
-				sortLockManagers.put(clazz, manager);
-			}
-			return manager;
+		// 命中时不加锁
+		CompareLockManager manager = sortLockManagers.get(clazz);
+		if (manager == null) {
+			manager = sortLockManagers.computeIfAbsent(clazz, CompareLockManager::new);
 		}
+		return manager;
 	}
 
 }
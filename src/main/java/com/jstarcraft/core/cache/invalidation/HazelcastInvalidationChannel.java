@@ -0,0 +1,55 @@
+package com.jstarcraft.core.cache.invalidation;
+
+import java.util.function.Consumer;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+
+/**
+ * Hazelcast失效通道
+ *
+ * <pre>
+ * 基于{@link ITopic}广播,消息使用Java序列化.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class HazelcastInvalidationChannel implements InvalidationChannel {
+
+	private static final String DEFAULT_TOPIC = "jstarcraft.cache.invalidation";
+
+	private final ITopic<InvalidationMessage> topic;
+
+	/** 注册标识 */
+	private String registration;
+
+	public HazelcastInvalidationChannel(HazelcastInstance hazelcastInstance) {
+		this(hazelcastInstance, DEFAULT_TOPIC);
+	}
+
+	public HazelcastInvalidationChannel(HazelcastInstance hazelcastInstance, String topic) {
+		this.topic = hazelcastInstance.getTopic(topic);
+	}
+
+	@Override
+	public void start(Consumer<InvalidationMessage> listener) {
+		registration = topic.addMessageListener((message) -> {
+			listener.accept(message.getMessageObject());
+		});
+	}
+
+	@Override
+	public void stop() {
+		if (registration != null) {
+			topic.removeMessageListener(registration);
+			registration = null;
+		}
+	}
+
+	@Override
+	public void publish(InvalidationMessage message) {
+		topic.publish(message);
+	}
+
+}
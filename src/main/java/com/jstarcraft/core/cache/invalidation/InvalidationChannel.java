@@ -0,0 +1,37 @@
+package com.jstarcraft.core.cache.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * 失效通道
+ *
+ * <pre>
+ * 在多个节点之间广播{@link InvalidationMessage}.
+ * 通道会把消息投递给所有节点(包括发布者),由接收者根据来源过滤.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public interface InvalidationChannel {
+
+	/**
+	 * 启动(订阅消息)
+	 *
+	 * @param listener
+	 */
+	void start(Consumer<InvalidationMessage> listener);
+
+	/**
+	 * 停止(取消订阅)
+	 */
+	void stop();
+
+	/**
+	 * 发布消息
+	 *
+	 * @param message
+	 */
+	void publish(InvalidationMessage message);
+
+}
@@ -0,0 +1,82 @@
+package com.jstarcraft.core.cache.invalidation;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.jstarcraft.core.cache.CacheIndex;
+
+/**
+ * 失效消息
+ *
+ * <pre>
+ * 一个节点在一个批次内持久的所有标识与索引,相同的标识与索引只出现一次.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class InvalidationMessage implements Serializable {
+
+	private static final long serialVersionUID = -3547612934107316265L;
+
+	/** 来源节点 */
+	private String source;
+
+	/** 失效的标识(类型名称 -> 标识集合) */
+	private HashMap<String, HashSet<Comparable>> identities;
+
+	/** 失效的索引(类型名称 -> 索引集合) */
+	private HashMap<String, HashSet<CacheIndex>> indexes;
+
+	InvalidationMessage() {
+	}
+
+	public InvalidationMessage(String source, HashMap<String, HashSet<Comparable>> identities, HashMap<String, HashSet<CacheIndex>> indexes) {
+		this.source = source;
+		this.identities = identities;
+		this.indexes = indexes;
+	}
+
+	public String getSource() {
+		return source;
+	}
+
+	public Map<String, HashSet<Comparable>> getIdentities() {
+		return identities;
+	}
+
+	public Map<String, HashSet<CacheIndex>> getIndexes() {
+		return indexes;
+	}
+
+	/**
+	 * 获取指定类型失效的标识
+	 *
+	 * @param name
+	 * @return
+	 */
+	public Set<Comparable> getIdentities(String name) {
+		Set<Comparable> values = identities.get(name);
+		return values == null ? new HashSet<>() : values;
+	}
+
+	/**
+	 * 获取指定类型失效的索引
+	 *
+	 * @param name
+	 * @return
+	 */
+	public Set<CacheIndex> getIndexes(String name) {
+		Set<CacheIndex> values = indexes.get(name);
+		return values == null ? new HashSet<>() : values;
+	}
+
+	@Override
+	public String toString() {
+		return "InvalidationMessage [source=" + source + ", identities=" + identities + ", indexes=" + indexes + "]";
+	}
+
+}
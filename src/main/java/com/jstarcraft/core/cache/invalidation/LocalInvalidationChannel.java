@@ -0,0 +1,70 @@
+package com.jstarcraft.core.cache.invalidation;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jstarcraft.core.utility.StringUtility;
+
+/**
+ * 进程内失效通道
+ *
+ * <pre>
+ * 同一个JVM中相同主题的通道互相广播,用于测试或者同一个进程中的多个缓存服务.
+ * 消息在发布者的线程中同步投递.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class LocalInvalidationChannel implements InvalidationChannel {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocalInvalidationChannel.class);
+
+	/** 主题 -> 监听器 */
+	private static final ConcurrentHashMap<String, Set<Consumer<InvalidationMessage>>> TOPICS = new ConcurrentHashMap<>();
+
+	/** 主题 */
+	private final String topic;
+
+	/** 监听器 */
+	private Consumer<InvalidationMessage> listener;
+
+	public LocalInvalidationChannel(String topic) {
+		this.topic = topic;
+	}
+
+	@Override
+	public void start(Consumer<InvalidationMessage> listener) {
+		this.listener = listener;
+		TOPICS.computeIfAbsent(topic, (key) -> ConcurrentHashMap.newKeySet()).add(listener);
+	}
+
+	@Override
+	public void stop() {
+		TOPICS.computeIfPresent(topic, (key, listeners) -> {
+			listeners.remove(listener);
+			return listeners.isEmpty() ? null : listeners;
+		});
+	}
+
+	@Override
+	public void publish(InvalidationMessage message) {
+		Set<Consumer<InvalidationMessage>> listeners = TOPICS.get(topic);
+		if (listeners == null) {
+			return;
+		}
+		for (Consumer<InvalidationMessage> listener : listeners) {
+			try {
+				listener.accept(message);
+			} catch (Exception exception) {
+				String error = StringUtility.format("进程内失效通道[{}]投递消息[{}]异常", topic, message);
+				LOGGER.error(error, exception);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,56 @@
+package com.jstarcraft.core.cache.invalidation;
+
+import java.util.function.Consumer;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.codec.SerializationCodec;
+
+/**
+ * Redisson失效通道
+ *
+ * <pre>
+ * 基于{@link RTopic}(Redis发布订阅)广播,消息使用Java序列化,保证标识的类型不变.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class RedissonInvalidationChannel implements InvalidationChannel {
+
+	private static final String DEFAULT_TOPIC = "jstarcraft.cache.invalidation";
+
+	private final RTopic<InvalidationMessage> topic;
+
+	/** 注册标识 */
+	private Integer registration;
+
+	public RedissonInvalidationChannel(RedissonClient redisson) {
+		this(redisson, DEFAULT_TOPIC);
+	}
+
+	public RedissonInvalidationChannel(RedissonClient redisson, String topic) {
+		this.topic = redisson.getTopic(topic, new SerializationCodec());
+	}
+
+	@Override
+	public void start(Consumer<InvalidationMessage> listener) {
+		registration = topic.addListener((channel, message) -> {
+			listener.accept(message);
+		});
+	}
+
+	@Override
+	public void stop() {
+		if (registration != null) {
+			topic.removeListener(registration);
+			registration = null;
+		}
+	}
+
+	@Override
+	public void publish(InvalidationMessage message) {
+		topic.publish(message);
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.jstarcraft.core.cache.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.Lock;
+
+import com.jstarcraft.core.cache.CacheObject;
+import com.jstarcraft.core.cache.proxy.ProxyObject;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+/**
+ * 分区持久管理器
+ *
+ * <pre>
+ * 由多个{@link QueuePersistenceManager}组成,每个分区拥有独立的队列,等待元素,读写锁与线程.
+ * 元素按照主键哈希路由到分区,保证同一个实体的操作顺序.
+ * 索引查询需要同时锁定所有分区,然后使用所有分区的等待元素覆盖数据库的结果.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class PartitionPersistenceManager<K extends Comparable, T extends CacheObject<K>> implements PersistenceManager<K, T> {
+
+	/** 类型 */
+	private Class cacheClass;
+	/** ORM访问器 */
+	private OrmAccessor accessor;
+	/** 分区 */
+	private QueuePersistenceManager<K, T>[] partitions;
+	/** 监听器 */
+	private PersistenceMonitor monitor;
+
+	PartitionPersistenceManager(Class cacheClass, OrmAccessor accessor, QueuePersistenceManager<K, T>[] partitions) {
+		this.cacheClass = cacheClass;
+		this.accessor = accessor;
+		this.partitions = partitions;
+	}
+
+	/**
+	 * 获取指定主键所在的分区
+	 *
+	 * @param cacheId
+	 * @return
+	 */
+	private QueuePersistenceManager<K, T> getPartition(Comparable cacheId) {
+		int hash = cacheId.hashCode();
+		// 与HashMap一样扩散高位
+		hash ^= (hash >>> 16);
+		return partitions[(hash & Integer.MAX_VALUE) % partitions.length];
+	}
+
+	private void lockPartitions() {
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			partition.getReadLock().lock();
+		}
+	}
+
+	private void unlockPartitions() {
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			partition.getReadLock().unlock();
+		}
+	}
+
+	@Override
+	public T getInstance(K cacheId) {
+		return getPartition(cacheId).getInstance(cacheId);
+	}
+
+	@Override
+	public Map<K, T> getInstances(Collection<K> cacheIds) {
+		// 按照分区分组
+		Map<QueuePersistenceManager<K, T>, List<K>> groups = new HashMap<>();
+		for (K cacheId : cacheIds) {
+			groups.computeIfAbsent(getPartition(cacheId), (partition) -> new ArrayList<>()).add(cacheId);
+		}
+		try {
+			lockPartitions();
+			Map<K, T> instances = new HashMap<>();
+			List<K> misses = new ArrayList<>(cacheIds.size());
+			for (Entry<QueuePersistenceManager<K, T>, List<K>> keyValue : groups.entrySet()) {
+				misses.addAll(keyValue.getKey().overlayInstances(instances, keyValue.getValue()));
+			}
+			// 所有分区的未命中合并为一次查询
+			if (!misses.isEmpty()) {
+				instances.putAll(accessor.getInstances(cacheClass, misses));
+			}
+			return instances;
+		} finally {
+			unlockPartitions();
+		}
+	}
+
+	@Override
+	public Map<K, Object> getIdentities(String indexName, Comparable indexValue) {
+		try {
+			lockPartitions();
+			Map<K, Object> values = accessor.queryIdentities(cacheClass, indexName, indexValue);
+			for (QueuePersistenceManager<K, T> partition : partitions) {
+				partition.overlayIdentities(values, indexName, indexValue);
+			}
+			return values;
+		} finally {
+			unlockPartitions();
+		}
+	}
+
+	@Override
+	public List<T> getInstances(String indexName, Comparable indexValue) {
+		try {
+			lockPartitions();
+			List<T> values = accessor.queryInstances(cacheClass, indexName, indexValue);
+
+			Map<K, T> instances = new HashMap<>();
+			for (T value : values) {
+				instances.put(value.getId(), value);
+			}
+			for (QueuePersistenceManager<K, T> partition : partitions) {
+				partition.overlayInstances(instances, indexName, indexValue);
+			}
+			return new ArrayList<>(instances.values());
+		} finally {
+			unlockPartitions();
+		}
+	}
+
+	@Override
+	public List<T> getInstances(String indexName, Comparable from, Comparable to) {
+		try {
+			lockPartitions();
+			List<T> values = accessor.queryInstances(cacheClass, indexName, from, to);
+
+			Map<K, T> instances = new HashMap<>();
+			for (T value : values) {
+				instances.put(value.getId(), value);
+			}
+			for (QueuePersistenceManager<K, T> partition : partitions) {
+				partition.overlayInstances(instances, indexName, from, to);
+			}
+			return new ArrayList<>(instances.values());
+		} finally {
+			unlockPartitions();
+		}
+	}
+
+	@Override
+	public PersistenceElement createInstance(CacheObject<?> cacheObject) {
+		if (cacheObject instanceof ProxyObject) {
+			cacheObject = ((ProxyObject) cacheObject).getInstance();
+		}
+		return getPartition(cacheObject.getId()).createInstance(cacheObject);
+	}
+
+	@Override
+	public PersistenceElement deleteInstance(Comparable cacheId) {
+		return getPartition(cacheId).deleteInstance(cacheId);
+	}
+
+	@Override
+	public PersistenceElement updateInstance(CacheObject<?> cacheObject) {
+		return updateInstance(cacheObject, null);
+	}
+
+	@Override
+	public PersistenceElement updateInstance(CacheObject<?> cacheObject, String[] fields) {
+		if (cacheObject instanceof ProxyObject) {
+			cacheObject = ((ProxyObject) cacheObject).getInstance();
+		}
+		return getPartition(cacheObject.getId()).updateInstance(cacheObject, fields);
+	}
+
+	@Override
+	public void setMonitor(PersistenceMonitor monitor) {
+		this.monitor = monitor;
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			partition.setMonitor(monitor);
+		}
+	}
+
+	@Override
+	public PersistenceMonitor getMonitor() {
+		return monitor;
+	}
+
+	/**
+	 * 获取分区数量
+	 *
+	 * @return
+	 */
+	public int getPartitionSize() {
+		return partitions.length;
+	}
+
+	/**
+	 * 获取指定分区的等待数量
+	 *
+	 * @param partition
+	 * @return
+	 */
+	public int getWaitSize(int partition) {
+		return partitions[partition].getWaitSize();
+	}
+
+	@Override
+	public int getWaitSize() {
+		int size = 0;
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			size += partition.getWaitSize();
+		}
+		return size;
+	}
+
+	@Override
+	public boolean isWaiting(K cacheId) {
+		return getPartition(cacheId).isWaiting(cacheId);
+	}
+
+	@Override
+	public long getCreatedCount() {
+		long count = 0L;
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			count += partition.getCreatedCount();
+		}
+		return count;
+	}
+
+	@Override
+	public long getUpdatedCount() {
+		long count = 0L;
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			count += partition.getUpdatedCount();
+		}
+		return count;
+	}
+
+	@Override
+	public long getDeletedCount() {
+		long count = 0L;
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			count += partition.getDeletedCount();
+		}
+		return count;
+	}
+
+	@Override
+	public long getExceptionCount() {
+		long count = 0L;
+		for (QueuePersistenceManager<K, T> partition : partitions) {
+			count += partition.getExceptionCount();
+		}
+		return count;
+	}
+
+}
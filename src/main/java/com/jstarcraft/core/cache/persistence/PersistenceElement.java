@@ -1,5 +1,9 @@
 package com.jstarcraft.core.cache.persistence;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import com.jstarcraft.core.cache.CacheObject;
 import com.jstarcraft.core.cache.exception.CacheOperationException;
 import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+import com.jstarcraft.core.utility.ReflectionUtility;
 
 /**
  * 持久元素
@@ -21,19 +26,39 @@ public class PersistenceElement {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceElement.class);
 
+	/** 重试间隔(毫秒) */
+	static final long RETRY_INTERVAL = 1000L;
+
+	/** 最大重试间隔(毫秒) */
+	static final long MAXIMUM_RETRY_INTERVAL = 60000L;
+
 	/** 操作类型 */
 	private PersistenceOperation operation;
 	/** 缓存主键 */
 	private final  Comparable  cacheId;
 	/** 缓存对象({@link PersistenceOperation.DELETE}时为null) */
 	private CacheObject<?> cacheObject;
+	/** 变更字段(null表示整个对象,只有{@link PersistenceOperation.UPDATE}可能不为null) */
+	private HashSet<String> fields;
 	/** 是否忽略 */
 	private boolean ignore;
+	/** 失败次数 */
+	private int failures;
+	/** 下次重试的时间 */
+	private long retryTime;
 
 	PersistenceElement(PersistenceOperation operation, Comparable cacheId, CacheObject<?> cacheObject) {
+		this(operation, cacheId, cacheObject, null);
+	}
+
+	PersistenceElement(PersistenceOperation operation, Comparable cacheId, CacheObject<?> cacheObject, String[] fields) {
 		this.operation = operation;
 		this.cacheId = cacheId;
 		this.cacheObject = cacheObject;
+		if (fields != null && operation == PersistenceOperation.UPDATE) {
+			this.fields = new HashSet<>();
+			Collections.addAll(this.fields, fields);
+		}
 	}
 
 	/**
@@ -97,12 +122,21 @@ public class PersistenceElement {
 				LOGGER.error("元素操作异常,缓存对象[{}]旧操作[{}]新操作[{}]", new Object[] { cacheId, operation, element.getOperation() });
 				throw new CacheOperationException();
 			case UPDATE:
+				// 合并变更字段,任意一次变更整个对象则退化为整个对象
+				if (fields != null) {
+					if (element.fields == null) {
+						fields = null;
+					} else {
+						fields.addAll(element.fields);
+					}
+				}
 				if (LOGGER.isDebugEnabled()) {
 					LOGGER.debug("元素操作修改,缓存对象[{}]旧操作[{}]新操作[{}]现在操作[{}]是否保留元素[{}]", new Object[] {  cacheId, PersistenceOperation.UPDATE, element.getOperation(), operation, true });
 				}
 				break;
 			case DELETE:
 				operation = PersistenceOperation.DELETE;
+				fields = null;
 				if (LOGGER.isDebugEnabled()) {
 					LOGGER.debug("元素操作修改,缓存对象[{}]旧操作[{}]新操作[{}]现在操作[{}]是否保留元素[{}]", new Object[] {  cacheId, PersistenceOperation.UPDATE, element.getOperation(), operation, true });
 				}
@@ -130,6 +164,37 @@ public class PersistenceElement {
 		return ignore;
 	}
 
+	/**
+	 * 退化为整个对象(放弃变更字段)
+	 */
+	void clearFields() {
+		fields = null;
+	}
+
+	/**
+	 * 记录持久失败
+	 * 
+	 * <pre>
+	 * 重试间隔按照失败次数指数增长,最长为{@link #MAXIMUM_RETRY_INTERVAL}.
+	 * </pre>
+	 * 
+	 * @param now
+	 */
+	void fail(long now) {
+		failures++;
+		retryTime = now + Math.min(RETRY_INTERVAL << Math.min(failures - 1, 16), MAXIMUM_RETRY_INTERVAL);
+	}
+
+	/**
+	 * 是否可以重试
+	 * 
+	 * @param now
+	 * @return
+	 */
+	boolean isRetry(long now) {
+		return now >= retryTime;
+	}
+
 	/**
 	 * 获取操作类型
 	 * 
@@ -141,6 +206,15 @@ public class PersistenceElement {
 
 	
 
+	/**
+	 * 获取变更字段
+	 * 
+	 * @return 变更字段,null表示整个对象
+	 */
+	public Set<String> getFields() {
+		return fields == null ? null : Collections.unmodifiableSet(fields);
+	}
+
 	/**
 	 * 获取缓存标识
 	 * 
@@ -159,6 +233,28 @@ public class PersistenceElement {
 		return cacheObject;
 	}
 
+	/**
+	 * 获取缓存对象的快照
+	 * 
+	 * <pre>
+	 * 在缓存对象的监视器中复制字段状态,复制完成以后立即释放监视器.
+	 * 访问数据库使用快照,数据库操作期间不阻塞对缓存对象的修改.
+	 * </pre>
+	 * 
+	 * @return
+	 */
+	CacheObject<?> getSnapshot() {
+		CacheObject<?> instance = cacheObject;
+		if (instance == null) {
+			return null;
+		}
+		CacheObject<?> snapshot = ReflectionUtility.getInstance(instance.getClass());
+		synchronized (instance) {
+			ReflectionUtility.shallowCopyFieldState(instance, snapshot);
+		}
+		return snapshot;
+	}
+
 	@Override
 	public String toString() {
 		ToStringBuilder string = new ToStringBuilder(this);
@@ -0,0 +1,168 @@
+package com.jstarcraft.core.cache.persistence;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.jstarcraft.core.cache.CacheInformation;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+
+/**
+ * 持久索引
+ *
+ * <pre>
+ * 维护等待持久的元素的索引值到主键的映射,使索引查询只需要处理命中的元素.
+ * 非线程安全,修改必须在持久管理器的写锁中执行,查询必须在读锁中执行.
+ * </pre>
+ *
+ * @author Birdy
+ */
+class PersistenceIndex {
+
+	/** 缓存类型信息 */
+	private final CacheInformation information;
+	/** 索引序号 -> 索引值 -> 主键集合 */
+	private final Map<Comparable, Set<Object>>[] indexes;
+	/** 主键 -> 索引值(按照序号) */
+	private final Map<Object, Comparable[]> values = new HashMap<>();
+
+	PersistenceIndex(CacheInformation information) {
+		this.information = information;
+		this.indexes = new Map[information.getIndexSize()];
+		for (int ordinal = 0; ordinal < indexes.length; ordinal++) {
+			indexes[ordinal] = new HashMap<>();
+		}
+	}
+
+	/**
+	 * 根据元素当前的状态更新索引
+	 *
+	 * @param element
+	 */
+	void index(PersistenceElement element) {
+		Object id = element.getCacheId();
+		unindex(id);
+		if (indexes.length == 0 || element.isIgnore() || element.getOperation().equals(PersistenceOperation.DELETE)) {
+			return;
+		}
+		Comparable[] indexValues = information.getIndexValues(element.getCacheObject());
+		values.put(id, indexValues);
+		for (int ordinal = 0; ordinal < indexes.length; ordinal++) {
+			Map<Comparable, Set<Object>> index = indexes[ordinal];
+			Set<Object> identities = index.get(indexValues[ordinal]);
+			if (identities == null) {
+				identities = new HashSet<>();
+				index.put(indexValues[ordinal], identities);
+			}
+			identities.add(id);
+		}
+	}
+
+	/**
+	 * 从索引中删除指定主键
+	 *
+	 * @param id
+	 */
+	void unindex(Object id) {
+		Comparable[] indexValues = values.remove(id);
+		if (indexValues == null) {
+			return;
+		}
+		for (int ordinal = 0; ordinal < indexes.length; ordinal++) {
+			Map<Comparable, Set<Object>> index = indexes[ordinal];
+			Set<Object> identities = index.get(indexValues[ordinal]);
+			identities.remove(id);
+			if (identities.isEmpty()) {
+				index.remove(indexValues[ordinal]);
+			}
+		}
+	}
+
+	/**
+	 * 获取指定索引值的等待主键集合
+	 *
+	 * @param name
+	 * @param value
+	 * @return
+	 */
+	Collection<Object> getIdentities(String name, Comparable value) {
+		int ordinal = information.getIndexOrdinal(name);
+		if (ordinal < 0) {
+			return Collections.emptySet();
+		}
+		Set<Object> identities = indexes[ordinal].get(value);
+		if (identities == null) {
+			return Collections.emptySet();
+		}
+		return identities;
+	}
+
+	/**
+	 * 获取指定索引范围的等待主键集合
+	 *
+	 * @param name
+	 * @param from
+	 *            下限(包含)
+	 * @param to
+	 *            上限(包含)
+	 * @return
+	 */
+	Collection<Object> getIdentities(String name, Comparable from, Comparable to) {
+		int ordinal = information.getIndexOrdinal(name);
+		if (ordinal < 0) {
+			return Collections.emptySet();
+		}
+		Set<Object> identities = new HashSet<>();
+		for (Entry<Comparable, Set<Object>> keyValue : indexes[ordinal].entrySet()) {
+			if (checkRange(keyValue.getKey(), from, to)) {
+				identities.addAll(keyValue.getValue());
+			}
+		}
+		return identities;
+	}
+
+	private static boolean checkRange(Comparable value, Comparable from, Comparable to) {
+		return value != null && from.compareTo(value) <= 0 && to.compareTo(value) >= 0;
+	}
+
+	/**
+	 * 检查等待主键的索引值是否在指定范围
+	 *
+	 * @param id
+	 * @param name
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	boolean checkValue(Object id, String name, Comparable from, Comparable to) {
+		Comparable[] indexValues = values.get(id);
+		int ordinal = information.getIndexOrdinal(name);
+		if (indexValues == null || ordinal < 0) {
+			return false;
+		}
+		return checkRange(indexValues[ordinal], from, to);
+	}
+
+	/**
+	 * 检查等待主键的索引值是否为指定值
+	 *
+	 * @param id
+	 * @param name
+	 * @param value
+	 * @return
+	 */
+	boolean checkValue(Object id, String name, Comparable value) {
+		Comparable[] indexValues = values.get(id);
+		int ordinal = information.getIndexOrdinal(name);
+		if (indexValues == null || ordinal < 0) {
+			return false;
+		}
+		Comparable current = indexValues[ordinal];
+		return current == null ? value == null : current.equals(value);
+	}
+
+}
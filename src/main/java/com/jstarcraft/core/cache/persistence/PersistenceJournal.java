@@ -0,0 +1,422 @@
+package com.jstarcraft.core.cache.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jstarcraft.core.cache.CacheObject;
+import com.jstarcraft.core.cache.exception.CacheException;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+import com.jstarcraft.core.codec.ContentCodec;
+import com.jstarcraft.core.codec.ProtocolContentCodec;
+import com.jstarcraft.core.codec.specification.CodecDefinition;
+import com.jstarcraft.core.orm.OrmAccessor;
+import com.jstarcraft.core.utility.StringUtility;
+
+/**
+ * 持久日志
+ *
+ * <pre>
+ * 配合{@link QueuePersistenceManager}与{@link SchedulePersistenceManager},在元素进入等待的同时追加到内存映射文件.
+ * 日志由多个分段组成,分段文件为[directory]/[cacheClass.name].[序号].[分段].journal,当前分段空间不足时开始新的分段.
+ * 记录格式为[长度(int)][操作(byte)][内容],内容是使用{@link ContentCodec}编码的缓存对象(删除时为缓存主键).
+ * 先写内容与下一条记录的长度(0),最后写本条记录的长度,所以不完整的记录不会被回放.
+ * 每个分段统计以其为最后记录的主键数量,主键持久以后释放,最早的分段不再有主键时被删除,所有主键释放以后截断当前分段.
+ * 启动时按照分段顺序与主键合并日志中的记录,以幂等的方式(存在则更新,不存在则创建)回放到数据库.
+ * 非线程安全,编码,追加与释放必须在持久管理器的写锁中执行.
+ * 内存映射保证进程异常退出时不会丢失数据,操作系统异常退出时可能丢失尚未刷到磁盘的数据.
+ * </pre>
+ *
+ * @author Birdy
+ */
+class PersistenceJournal {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PersistenceJournal.class);
+
+	/** 默认分段大小 */
+	static final int DEFAULT_SIZE = 8 * 1024 * 1024;
+
+	/** 最大分段大小(内存映射不能超过Integer.MAX_VALUE) */
+	private static final int MAXIMUM_SIZE = Integer.MAX_VALUE - 8;
+
+	/** 文件后缀 */
+	private static final String FILE_SUFFIX = ".journal";
+
+	/** 操作 */
+	private static final PersistenceOperation[] OPERATIONS = PersistenceOperation.values();
+
+	/** 目录 */
+	private final File directory;
+	/** 文件前缀([cacheClass.name].[序号].) */
+	private final String prefix;
+	/** 类型 */
+	private final Class cacheClass;
+	/** 主键类型 */
+	private final Class idClass;
+	/** 编解码器 */
+	private final ContentCodec codec;
+	/** 分段大小 */
+	private final int size;
+	/** 分段(按照先后顺序排列,最后一个为当前分段) */
+	private final LinkedList<Segment> segments = new LinkedList<>();
+	/** 主键与其最后记录所在分段的映射 */
+	private final Map<Object, Segment> records = new HashMap<>();
+	/** 分段序号 */
+	private long sequence;
+
+	PersistenceJournal(File directory, Class cacheClass, int index, int size) {
+		this.directory = directory;
+		this.prefix = cacheClass.getName() + "." + index + ".";
+		this.cacheClass = cacheClass;
+		this.idClass = getIdClass(cacheClass);
+		this.codec = getCodec(cacheClass, idClass);
+		this.size = size;
+		directory.mkdirs();
+		this.segments.add(new Segment(new File(directory, prefix + sequence + FILE_SUFFIX), size));
+	}
+
+	/**
+	 * 获取缓存主键的类型
+	 * 
+	 * @param clazz
+	 * @return
+	 */
+	private static Class getIdClass(Class clazz) {
+		for (Method method : clazz.getMethods()) {
+			if (method.getName().equals("getId") && method.getParameterCount() == 0 && !method.isBridge()) {
+				return method.getReturnType();
+			}
+		}
+		String message = StringUtility.format("类型[{}]的主键不存在", clazz.getName());
+		throw new CacheException(message);
+	}
+
+	private static ContentCodec getCodec(Class cacheClass, Class idClass) {
+		CodecDefinition definition = CodecDefinition.instanceOf(Arrays.<Type>asList(cacheClass, idClass));
+		return new ProtocolContentCodec(definition);
+	}
+
+	/**
+	 * 编码元素
+	 * 
+	 * <pre>
+	 * 保存的是调用时缓存对象的状态,必须与追加在同一个写锁中执行,保证同一个主键的记录顺序与修改顺序一致.
+	 * </pre>
+	 * 
+	 * @param operation
+	 * @param cacheId
+	 * @param cacheObject
+	 * @return
+	 */
+	byte[] encode(PersistenceOperation operation, Comparable cacheId, CacheObject<?> cacheObject) {
+		byte[] content = operation.equals(PersistenceOperation.DELETE) ? codec.encode(idClass, cacheId) : codec.encode(cacheClass, cacheObject);
+		byte[] record = new byte[content.length + 1];
+		record[0] = (byte) operation.ordinal();
+		System.arraycopy(content, 0, record, 1, content.length);
+		return record;
+	}
+
+	/**
+	 * 追加记录
+	 * 
+	 * <pre>
+	 * 当前分段空间不足时开始新的分段(记录超过分段大小时使用刚好容纳记录的分段).
+	 * </pre>
+	 * 
+	 * @param cacheId
+	 * @param record
+	 */
+	void append(Object cacheId, byte[] record) {
+		Segment segment = segments.getLast();
+		if (!segment.append(record)) {
+			// 记录长度+记录+下一条记录的长度
+			long length = 4L + record.length + 4L;
+			if (length > MAXIMUM_SIZE) {
+				String message = StringUtility.format("持久日志[{}]的主键[{}]记录长度[{}]超过最大分段大小", prefix, cacheId, record.length);
+				LOGGER.error(message);
+				throw new CacheException(message);
+			}
+			segment = new Segment(new File(directory, prefix + (++sequence) + FILE_SUFFIX), (int) Math.max(size, length));
+			segments.addLast(segment);
+			segment.append(record);
+		}
+		Segment last = records.put(cacheId, segment);
+		if (last != null) {
+			last.count--;
+		}
+		segment.count++;
+		clean();
+	}
+
+	/**
+	 * 释放主键(主键最后的记录已经持久)
+	 * 
+	 * @param cacheId
+	 */
+	void release(Object cacheId) {
+		Segment segment = records.remove(cacheId);
+		if (segment != null) {
+			segment.count--;
+			clean();
+		}
+	}
+
+	/**
+	 * 清理分段
+	 * 
+	 * <pre>
+	 * 只按照顺序删除最早的分段,较晚的分段即使不再有主键也要保留到更早的分段被删除为止,否则回放时会被更早分段中过时的记录覆盖.
+	 * </pre>
+	 */
+	private void clean() {
+		while (segments.size() > 1 && segments.getFirst().count == 0) {
+			segments.removeFirst().delete();
+		}
+		if (records.isEmpty()) {
+			segments.getLast().reset();
+		}
+	}
+
+	/**
+	 * 回放日志
+	 * 
+	 * @param cacheClass
+	 * @param files
+	 *            按照分段顺序排列的日志文件
+	 * @param accessor
+	 * @return 回放的主键数量
+	 */
+	private static int replay(Class cacheClass, Collection<File> files, OrmAccessor accessor) {
+		Class idClass = getIdClass(cacheClass);
+		ContentCodec codec = getCodec(cacheClass, idClass);
+		// 按照主键合并,只保留最后的状态(null表示删除)
+		Map<Comparable, CacheObject> instances = new LinkedHashMap<>();
+		for (File file : files) {
+			try (RandomAccessFile access = new RandomAccessFile(file, "r")) {
+				FileChannel channel = access.getChannel();
+				if (channel.size() > MAXIMUM_SIZE) {
+					String message = StringUtility.format("持久日志[{}]的大小[{}]超过最大分段大小", file, channel.size());
+					LOGGER.error(message);
+					throw new CacheException(message);
+				}
+				MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+				int index = 0;
+				while (index + 4 <= buffer.capacity()) {
+					int length = buffer.getInt(index);
+					if (length <= 0 || index + 4L + length > buffer.capacity()) {
+						break;
+					}
+					PersistenceOperation operation = OPERATIONS[buffer.get(index + 4)];
+					byte[] content = new byte[length - 1];
+					buffer.position(index + 5);
+					buffer.get(content);
+					if (operation.equals(PersistenceOperation.DELETE)) {
+						instances.put((Comparable) codec.decode(idClass, content), null);
+					} else {
+						CacheObject instance = (CacheObject) codec.decode(cacheClass, content);
+						instances.put(instance.getId(), instance);
+					}
+					index += 4 + length;
+				}
+			} catch (IOException exception) {
+				String message = StringUtility.format("持久日志[{}]读取异常", file);
+				LOGGER.error(message, exception);
+				throw new CacheException(message, exception);
+			}
+		}
+		for (Entry<Comparable, CacheObject> keyValue : instances.entrySet()) {
+			Comparable cacheId = keyValue.getKey();
+			CacheObject instance = keyValue.getValue();
+			try {
+				boolean exist = accessor.get(cacheClass, cacheId) != null;
+				if (instance == null) {
+					if (exist) {
+						accessor.delete(cacheClass, cacheId);
+					}
+				} else {
+					if (exist) {
+						accessor.update(cacheClass, instance);
+					} else {
+						accessor.create(cacheClass, instance);
+					}
+				}
+			} catch (Exception exception) {
+				// 保留日志,防止丢失数据
+				String message = StringUtility.format("持久日志[{}]回放主键[{}]异常", files, cacheId);
+				LOGGER.error(message, exception);
+				throw new CacheException(message, exception);
+			}
+		}
+		if (!instances.isEmpty()) {
+			LOGGER.info("持久日志[{}]回放[{}]个主键", files, instances.size());
+		}
+		return instances.size();
+	}
+
+	/**
+	 * 打开指定类型的日志
+	 * 
+	 * <pre>
+	 * 每个持久线程使用一个日志.
+	 * 先按照序号分组,按照分段顺序回放目录中此类型所有的日志(包括分区数量变化以后多余的日志),回放成功以后删除,再返回指定数量的空日志.
+	 * 没有分段的日志文件[cacheClass.name].[序号].journal作为最早的分段回放.
+	 * </pre>
+	 * 
+	 * @param directory
+	 * @param cacheClass
+	 * @param number
+	 * @param size
+	 * @param accessor
+	 * @return
+	 */
+	static PersistenceJournal[] instanceOf(File directory, Class cacheClass, int number, int size, OrmAccessor accessor) {
+		String prefix = cacheClass.getName() + ".";
+		// 序号->分段->文件
+		Map<Integer, TreeMap<Long, File>> indexes = new TreeMap<>();
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				String name = file.getName();
+				if (!name.startsWith(prefix) || !name.endsWith(FILE_SUFFIX)) {
+					continue;
+				}
+				String[] numbers = name.substring(prefix.length(), name.length() - FILE_SUFFIX.length()).split("\\.");
+				if (numbers.length > 2) {
+					continue;
+				}
+				int index;
+				long segment;
+				try {
+					index = Integer.parseInt(numbers[0]);
+					segment = numbers.length == 1 ? -1L : Long.parseLong(numbers[1]);
+				} catch (NumberFormatException exception) {
+					continue;
+				}
+				indexes.computeIfAbsent(index, (key) -> new TreeMap<>()).put(segment, file);
+			}
+		}
+		for (TreeMap<Long, File> segments : indexes.values()) {
+			replay(cacheClass, segments.values(), accessor);
+			for (File file : segments.values()) {
+				file.delete();
+			}
+		}
+		PersistenceJournal[] journals = new PersistenceJournal[number];
+		for (int index = 0; index < number; index++) {
+			journals[index] = new PersistenceJournal(directory, cacheClass, index, size);
+		}
+		return journals;
+	}
+
+	/**
+	 * 关闭日志
+	 */
+	void close() {
+		for (Segment segment : segments) {
+			segment.close();
+		}
+	}
+
+	/**
+	 * 日志分段
+	 * 
+	 * @author Birdy
+	 */
+	private static class Segment {
+
+		/** 文件 */
+		private final File file;
+		/** 文件通道 */
+		private final FileChannel channel;
+		/** 映射 */
+		private final MappedByteBuffer buffer;
+		/** 写入位置 */
+		private int position;
+		/** 以此分段为最后记录的主键数量 */
+		private int count;
+
+		private Segment(File file, int size) {
+			this.file = file;
+			try {
+				this.channel = new RandomAccessFile(file, "rw").getChannel();
+				this.buffer = channel.map(MapMode.READ_WRITE, 0, size);
+			} catch (IOException exception) {
+				String message = StringUtility.format("持久日志[{}]打开异常", file);
+				LOGGER.error(message, exception);
+				throw new CacheException(message, exception);
+			}
+			// 忽略文件中残留的记录
+			reset();
+		}
+
+		/**
+		 * 追加记录
+		 * 
+		 * @param record
+		 * @return 空间不足时返回false
+		 */
+		private boolean append(byte[] record) {
+			// 记录长度+记录+下一条记录的长度
+			if (position + 4L + record.length + 4L > buffer.capacity()) {
+				return false;
+			}
+			buffer.position(position + 4);
+			buffer.put(record);
+			buffer.putInt(0);
+			buffer.putInt(position, record.length);
+			position += 4 + record.length;
+			return true;
+		}
+
+		/**
+		 * 截断分段
+		 */
+		private void reset() {
+			position = 0;
+			buffer.putInt(0, 0);
+		}
+
+		private void close() {
+			try {
+				buffer.force();
+				channel.close();
+			} catch (IOException exception) {
+				String message = StringUtility.format("持久日志[{}]关闭异常", file);
+				LOGGER.error(message, exception);
+			}
+		}
+
+		/**
+		 * 删除分段
+		 * 
+		 * <pre>
+		 * 先截断再删除,即使文件仍然被映射而删除失败,也不会回放过时的记录.
+		 * </pre>
+		 */
+		private void delete() {
+			reset();
+			close();
+			if (!file.delete()) {
+				LOGGER.warn("持久日志[{}]删除失败", file);
+			}
+		}
+
+	}
+
+}
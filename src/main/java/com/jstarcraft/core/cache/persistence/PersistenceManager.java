@@ -1,5 +1,6 @@
 package com.jstarcraft.core.cache.persistence;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,18 @@ public interface PersistenceManager<K extends Comparable, T extends CacheObject<
 	 */
 	T getInstance(K cacheId);
 
+	/**
+	 * 批量获取实例
+	 * 
+	 * <pre>
+	 * 不存在的主键不会出现在返回的映射中
+	 * </pre>
+	 * 
+	 * @param cacheIds
+	 * @return
+	 */
+	Map<K, T> getInstances(Collection<K> cacheIds);
+
 	/**
 	 * 获取指定索引的主键映射
 	 * 
@@ -38,6 +51,18 @@ public interface PersistenceManager<K extends Comparable, T extends CacheObject<
 	 */
 	List<T> getInstances(String indexName, Comparable indexValue);
 
+	/**
+	 * 获取指定索引范围的实例集合
+	 * 
+	 * @param indexName
+	 * @param from
+	 *            下限(包含)
+	 * @param to
+	 *            上限(包含)
+	 * @return
+	 */
+	List<T> getInstances(String indexName, Comparable from, Comparable to);
+
 	/**
 	 * 创建实例
 	 * 
@@ -62,6 +87,16 @@ public interface PersistenceManager<K extends Comparable, T extends CacheObject<
 	 */
 	PersistenceElement updateInstance(CacheObject<?> cacheObject);
 
+	/**
+	 * 修改实例的指定字段
+	 * 
+	 * @param cacheObject
+	 * @param fields
+	 *            变更的字段(null表示整个实例)
+	 * @return
+	 */
+	PersistenceElement updateInstance(CacheObject<?> cacheObject, String[] fields);
+
 	/**
 	 * 设置监控器
 	 * 
@@ -83,6 +118,14 @@ public interface PersistenceManager<K extends Comparable, T extends CacheObject<
 	 */
 	int getWaitSize();
 
+	/**
+	 * 指定主键是否存在等待持久(包括正在持久)的元素
+	 * 
+	 * @param cacheId
+	 * @return
+	 */
+	boolean isWaiting(K cacheId);
+
 	/**
 	 * 获取已经创建记录数量
 	 * 
@@ -21,4 +21,48 @@ public interface PersistenceMonitor {
 	 */
 	void notifyOperate(PersistenceOperation operation, Object id, CacheObject<?> object, Exception exception);
 
+	/**
+	 * 批量刷新通知
+	 * 
+	 * <pre>
+	 * 仅在批量持久时触发,每个批次通知一次
+	 * </pre>
+	 * 
+	 * @param size
+	 *            批次大小
+	 * @param latency
+	 *            刷新延迟(毫秒)
+	 */
+	default void notifyFlush(int size, long latency) {
+	}
+
+	/**
+	 * 组合监听器
+	 * 
+	 * <pre>
+	 * 先通知当前监听器,再通知指定监听器.
+	 * </pre>
+	 * 
+	 * @param monitor
+	 * @return
+	 */
+	default PersistenceMonitor andThen(PersistenceMonitor monitor) {
+		PersistenceMonitor current = this;
+		return new PersistenceMonitor() {
+
+			@Override
+			public void notifyOperate(PersistenceOperation operation, Object id, CacheObject<?> object, Exception exception) {
+				current.notifyOperate(operation, id, object, exception);
+				monitor.notifyOperate(operation, id, object, exception);
+			}
+
+			@Override
+			public void notifyFlush(int size, long latency) {
+				current.notifyFlush(size, latency);
+				monitor.notifyFlush(size, latency);
+			}
+
+		};
+	}
+
 }
@@ -1,5 +1,6 @@
 package com.jstarcraft.core.cache.persistence;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
@@ -72,6 +73,18 @@ public class PromptPersistenceManager<K extends Comparable, T extends CacheObjec
 		}
 	}
 
+	@Override
+	public Map<K, T> getInstances(Collection<K> cacheIds) {
+		Lock readLock = lock.readLock();
+		try {
+			readLock.lock();
+			Map<K, T> values = accessor.getInstances(cacheClass, cacheIds);
+			return values;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
 	@Override
 	public Map<K, Object> getIdentities(String indexName, Comparable indexValue) {
 		Lock readLock = lock.readLock();
@@ -96,6 +109,18 @@ public class PromptPersistenceManager<K extends Comparable, T extends CacheObjec
 		}
 	}
 
+	@Override
+	public List<T> getInstances(String indexName, Comparable from, Comparable to) {
+		Lock readLock = lock.readLock();
+		try {
+			readLock.lock();
+			List<T> values = accessor.queryInstances(cacheClass, indexName, from, to);
+			return values;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
 	@Override
 	public PersistenceElement createInstance(CacheObject<?> cacheObject) {
 		if (cacheObject instanceof ProxyObject) {
@@ -149,16 +174,25 @@ public class PromptPersistenceManager<K extends Comparable, T extends CacheObjec
 
 	@Override
 	public PersistenceElement updateInstance(CacheObject<?> cacheObject) {
+		return updateInstance(cacheObject, null);
+	}
+
+	@Override
+	public PersistenceElement updateInstance(CacheObject<?> cacheObject, String[] fields) {
 		if (cacheObject instanceof ProxyObject) {
 			cacheObject = ((ProxyObject) cacheObject).getInstance();
 		}
-		PersistenceElement element = new PersistenceElement(PersistenceOperation.UPDATE, cacheObject.getId(), cacheObject);
+		PersistenceElement element = new PersistenceElement(PersistenceOperation.UPDATE, cacheObject.getId(), cacheObject, fields);
 		Exception exception = null;
 		synchronized (cacheObject) {
 			Lock writeLock = lock.writeLock();
 			try {
 				writeLock.lock();
-				accessor.update(cacheClass, element.getCacheObject());
+				if (element.getFields() == null) {
+					accessor.update(cacheClass, element.getCacheObject());
+				} else {
+					accessor.update(cacheClass, element.getCacheObject(), element.getFields());
+				}
 				updatedCount.incrementAndGet();
 			} catch (Exception throwable) {
 				String message = StringUtility.format("立即策略[{}]处理元素[{}]时异常", new Object[] { name, element });
@@ -190,6 +224,11 @@ public class PromptPersistenceManager<K extends Comparable, T extends CacheObjec
 		return 0;
 	}
 
+	@Override
+	public boolean isWaiting(K cacheId) {
+		return false;
+	}
+
 	@Override
 	public long getCreatedCount() {
 		return createdCount.get();
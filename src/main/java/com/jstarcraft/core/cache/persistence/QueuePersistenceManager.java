@@ -1,13 +1,15 @@
 package com.jstarcraft.core.cache.persistence;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -20,6 +22,7 @@ import com.jstarcraft.core.cache.CacheInformation;
 import com.jstarcraft.core.cache.CacheObject;
 import com.jstarcraft.core.cache.CacheState;
 import com.jstarcraft.core.cache.exception.CacheException;
+import com.jstarcraft.core.cache.exception.CacheOperationException;
 import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
 import com.jstarcraft.core.cache.proxy.ProxyObject;
 import com.jstarcraft.core.orm.OrmAccessor;
@@ -41,11 +44,25 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 	private Class cacheClass;
 	/** 更新队列 */
 	private BlockingQueue<PersistenceElement> elementQueue;
+	/** 批次大小(大于1时启用批量持久) */
+	private final int batchSize;
+	/** 批次等待(毫秒) */
+	private final long batchWait;
+	/** 等待数量(包括已经出队但是尚未持久的元素) */
+	private final AtomicInteger waitSize = new AtomicInteger();
 
 	/** 此读写锁用于配合elementMap,保证在查询过程中不存在增删改 */
 	private ReentrantReadWriteLock waitForLock = new ReentrantReadWriteLock();
-	/** 等待的缓存元素实例 */
-	private ConcurrentHashMap<Object, PersistenceElement> elements = new ConcurrentHashMap<>();
+	/** 等待的缓存元素实例(只能在锁中访问) */
+	private Map<Object, PersistenceElement> elements;
+	/** 等待的缓存元素索引 */
+	private PersistenceIndex indexes;
+	/** 正在持久的缓存元素(只能在写锁中访问) */
+	private Map<Object, PersistenceElement> flushings;
+	/** 持久失败的缓存元素(只能在写锁中访问,按照退避间隔重试) */
+	private Map<Object, PersistenceElement> failures;
+	/** 持久日志(可选,只能在写锁中访问) */
+	private PersistenceJournal journal;
 
 	/** ORM访问器 */
 	private OrmAccessor accessor;
@@ -64,12 +81,20 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 	/** 异常统计 */
 	private final AtomicLong exceptionCount = new AtomicLong();
 
-	QueuePersistenceManager(String name, Class cacheClass, OrmAccessor accessor, CacheInformation information, AtomicReference<CacheState> state, int size) {
+	QueuePersistenceManager(String name, Class cacheClass, OrmAccessor accessor, CacheInformation information, AtomicReference<CacheState> state, int size, int batchSize, long batchWait, PersistenceJournal journal) {
 		this.name = name;
 		this.cacheClass = cacheClass;
 		this.accessor = accessor;
 		this.information = information;
+		// 标识为长整数/整数时使用原始类型的开放寻址哈希映射
+		this.elements = information.newIdentityMap();
+		this.flushings = information.newIdentityMap();
+		this.failures = information.newIdentityMap();
 		this.state = state;
+		this.indexes = new PersistenceIndex(information);
+		this.batchSize = batchSize;
+		this.batchWait = batchWait;
+		this.journal = journal;
 		if (size > 0) {
 			elementQueue = new ArrayBlockingQueue<PersistenceElement>(size);
 		} else {
@@ -97,30 +122,29 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 		}
 	}
 
+	@Override
+	public Map<K, T> getInstances(Collection<K> cacheIds) {
+		Lock readLock = waitForLock.readLock();
+		try {
+			readLock.lock();
+			Map<K, T> instances = new HashMap<>();
+			List<K> misses = overlayInstances(instances, cacheIds);
+			if (!misses.isEmpty()) {
+				instances.putAll(accessor.getInstances(cacheClass, misses));
+			}
+			return instances;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
 	@Override
 	public Map<K, Object> getIdentities(String indexName, Comparable indexValue) {
 		Lock readLock = waitForLock.readLock();
 		try {
 			readLock.lock();
 			Map<K, Object> values = accessor.queryIdentities(cacheClass, indexName, indexValue);
-
-			for (PersistenceElement element : elements.values()) {
-				if (element.getOperation().equals(PersistenceOperation.CREATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						values.put((K) element.getCacheId(), value);
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.UPDATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						values.put((K) element.getCacheId(), value);
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.DELETE)) {
-					values.remove(element.getCacheId());
-				}
-			}
+			overlayIdentities(values, indexName, indexValue);
 			return values;
 		} finally {
 			readLock.unlock();
@@ -138,30 +162,108 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 			for (T value : values) {
 				instances.put(value.getId(), value);
 			}
+			overlayInstances(instances, indexName, indexValue);
+			return new ArrayList<>(instances.values());
+		} finally {
+			readLock.unlock();
+		}
+	}
 
-			for (PersistenceElement element : elements.values()) {
-				if (element.getOperation().equals(PersistenceOperation.CREATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						instances.put((K) element.getCacheId(), (T) element.getCacheObject());
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.UPDATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						instances.put((K) element.getCacheId(), (T) element.getCacheObject());
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.DELETE)) {
-					instances.remove(element.getCacheId());
-				}
+	@Override
+	public List<T> getInstances(String indexName, Comparable from, Comparable to) {
+		Lock readLock = waitForLock.readLock();
+		try {
+			readLock.lock();
+			List<T> values = accessor.queryInstances(cacheClass, indexName, from, to);
+
+			Map<K, T> instances = new HashMap<>();
+			for (T value : values) {
+				instances.put(value.getId(), value);
 			}
+			overlayInstances(instances, indexName, from, to);
 			return new ArrayList<>(instances.values());
 		} finally {
 			readLock.unlock();
 		}
 	}
 
+	/**
+	 * 获取读锁(配合{@link PartitionPersistenceManager}在多个分区上查询)
+	 * 
+	 * @return
+	 */
+	Lock getReadLock() {
+		return waitForLock.readLock();
+	}
+
+	/**
+	 * 使用等待持久的元素覆盖数据库的主键映射(必须在读锁中执行)
+	 * 
+	 * @param values
+	 * @param indexName
+	 * @param indexValue
+	 */
+	void overlayIdentities(Map<K, Object> values, String indexName, Comparable indexValue) {
+		// 数据库中的主键以等待持久的元素为准
+		values.keySet().removeIf((id) -> elements.containsKey(id) && !indexes.checkValue(id, indexName, indexValue));
+		for (Object id : indexes.getIdentities(indexName, indexValue)) {
+			values.put((K) id, indexValue);
+		}
+	}
+
+	/**
+	 * 使用等待持久的元素获取实例(必须在读锁中执行)
+	 * 
+	 * @param instances
+	 * @param cacheIds
+	 * @return 没有等待持久的元素,需要查询数据库的主键
+	 */
+	List<K> overlayInstances(Map<K, T> instances, Collection<K> cacheIds) {
+		List<K> misses = new ArrayList<>(cacheIds.size());
+		for (K cacheId : cacheIds) {
+			PersistenceElement element = elements.get(cacheId);
+			if (element == null) {
+				misses.add(cacheId);
+			} else if (!element.getOperation().equals(PersistenceOperation.DELETE)) {
+				instances.put(cacheId, (T) element.getCacheObject());
+			}
+		}
+		return misses;
+	}
+
+	/**
+	 * 使用等待持久的元素覆盖数据库的对象映射(必须在读锁中执行)
+	 * 
+	 * @param instances
+	 * @param indexName
+	 * @param indexValue
+	 */
+	void overlayInstances(Map<K, T> instances, String indexName, Comparable indexValue) {
+		// 数据库中的对象以等待持久的元素为准
+		instances.keySet().removeIf((id) -> elements.containsKey(id) && !indexes.checkValue(id, indexName, indexValue));
+		for (Object id : indexes.getIdentities(indexName, indexValue)) {
+			PersistenceElement element = elements.get(id);
+			instances.put((K) id, (T) element.getCacheObject());
+		}
+	}
+
+	/**
+	 * 使用等待持久的元素覆盖数据库指定索引范围的对象映射(必须在读锁中执行)
+	 * 
+	 * @param instances
+	 * @param indexName
+	 * @param from
+	 * @param to
+	 */
+	void overlayInstances(Map<K, T> instances, String indexName, Comparable from, Comparable to) {
+		// 数据库中的对象以等待持久的元素为准
+		instances.keySet().removeIf((id) -> elements.containsKey(id) && !indexes.checkValue(id, indexName, from, to));
+		for (Object id : indexes.getIdentities(indexName, from, to)) {
+			PersistenceElement element = elements.get(id);
+			instances.put((K) id, (T) element.getCacheObject());
+		}
+	}
+
 	@Override
 	public PersistenceElement createInstance(CacheObject<?> cacheObject) {
 		if (cacheObject instanceof ProxyObject) {
@@ -181,10 +283,15 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 
 	@Override
 	public PersistenceElement updateInstance(CacheObject<?> cacheObject) {
+		return updateInstance(cacheObject, null);
+	}
+
+	@Override
+	public PersistenceElement updateInstance(CacheObject<?> cacheObject, String[] fields) {
 		if (cacheObject instanceof ProxyObject) {
 			cacheObject = ((ProxyObject) cacheObject).getInstance();
 		}
-		PersistenceElement element = new PersistenceElement(PersistenceOperation.UPDATE, cacheObject.getId(), cacheObject);
+		PersistenceElement element = new PersistenceElement(PersistenceOperation.UPDATE, cacheObject.getId(), cacheObject, fields);
 		persist(element);
 		return element;
 	}
@@ -201,10 +308,22 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 
 	@Override
 	public int getWaitSize() {
-		int size = elementQueue.size();
+		int size = waitSize.get();
 		return size;
 	}
 
+	@Override
+	public boolean isWaiting(K cacheId) {
+		// 正在持久的元素保留在elements中,直到数据库操作完成
+		Lock readLock = waitForLock.readLock();
+		try {
+			readLock.lock();
+			return elements.containsKey(cacheId);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
 	@Override
 	public long getCreatedCount() {
 		return createdCount.get();
@@ -239,18 +358,44 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 		try {
 			writeLock.lock();
 			PersistenceElement current = elements.get(cacheId);
+			if (current != null && current == flushings.get(cacheId)) {
+				// 正在持久的元素不能再修改,由新元素取代(新元素排在其后持久)
+				current = null;
+				waitSize.decrementAndGet();
+			}
 			if (current == null) {
 				current = element;
 				elements.put(cacheId, current);
+				indexes.index(current);
+				waitSize.incrementAndGet();
 				elementQueue.put(current);
 			} else {
 				current.modify(element);
 				if (current.isIgnore()) {
 					// 忽略只清理elementMap,不清理elementQueue
 					elements.remove(cacheId);
+					indexes.unindex(cacheId);
+					PersistenceElement flushing = flushings.get(cacheId);
+					if (flushing != null) {
+						// 恢复被取代的正在持久的元素,防止读取出现空档
+						elements.put(cacheId, flushing);
+						indexes.index(flushing);
+						waitSize.incrementAndGet();
+					}
+				} else {
+					indexes.index(current);
+				}
+			}
+			if (journal != null) {
+				// 编码与追加都在写锁中执行,同一个主键的记录顺序与修改顺序一致
+				journal.append(cacheId, journal.encode(element.getOperation(), element.getCacheId(), element.getCacheObject()));
+				if (!elements.containsKey(cacheId) && !failures.containsKey(cacheId)) {
+					// 被忽略的主键不需要回放
+					journal.release(cacheId);
 				}
 			}
 		} catch (InterruptedException exception) {
+			waitSize.decrementAndGet();
 			LOGGER.error("不应该出现的情况,等待将元素[{}]放到队列时被中断", new Object[] { element, exception });
 			// TODO 应该记录日志,防止丢失数据
 			// if (element.getOperation().equals(PersistenceOperation.UPDATE)) {
@@ -272,63 +417,301 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 		}
 	}
 
+	/**
+	 * 记录元素的持久结果(必须在写锁中执行)
+	 * 
+	 * <pre>
+	 * 失败的元素保留在日志中,按照退避间隔重试,停止以后下次启动时回放.
+	 * 同一个主键再次失败时合并到之前失败的元素(部分更新不能覆盖之前失败的整体元素),无法合并时退化为整个对象.
+	 * 同一个主键后续的整体持久成功时,失败的元素被取代.
+	 * 主键没有等待与失败的元素时释放日志.
+	 * </pre>
+	 * 
+	 * @param element
+	 * @param failure
+	 */
+	private void fail(PersistenceElement element, boolean failure) {
+		if (journal == null) {
+			return;
+		}
+		Object cacheId = element.getCacheId();
+		if (failure) {
+			long now = System.currentTimeMillis();
+			PersistenceElement last = failures.get(cacheId);
+			if (last == null || last == element) {
+				element.fail(now);
+				failures.put(cacheId, element);
+			} else {
+				try {
+					if (last.modify(element)) {
+						// 例如失败的创建与失败的删除相互抵消
+						failures.remove(cacheId);
+					} else {
+						last.fail(now);
+					}
+				} catch (CacheOperationException exception) {
+					element.clearFields();
+					element.fail(now);
+					failures.put(cacheId, element);
+				}
+			}
+		} else if (element.getFields() == null) {
+			// 部分更新不能取代失败的元素
+			failures.remove(cacheId);
+		}
+		if (!elements.containsKey(cacheId) && !failures.containsKey(cacheId)) {
+			journal.release(cacheId);
+		}
+	}
+
+	/**
+	 * 重试持久失败的元素
+	 * 
+	 * <pre>
+	 * 到达重试时间并且没有等待元素的主键,失败的元素重新进入队列,同时追加到当前日志分段,不会阻止删除较早的分段.
+	 * 停止以后不再重试,失败的元素保留在日志中.
+	 * </pre>
+	 */
+	private void retry() {
+		if (journal == null || !state.get().equals(CacheState.STARTED)) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Lock writeLock = waitForLock.writeLock();
+		try {
+			writeLock.lock();
+			for (PersistenceElement element : new ArrayList<>(failures.values())) {
+				Object cacheId = element.getCacheId();
+				// 等待的元素持久以后再重试
+				if (elements.containsKey(cacheId) || !element.isRetry(now)) {
+					continue;
+				}
+				if (!elementQueue.offer(element)) {
+					// 队列已满时下次再重试
+					break;
+				}
+				failures.remove(cacheId);
+				elements.put(cacheId, element);
+				indexes.index(element);
+				waitSize.incrementAndGet();
+				journal.append(cacheId, journal.encode(element.getOperation(), element.getCacheId(), element.getCacheObject()));
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * 持久线程
+	 * 
+	 * <pre>
+	 * 每次最多取出batchSize个元素或者等待batchWait毫秒,按照操作分组以后批量访问数据库.
+	 * 同一个批次中未被忽略的元素主键互不相同,所以分组不会改变持久的结果.
+	 * 每个批次以后(包括空闲时)重试持久失败的元素.
+	 * </pre>
+	 */
 	@Override
 	public void run() {
+		List<PersistenceElement> batch = new ArrayList<>(batchSize);
 		while (true) {
-			PersistenceElement element = null;
-			Object cacheId = null;
 			try {
 				if (state.get().equals(CacheState.STOPPED) && elementQueue.isEmpty()) {
 					break;
 				}
-				element = elementQueue.take();
-				synchronized (accessor) {
-					// TODO 此处保证单元测试
-				}
-				cacheId = element.getCacheId();
-				Object instance = element.getCacheObject();
-				synchronized (instance == null ? Thread.currentThread() : instance) {
-					Lock writeLock = waitForLock.writeLock();
-					try {
-						writeLock.lock();
-						if (element.isIgnore()) {
-							// 忽略不做任何处理
-							continue;
-						}
-
-						elements.remove(cacheId);
-
-						switch (element.getOperation()) {
-						case CREATE:
-							accessor.create(cacheClass, element.getCacheObject());
-							createdCount.incrementAndGet();
-							break;
-						case DELETE:
-							accessor.delete(cacheClass, element.getCacheId());
-							deletedCount.incrementAndGet();
-							break;
-						case UPDATE:
-							accessor.update(cacheClass, element.getCacheObject());
-							updatedCount.incrementAndGet();
-							break;
-						default:
-							LOGGER.error("未支持的元素类型[{}]", element);
-							break;
-						}
-					} finally {
-						writeLock.unlock();
+				drain(batch);
+				if (!batch.isEmpty()) {
+					synchronized (accessor) {
+						// TODO 此处保证单元测试
 					}
+					persist(batch);
 				}
-				if (monitor != null) {
-					monitor.notifyOperate(element.getOperation(), element.getCacheId(), element.getCacheObject(), null);
-				}
+				retry();
 			} catch (InterruptedException exception) {
 				// TODO 考虑中断策略不需要处理? 现在是由state维护.
 			} catch (Exception exception) {
-				// TODO 考虑是否再次把元素提交到队列?以及影响.
-				if (monitor != null && element != null) {
-					monitor.notifyOperate(element.getOperation(), element.getCacheId(), element.getCacheObject(), exception);
+				String message = StringUtility.format("队列策略[{}]处理批次[{}]时异常", name, batch.size());
+				LOGGER.error(message, exception);
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * 从队列取出一个批次的元素
+	 * 
+	 * @param batch
+	 * @throws InterruptedException
+	 */
+	private void drain(List<PersistenceElement> batch) throws InterruptedException {
+		// 空闲时也要定期重试失败的元素
+		PersistenceElement first = elementQueue.poll(PersistenceElement.RETRY_INTERVAL, TimeUnit.MILLISECONDS);
+		if (first == null) {
+			return;
+		}
+		batch.add(first);
+		long deadline = System.currentTimeMillis() + batchWait;
+		try {
+			while (batch.size() < batchSize) {
+				if (elementQueue.drainTo(batch, batchSize - batch.size()) > 0) {
+					continue;
+				}
+				long wait = deadline - System.currentTimeMillis();
+				if (wait <= 0L || state.get().equals(CacheState.STOPPED)) {
+					break;
+				}
+				PersistenceElement element = elementQueue.poll(wait, TimeUnit.MILLISECONDS);
+				if (element == null) {
+					break;
+				}
+				batch.add(element);
+			}
+		} catch (InterruptedException exception) {
+			// 已经取出的元素必须持久,不能丢弃
+		}
+	}
+
+	/**
+	 * 持久批次
+	 * 
+	 * <pre>
+	 * 写锁只用于标记与清理正在持久的元素,访问数据库期间不持有写锁,也不持有缓存对象的监视器(使用快照).
+	 * 正在持久的元素一直保留在elements中,直到数据库操作完成,保证读取不会出现空档.
+	 * </pre>
+	 * 
+	 * @param batch
+	 */
+	private void persist(List<PersistenceElement> batch) {
+		long begin = System.currentTimeMillis();
+		List<PersistenceElement> creates = new ArrayList<>();
+		List<PersistenceElement> updates = new ArrayList<>();
+		List<PersistenceElement> patches = new ArrayList<>();
+		List<PersistenceElement> deletes = new ArrayList<>();
+		Map<PersistenceElement, Exception> exceptions = new HashMap<>();
+		Lock writeLock = waitForLock.writeLock();
+		try {
+			writeLock.lock();
+			for (PersistenceElement element : batch) {
+				if (element.isIgnore()) {
+					// 忽略不做任何处理
+					waitSize.decrementAndGet();
+					continue;
+				}
+				flushings.put(element.getCacheId(), element);
+				switch (element.getOperation()) {
+				case CREATE:
+					creates.add(element);
+					break;
+				case DELETE:
+					deletes.add(element);
+					break;
+				case UPDATE:
+					// 部分更新的元素字段各不相同,不能合并为批量更新
+					if (element.getFields() == null) {
+						updates.add(element);
+					} else {
+						patches.add(element);
+					}
+					break;
+				default:
+					LOGGER.error("未支持的元素类型[{}]", element);
+					break;
+				}
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		flush(PersistenceOperation.CREATE, creates, exceptions);
+		flush(PersistenceOperation.UPDATE, updates, exceptions);
+		operate(patches, exceptions);
+		flush(PersistenceOperation.DELETE, deletes, exceptions);
+		try {
+			writeLock.lock();
+			for (PersistenceElement element : batch) {
+				if (element.isIgnore()) {
+					continue;
+				}
+				Object cacheId = element.getCacheId();
+				flushings.remove(cacheId);
+				// 持久期间被新元素取代时,由新元素负责
+				if (elements.get(cacheId) == element) {
+					elements.remove(cacheId);
+					indexes.unindex(cacheId);
+					waitSize.decrementAndGet();
+				}
+				fail(element, exceptions.containsKey(element));
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		long latency = System.currentTimeMillis() - begin;
+		if (monitor != null) {
+			for (PersistenceElement element : batch) {
+				if (element.isIgnore()) {
+					continue;
+				}
+				monitor.notifyOperate(element.getOperation(), element.getCacheId(), element.getCacheObject(), exceptions.get(element));
+			}
+			if (batchSize > 1) {
+				monitor.notifyFlush(batch.size(), latency);
+			}
+		}
+	}
+
+	private void flush(PersistenceOperation operation, List<PersistenceElement> batch, Map<PersistenceElement, Exception> exceptions) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		if (batch.size() > 1) {
+			try {
+				switch (operation) {
+				case CREATE: {
+					List<CacheObject> objects = new ArrayList<>(batch.size());
+					for (PersistenceElement element : batch) {
+						objects.add(element.getSnapshot());
+					}
+					accessor.createInstances(cacheClass, objects);
+					createdCount.addAndGet(batch.size());
+					break;
 				}
+				case DELETE: {
+					List<Comparable> ids = new ArrayList<>(batch.size());
+					for (PersistenceElement element : batch) {
+						ids.add(element.getCacheId());
+					}
+					accessor.deleteInstances(cacheClass, ids);
+					deletedCount.addAndGet(batch.size());
+					break;
+				}
+				case UPDATE: {
+					List<CacheObject> objects = new ArrayList<>(batch.size());
+					for (PersistenceElement element : batch) {
+						objects.add(element.getSnapshot());
+					}
+					accessor.updateInstances(cacheClass, objects);
+					updatedCount.addAndGet(batch.size());
+					break;
+				}
+				default:
+					break;
+				}
+				return;
+			} catch (Exception exception) {
+				// 批量失败时逐个重试,定位具体异常的元素
+				String message = StringUtility.format("队列策略[{}]批量处理[{}]个[{}]元素时异常,改为逐个处理", name, batch.size(), operation);
+				LOGGER.error(message, exception);
+			}
+		}
+		operate(batch, exceptions);
+	}
+
+	private void operate(List<PersistenceElement> batch, Map<PersistenceElement, Exception> exceptions) {
+		for (PersistenceElement element : batch) {
+			try {
+				operate(element);
+			} catch (Exception exception) {
+				// TODO 考虑是否再次把元素提交到队列?以及影响.
+				exceptions.put(element, exception);
 				exceptionCount.incrementAndGet();
 				String message = StringUtility.format("队列策略[{}]处理元素[{}]时异常", new Object[] { name, element });
 				LOGGER.error(message, exception);
@@ -336,4 +719,28 @@ public class QueuePersistenceManager<K extends Comparable, T extends CacheObject
 		}
 	}
 
+	private void operate(PersistenceElement element) {
+		switch (element.getOperation()) {
+		case CREATE:
+			accessor.create(cacheClass, element.getSnapshot());
+			createdCount.incrementAndGet();
+			break;
+		case DELETE:
+			accessor.delete(cacheClass, element.getCacheId());
+			deletedCount.incrementAndGet();
+			break;
+		case UPDATE:
+			if (element.getFields() == null) {
+				accessor.update(cacheClass, element.getSnapshot());
+			} else {
+				accessor.update(cacheClass, element.getSnapshot(), element.getFields());
+			}
+			updatedCount.incrementAndGet();
+			break;
+		default:
+			LOGGER.error("未支持的元素类型[{}]", element);
+			break;
+		}
+	}
+
 }
@@ -1,6 +1,9 @@
 package com.jstarcraft.core.cache.persistence;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.atomic.AtomicLong;
@@ -26,6 +29,16 @@ public class QueuePersistenceStrategy implements PersistenceStrategy {
 
 	/** 大小参数名称 */
 	public static final String PARAMETER_SIZE = "size";
+	/** 批次大小参数名称(可选,大于1时启用批量持久) */
+	public static final String PARAMETER_BATCH_SIZE = "batchSize";
+	/** 批次等待参数名称(可选,凑满批次的最长等待毫秒) */
+	public static final String PARAMETER_BATCH_WAIT = "batchWait";
+	/** 分区数量参数名称(可选,大于1时每个缓存类型使用多个线程持久) */
+	public static final String PARAMETER_PARTITION = "partition";
+	/** 日志目录参数名称(可选,指定时启用持久日志) */
+	public static final String PARAMETER_JOURNAL = "journal";
+	/** 日志大小参数名称(可选,每个日志分段的映射字节数) */
+	public static final String PARAMETER_JOURNAL_SIZE = "journalSize";
 
 	/** 名称 */
 	private String name;
@@ -36,10 +49,22 @@ public class QueuePersistenceStrategy implements PersistenceStrategy {
 	/** 状态 */
 	private AtomicReference<CacheState> state = new AtomicReference<>(null);
 
-	private Map<Class, QueuePersistenceManager> managers = new HashMap<>();
+	private Map<Class, PersistenceManager> managers = new HashMap<>();
+
+	/** 持久线程 */
+	private List<QueuePersistenceManager> threads = new ArrayList<>();
+
+	/** 持久日志 */
+	private List<PersistenceJournal> journals = new ArrayList<>();
 
 	private int size;
 
+	private int batchSize;
+
+	private long batchWait;
+
+	private int partition;
+
 	/** 创建统计 */
 	private final AtomicLong createdCount = new AtomicLong();
 	/** 更新统计 */
@@ -58,13 +83,40 @@ public class QueuePersistenceStrategy implements PersistenceStrategy {
 		this.accessor = accessor;
 		this.informations = informations;
 		this.size = Integer.parseInt(configuration.getValue(PARAMETER_SIZE));
+		String value = configuration.getValue(PARAMETER_BATCH_SIZE);
+		this.batchSize = value == null ? 1 : Integer.parseInt(value);
+		value = configuration.getValue(PARAMETER_BATCH_WAIT);
+		this.batchWait = value == null ? 0L : Long.parseLong(value);
+		value = configuration.getValue(PARAMETER_PARTITION);
+		this.partition = value == null ? 1 : Integer.parseInt(value);
+		String journal = configuration.getValue(PARAMETER_JOURNAL);
+		value = configuration.getValue(PARAMETER_JOURNAL_SIZE);
+		int journalSize = value == null ? PersistenceJournal.DEFAULT_SIZE : Integer.parseInt(value);
+		if (this.batchSize < 1 || this.batchWait < 0L || this.partition < 1 || journalSize < 1) {
+			throw new CacheConfigurationException();
+		}
 		for (Entry<Class<?>, CacheInformation> keyValue : informations.entrySet()) {
 			Class clazz = keyValue.getKey();
 			CacheInformation information = keyValue.getValue();
-			QueuePersistenceManager manager = new QueuePersistenceManager<>(name, clazz, accessor, information, state, size);
-			this.managers.put(clazz, manager);
-			manager.setDaemon(true);
-			manager.start();
+			// 每个分区拥有独立的队列(大小为size),等待元素,读写锁与线程
+			QueuePersistenceManager[] partitions = new QueuePersistenceManager[partition];
+			// 启动持久线程以前回放日志
+			PersistenceJournal[] journals = journal == null ? new PersistenceJournal[partition] : PersistenceJournal.instanceOf(new File(journal), clazz, partition, journalSize, accessor);
+			for (int index = 0; index < partition; index++) {
+				if (journals[index] != null) {
+					this.journals.add(journals[index]);
+				}
+				QueuePersistenceManager manager = new QueuePersistenceManager<>(name, clazz, accessor, information, state, size, batchSize, batchWait, journals[index]);
+				partitions[index] = manager;
+				this.threads.add(manager);
+				manager.setDaemon(true);
+				manager.start();
+			}
+			if (partition == 1) {
+				this.managers.put(clazz, partitions[0]);
+			} else {
+				this.managers.put(clazz, new PartitionPersistenceManager<>(clazz, accessor, partitions));
+			}
 		}
 	}
 
@@ -74,7 +126,7 @@ public class QueuePersistenceStrategy implements PersistenceStrategy {
 			throw new CacheConfigurationException();
 		}
 		LOGGER.info("开始等待写队列[{}]清理", name);
-		for (QueuePersistenceManager manager : this.managers.values()) {
+		for (QueuePersistenceManager manager : this.threads) {
 			manager.interrupt();
 			while (true) {
 				if (!manager.isAlive()) {
@@ -82,7 +134,12 @@ public class QueuePersistenceStrategy implements PersistenceStrategy {
 				}
 			}
 		}
+		for (PersistenceJournal journal : this.journals) {
+			journal.close();
+		}
 		this.managers.clear();
+		this.threads.clear();
+		this.journals.clear();
 		LOGGER.info("结束等待写队列[{}]清理", name);
 	}
 
@@ -93,7 +150,7 @@ public class QueuePersistenceStrategy implements PersistenceStrategy {
 
 	@Override
 	public synchronized PersistenceManager getPersistenceManager(Class clazz) {
-		QueuePersistenceManager manager = managers.get(clazz);
+		PersistenceManager manager = managers.get(clazz);
 		return manager;
 	}
 
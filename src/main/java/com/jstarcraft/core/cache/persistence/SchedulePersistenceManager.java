@@ -8,7 +8,9 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -46,8 +48,16 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 
 	/** 此读写锁用于配合elementMap,保证在查询过程中不存在增删改 */
 	private ReentrantReadWriteLock waitForLock = new ReentrantReadWriteLock();
-	/** 等待的缓存元素实例 */
-	private ConcurrentHashMap<Object, PersistenceElement> elements = new ConcurrentHashMap<>();
+	/** 等待的缓存元素实例(只能在锁中访问) */
+	private Map<Object, PersistenceElement> elements;
+	/** 等待的缓存元素索引 */
+	private PersistenceIndex indexes;
+	/** 正在持久的缓存元素(只能在写锁中访问) */
+	private Map<Object, PersistenceElement> flushings;
+	/** 持久失败的缓存元素(只能在写锁中访问,按照退避间隔重试) */
+	private Map<Object, PersistenceElement> failures;
+	/** 持久日志(可选,只能在写锁中访问) */
+	private PersistenceJournal journal;
 
 	/** ORM访问器 */
 	private OrmAccessor accessor;
@@ -61,9 +71,13 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 	private Instant persistTime;
 	/** 监听器 */
 	private PersistenceMonitor monitor;
+	/** 批次大小 */
+	private int batchSize;
+	/** 持久期限(毫秒,0表示不限制) */
+	private long deadline;
+	/** 执行器(null表示在定时线程中持久) */
+	private ExecutorService executor;
 
-	/** 处理大小 */
-	private final AtomicInteger waitSize = new AtomicInteger();
 	/** 创建统计 */
 	private final AtomicLong createdCount = new AtomicLong();
 	/** 更新统计 */
@@ -73,13 +87,22 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 	/** 异常统计 */
 	private final AtomicInteger exceptionCount = new AtomicInteger();
 
-	SchedulePersistenceManager(String name, Class cacheClass, OrmAccessor accessor, CacheInformation information, AtomicReference<CacheState> state, String cron) {
+	SchedulePersistenceManager(String name, Class cacheClass, OrmAccessor accessor, CacheInformation information, AtomicReference<CacheState> state, String cron, PersistenceJournal journal, int batchSize, long deadline, ExecutorService executor) {
 		this.name = name;
 		this.cacheClass = cacheClass;
 		this.accessor = accessor;
 		this.information = information;
+		// 标识为长整数/整数时使用原始类型的开放寻址哈希映射
+		this.elements = information.newIdentityMap();
+		this.flushings = information.newIdentityMap();
+		this.failures = information.newIdentityMap();
 		this.state = state;
+		this.indexes = new PersistenceIndex(information);
 		this.cron = cron;
+		this.journal = journal;
+		this.batchSize = batchSize;
+		this.deadline = deadline;
+		this.executor = executor;
 		this.persistTime = InstantUtility.getInstantAfter(cron, Instant.now());
 	}
 
@@ -103,29 +126,40 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 		}
 	}
 
+	@Override
+	public Map<K, T> getInstances(Collection<K> cacheIds) {
+		Lock readLock = waitForLock.readLock();
+		try {
+			readLock.lock();
+			Map<K, T> instances = new HashMap<>();
+			List<K> misses = new ArrayList<>(cacheIds.size());
+			for (K cacheId : cacheIds) {
+				PersistenceElement element = elements.get(cacheId);
+				if (element == null) {
+					misses.add(cacheId);
+				} else if (!element.getOperation().equals(PersistenceOperation.DELETE)) {
+					instances.put(cacheId, (T) element.getCacheObject());
+				}
+			}
+			if (!misses.isEmpty()) {
+				instances.putAll(accessor.getInstances(cacheClass, misses));
+			}
+			return instances;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
 	@Override
 	public Map<K, Object> getIdentities(String indexName, Comparable indexValue) {
 		Lock readLock = waitForLock.readLock();
 		try {
 			readLock.lock();
 			Map<K, Object> values = accessor.queryIdentities(cacheClass, indexName, indexValue);
-
-			for (PersistenceElement element : elements.values()) {
-				if (element.getOperation().equals(PersistenceOperation.CREATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						values.put((K) element.getCacheId(), value);
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.UPDATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						values.put((K) element.getCacheId(), value);
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.DELETE)) {
-					values.remove(element.getCacheId());
-				}
+			// 数据库中的主键以等待持久的元素为准
+			values.keySet().removeIf((id) -> elements.containsKey(id) && !indexes.checkValue(id, indexName, indexValue));
+			for (Object id : indexes.getIdentities(indexName, indexValue)) {
+				values.put((K) id, indexValue);
 			}
 			return values;
 		} finally {
@@ -142,25 +176,42 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 
 			Map<K, T> instances = new HashMap<>();
 			for (T value : values) {
-				instances.put(value.getId(), value);
+				K id = value.getId();
+				// 数据库中的对象以等待持久的元素为准
+				if (elements.containsKey(id) && !indexes.checkValue(id, indexName, indexValue)) {
+					continue;
+				}
+				instances.put(id, value);
+			}
+			for (Object id : indexes.getIdentities(indexName, indexValue)) {
+				PersistenceElement element = elements.get(id);
+				instances.put((K) id, (T) element.getCacheObject());
 			}
+			return new ArrayList<>(instances.values());
+		} finally {
+			readLock.unlock();
+		}
+	}
 
-			for (PersistenceElement element : elements.values()) {
-				if (element.getOperation().equals(PersistenceOperation.CREATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						instances.put((K) element.getCacheId(), (T) element.getCacheObject());
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.UPDATE)) {
-					Object value = information.getIndexValue(element.getCacheObject(), indexName);
-					if (indexValue.equals(value)) {
-						instances.put((K) element.getCacheId(), (T) element.getCacheObject());
-					}
-				}
-				if (element.getOperation().equals(PersistenceOperation.DELETE)) {
-					instances.remove(element.getCacheId());
+	@Override
+	public List<T> getInstances(String indexName, Comparable from, Comparable to) {
+		Lock readLock = waitForLock.readLock();
+		try {
+			readLock.lock();
+			List<T> values = accessor.queryInstances(cacheClass, indexName, from, to);
+
+			Map<K, T> instances = new HashMap<>();
+			for (T value : values) {
+				K id = value.getId();
+				// 数据库中的对象以等待持久的元素为准
+				if (elements.containsKey(id) && !indexes.checkValue(id, indexName, from, to)) {
+					continue;
 				}
+				instances.put(id, value);
+			}
+			for (Object id : indexes.getIdentities(indexName, from, to)) {
+				PersistenceElement element = elements.get(id);
+				instances.put((K) id, (T) element.getCacheObject());
 			}
 			return new ArrayList<>(instances.values());
 		} finally {
@@ -187,10 +238,15 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 
 	@Override
 	public PersistenceElement updateInstance(CacheObject<?> cacheObject) {
+		return updateInstance(cacheObject, null);
+	}
+
+	@Override
+	public PersistenceElement updateInstance(CacheObject<?> cacheObject, String[] fields) {
 		if (cacheObject instanceof ProxyObject) {
 			cacheObject = ((ProxyObject) cacheObject).getInstance();
 		}
-		PersistenceElement element = new PersistenceElement(PersistenceOperation.UPDATE, cacheObject.getId(), cacheObject);
+		PersistenceElement element = new PersistenceElement(PersistenceOperation.UPDATE, cacheObject.getId(), cacheObject, fields);
 		persist(element);
 		return element;
 	}
@@ -207,9 +263,25 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 
 	@Override
 	public int getWaitSize() {
-		synchronized (waitSize) {
-			int size = waitSize.get() + elements.size();
+		// 正在持久的元素保留在elements中,直到数据库操作完成
+		Lock readLock = waitForLock.readLock();
+		try {
+			readLock.lock();
+			int size = elements.size();
 			return size;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isWaiting(K cacheId) {
+		Lock readLock = waitForLock.readLock();
+		try {
+			readLock.lock();
+			return elements.containsKey(cacheId);
+		} finally {
+			readLock.unlock();
 		}
 	}
 
@@ -233,13 +305,42 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 		return exceptionCount.get();
 	}
 
-	private ConcurrentHashMap<Object, PersistenceElement> switchElements() {
-		synchronized (waitSize) {
-			ConcurrentHashMap<Object, PersistenceElement> newElements = new ConcurrentHashMap<>();
-			ConcurrentHashMap<Object, PersistenceElement> oldElements = elements;
-			elements = newElements;
-			waitSize.addAndGet(oldElements.size());
-			return oldElements;
+	/**
+	 * 标记需要持久的元素
+	 * 
+	 * <pre>
+	 * 标记以后的元素仍然保留在elements中,直到数据库操作完成,保证读取不会出现空档.
+	 * 到达重试时间并且没有等待元素的主键,失败的元素与等待的元素一起持久,同时追加到当前日志分段,不会阻止删除较早的分段.
+	 * 停止以后不再重试,失败的元素保留在日志中.
+	 * </pre>
+	 * 
+	 * @return
+	 */
+	private List<PersistenceElement> flushElements() {
+		Lock writeLock = waitForLock.writeLock();
+		try {
+			writeLock.lock();
+			if (journal != null && state.get().equals(CacheState.STARTED)) {
+				long now = System.currentTimeMillis();
+				for (PersistenceElement element : new ArrayList<>(failures.values())) {
+					Object cacheId = element.getCacheId();
+					// 等待的元素持久以后再重试
+					if (this.elements.containsKey(cacheId) || !element.isRetry(now)) {
+						continue;
+					}
+					failures.remove(cacheId);
+					this.elements.put(cacheId, element);
+					indexes.index(element);
+					journal.append(cacheId, journal.encode(element.getOperation(), element.getCacheId(), element.getCacheObject()));
+				}
+			}
+			List<PersistenceElement> elements = new ArrayList<>(this.elements.values());
+			for (PersistenceElement element : elements) {
+				flushings.put(element.getCacheId(), element);
+			}
+			return elements;
+		} finally {
+			writeLock.unlock();
 		}
 	}
 
@@ -258,14 +359,36 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 		try {
 			writeLock.lock();
 			PersistenceElement current = elements.get(cacheId);
+			if (current != null && current == flushings.get(cacheId)) {
+				// 正在持久的元素不能再修改,由新元素取代(新元素在下次定时持久)
+				current = null;
+			}
 			if (current == null) {
 				current = element;
 				elements.put(cacheId, current);
+				indexes.index(current);
 			} else {
 				current.modify(element);
 				if (current.isIgnore()) {
 					// 忽略只清理elementMap,不清理elementQueue
 					elements.remove(cacheId);
+					indexes.unindex(cacheId);
+					PersistenceElement flushing = flushings.get(cacheId);
+					if (flushing != null) {
+						// 恢复被取代的正在持久的元素,防止读取出现空档
+						elements.put(cacheId, flushing);
+						indexes.index(flushing);
+					}
+				} else {
+					indexes.index(current);
+				}
+			}
+			if (journal != null) {
+				// 编码与追加都在写锁中执行,同一个主键的记录顺序与修改顺序一致
+				journal.append(cacheId, journal.encode(element.getOperation(), element.getCacheId(), element.getCacheObject()));
+				if (!elements.containsKey(cacheId) && !failures.containsKey(cacheId)) {
+					// 被忽略的主键不需要回放
+					journal.release(cacheId);
 				}
 			}
 		} catch (CacheOperationException exception) {
@@ -275,53 +398,288 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 		}
 	}
 
-	private void persist(Collection<PersistenceElement> elements) {
+	/**
+	 * 记录元素的持久结果(必须在写锁中执行)
+	 * 
+	 * <pre>
+	 * 失败的元素保留在日志中,按照退避间隔在定时持久时重试,停止以后下次启动时回放.
+	 * 同一个主键再次失败时合并到之前失败的元素(部分更新不能覆盖之前失败的整体元素),无法合并时退化为整个对象.
+	 * 同一个主键后续的整体持久成功时,失败的元素被取代.
+	 * 主键没有等待与失败的元素时释放日志.
+	 * </pre>
+	 * 
+	 * @param element
+	 * @param failure
+	 */
+	private void fail(PersistenceElement element, boolean failure) {
+		if (journal == null) {
+			return;
+		}
+		Object cacheId = element.getCacheId();
+		if (failure) {
+			long now = System.currentTimeMillis();
+			PersistenceElement last = failures.get(cacheId);
+			if (last == null || last == element) {
+				element.fail(now);
+				failures.put(cacheId, element);
+			} else {
+				try {
+					if (last.modify(element)) {
+						// 例如失败的创建与失败的删除相互抵消
+						failures.remove(cacheId);
+					} else {
+						last.fail(now);
+					}
+				} catch (CacheOperationException exception) {
+					element.clearFields();
+					element.fail(now);
+					failures.put(cacheId, element);
+				}
+			}
+		} else if (element.getFields() == null) {
+			// 部分更新不能取代失败的元素
+			failures.remove(cacheId);
+		}
+		if (!elements.containsKey(cacheId) && !failures.containsKey(cacheId)) {
+			journal.release(cacheId);
+		}
+	}
+
+	/**
+	 * 持久元素
+	 * 
+	 * <pre>
+	 * 元素按照批次大小切分,并行度大于1时在执行器中并发持久,否则在定时线程中顺序持久.
+	 * 超过期限以后尚未开始的批次不再持久,留待下次定时持久,防止与下次定时重叠.
+	 * 停止期间不受期限限制.
+	 * </pre>
+	 * 
+	 * @param elements
+	 */
+	private void persist(List<PersistenceElement> elements) {
 		synchronized (accessor) {
 			// TODO 此处保证单元测试
 		}
-		for (PersistenceElement element : elements) {
-			// 保证异步持久与异步操作不会冲突
-			Object cacheId = element.getCacheId();
-			try {
-				Object instance = element.getCacheObject();
-				synchronized (instance == null ? Thread.currentThread() : instance) {
-					Lock writeLock = waitForLock.writeLock();
+		long deadline = this.deadline > 0L ? System.currentTimeMillis() + this.deadline : Long.MAX_VALUE;
+		List<List<PersistenceElement>> batches = new ArrayList<>(elements.size() / batchSize + 1);
+		for (int from = 0; from < elements.size(); from += batchSize) {
+			batches.add(elements.subList(from, Math.min(from + batchSize, elements.size())));
+		}
+		if (executor == null) {
+			for (List<PersistenceElement> batch : batches) {
+				persist(batch, deadline);
+			}
+		} else {
+			List<Future<?>> futures = new ArrayList<>(batches.size());
+			for (List<PersistenceElement> batch : batches) {
+				futures.add(executor.submit(() -> {
+					persist(batch, deadline);
+				}));
+			}
+			// 定时线程被中断表示立即执行或者停止,仍然必须等待所有批次完成
+			boolean interrupted = false;
+			for (Future<?> future : futures) {
+				while (true) {
 					try {
-						writeLock.lock();
-						if (element.isIgnore()) {
-							LOGGER.error("此处不应该有忽略的元素[{}]", element);
-							continue;
-						}
-
-						switch (element.getOperation()) {
-						case CREATE:
-							accessor.create(cacheClass, element.getCacheObject());
-							createdCount.incrementAndGet();
-							break;
-						case DELETE:
-							accessor.delete(cacheClass, element.getCacheId());
-							deletedCount.incrementAndGet();
-							break;
-						case UPDATE:
-							accessor.update(cacheClass, element.getCacheObject());
-							updatedCount.incrementAndGet();
-							break;
-						default:
-							LOGGER.error("未支持的元素类型[{}]", element);
-							break;
-						}
-					} finally {
-						waitSize.decrementAndGet();
-						writeLock.unlock();
+						future.get();
+						break;
+					} catch (InterruptedException exception) {
+						interrupted = true;
+					} catch (ExecutionException exception) {
+						String message = StringUtility.format("定时策略[{}]持久批次时异常", name);
+						LOGGER.error(message, exception.getCause());
+						break;
+					}
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * 持久批次
+	 * 
+	 * @param batch
+	 * @param deadline
+	 */
+	private void persist(List<PersistenceElement> batch, long deadline) {
+		if (System.currentTimeMillis() > deadline && state.get().equals(CacheState.STARTED)) {
+			delay(batch);
+			return;
+		}
+		long begin = System.currentTimeMillis();
+		List<PersistenceElement> creates = new ArrayList<>();
+		List<PersistenceElement> updates = new ArrayList<>();
+		List<PersistenceElement> deletes = new ArrayList<>();
+		List<PersistenceElement> patches = new ArrayList<>();
+		for (PersistenceElement element : batch) {
+			// 访问数据库期间不持有写锁与缓存对象的监视器(使用快照),正在持久的元素不会被修改
+			switch (element.getOperation()) {
+			case CREATE:
+				creates.add(element);
+				break;
+			case DELETE:
+				deletes.add(element);
+				break;
+			case UPDATE:
+				// 部分更新的元素字段各不相同,不能合并为批量更新
+				if (element.getFields() == null) {
+					updates.add(element);
+				} else {
+					patches.add(element);
+				}
+				break;
+			default:
+				LOGGER.error("未支持的元素类型[{}]", element);
+				break;
+			}
+		}
+		Map<PersistenceElement, Exception> exceptions = new HashMap<>();
+		flush(PersistenceOperation.CREATE, creates, exceptions);
+		flush(PersistenceOperation.UPDATE, updates, exceptions);
+		operate(patches, exceptions);
+		flush(PersistenceOperation.DELETE, deletes, exceptions);
+		Lock writeLock = waitForLock.writeLock();
+		try {
+			writeLock.lock();
+			for (PersistenceElement element : batch) {
+				Object cacheId = element.getCacheId();
+				flushings.remove(cacheId);
+				// 持久期间被新元素取代时,由新元素负责
+				if (this.elements.get(cacheId) == element) {
+					this.elements.remove(cacheId);
+					indexes.unindex(cacheId);
+				}
+				fail(element, exceptions.containsKey(element));
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		long latency = System.currentTimeMillis() - begin;
+		if (monitor != null) {
+			for (PersistenceElement element : batch) {
+				monitor.notifyOperate(element.getOperation(), element.getCacheId(), element.getCacheObject(), exceptions.get(element));
+			}
+			if (batchSize > 1) {
+				monitor.notifyFlush(batch.size(), latency);
+			}
+		}
+	}
+
+	/**
+	 * 延迟批次到下次定时持久
+	 * 
+	 * <pre>
+	 * 持久期间被新元素取代的元素需要与新元素合并,保证操作顺序(例如CREATE->UPDATE仍然为CREATE).
+	 * </pre>
+	 * 
+	 * @param batch
+	 */
+	private void delay(List<PersistenceElement> batch) {
+		Lock writeLock = waitForLock.writeLock();
+		try {
+			writeLock.lock();
+			for (PersistenceElement element : batch) {
+				Object cacheId = element.getCacheId();
+				flushings.remove(cacheId);
+				PersistenceElement current = elements.get(cacheId);
+				if (current == element) {
+					continue;
+				}
+				try {
+					if (current != null && element.modify(current)) {
+						elements.remove(cacheId);
+						indexes.unindex(cacheId);
+					} else {
+						elements.put(cacheId, element);
+						indexes.index(element);
 					}
+				} catch (CacheOperationException exception) {
+					exceptionCount.incrementAndGet();
 				}
-				if (monitor != null) {
-					monitor.notifyOperate(element.getOperation(), element.getCacheId(), element.getCacheObject(), null);
+			}
+		} finally {
+			writeLock.unlock();
+		}
+		String message = StringUtility.format("定时策略[{}]超过持久期限,[{}]个元素延迟到下次定时持久", name, batch.size());
+		LOGGER.warn(message);
+	}
+
+	private void flush(PersistenceOperation operation, List<PersistenceElement> batch, Map<PersistenceElement, Exception> exceptions) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		if (batch.size() > 1) {
+			try {
+				switch (operation) {
+				case CREATE: {
+					List<CacheObject> objects = new ArrayList<>(batch.size());
+					for (PersistenceElement element : batch) {
+						objects.add(element.getSnapshot());
+					}
+					accessor.createInstances(cacheClass, objects);
+					createdCount.addAndGet(batch.size());
+					break;
 				}
+				case DELETE: {
+					List<Comparable> ids = new ArrayList<>(batch.size());
+					for (PersistenceElement element : batch) {
+						ids.add(element.getCacheId());
+					}
+					accessor.deleteInstances(cacheClass, ids);
+					deletedCount.addAndGet(batch.size());
+					break;
+				}
+				case UPDATE: {
+					List<CacheObject> objects = new ArrayList<>(batch.size());
+					for (PersistenceElement element : batch) {
+						objects.add(element.getSnapshot());
+					}
+					accessor.updateInstances(cacheClass, objects);
+					updatedCount.addAndGet(batch.size());
+					break;
+				}
+				default:
+					break;
+				}
+				return;
 			} catch (Exception exception) {
-				if (monitor != null && element != null) {
-					monitor.notifyOperate(element.getOperation(), element.getCacheId(), element.getCacheObject(), exception);
+				// 批量失败时逐个重试,定位具体异常的元素
+				String message = StringUtility.format("定时策略[{}]批量处理[{}]个[{}]元素时异常,改为逐个处理", name, batch.size(), operation);
+				LOGGER.error(message, exception);
+			}
+		}
+		operate(batch, exceptions);
+	}
+
+	private void operate(List<PersistenceElement> batch, Map<PersistenceElement, Exception> exceptions) {
+		for (PersistenceElement element : batch) {
+			try {
+				switch (element.getOperation()) {
+				case CREATE:
+					accessor.create(cacheClass, element.getSnapshot());
+					createdCount.incrementAndGet();
+					break;
+				case DELETE:
+					accessor.delete(cacheClass, element.getCacheId());
+					deletedCount.incrementAndGet();
+					break;
+				case UPDATE:
+					if (element.getFields() == null) {
+						accessor.update(cacheClass, element.getSnapshot());
+					} else {
+						accessor.update(cacheClass, element.getSnapshot(), element.getFields());
+					}
+					updatedCount.incrementAndGet();
+					break;
+				default:
+					LOGGER.error("未支持的元素类型[{}]", element);
+					break;
 				}
+			} catch (Exception exception) {
+				exceptions.put(element, exception);
 				exceptionCount.incrementAndGet();
 				String message = StringUtility.format("定时策略[{}]处理元素[{}]时异常", new Object[] { name, element });
 				LOGGER.error(message, exception);
@@ -333,7 +691,7 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 	public synchronized void run() {
 		while (true) {
 			if (state.get().equals(CacheState.STOPPED)) {
-				if (elements.isEmpty()) {
+				if (getWaitSize() == 0) {
 					break;
 				}
 			} else {
@@ -352,11 +710,11 @@ public class SchedulePersistenceManager<K extends Comparable, T extends CacheObj
 					}
 				}
 			}
-			ConcurrentHashMap<Object, PersistenceElement> elements = switchElements();
+			List<PersistenceElement> elements = flushElements();
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug("定时策略[{}]开始执行[{}]", new Object[] { name, LocalDateTime.now() });
 			}
-			persist(elements.values());
+			persist(elements);
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug("定时策略[{}]结束执行[{}],共更新[{}]条数据", new Object[] { name, LocalDateTime.now(), elements.size() });
 			}
@@ -1,8 +1,13 @@
 package com.jstarcraft.core.cache.persistence;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -14,6 +19,7 @@ import com.jstarcraft.core.cache.CacheInformation;
 import com.jstarcraft.core.cache.CacheState;
 import com.jstarcraft.core.cache.exception.CacheConfigurationException;
 import com.jstarcraft.core.orm.OrmAccessor;
+import com.jstarcraft.core.utility.NameThreadFactory;
 
 /**
  * 定时持久策略
@@ -27,6 +33,16 @@ public class SchedulePersistenceStrategy implements PersistenceStrategy {
 
 	/** CRON表达式 */
 	public static final String PARAMETER_CRON = "cron";
+	/** 日志目录参数名称(可选,指定时启用持久日志) */
+	public static final String PARAMETER_JOURNAL = "journal";
+	/** 日志大小参数名称(可选,每个日志分段的映射字节数) */
+	public static final String PARAMETER_JOURNAL_SIZE = "journalSize";
+	/** 批次大小参数名称(可选,大于1时启用批量持久) */
+	public static final String PARAMETER_BATCH_SIZE = "batchSize";
+	/** 并行度参数名称(可选,大于1时使用多个线程并发持久批次) */
+	public static final String PARAMETER_PARALLELISM = "parallelism";
+	/** 期限参数名称(可选,单次定时持久的最长毫秒,超过期限的批次延迟到下次定时) */
+	public static final String PARAMETER_DEADLINE = "deadline";
 	/** 名称 */
 	private String name;
 	/** ORM访问器 */
@@ -39,6 +55,10 @@ public class SchedulePersistenceStrategy implements PersistenceStrategy {
 	private Map<Class, SchedulePersistenceManager> managers = new HashMap<>();
 	/** CRON表达式 */
 	private String cron;
+	/** 持久日志 */
+	private List<PersistenceJournal> journals = new ArrayList<>();
+	/** 执行器(所有缓存类型共享) */
+	private ExecutorService executor;
 
 	/** 处理大小 */
 	private final AtomicInteger waitSize = new AtomicInteger();
@@ -60,10 +80,30 @@ public class SchedulePersistenceStrategy implements PersistenceStrategy {
 		this.accessor = accessor;
 		this.informations = informations;
 		this.cron = configuration.getValue(PARAMETER_CRON);
+		String journal = configuration.getValue(PARAMETER_JOURNAL);
+		String value = configuration.getValue(PARAMETER_JOURNAL_SIZE);
+		int journalSize = value == null ? PersistenceJournal.DEFAULT_SIZE : Integer.parseInt(value);
+		value = configuration.getValue(PARAMETER_BATCH_SIZE);
+		int batchSize = value == null ? 1 : Integer.parseInt(value);
+		value = configuration.getValue(PARAMETER_PARALLELISM);
+		int parallelism = value == null ? 1 : Integer.parseInt(value);
+		value = configuration.getValue(PARAMETER_DEADLINE);
+		long deadline = value == null ? 0L : Long.parseLong(value);
+		if (journalSize < 1 || batchSize < 1 || parallelism < 1 || deadline < 0L) {
+			throw new CacheConfigurationException();
+		}
+		if (parallelism > 1) {
+			this.executor = Executors.newFixedThreadPool(parallelism, new NameThreadFactory(name));
+		}
 		for (Entry<Class<?>, CacheInformation> keyValue : informations.entrySet()) {
 			Class clazz = keyValue.getKey();
 			CacheInformation information = keyValue.getValue();
-			SchedulePersistenceManager manager = new SchedulePersistenceManager<>(name, clazz, accessor, information, state, cron);
+			// 启动持久线程以前回放日志
+			PersistenceJournal[] journals = journal == null ? new PersistenceJournal[1] : PersistenceJournal.instanceOf(new File(journal), clazz, 1, journalSize, accessor);
+			if (journals[0] != null) {
+				this.journals.add(journals[0]);
+			}
+			SchedulePersistenceManager manager = new SchedulePersistenceManager<>(name, clazz, accessor, information, state, cron, journals[0], batchSize, deadline, executor);
 			this.managers.put(clazz, manager);
 			manager.setDaemon(true);
 			manager.start();
@@ -90,7 +130,15 @@ public class SchedulePersistenceStrategy implements PersistenceStrategy {
 				Thread.yield();
 			}
 		}
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
+		for (PersistenceJournal journal : this.journals) {
+			journal.close();
+		}
 		this.managers.clear();
+		this.journals.clear();
 		LOGGER.error("结束等待写队列[{}]清理", name);
 	}
 
@@ -0,0 +1,23 @@
+package com.jstarcraft.core.cache.proxy;
+
+/**
+ * 索引访问器
+ * 
+ * <pre>
+ * 每个索引字段对应一个访问器,用于读取缓存对象(非代理对象)的索引值.
+ * </pre>
+ * 
+ * @author Birdy
+ */
+public interface IndexAccessor {
+
+	/**
+	 * 获取指定对象的索引值
+	 * 
+	 * @param instance
+	 * @return
+	 * @throws Exception
+	 */
+	Comparable getValue(Object instance) throws Exception;
+
+}
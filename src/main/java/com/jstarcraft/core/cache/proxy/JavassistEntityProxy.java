@@ -28,6 +28,7 @@ public class JavassistEntityProxy extends JavassistProxy {
 	 * 代理方法
 	 * 
 	 * <pre>
+	 * 方法在缓存对象的监视器中执行(与刷新和持久快照互斥).
 	 * // TODO 索引变更部分
 	 * CacheInformation cacheInformation = _manager.getCacheInformation();
 	 * String[] values = _indexChange != null ? _indexChange.values() : new String[] {};
@@ -112,6 +113,8 @@ public class JavassistEntityProxy extends JavassistProxy {
 				methodBuilder.append(StringUtility.format("{} value = null;", typeName));
 			}
 		}
+		// 与刷新互斥,修改与修改戳在同一个监视器中完成,读取不会看到复制一半的状态
+		methodBuilder.append(StringUtility.format("synchronized ({}) {", FIELD_INSTANCE));
 		methodBuilder.append(StringUtility.format("try {"));
 		// if (!indexChanges.isEmpty()) {
 		// methodBuilder.append(StringUtility.format("
@@ -139,12 +142,14 @@ public class JavassistEntityProxy extends JavassistProxy {
 		}
 		// TODO 数据变更部分
 		if (cacheChange != null) {
+			// 声明了变更字段的方法只持久这些字段
+			String modify = cacheChange.fields().length > 0 ? "_manager.modifyInstance(_instance, _information.getMethodFields(methodId));" : "_manager.modifyInstance(_instance);";
 			if (returnType == void.class) {
 				// if (!indexChanges.isEmpty()) {
 				// methodBuilder.append(StringUtility.format(" _manager.modifyIndexes(_instance,
 				// newIndexValues, oldIndexValues);"));
 				// }
-				methodBuilder.append(StringUtility.format(" _manager.modifyInstance(_instance);"));
+				methodBuilder.append(" " + modify);
 			} else {
 				if (cacheChange.values().length > 0) {
 					methodBuilder.append(StringUtility.format(" if (changeValues.contains({}.primitiveToWrap(value))) {", ConversionUtility.class.getName()));
@@ -153,7 +158,7 @@ public class JavassistEntityProxy extends JavassistProxy {
 				// methodBuilder.append(StringUtility.format(" _manager.modifyIndexes(_instance,
 				// newIndexValues, oldIndexValues);"));
 				// }
-				methodBuilder.append(StringUtility.format("		_manager.modifyInstance(_instance);"));
+				methodBuilder.append("		" + modify);
 				if (cacheChange.values().length > 0) {
 					methodBuilder.append(StringUtility.format(" }"));
 				}
@@ -170,6 +175,7 @@ public class JavassistEntityProxy extends JavassistProxy {
 		// _information.unlockIndexWriteLocks(indexNames);"));
 		// }
 		methodBuilder.append(StringUtility.format("}"));
+		methodBuilder.append(StringUtility.format("}"));
 		// TODO 返回值部分
 		if (returnType != void.class) {
 			methodBuilder.append(StringUtility.format("return value;"));
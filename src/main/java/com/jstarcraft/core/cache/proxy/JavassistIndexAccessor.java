@@ -0,0 +1,170 @@
+package com.jstarcraft.core.cache.proxy;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.jstarcraft.core.cache.exception.CacheException;
+import com.jstarcraft.core.utility.ClassUtility;
+import com.jstarcraft.core.utility.ReflectionUtility;
+import com.jstarcraft.core.utility.StringUtility;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtMethod;
+import javassist.NotFoundException;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+
+/**
+ * Javassist索引访问器
+ * 
+ * <pre>
+ * 为每个索引字段生成与缓存类型同包的访问器,使读取索引值成为直接的字段访问:
+ * 1.字段不是私有的,直接读取字段;
+ * 2.字段是私有的,但是存在只读取此字段的非私有Getter,调用Getter(JIT会内联);
+ * 3.其它情况使用反射读取字段.
+ * 访问器在同一个类加载器中只能生成一次,所以由所有缓存信息共享.
+ * </pre>
+ * 
+ * @author Birdy
+ */
+public final class JavassistIndexAccessor {
+
+	/** 类:访问器后缀 */
+	private final static String CLASS_SUFFIX = "$INDEX$";
+
+	private static final ClassPool classPool = ClassPool.getDefault();
+
+	private static final ConcurrentHashMap<Field, IndexAccessor> accessors = new ConcurrentHashMap<>();
+
+	/** 反射访问器 */
+	private static class ReflectionIndexAccessor implements IndexAccessor {
+
+		private final Field field;
+
+		private ReflectionIndexAccessor(Field field) {
+			ReflectionUtility.makeAccessible(field);
+			this.field = field;
+		}
+
+		@Override
+		public Comparable getValue(Object instance) throws Exception {
+			return (Comparable) field.get(instance);
+		}
+
+	}
+
+	private JavassistIndexAccessor() {
+	}
+
+	/**
+	 * 获取指定字段的Getter(只读取此字段的非私有方法)
+	 * 
+	 * @param field
+	 * @return
+	 * @throws NotFoundException
+	 */
+	private static String getGetter(Field field) throws NotFoundException {
+		Class<?> clazz = field.getDeclaringClass();
+		CtClass source = classPool.get(clazz.getName());
+		String name = StringUtility.capitalize(field.getName());
+		String[] getters = field.getType() == boolean.class ? new String[] { "is" + name, "get" + name } : new String[] { "get" + name };
+		for (String getter : getters) {
+			CtMethod method;
+			try {
+				method = source.getDeclaredMethod(getter, new CtClass[0]);
+			} catch (NotFoundException exception) {
+				continue;
+			}
+			if (Modifier.isPrivate(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			MethodInfo information = method.getMethodInfo();
+			CodeAttribute attribute = information.getCodeAttribute();
+			if (attribute == null) {
+				continue;
+			}
+			// 必须为aload_0,getfield,?return
+			byte[] code = attribute.getCode();
+			if (code.length != 5 || (code[0] & 0xFF) != Opcode.ALOAD_0 || (code[1] & 0xFF) != Opcode.GETFIELD) {
+				continue;
+			}
+			int opcode = code[4] & 0xFF;
+			if (opcode < Opcode.IRETURN || opcode > Opcode.ARETURN) {
+				continue;
+			}
+			ConstPool constPool = information.getConstPool();
+			int index = ((code[2] & 0xFF) << 8) | (code[3] & 0xFF);
+			if (constPool.getFieldrefName(index).equals(field.getName()) && constPool.getFieldrefClassName(index).equals(clazz.getName())) {
+				return getter;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 生成访问器
+	 * 
+	 * <pre>
+	 * public class [clazz.name]$INDEX$[field.name] implements IndexAccessor {
+	 * 	public Comparable getValue(Object instance) {
+	 * 		return [wrapper].valueOf(((clazz.name) instance).[field.name]或者[getter]());
+	 * 	}
+	 * }
+	 * </pre>
+	 * 
+	 * @param field
+	 * @return
+	 * @throws Exception
+	 */
+	private static IndexAccessor transformField(Field field) throws Exception {
+		Class<?> clazz = field.getDeclaringClass();
+		String expression;
+		if (!Modifier.isPrivate(field.getModifiers())) {
+			expression = StringUtility.format("(({}) $1).{}", clazz.getName(), field.getName());
+		} else {
+			String getter = getGetter(field);
+			if (getter == null) {
+				return new ReflectionIndexAccessor(field);
+			}
+			expression = StringUtility.format("(({}) $1).{}()", clazz.getName(), getter);
+		}
+		if (field.getType().isPrimitive()) {
+			expression = StringUtility.format("{}.valueOf({})", ClassUtility.primitiveToWrapper(field.getType()).getName(), expression);
+		} else {
+			expression = StringUtility.format("({}) {}", Comparable.class.getName(), expression);
+		}
+		CtClass accessorClass = classPool.makeClass(clazz.getName() + CLASS_SUFFIX + field.getName());
+		accessorClass.setInterfaces(new CtClass[] { classPool.get(IndexAccessor.class.getName()) });
+		StringBuilder methodBuilder = new StringBuilder();
+		methodBuilder.append(StringUtility.format("public {} getValue({} instance) {", Comparable.class.getName(), Object.class.getName()));
+		methodBuilder.append(StringUtility.format("return {};", expression));
+		methodBuilder.append("}");
+		accessorClass.addMethod(CtMethod.make(methodBuilder.toString(), accessorClass));
+		// 与缓存类型使用相同的类加载器,保证能够访问包内可见的字段与方法
+		Class<?> current = accessorClass.toClass(clazz.getClassLoader(), clazz.getProtectionDomain());
+		accessorClass.detach();
+		return (IndexAccessor) current.newInstance();
+	}
+
+	/**
+	 * 获取指定字段的访问器
+	 * 
+	 * @param field
+	 * @return
+	 */
+	public static IndexAccessor instanceOf(Field field) {
+		return accessors.computeIfAbsent(field, (key) -> {
+			try {
+				return transformField(key);
+			} catch (Exception exception) {
+				String message = StringUtility.format("类型[{}]的索引[{}]访问器转换异常", key.getDeclaringClass().getName(), key.getName());
+				throw new CacheException(message, exception);
+			}
+		});
+	}
+
+}
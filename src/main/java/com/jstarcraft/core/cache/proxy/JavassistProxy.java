@@ -115,13 +115,33 @@ abstract class JavassistProxy implements ProxyTransformer {
 			if (constructors.containsKey(clazz)) {
 				return (Constructor<T>) constructors.get(clazz);
 			}
-			Class current = transformClass(clazz);
+			Class current = loadClass(clazz);
 			Constructor<T> constructor = current.getConstructor(clazz, ProxyManager.class, CacheInformation.class);
 			constructors.put(clazz, constructor);
 			return constructor;
 		}
 	}
 
+	/**
+	 * 加载代理类
+	 * 
+	 * <pre>
+	 * 代理类在同一个类加载器中只能生成一次,已经由其它代理(例如同一个进程中另外一个缓存服务)生成时直接加载.
+	 * </pre>
+	 * 
+	 * @param clazz
+	 * @return
+	 * @throws Exception
+	 */
+	private Class<?> loadClass(Class<?> clazz) throws Exception {
+		String name = clazz.getCanonicalName() + CLASS_SUFFIX;
+		try {
+			return Class.forName(name, true, classPool.getClassLoader());
+		} catch (ClassNotFoundException exception) {
+			return transformClass(clazz);
+		}
+	}
+
 	/**
 	 * 转换指定类
 	 * 
@@ -113,12 +113,14 @@ public class JavassistRegionProxy extends JavassistProxy {
 		}
 		// TODO 数据变更部分
 		if (cacheChange != null) {
+			// 声明了变更字段的方法只持久这些字段
+			String modify = cacheChange.fields().length > 0 ? "_manager.modifyInstance(_instance, _information.getMethodFields(methodId));" : "_manager.modifyInstance(_instance);";
 			if (returnType == void.class) {
 				// if (!indexChanges.isEmpty()) {
 				// methodBuilder.append(StringUtility.format(" _manager.modifyIndexes(_instance,
 				// newIndexValues, oldIndexValues);"));
 				// }
-				methodBuilder.append(StringUtility.format(" _manager.modifyInstance(_instance);"));
+				methodBuilder.append(" " + modify);
 			} else {
 				if (cacheChange.values().length > 0) {
 					methodBuilder.append(StringUtility.format(" if (changeValues.contains({}.primitiveToWrap(value))) {", ConversionUtility.class.getName()));
@@ -127,7 +129,7 @@ public class JavassistRegionProxy extends JavassistProxy {
 				// methodBuilder.append(StringUtility.format(" _manager.modifyIndexes(_instance,
 				// newIndexValues, oldIndexValues);"));
 				// }
-				methodBuilder.append(StringUtility.format("		_manager.modifyInstance(_instance);"));
+				methodBuilder.append("		" + modify);
 				if (cacheChange.values().length > 0) {
 					methodBuilder.append(StringUtility.format(" }"));
 				}
@@ -24,4 +24,13 @@ public interface ProxyManager<K extends Comparable, T extends CacheObject<K>> {
 	 */
 	void modifyInstance(T instance);
 
+	/**
+	 * 修改指定缓存对象的指定字段
+	 * 
+	 * @param instance
+	 * @param fields
+	 *            变更的字段(由{@link com.jstarcraft.core.cache.CacheInformation}提供,不能修改)
+	 */
+	void modifyInstance(T instance, String[] fields);
+
 }
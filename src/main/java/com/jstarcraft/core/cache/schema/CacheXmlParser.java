@@ -64,10 +64,12 @@ public class CacheXmlParser extends AbstractBeanDefinitionParser {
 		registry.registerBeanDefinition(name, factory.getBeanDefinition());
 	}
 
-	private void assembleLockAspect(ParserContext context) {
+	private void assembleLockAspect(ParserContext context, boolean profile) {
 		BeanDefinitionRegistry registry = context.getRegistry();
 		String name = StringUtility.uncapitalize(ChainLockAspect.class.getSimpleName());
 		BeanDefinitionBuilder factory = BeanDefinitionBuilder.rootBeanDefinition(ChainLockAspect.class);
+		factory.addConstructorArgValue(profile);
+		factory.setDestroyMethodName("close");
 		registry.registerBeanDefinition(name, factory.getBeanDefinition());
 	}
 
@@ -108,7 +110,7 @@ public class CacheXmlParser extends AbstractBeanDefinitionParser {
 
 		// 装配锁拦截切面
 		if (Boolean.valueOf(element.getAttribute(AttributeDefinition.LOCK.getName()))) {
-			assembleLockAspect(context);
+			assembleLockAspect(context, Boolean.valueOf(element.getAttribute(AttributeDefinition.PROFILE.getName())));
 		}
 
 		// 缓存服务工厂
@@ -250,7 +252,10 @@ public class CacheXmlParser extends AbstractBeanDefinitionParser {
 		PARAMETERS("parameters"),
 
 		/** 自动锁机制 */
-		LOCK("lock");
+		LOCK("lock"),
+
+		/** 自动锁剖析 */
+		PROFILE("profile");
 
 		private String name;
 
@@ -1,5 +1,8 @@
 package com.jstarcraft.core.cache.transience;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BiConsumer;
+
 /**
  * 定时瞬时策略
  * 
@@ -8,10 +11,10 @@ package com.jstarcraft.core.cache.transience;
  */
 public class DelayedTransienceManager<K, T> implements TransienceManager<K, T> {
 
-	private DelayedHashMap<K, T> transience;
+	private TimingWheelHashMap<K, T> transience;
 
-	DelayedTransienceManager(int expire, int segment, TransienceMonitor monitor) {
-		this.transience = DelayedHashMap.instanceOf(expire, segment, monitor);
+	DelayedTransienceManager(int expire, int segment, TransienceMonitor monitor, ScheduledExecutorService scheduler) {
+		this.transience = TimingWheelHashMap.instanceOf(expire, segment, monitor, scheduler);
 	}
 
 	@Override
@@ -34,4 +37,9 @@ public class DelayedTransienceManager<K, T> implements TransienceManager<K, T> {
 		return transience.size();
 	}
 
+	@Override
+	public void iterateInstances(BiConsumer<K, T> iterator) {
+		transience.forEach(iterator);
+	}
+
 }
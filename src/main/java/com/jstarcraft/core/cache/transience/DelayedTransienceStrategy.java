@@ -1,9 +1,11 @@
 package com.jstarcraft.core.cache.transience;
 
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.jstarcraft.core.cache.CacheState;
 import com.jstarcraft.core.cache.exception.CacheConfigurationException;
+import com.jstarcraft.core.utility.NameThreadFactory;
 
 /**
  * 定时瞬时策略
@@ -25,6 +27,8 @@ public class DelayedTransienceStrategy implements TransienceStrategy {
 	private int expire;
 	/** 分段 */
 	private int segment;
+	/** 调度器(所有内存管理器共用一个守护线程转动时间轮) */
+	private ScheduledThreadPoolExecutor scheduler;
 
 	/** 状态 */
 	private AtomicReference<CacheState> state = new AtomicReference<>(null);
@@ -41,6 +45,18 @@ public class DelayedTransienceStrategy implements TransienceStrategy {
 		if (expire <= 0 || segment <= 1) {
 			throw new CacheConfigurationException();
 		}
+		NameThreadFactory factory = new NameThreadFactory(name) {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = super.newThread(runnable);
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		};
+		this.scheduler = new ScheduledThreadPoolExecutor(1, factory);
+		this.scheduler.setRemoveOnCancelPolicy(true);
 	}
 
 	@Override
@@ -48,6 +64,7 @@ public class DelayedTransienceStrategy implements TransienceStrategy {
 		if (!state.compareAndSet(CacheState.STARTED, CacheState.STOPPED)) {
 			throw new CacheConfigurationException();
 		}
+		scheduler.shutdownNow();
 	}
 
 	@Override
@@ -57,7 +74,7 @@ public class DelayedTransienceStrategy implements TransienceStrategy {
 
 	@Override
 	public TransienceManager getTransienceManager(TransienceMonitor monitor) {
-		return new DelayedTransienceManager<>(expire, segment, monitor);
+		return new DelayedTransienceManager<>(expire, segment, monitor, scheduler);
 	}
 
 }
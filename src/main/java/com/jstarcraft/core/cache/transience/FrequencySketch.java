@@ -0,0 +1,99 @@
+package com.jstarcraft.core.cache.transience;
+
+/**
+ * 频率草图
+ *
+ * <pre>
+ * 基于Count-Min Sketch估算键的访问频率,每个计数器最大为15.
+ * 增加次数达到采样大小时所有计数器减半,使频率随时间衰减.
+ * 非线程安全,由调用方保证互斥.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+class FrequencySketch {
+
+	/** 计数器最大值 */
+	private static final int MAXIMUM_COUNT = 15;
+
+	/** 每行的哈希种子 */
+	private static final int[] SEEDS = { 0x97CB3127, 0xB6D5C2B9, 0x6B3BB08D, 0xB3C37AD1 };
+
+	/** 计数器(SEEDS.length行) */
+	private final int[] counters;
+	/** 行宽度(2的幂) */
+	private final int width;
+	/** 行掩码 */
+	private final int mask;
+	/** 采样大小 */
+	private final int sampleSize;
+	/** 增加次数 */
+	private int additions;
+
+	FrequencySketch(int maximumSize) {
+		int width = Integer.highestOneBit(Math.max(maximumSize, 1) - 1) << 1;
+		this.width = Math.max(width, 16);
+		this.mask = this.width - 1;
+		this.counters = new int[SEEDS.length * this.width];
+		this.sampleSize = Math.max(maximumSize, 1) * 10;
+	}
+
+	private int getIndex(int hash, int row) {
+		hash = (hash + SEEDS[row]) * SEEDS[row];
+		hash ^= (hash >>> 16);
+		return row * width + (hash & mask);
+	}
+
+	private int getHash(Object key) {
+		int hash = key.hashCode();
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * 获取指定键的估算频率
+	 *
+	 * @param key
+	 * @return
+	 */
+	int getFrequency(Object key) {
+		int hash = getHash(key);
+		int frequency = MAXIMUM_COUNT;
+		for (int row = 0; row < SEEDS.length; row++) {
+			frequency = Math.min(frequency, counters[getIndex(hash, row)]);
+		}
+		return frequency;
+	}
+
+	/**
+	 * 增加指定键的频率
+	 *
+	 * @param key
+	 */
+	void increaseFrequency(Object key) {
+		int hash = getHash(key);
+		boolean increased = false;
+		for (int row = 0; row < SEEDS.length; row++) {
+			int index = getIndex(hash, row);
+			if (counters[index] < MAXIMUM_COUNT) {
+				counters[index]++;
+				increased = true;
+			}
+		}
+		if (increased && ++additions == sampleSize) {
+			reset();
+		}
+	}
+
+	/**
+	 * 所有计数器减半
+	 */
+	private void reset() {
+		for (int index = 0; index < counters.length; index++) {
+			counters[index] >>>= 1;
+		}
+		additions >>>= 1;
+	}
+
+}
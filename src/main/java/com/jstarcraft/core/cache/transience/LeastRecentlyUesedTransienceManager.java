@@ -1,5 +1,7 @@
 package com.jstarcraft.core.cache.transience;
 
+import java.util.function.BiConsumer;
+
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap.Builder;
 import com.googlecode.concurrentlinkedhashmap.EvictionListener;
@@ -51,4 +53,9 @@ public class LeastRecentlyUesedTransienceManager<K, T> implements TransienceMana
 		return transience.size();
 	}
 
+	@Override
+	public void iterateInstances(BiConsumer<K, T> iterator) {
+		transience.forEach(iterator);
+	}
+
 }
@@ -0,0 +1,220 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map.Entry;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import com.jstarcraft.core.cache.exception.CacheConfigurationException;
+import com.jstarcraft.core.codec.ContentCodec;
+
+/**
+ * 堆外瞬时管理器
+ *
+ * <pre>
+ * 作为一级瞬时管理器之后的二级缓存,实例使用{@link ContentCodec}序列化以后保存在堆外的分片中.
+ * 分片按照顺序追加写入,容量不足时整片回收最早写入的分片,分片中的实例全部淘汰.
+ * 所有分片的总字节数等于配置的容量(最后一个分片可能小于{@link #SLAB_SIZE}).
+ * 被覆盖或者删除的实例占用的空间在分片回收时释放.
+ * 读取返回的是反序列化的新实例,修改不会影响已经保存的内容.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ * @param <T>
+ */
+public class OffHeapTransienceManager<K, T> implements TransienceManager<K, T> {
+
+	/** 分片最大字节数 */
+	public static final int SLAB_SIZE = 1024 * 1024;
+
+	/** 实例位置 */
+	private static class Location {
+
+		private final int slab;
+
+		private final int offset;
+
+		private final int length;
+
+		private Location(int slab, int offset, int length) {
+			this.slab = slab;
+			this.offset = offset;
+			this.length = length;
+		}
+
+	}
+
+	/** 实例类型 */
+	private final Class<T> clazz;
+	/** 编解码器 */
+	private final ContentCodec codec;
+	/** 分片 */
+	private final ByteBuffer[] slabs;
+	/** 分片包含的标识 */
+	private final ArrayList<K>[] identities;
+	/** 位置 */
+	private final HashMap<K, Location> locations = new HashMap<>();
+	/** 读锁 */
+	private final Lock readLock;
+	/** 写锁 */
+	private final Lock writeLock;
+	/** 分片最大字节数 */
+	private final int slabSize;
+	/** 当前写入的分片 */
+	private int current;
+
+	public OffHeapTransienceManager(Class<T> clazz, ContentCodec codec, long capacity) {
+		if (capacity <= 0L) {
+			throw new CacheConfigurationException();
+		}
+		this.clazz = clazz;
+		this.codec = codec;
+		this.slabSize = (int) Math.min(capacity, SLAB_SIZE);
+		int slabNumber = (int) ((capacity + slabSize - 1) / slabSize);
+		this.slabs = new ByteBuffer[slabNumber];
+		this.identities = new ArrayList[slabNumber];
+		for (int index = 0; index < slabNumber; index++) {
+			// 最后一个分片只分配剩余的容量
+			this.slabs[index] = ByteBuffer.allocateDirect((int) Math.min(slabSize, capacity - (long) index * slabSize));
+			this.identities[index] = new ArrayList<>();
+		}
+		ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		this.readLock = lock.readLock();
+		this.writeLock = lock.writeLock();
+	}
+
+	/**
+	 * 回收分片(必须在写锁中执行)
+	 *
+	 * @param slab
+	 */
+	private void recycle(int slab) {
+		for (K id : identities[slab]) {
+			Location location = locations.get(id);
+			// 只淘汰仍然位于此分片的实例
+			if (location != null && location.slab == slab) {
+				locations.remove(id);
+			}
+		}
+		identities[slab].clear();
+		slabs[slab].clear();
+	}
+
+	/**
+	 * 读取实例数据(必须在锁中执行)
+	 *
+	 * @param location
+	 * @return
+	 */
+	private byte[] read(Location location) {
+		if (location == null) {
+			return null;
+		}
+		byte[] data = new byte[location.length];
+		ByteBuffer buffer = slabs[location.slab].duplicate();
+		buffer.position(location.offset);
+		buffer.get(data);
+		return data;
+	}
+
+	@Override
+	public void createInstance(K id, T instance) {
+		byte[] data = codec.encode(clazz, instance);
+		writeLock.lock();
+		try {
+			locations.remove(id);
+			if (data.length > slabSize) {
+				// 超过分片大小的实例不保存
+				return;
+			}
+			while (data.length > slabs[current].remaining()) {
+				// 最后一个分片可能容纳不下,继续回收下一个分片
+				current = (current + 1) % slabs.length;
+				recycle(current);
+			}
+			ByteBuffer slab = slabs[current];
+			Location location = new Location(current, slab.position(), data.length);
+			slab.put(data);
+			identities[current].add(id);
+			locations.put(id, location);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public T deleteInstance(K id) {
+		byte[] data;
+		writeLock.lock();
+		try {
+			data = read(locations.remove(id));
+		} finally {
+			writeLock.unlock();
+		}
+		// 在锁外反序列化
+		return data == null ? null : (T) codec.decode(clazz, data);
+	}
+
+	@Override
+	public T retrieveInstance(K id) {
+		byte[] data;
+		readLock.lock();
+		try {
+			data = read(locations.get(id));
+		} finally {
+			readLock.unlock();
+		}
+		// 在锁外反序列化
+		return data == null ? null : (T) codec.decode(clazz, data);
+	}
+
+	/**
+	 * 获取容量(所有分片的总字节数)
+	 *
+	 * @return
+	 */
+	public long getCapacity() {
+		long capacity = 0L;
+		for (ByteBuffer slab : slabs) {
+			capacity += slab.capacity();
+		}
+		return capacity;
+	}
+
+	@Override
+	public int getSize() {
+		readLock.lock();
+		try {
+			return locations.size();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public void iterateInstances(BiConsumer<K, T> iterator) {
+		ArrayList<K> ids;
+		ArrayList<byte[]> datas;
+		readLock.lock();
+		try {
+			ids = new ArrayList<>(locations.size());
+			datas = new ArrayList<>(locations.size());
+			for (Entry<K, Location> term : locations.entrySet()) {
+				ids.add(term.getKey());
+				datas.add(read(term.getValue()));
+			}
+		} finally {
+			readLock.unlock();
+		}
+		// 在锁外反序列化
+		for (int index = 0; index < ids.size(); index++) {
+			iterator.accept(ids.get(index), (T) codec.decode(clazz, datas.get(index)));
+		}
+	}
+
+}
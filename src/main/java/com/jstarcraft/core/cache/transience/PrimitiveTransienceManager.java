@@ -0,0 +1,125 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * 原始类型瞬时管理器
+ *
+ * <pre>
+ * 用于Long/Integer键的{@link UserDefinedTransienceManager}.
+ * 数据分段保存在原始类型的开放寻址哈希映射,每个分段使用独立的读写锁,不需要装箱键与链表节点.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class PrimitiveTransienceManager<K extends Number, T> implements TransienceManager<K, T> {
+
+	/** 分段 */
+	private final Long2ObjectOpenHashMap<T>[] segments;
+	/** 分段锁 */
+	private final ReentrantReadWriteLock[] locks;
+	/** 分段掩码 */
+	private final int mask;
+	/** 是否整数键 */
+	private final boolean integer;
+
+	PrimitiveTransienceManager(Class<K> keyClass, int capacity, float factor, int concurrencyLevel) {
+		this.integer = keyClass == Integer.class;
+		int size = 1;
+		while (size < concurrencyLevel) {
+			size <<= 1;
+		}
+		// 开放寻址的装载因子必须在(0,1]之间
+		factor = Math.min(factor, Long2ObjectOpenHashMap.DEFAULT_LOAD_FACTOR);
+		this.segments = new Long2ObjectOpenHashMap[size];
+		this.locks = new ReentrantReadWriteLock[size];
+		for (int index = 0; index < size; index++) {
+			this.segments[index] = new Long2ObjectOpenHashMap<>(Math.max(capacity / size, 1), factor);
+			this.locks[index] = new ReentrantReadWriteLock();
+		}
+		this.mask = size - 1;
+	}
+
+	private int getSegment(long key) {
+		// 使用高位选择分段,避免与分段内部的低位寻址相关
+		return (int) (HashCommon.mix(key) >>> 32) & mask;
+	}
+
+	@Override
+	public void createInstance(K id, T instance) {
+		long key = id.longValue();
+		int segment = getSegment(key);
+		ReentrantReadWriteLock.WriteLock lock = locks[segment].writeLock();
+		lock.lock();
+		try {
+			segments[segment].put(key, instance);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public T deleteInstance(K id) {
+		long key = id.longValue();
+		int segment = getSegment(key);
+		ReentrantReadWriteLock.WriteLock lock = locks[segment].writeLock();
+		lock.lock();
+		try {
+			return segments[segment].remove(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public T retrieveInstance(K id) {
+		long key = id.longValue();
+		int segment = getSegment(key);
+		ReentrantReadWriteLock.ReadLock lock = locks[segment].readLock();
+		lock.lock();
+		try {
+			return segments[segment].get(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int getSize() {
+		int size = 0;
+		for (int index = 0; index < segments.length; index++) {
+			ReentrantReadWriteLock.ReadLock lock = locks[index].readLock();
+			lock.lock();
+			try {
+				size += segments[index].size();
+			} finally {
+				lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	@Override
+	public void iterateInstances(BiConsumer<K, T> iterator) {
+		for (int index = 0; index < segments.length; index++) {
+			ReentrantReadWriteLock.ReadLock lock = locks[index].readLock();
+			lock.lock();
+			try {
+				for (Long2ObjectMap.Entry<T> entry : segments[index].long2ObjectEntrySet()) {
+					long key = entry.getLongKey();
+					Number id = integer ? (Number) Integer.valueOf((int) key) : (Number) Long.valueOf(key);
+					iterator.accept((K) id, entry.getValue());
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,270 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jstarcraft.core.utility.StringUtility;
+
+/**
+ * 时间轮哈希映射
+ *
+ * <pre>
+ * 所有数据保存在同一个{@link ConcurrentHashMap},到期时间由哈希时间轮维护.
+ * 时间轮有segment个槽,每个刻度为expire/segment,写入的数据放到当前槽,经过一轮以后到期.
+ * get/put/remove与到期处理都是O(1)的复杂度,与槽的数量无关.
+ * 时间轮由调用者提供的调度器转动(例如{@link DelayedTransienceStrategy}的单个守护线程),或者由调用者直接调用{@link #tick()}转动.
+ * 每个刻度到期的数据作为一批在调度线程中通知{@link TransienceMonitor}.
+ * 读取不会延长到期时间.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class TimingWheelHashMap<K, V> implements Map<K, V> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheelHashMap.class);
+
+	/** 节点(不可变,覆盖时替换为新节点) */
+	private static class Node<K, V> {
+
+		private final K key;
+
+		private final V value;
+
+		/** 所在的槽 */
+		private final int slot;
+
+		private Node(K key, V value, int slot) {
+			this.key = key;
+			this.value = value;
+			this.slot = slot;
+		}
+
+	}
+
+	/** 刻度任务(弱引用映射,映射被回收以后自动取消) */
+	private static class Ticker implements Runnable {
+
+		private final WeakReference<TimingWheelHashMap<?, ?>> reference;
+
+		private volatile ScheduledFuture<?> future;
+
+		private Ticker(TimingWheelHashMap<?, ?> map) {
+			this.reference = new WeakReference<>(map);
+		}
+
+		@Override
+		public void run() {
+			TimingWheelHashMap<?, ?> map = reference.get();
+			if (map == null) {
+				future.cancel(false);
+				return;
+			}
+			map.tick();
+		}
+
+	}
+
+	/** 数据 */
+	private final ConcurrentHashMap<K, Node<K, V>> nodes = new ConcurrentHashMap<>();
+	/** 时间轮 */
+	private final Set<Node<K, V>>[] slots;
+	/** 读锁(写入数据) */
+	private final Lock readLock;
+	/** 写锁(转动时间轮) */
+	private final Lock writeLock;
+	/** 监控器 */
+	private final TransienceMonitor monitor;
+	/** 当前槽 */
+	private int current;
+
+	private TimingWheelHashMap(int segment, TransienceMonitor monitor) {
+		this.slots = new Set[segment];
+		for (int index = 0; index < segment; index++) {
+			this.slots[index] = ConcurrentHashMap.newKeySet();
+		}
+		ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+		this.readLock = lock.readLock();
+		this.writeLock = lock.writeLock();
+		this.monitor = monitor;
+	}
+
+	/**
+	 * 转动时间轮(每次转动一个刻度)
+	 */
+	void tick() {
+		Set<Node<K, V>> expires;
+		writeLock.lock();
+		try {
+			// 下一个槽的数据已经经过一轮,替换为空槽作为当前槽
+			current = (current + 1) % slots.length;
+			expires = slots[current];
+			slots[current] = ConcurrentHashMap.newKeySet();
+		} finally {
+			writeLock.unlock();
+		}
+
+		ArrayList<Node<K, V>> exchanges = new ArrayList<>(expires.size());
+		for (Node<K, V> node : expires) {
+			// 只删除仍然是当前值的节点
+			if (nodes.remove(node.key, node)) {
+				exchanges.add(node);
+			}
+		}
+		if (monitor != null) {
+			for (Node<K, V> node : exchanges) {
+				try {
+					monitor.notifyExchanged(node.key, node.value);
+				} catch (Throwable throwable) {
+					String message = StringUtility.format("时间轮哈希映射通知到期[{}]异常", node.key);
+					LOGGER.error(message, throwable);
+				}
+			}
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return nodes.containsKey(key);
+	}
+
+	@Override
+	public V get(Object key) {
+		Node<K, V> node = nodes.get(key);
+		return node == null ? null : node.value;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		Node<K, V> node;
+		readLock.lock();
+		try {
+			node = new Node<>(key, value, current);
+			slots[node.slot].add(node);
+			node = nodes.put(key, node);
+		} finally {
+			readLock.unlock();
+		}
+		if (node == null) {
+			return null;
+		}
+		// 旧节点所在的槽可能已经被转走,此时删除无效但是无害
+		slots[node.slot].remove(node);
+		return node.value;
+	}
+
+	@Override
+	public V remove(Object key) {
+		Node<K, V> node = nodes.remove(key);
+		if (node == null) {
+			return null;
+		}
+		slots[node.slot].remove(node);
+		return node.value;
+	}
+
+	@Override
+	public int size() {
+		return nodes.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return nodes.isEmpty();
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		for (Node<K, V> node : nodes.values()) {
+			if (value == null ? node.value == null : value.equals(node.value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void putAll(Map<? extends K, ? extends V> map) {
+		for (Entry<? extends K, ? extends V> keyValue : map.entrySet()) {
+			put(keyValue.getKey(), keyValue.getValue());
+		}
+	}
+
+	@Override
+	public void clear() {
+		writeLock.lock();
+		try {
+			nodes.clear();
+			for (int index = 0; index < slots.length; index++) {
+				slots[index] = ConcurrentHashMap.newKeySet();
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public Set<K> keySet() {
+		return new HashSet<>(nodes.keySet());
+	}
+
+	@Override
+	public Collection<V> values() {
+		ArrayList<V> values = new ArrayList<>(nodes.size());
+		for (Node<K, V> node : nodes.values()) {
+			values.add(node.value);
+		}
+		return values;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		HashMap<K, V> map = new HashMap<>();
+		for (Node<K, V> node : nodes.values()) {
+			map.put(node.key, node.value);
+		}
+		return map.entrySet();
+	}
+
+	/**
+	 * 创建时间轮哈希映射
+	 * 
+	 * @param expire
+	 *            到期时间(秒)
+	 * @param segment
+	 *            分段(槽的数量)
+	 * @param monitor
+	 * @param scheduler
+	 *            调度器(null表示由调用者通过{@link #tick()}转动时间轮)
+	 * @return
+	 */
+	public static <K, V> TimingWheelHashMap<K, V> instanceOf(int expire, int segment, TransienceMonitor monitor, ScheduledExecutorService scheduler) {
+		if (expire <= 0 || segment < 2) {
+			throw new IllegalArgumentException("expire must be > 0 and segment must be >= 2");
+		}
+		TimingWheelHashMap<K, V> instance = new TimingWheelHashMap<>(segment, monitor);
+		if (scheduler != null) {
+			long tickTime = Math.max(1L, expire * 1000L / segment);
+			Ticker ticker = new Ticker(instance);
+			ticker.future = scheduler.scheduleAtFixedRate(ticker, tickTime, tickTime, TimeUnit.MILLISECONDS);
+		}
+		return instance;
+	}
+
+}
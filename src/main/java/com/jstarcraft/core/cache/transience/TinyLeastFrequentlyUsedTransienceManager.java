@@ -0,0 +1,191 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * 窗口最近最少使用+频率准入瞬时管理器(W-TinyLFU)
+ *
+ * <pre>
+ * 新实例先进入窗口区(LRU),被窗口区淘汰的实例作为候选者,
+ * 与主区试用段最久未使用的实例比较{@link FrequencySketch}估算的频率,频率高者留下.
+ * 主区分为试用段与保护段(SLRU),试用段的实例再次被访问时晋升到保护段.
+ * 扫描式的一次性访问频率很低,无法把热点实例从主区挤出.
+ *
+ * 读取不会阻塞:访问记录只在能够立即获得锁时执行,竞争激烈时允许丢失.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ */
+public class TinyLeastFrequentlyUsedTransienceManager<K, T> implements TransienceManager<K, T> {
+
+	/** 实例 */
+	private final ConcurrentHashMap<K, T> transience;
+	/** 锁(保护频率草图与各个区) */
+	private final ReentrantLock lock = new ReentrantLock();
+	/** 频率草图 */
+	private final FrequencySketch sketch;
+	/** 窗口区 */
+	private final LinkedHashMap<K, T> window = new LinkedHashMap<>(16, 0.75F, true);
+	/** 试用段 */
+	private final LinkedHashMap<K, T> probation = new LinkedHashMap<>(16, 0.75F, true);
+	/** 保护段 */
+	private final LinkedHashMap<K, T> protection = new LinkedHashMap<>(16, 0.75F, true);
+	/** 窗口区大小 */
+	private final int windowSize;
+	/** 主区大小 */
+	private final int mainSize;
+	/** 保护段大小 */
+	private final int protectionSize;
+	/** 监控器 */
+	private final TransienceMonitor monitor;
+
+	TinyLeastFrequentlyUsedTransienceManager(int minimunSize, int maximunSize, int concurrencyLevel, int windowPercent, TransienceMonitor monitor) {
+		this.transience = new ConcurrentHashMap<>(minimunSize, 0.75F, concurrencyLevel);
+		this.sketch = new FrequencySketch(maximunSize);
+		this.windowSize = Math.max(1, maximunSize * windowPercent / 100);
+		this.mainSize = maximunSize - windowSize;
+		this.protectionSize = mainSize * 80 / 100;
+		this.monitor = monitor;
+	}
+
+	/**
+	 * 记录访问(必须在锁中执行)
+	 *
+	 * @param id
+	 */
+	private void access(K id) {
+		sketch.increaseFrequency(id);
+		if (window.get(id) != null) {
+			return;
+		}
+		if (protection.get(id) != null) {
+			return;
+		}
+		T instance = probation.remove(id);
+		if (instance != null) {
+			// 试用段晋升到保护段
+			protection.put(id, instance);
+			while (protection.size() > protectionSize) {
+				Iterator<Entry<K, T>> iterator = protection.entrySet().iterator();
+				Entry<K, T> eldest = iterator.next();
+				iterator.remove();
+				probation.put(eldest.getKey(), eldest.getValue());
+			}
+		}
+	}
+
+	/**
+	 * 淘汰(必须在锁中执行)
+	 *
+	 * @param exchanges
+	 */
+	private void evict(LinkedList<Entry<K, T>> exchanges) {
+		while (window.size() > windowSize) {
+			Iterator<Entry<K, T>> iterator = window.entrySet().iterator();
+			Entry<K, T> candidate = iterator.next();
+			iterator.remove();
+			if (probation.size() + protection.size() < mainSize) {
+				probation.put(candidate.getKey(), candidate.getValue());
+				continue;
+			}
+			LinkedHashMap<K, T> segment = probation.isEmpty() ? protection : probation;
+			if (segment.isEmpty()) {
+				exchange(candidate, exchanges);
+				continue;
+			}
+			iterator = segment.entrySet().iterator();
+			Entry<K, T> victim = iterator.next();
+			// 候选者频率必须高于牺牲者才能准入
+			if (sketch.getFrequency(candidate.getKey()) > sketch.getFrequency(victim.getKey())) {
+				iterator.remove();
+				exchange(victim, exchanges);
+				probation.put(candidate.getKey(), candidate.getValue());
+			} else {
+				exchange(candidate, exchanges);
+			}
+		}
+	}
+
+	private void exchange(Entry<K, T> element, LinkedList<Entry<K, T>> exchanges) {
+		transience.remove(element.getKey());
+		if (monitor != null) {
+			exchanges.add(element);
+		}
+	}
+
+	private void notify(LinkedList<Entry<K, T>> exchanges) {
+		// 在锁外通知,防止监控器阻塞其它线程
+		for (Entry<K, T> element : exchanges) {
+			monitor.notifyExchanged(element.getKey(), element.getValue());
+		}
+	}
+
+	@Override
+	public void createInstance(K id, T instance) {
+		LinkedList<Entry<K, T>> exchanges = new LinkedList<>();
+		lock.lock();
+		try {
+			transience.put(id, instance);
+			if (window.containsKey(id)) {
+				window.put(id, instance);
+			} else if (probation.containsKey(id)) {
+				probation.put(id, instance);
+			} else if (protection.containsKey(id)) {
+				protection.put(id, instance);
+			} else {
+				window.put(id, instance);
+				sketch.increaseFrequency(id);
+				evict(exchanges);
+				return;
+			}
+			access(id);
+		} finally {
+			lock.unlock();
+			notify(exchanges);
+		}
+	}
+
+	@Override
+	public T deleteInstance(K id) {
+		lock.lock();
+		try {
+			window.remove(id);
+			probation.remove(id);
+			protection.remove(id);
+			return transience.remove(id);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public T retrieveInstance(K id) {
+		T instance = transience.get(id);
+		if (instance != null && lock.tryLock()) {
+			try {
+				access(id);
+			} finally {
+				lock.unlock();
+			}
+		}
+		return instance;
+	}
+
+	@Override
+	public int getSize() {
+		return transience.size();
+	}
+
+	@Override
+	public void iterateInstances(BiConsumer<K, T> iterator) {
+		transience.forEach(iterator);
+	}
+
+}
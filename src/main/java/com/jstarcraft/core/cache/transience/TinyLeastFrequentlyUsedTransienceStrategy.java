@@ -0,0 +1,73 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.jstarcraft.core.cache.CacheState;
+import com.jstarcraft.core.cache.exception.CacheConfigurationException;
+
+/**
+ * 窗口最近最少使用+频率准入瞬时策略(W-TinyLFU)
+ * 
+ * @author Birdy
+ *
+ */
+public class TinyLeastFrequentlyUsedTransienceStrategy implements TransienceStrategy {
+
+	/** 参数:最小大小 */
+	public static final String PARAMETER_MINIMUN_SIZE = "minimunSize";
+	/** 参数:最大大小 */
+	public static final String PARAMETER_MAXIMUN_SIZE = "maximunSize";
+	/** 参数:并发线程数预计值 */
+	public static final String PARAMETER_CONCURRENCY_LEVEL = "concurrencyLevel";
+	/** 参数:窗口区百分比(可选,默认为1) */
+	public static final String PARAMETER_WINDOW_PERCENT = "windowPercent";
+
+	/** 名称 */
+	private String name;
+	/** 最小大小 */
+	private int minimunSize;
+	/** 最大大小 */
+	private int maximunSize;
+	/** 并发线程数预计值 */
+	private int concurrencyLevel;
+	/** 窗口区百分比 */
+	private int windowPercent;
+
+	/** 状态 */
+	private AtomicReference<CacheState> state = new AtomicReference<>(null);
+
+	@Override
+	public void start(TransienceConfiguration configuration) {
+		if (!state.compareAndSet(null, CacheState.STARTED)) {
+			throw new CacheConfigurationException();
+		}
+		this.name = configuration.getName();
+		this.minimunSize = Integer.parseInt(configuration.getValue(PARAMETER_MINIMUN_SIZE));
+		this.maximunSize = Integer.parseInt(configuration.getValue(PARAMETER_MAXIMUN_SIZE));
+		this.concurrencyLevel = Integer.parseInt(configuration.getValue(PARAMETER_CONCURRENCY_LEVEL));
+		String windowPercent = configuration.getValue(PARAMETER_WINDOW_PERCENT);
+		this.windowPercent = windowPercent == null ? 1 : Integer.parseInt(windowPercent);
+
+		if (minimunSize <= 0 || maximunSize <= 0 || concurrencyLevel <= 0 || this.windowPercent <= 0 || this.windowPercent >= 100) {
+			throw new CacheConfigurationException();
+		}
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (!state.compareAndSet(CacheState.STARTED, CacheState.STOPPED)) {
+			throw new CacheConfigurationException();
+		}
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public TransienceManager getTransienceManager(TransienceMonitor monitor) {
+		return new TinyLeastFrequentlyUsedTransienceManager<>(minimunSize, maximunSize, concurrencyLevel, windowPercent, monitor);
+	}
+
+}
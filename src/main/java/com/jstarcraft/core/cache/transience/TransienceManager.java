@@ -1,5 +1,7 @@
 package com.jstarcraft.core.cache.transience;
 
+import java.util.function.BiConsumer;
+
 /**
  * 内存管理器
  * 
@@ -41,4 +43,15 @@ public interface TransienceManager<K, T> {
 	 */
 	int getSize();
 
+	/**
+	 * 遍历实例(不影响淘汰顺序)
+	 * 
+	 * <pre>
+	 * 遍历期间的修改可能不可见.
+	 * </pre>
+	 * 
+	 * @param iterator
+	 */
+	void iterateInstances(BiConsumer<K, T> iterator);
+
 }
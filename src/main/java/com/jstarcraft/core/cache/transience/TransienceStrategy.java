@@ -25,6 +25,9 @@ public interface TransienceStrategy {
 		/** 使用最近最少使用策略管理内存 */
 		LEAST_RECENTLY_UESED,
 
+		/** 使用窗口最近最少使用+频率准入策略(W-TinyLFU)管理内存 */
+		TINY_LEAST_FREQUENTLY_USED,
+
 		/** 使用自定义策略管理内存 */
 		USER_DEFINED,
 
@@ -55,4 +58,19 @@ public interface TransienceStrategy {
 	 */
 	TransienceManager getTransienceManager(TransienceMonitor monitor);
 
+	/**
+	 * 获取指定键类型的内存管理器
+	 * 
+	 * <pre>
+	 * 策略可以根据键类型提供特化的实现(例如原始类型的键),默认与{@link #getTransienceManager(TransienceMonitor)}相同.
+	 * </pre>
+	 * 
+	 * @param keyClass
+	 * @param monitor
+	 * @return
+	 */
+	default TransienceManager getTransienceManager(Class<?> keyClass, TransienceMonitor monitor) {
+		return getTransienceManager(monitor);
+	}
+
 }
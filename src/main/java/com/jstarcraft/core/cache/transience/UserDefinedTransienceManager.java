@@ -1,6 +1,7 @@
 package com.jstarcraft.core.cache.transience;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 /**
  * 自定义瞬时策略
@@ -36,4 +37,9 @@ public class UserDefinedTransienceManager<K, T> implements TransienceManager<K,
 		return transience.size();
 	}
 
+	@Override
+	public void iterateInstances(BiConsumer<K, T> iterator) {
+		transience.forEach(iterator);
+	}
+
 }
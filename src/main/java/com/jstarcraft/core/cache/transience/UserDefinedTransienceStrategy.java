@@ -64,4 +64,13 @@ public class UserDefinedTransienceStrategy implements TransienceStrategy {
 		return new UserDefinedTransienceManager<>(capacity, factor, concurrencyLevel);
 	}
 
+	@Override
+	public TransienceManager getTransienceManager(Class<?> keyClass, TransienceMonitor monitor) {
+		// 长整数/整数键使用原始类型的开放寻址哈希映射
+		if (keyClass == Long.class || keyClass == Integer.class) {
+			return new PrimitiveTransienceManager(keyClass, capacity, factor, concurrencyLevel);
+		}
+		return getTransienceManager(monitor);
+	}
+
 }
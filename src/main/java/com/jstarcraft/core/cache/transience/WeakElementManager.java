@@ -1,9 +1,8 @@
 package com.jstarcraft.core.cache.transience;
 
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.WeakHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.jstarcraft.core.cache.CacheObject;
 import com.jstarcraft.core.cache.proxy.ProxyTransformer;
@@ -11,21 +10,38 @@ import com.jstarcraft.core.cache.proxy.ProxyTransformer;
 /**
  * 弱引用元素管理器
  * 
+ * <pre>
+ * 强引用标识,弱引用元素,元素被回收以后通过{@link ReferenceQueue}清理映射.
+ * 标识不能作为弱引用键,因为原始类型的标识每次装箱都是新的对象(或者是永远不会被回收的缓存对象).
+ * 获取元素不需要加锁,并且不需要分配探测对象.
+ * </pre>
+ * 
  * @author Birdy
  */
 public class WeakElementManager<K extends Comparable, T extends CacheObject<K>> {
 
 	/** 转换器 */
 	private final ProxyTransformer transformer;
-	/** 对象缓存 */
-	private final WeakHashMap<TransienceElement, WeakReference<TransienceElement>> elements = new WeakHashMap<>();
-	/** 读写锁 */
-	private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+	/** 对象缓存(标识 -> 元素) */
+	private final ConcurrentHashMap<K, ElementReference<K>> elements = new ConcurrentHashMap<>();
+	/** 被回收的元素 */
+	private final ReferenceQueue<TransienceElement> queue = new ReferenceQueue<>();
 
 	public WeakElementManager(ProxyTransformer transformer) {
 		this.transformer = transformer;
 	}
 
+	/**
+	 * 清理被回收的元素
+	 */
+	private void expunge() {
+		ElementReference<K> reference;
+		while ((reference = (ElementReference<K>) queue.poll()) != null) {
+			// 只删除仍然映射到被回收元素的标识
+			elements.remove(reference.id, reference);
+		}
+	}
+
 	/**
 	 * 根据指定缓存对象获取内存元素
 	 * 
@@ -33,18 +49,21 @@ public class WeakElementManager<K extends Comparable, T extends CacheObject<K>>
 	 * @return
 	 */
 	public TransienceElement getElement(T object) {
-		Lock lock = readWriteLock.readLock();
-		try {
-			lock.lock();
-			TransienceElement element = new TransienceElement(object);
-			WeakReference<TransienceElement> reference = elements.get(element);
-			if (reference != null) {
-				return reference.get();
-			}
-			return null;
-		} finally {
-			lock.unlock();
+		return retrieveElement(object.getId());
+	}
+
+	/**
+	 * 根据指定标识获取内存元素
+	 * 
+	 * @param id
+	 * @return
+	 */
+	public TransienceElement retrieveElement(K id) {
+		ElementReference<K> reference = elements.get(id);
+		if (reference != null) {
+			return reference.get();
 		}
+		return null;
 	}
 
 	/**
@@ -54,27 +73,28 @@ public class WeakElementManager<K extends Comparable, T extends CacheObject<K>>
 	 * @return
 	 */
 	public TransienceElement putElement(T object) {
-		Lock lock = readWriteLock.writeLock();
-		try {
-			lock.lock();
-			TransienceElement key = new TransienceElement(object);
-			WeakReference<TransienceElement> value = elements.get(key);
-			TransienceElement element;
-			if (value != null) {
-				element = value.get();
-				if (element != null) {
-					return element;
+		TransienceElement element = getElement(object);
+		if (element != null) {
+			return element;
+		}
+		expunge();
+		TransienceElement[] elements = new TransienceElement[1];
+		this.elements.compute(object.getId(), (id, reference) -> {
+			if (reference != null) {
+				elements[0] = reference.get();
+				if (elements[0] != null) {
+					return reference;
 				}
 			}
+			// 元素不存在或者已经被回收
+			T instance = object;
 			if (transformer != null) {
-				object = transformer.transform(object);
+				instance = transformer.transform(instance);
 			}
-			element = new TransienceElement(object);
-			elements.put(element, new WeakReference<TransienceElement>(element));
-			return element;
-		} finally {
-			lock.unlock();
-		}
+			elements[0] = new TransienceElement(instance);
+			return new ElementReference<>(id, elements[0], queue);
+		});
+		return elements[0];
 	}
 
 	/**
@@ -83,14 +103,8 @@ public class WeakElementManager<K extends Comparable, T extends CacheObject<K>>
 	 * @param element
 	 */
 	public void takeElement(T object) {
-		Lock lock = readWriteLock.writeLock();
-		try {
-			lock.lock();
-			TransienceElement element = new TransienceElement(object);
-			elements.remove(element);
-		} finally {
-			lock.unlock();
-		}
+		expunge();
+		elements.remove(object.getId());
 	}
 
 	/**
@@ -99,13 +113,33 @@ public class WeakElementManager<K extends Comparable, T extends CacheObject<K>>
 	 * @return
 	 */
 	public int getCount() {
-		Lock lock = readWriteLock.readLock();
-		try {
-			lock.lock();
-			return elements.size();
-		} finally {
-			lock.unlock();
+		expunge();
+		// 元素被回收以后可能尚未进入引用队列,所以只统计元素仍然存活的映射
+		int count = 0;
+		for (ElementReference<K> reference : elements.values()) {
+			if (reference.get() != null) {
+				count++;
+			}
 		}
+		return count;
+	}
+
+	/**
+	 * 元素引用(记录标识用于清理)
+	 * 
+	 * @author Birdy
+	 *
+	 * @param <K>
+	 */
+	private static class ElementReference<K> extends WeakReference<TransienceElement> {
+
+		private final K id;
+
+		private ElementReference(K id, TransienceElement element, ReferenceQueue<TransienceElement> queue) {
+			super(element, queue);
+			this.id = id;
+		}
+
 	}
 
 }
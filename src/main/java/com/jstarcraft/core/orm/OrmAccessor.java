@@ -32,6 +32,19 @@ public interface OrmAccessor {
 	 */
 	<K extends Comparable, T extends CacheObject<K>> T get(Class<T> objectType, K id);
 
+	/**
+	 * 根据主键,批量获取指定的对象
+	 * 
+	 * <pre>
+	 * 不存在的主键不会出现在返回的映射中
+	 * </pre>
+	 * 
+	 * @param objectType
+	 * @param ids
+	 * @return
+	 */
+	<K extends Comparable, T extends CacheObject<K>> Map<K, T> getInstances(Class<T> objectType, Collection<K> ids);
+
 	/**
 	 * 保存指定的对象,并返回对象的主键
 	 * 
@@ -66,6 +79,43 @@ public interface OrmAccessor {
 	 */
 	<K extends Comparable, T extends CacheObject<K>> void update(Class<T> objectType, T object);
 
+	/**
+	 * 更新指定对象的指定字段
+	 * 
+	 * <pre>
+	 * 只写入指定的字段,其它字段保持数据库中的值(不支持部分更新的实现可以更新整个对象)
+	 * </pre>
+	 * 
+	 * @param objectType
+	 * @param object
+	 * @param fields
+	 */
+	<K extends Comparable, T extends CacheObject<K>> void update(Class<T> objectType, T object, Collection<String> fields);
+
+	/**
+	 * 批量保存指定的对象
+	 *
+	 * @param objectType
+	 * @param objects
+	 */
+	<K extends Comparable, T extends CacheObject<K>> void createInstances(Class<T> objectType, Collection<T> objects);
+
+	/**
+	 * 根据主键,批量删除指定的对象
+	 *
+	 * @param objectType
+	 * @param ids
+	 */
+	<K extends Comparable, T extends CacheObject<K>> void deleteInstances(Class<T> objectType, Collection<K> ids);
+
+	/**
+	 * 批量更新指定的对象
+	 *
+	 * @param objectType
+	 * @param objects
+	 */
+	<K extends Comparable, T extends CacheObject<K>> void updateInstances(Class<T> objectType, Collection<T> objects);
+
 	/**
 	 * 查询指定范围的最大主键标识
 	 * 
@@ -255,6 +255,13 @@ public class BerkeleyAccessor implements OrmAccessor {
 		return (T) manager.get(transactor, id);
 	}
 
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> Map<K, T> getInstances(Class<T> objectType, Collection<K> ids) {
+		BerkeleyManager<K, T> manager = managers.get(objectType);
+		BerkeleyTransactor transactor = transactors.get();
+		return manager.getInstances(transactor, ids);
+	}
+
 	@Override
 	public <K extends Comparable, T extends CacheObject<K>> K create(Class<T> objectType, T object) {
 		BerkeleyManager<K, T> manager = managers.get(objectType);
@@ -291,6 +298,33 @@ public class BerkeleyAccessor implements OrmAccessor {
 		manager.update(transactor, object);
 	}
 
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void update(Class<T> objectType, T object, Collection<String> fields) {
+		// Berkeley按照整个对象保存,不支持部分更新
+		update(objectType, object);
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void createInstances(Class<T> objectType, Collection<T> objects) {
+		for (T object : objects) {
+			create(objectType, object);
+		}
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void deleteInstances(Class<T> objectType, Collection<K> ids) {
+		for (K id : ids) {
+			delete(objectType, id);
+		}
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void updateInstances(Class<T> objectType, Collection<T> objects) {
+		for (T object : objects) {
+			update(objectType, object);
+		}
+	}
+
 	@Override
 	public <K extends Comparable, T extends CacheObject<K>> K maximumIdentity(Class<T> objectType, K from, K to) {
 		BerkeleyManager<K, T> manager = managers.get(objectType);
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -142,6 +143,20 @@ public class BerkeleyManager<K extends Comparable, T extends CacheObject<K>> {
 		return (T) primaryIndex.get(transaction, id, lockMode);
 	}
 
+	public Map<K, T> getInstances(BerkeleyTransactor transactor, Collection<K> ids) {
+		LockMode lockMode = transactor == null ? null : transactor.getIsolation().getLockMode();
+		Transaction transaction = transactor == null ? null : transactor.getTransaction();
+		HashMap<K, T> instances = new HashMap<>();
+		// 按照主键顺序访问B树,相邻的主键大多位于相同或者相邻的节点
+		for (K id : new TreeSet<>(ids)) {
+			T instance = (T) primaryIndex.get(transaction, id, lockMode);
+			if (instance != null) {
+				instances.put(id, instance);
+			}
+		}
+		return instances;
+	}
+
 	public K maximumIdentity(BerkeleyTransactor transactor, K from, K to) {
 		CursorConfig cursorModel = transactor == null ? null : transactor.getIsolation().getCursorModel();
 		Transaction transaction = transactor == null ? null : transactor.getTransaction();
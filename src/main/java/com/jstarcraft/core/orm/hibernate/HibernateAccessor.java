@@ -1,6 +1,7 @@
 package com.jstarcraft.core.orm.hibernate;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -57,6 +58,15 @@ public class HibernateAccessor extends HibernateDaoSupport implements OrmAccesso
 	/** DELETE Class clazz WHERE clazz.field = ? */
 	private final static String DELETE_HQL = "DELETE {} clazz WHERE clazz.{} = ?0";
 
+	/** DELETE Class clazz WHERE clazz.field IN (?) */
+	private final static String DELETE_INSTANCES_HQL = "DELETE {} clazz WHERE clazz.{} IN (?0)";
+
+	/** UPDATE Class clazz SET clazz.field = ? WHERE clazz.field = ? */
+	private final static String UPDATE_FIELDS_HQL = "UPDATE {} clazz SET {} WHERE clazz.{} = ?0";
+
+	/** FROM Class clazz WHERE clazz.field IN (?) */
+	private final static String GET_INSTANCES_HQL = "FROM {} clazz WHERE clazz.{} IN (?0)";
+
 	/** 查询指定范围的最大主键标识 */
 	private final static String MAXIMUM_ID = "SELECT MAX(clazz.{}) FROM {} clazz WHERE clazz.{} BETWEEN ?0 AND ?1";
 
@@ -78,6 +88,12 @@ public class HibernateAccessor extends HibernateDaoSupport implements OrmAccesso
 	/** HQL删除语句 */
 	private Map<String, String> deleteHqls = new ConcurrentHashMap<>();
 
+	/** HQL批量删除语句 */
+	private Map<String, String> deleteInstancesHqls = new ConcurrentHashMap<>();
+
+	/** HQL批量获取语句 */
+	private Map<String, String> getInstancesHqls = new ConcurrentHashMap<>();
+
 	/** HQL查询语句(查询指定范围的最大主键标识),用于IdentityManager */
 	private Map<String, String> maximumIdHqls = new ConcurrentHashMap<>();
 
@@ -99,6 +115,10 @@ public class HibernateAccessor extends HibernateDaoSupport implements OrmAccesso
 					hibernateMetadatas.put(ormName, hibernateMetadata);
 					String deleteHql = StringUtility.format(DELETE_HQL, ormClass.getSimpleName(), hibernateMetadata.getPrimaryName());
 					deleteHqls.put(ormName, deleteHql);
+					String deleteInstancesHql = StringUtility.format(DELETE_INSTANCES_HQL, ormClass.getSimpleName(), hibernateMetadata.getPrimaryName());
+					deleteInstancesHqls.put(ormName, deleteInstancesHql);
+					String getInstancesHql = StringUtility.format(GET_INSTANCES_HQL, ormClass.getSimpleName(), hibernateMetadata.getPrimaryName());
+					getInstancesHqls.put(ormName, getInstancesHql);
 
 					String maximumIdHql = StringUtility.format(MAXIMUM_ID, hibernateMetadata.getPrimaryName(), ormClass.getSimpleName(), hibernateMetadata.getPrimaryName());
 					maximumIdHqls.put(ormName, maximumIdHql);
@@ -133,6 +153,41 @@ public class HibernateAccessor extends HibernateDaoSupport implements OrmAccesso
 		return value;
 	}
 
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> Map<K, T> getInstances(Class<T> clazz, Collection<K> ids) {
+		Map<K, T> values = getHibernateTemplate().executeWithNativeSession(new HibernateCallback<Map<K, T>>() {
+
+			@Override
+			public Map<K, T> doInHibernate(Session session) throws HibernateException {
+				String hql = getInstancesHqls.get(clazz.getName());
+				Map<K, T> instances = new HashMap<>();
+				List<K> batch = new ArrayList<>(Math.min(ids.size(), BATCH_SIZE));
+				for (K id : ids) {
+					batch.add(id);
+					// 按批次查询,防止IN条件过长
+					if (batch.size() == BATCH_SIZE) {
+						Query<T> query = session.createQuery(hql);
+						query.setParameterList(0, batch);
+						for (T instance : query.list()) {
+							instances.put(instance.getId(), instance);
+						}
+						batch.clear();
+					}
+				}
+				if (!batch.isEmpty()) {
+					Query<T> query = session.createQuery(hql);
+					query.setParameterList(0, batch);
+					for (T instance : query.list()) {
+						instances.put(instance.getId(), instance);
+					}
+				}
+				return instances;
+			}
+
+		});
+		return values;
+	}
+
 	@Override
 	public <K extends Comparable, T extends CacheObject<K>> K create(Class<T> clazz, T object) {
 		K value = getHibernateTemplate().executeWithNativeSession(new HibernateCallback<K>() {
@@ -188,6 +243,117 @@ public class HibernateAccessor extends HibernateDaoSupport implements OrmAccesso
 		});
 	}
 
+	/**
+	 * 更新指定对象的指定字段
+	 * 
+	 * <pre>
+	 * 使用HQL的UPDATE语句只写入指定的列,避免重新序列化{@link JsonType}/{@link ZipJsonType}等未变化的大字段.
+	 * 不会递增版本,保证缓存中的对象与数据库的版本一致.
+	 * </pre>
+	 */
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void update(Class<T> clazz, T object, Collection<String> fields) {
+		getHibernateTemplate().executeWithNativeSession(new HibernateCallback<Void>() {
+
+			@Override
+			public Void doInHibernate(Session session) throws HibernateException {
+				MetamodelImplementor metamodelImplementor = (MetamodelImplementor) session.getSessionFactory().getMetamodel();
+				EntityPersister persister = metamodelImplementor.entityPersister(clazz);
+				HibernateMetadata metadata = hibernateMetadatas.get(clazz.getName());
+				StringBuilder buffer = new StringBuilder();
+				int position = 1;
+				for (String field : fields) {
+					if (position > 1) {
+						buffer.append(", ");
+					}
+					buffer.append("clazz.").append(field).append(" = ?").append(position++);
+				}
+				String hql = StringUtility.format(UPDATE_FIELDS_HQL, clazz.getSimpleName(), buffer.toString(), metadata.getPrimaryName());
+				Query<?> query = session.createQuery(hql);
+				query.setParameter(0, object.getId());
+				position = 1;
+				for (String field : fields) {
+					// 使用属性的映射类型绑定参数,保证自定义类型按照映射序列化
+					query.setParameter(position++, persister.getPropertyValue(object, field), persister.getPropertyType(field));
+				}
+				query.executeUpdate();
+				return null;
+			}
+
+		});
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void createInstances(Class<T> clazz, Collection<T> objects) {
+		getHibernateTemplate().executeWithNativeSession(new HibernateCallback<Void>() {
+
+			@Override
+			public Void doInHibernate(Session session) throws HibernateException {
+				int count = 0;
+				for (T object : objects) {
+					session.save(object);
+					// 按批次刷新,防止会话持有过多对象
+					if (++count % BATCH_SIZE == 0) {
+						session.flush();
+						session.clear();
+					}
+				}
+				return null;
+			}
+
+		});
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void deleteInstances(Class<T> clazz, Collection<K> ids) {
+		getHibernateTemplate().executeWithNativeSession(new HibernateCallback<Void>() {
+
+			@Override
+			public Void doInHibernate(Session session) throws HibernateException {
+				String hql = deleteInstancesHqls.get(clazz.getName());
+				List<K> batch = new ArrayList<>(Math.min(ids.size(), BATCH_SIZE));
+				for (K id : ids) {
+					batch.add(id);
+					// 按批次删除,防止IN条件过长
+					if (batch.size() == BATCH_SIZE) {
+						Query<?> query = session.createQuery(hql);
+						query.setParameterList(0, batch);
+						query.executeUpdate();
+						batch.clear();
+					}
+				}
+				if (!batch.isEmpty()) {
+					Query<?> query = session.createQuery(hql);
+					query.setParameterList(0, batch);
+					query.executeUpdate();
+				}
+				return null;
+			}
+
+		});
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void updateInstances(Class<T> clazz, Collection<T> objects) {
+		getHibernateTemplate().executeWithNativeSession(new HibernateCallback<Void>() {
+
+			@Override
+			public Void doInHibernate(Session session) throws HibernateException {
+				int count = 0;
+				for (T object : objects) {
+					session.update(object);
+					// 按批次刷新,防止会话持有过多对象
+					if (++count % BATCH_SIZE == 0) {
+						session.flush();
+						session.clear();
+					}
+				}
+				return null;
+			}
+
+		});
+	}
+
 	@Override
 	public <K extends Comparable, T extends CacheObject<K>> K maximumIdentity(Class<T> clazz, K from, K to) {
 		return getHibernateTemplate().executeWithNativeSession(new HibernateCallback<K>() {
@@ -1,5 +1,7 @@
 package com.jstarcraft.core.orm.mongo;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -22,7 +24,12 @@ import com.jstarcraft.core.orm.OrmIterator;
 import com.jstarcraft.core.orm.OrmMetadata;
 import com.jstarcraft.core.orm.OrmPagination;
 import com.jstarcraft.core.orm.exception.OrmQueryException;
+import com.jstarcraft.core.utility.ReflectionUtility;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.UpdateResult;
 
 /**
@@ -57,6 +64,16 @@ public class MongoAccessor implements OrmAccessor {
 		return mongoTemplate.findById(id, objectType, objectType.getName());
 	}
 
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> Map<K, T> getInstances(Class<T> objectType, Collection<K> ids) {
+		List<T> instances = mongoTemplate.find(Query.query(Criteria.where(MongoMetadata.mongoId).in(ids)), objectType, objectType.getName());
+		Map<K, T> values = new HashMap<>();
+		for (T instance : instances) {
+			values.put(instance.getId(), instance);
+		}
+		return values;
+	}
+
 	@Override
 	public <K extends Comparable, T extends CacheObject<K>> K create(Class<T> objectType, T object) {
 		mongoTemplate.insert(object, objectType.getName());
@@ -78,6 +95,43 @@ public class MongoAccessor implements OrmAccessor {
 		mongoTemplate.save(object, objectType.getName());
 	}
 
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void update(Class<T> objectType, T object, Collection<String> fields) {
+		// 使用$set只写入指定的字段
+		Update update = new Update();
+		for (String name : fields) {
+			Field field = ReflectionUtility.findField(objectType, name);
+			ReflectionUtility.makeAccessible(field);
+			update.set(name, ReflectionUtility.getField(field, object));
+		}
+		mongoTemplate.updateFirst(Query.query(Criteria.where(MongoMetadata.mongoId).is(object.getId())), update, objectType, objectType.getName());
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void createInstances(Class<T> objectType, Collection<T> objects) {
+		mongoTemplate.insert(objects, objectType.getName());
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void deleteInstances(Class<T> objectType, Collection<K> ids) {
+		mongoTemplate.remove(Query.query(Criteria.where(MongoMetadata.mongoId).in(ids)), objectType.getName());
+	}
+
+	@Override
+	public <K extends Comparable, T extends CacheObject<K>> void updateInstances(Class<T> objectType, Collection<T> objects) {
+		// 与save语义保持一致(按照主键覆盖,不存在则插入)
+		UpdateOptions options = new UpdateOptions().upsert(true);
+		List<WriteModel<Document>> models = new ArrayList<>(objects.size());
+		for (T object : objects) {
+			Document document = new Document();
+			mongoTemplate.getConverter().write(object, document);
+			models.add(new ReplaceOneModel<>(Filters.eq(MongoMetadata.mongoId, document.get(MongoMetadata.mongoId)), document, options));
+		}
+		if (!models.isEmpty()) {
+			mongoTemplate.getCollection(objectType.getName()).bulkWrite(models);
+		}
+	}
+
 	@Override
 	public <K extends Comparable, T extends CacheObject<K>> K maximumIdentity(Class<T> objectType, K from, K to) {
 		Query query = Query.query(Criteria.where(MongoMetadata.mongoId).gte(from).lte(to));
@@ -0,0 +1,410 @@
+package com.jstarcraft.core.utility;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 并发弱键哈希映射
+ *
+ * <pre>
+ * 与{@link java.util.WeakHashMap}一样使用弱引用保存键,键被回收以后映射自动删除.
+ * 数据按照键的哈希分段,每个分段使用独立的读写锁.
+ * 读取只使用读锁并且不会清理被回收的键,清理只在写锁中执行,所以读取是安全的并且不需要分配对象.
+ * 与{@link java.util.WeakHashMap}一样,值不能强引用键,否则键永远不会被回收.
+ * </pre>
+ *
+ * @author Birdy
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ConcurrentWeakHashMap<K, V> {
+
+	/** 默认分段数量 */
+	private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+	/** 默认分段容量 */
+	private static final int DEFAULT_CAPACITY = 16;
+	/** 装载因子 */
+	private static final float LOAD_FACTOR = 0.75F;
+
+	/** 条目(弱引用键) */
+	private static class Node<K, V> extends WeakReference<K> {
+
+		private final int hash;
+
+		private V value;
+
+		private Node<K, V> next;
+
+		private Node(K key, int hash, V value, Node<K, V> next, ReferenceQueue<K> queue) {
+			super(key, queue);
+			this.hash = hash;
+			this.value = value;
+			this.next = next;
+		}
+
+	}
+
+	/** 分段 */
+	private static class Segment<K, V> {
+
+		private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+		private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+		private Node<K, V>[] table;
+
+		private int size;
+
+		private Segment(int capacity) {
+			this.table = new Node[capacity];
+		}
+
+		private V get(Object key, int hash) {
+			ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+			readLock.lock();
+			try {
+				for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+					if (node.hash == hash) {
+						Object current = node.get();
+						if (current == key || (current != null && key.equals(current))) {
+							return node.value;
+						}
+					}
+				}
+				return null;
+			} finally {
+				readLock.unlock();
+			}
+		}
+
+		/**
+		 * 清理被回收的键(必须在写锁中执行)
+		 */
+		private void expunge() {
+			Reference<? extends K> reference;
+			while ((reference = queue.poll()) != null) {
+				Node<K, V> node = (Node<K, V>) reference;
+				int index = node.hash & (table.length - 1);
+				Node<K, V> previous = null;
+				for (Node<K, V> current = table[index]; current != null; previous = current, current = current.next) {
+					if (current == node) {
+						if (previous == null) {
+							table[index] = current.next;
+						} else {
+							previous.next = current.next;
+						}
+						node.value = null;
+						size--;
+						break;
+					}
+				}
+			}
+		}
+
+		/**
+		 * 查找条目(必须在写锁中执行)
+		 */
+		private Node<K, V> find(Object key, int hash) {
+			for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+				if (node.hash == hash) {
+					Object current = node.get();
+					if (current == key || (current != null && key.equals(current))) {
+						return node;
+					}
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * 放入条目(必须在写锁中执行)
+		 */
+		private void insert(K key, int hash, V value) {
+			if (size >= table.length * LOAD_FACTOR) {
+				resize();
+			}
+			int index = hash & (table.length - 1);
+			table[index] = new Node<>(key, hash, value, table[index], queue);
+			size++;
+		}
+
+		private void resize() {
+			Node<K, V>[] table = new Node[this.table.length << 1];
+			for (Node<K, V> node : this.table) {
+				while (node != null) {
+					Node<K, V> next = node.next;
+					int index = node.hash & (table.length - 1);
+					node.next = table[index];
+					table[index] = node;
+					node = next;
+				}
+			}
+			this.table = table;
+		}
+
+		private Node<K, V> delete(Object key, int hash) {
+			int index = hash & (table.length - 1);
+			Node<K, V> previous = null;
+			for (Node<K, V> node = table[index]; node != null; previous = node, node = node.next) {
+				if (node.hash == hash) {
+					Object current = node.get();
+					if (current == key || (current != null && key.equals(current))) {
+						if (previous == null) {
+							table[index] = node.next;
+						} else {
+							previous.next = node.next;
+						}
+						// 主动删除的条目不需要再通过引用队列清理
+						node.clear();
+						size--;
+						return node;
+					}
+				}
+			}
+			return null;
+		}
+
+	}
+
+	/** 分段 */
+	private final Segment<K, V>[] segments;
+	/** 分段偏移 */
+	private final int shift;
+
+	public ConcurrentWeakHashMap() {
+		this(DEFAULT_CAPACITY * DEFAULT_CONCURRENCY_LEVEL, DEFAULT_CONCURRENCY_LEVEL);
+	}
+
+	public ConcurrentWeakHashMap(int capacity, int concurrencyLevel) {
+		if (capacity < 0 || concurrencyLevel <= 0) {
+			throw new IllegalArgumentException();
+		}
+		int size = 1;
+		int bits = 0;
+		while (size < concurrencyLevel) {
+			size <<= 1;
+			bits++;
+		}
+		int segmentCapacity = 1;
+		while (segmentCapacity * size < capacity) {
+			segmentCapacity <<= 1;
+		}
+		this.segments = new Segment[size];
+		for (int index = 0; index < size; index++) {
+			this.segments[index] = new Segment<>(segmentCapacity);
+		}
+		// 使用高位选择分段,低位选择分段内部的桶
+		this.shift = 32 - bits;
+	}
+
+	private static int hash(Object key) {
+		int hash = key.hashCode();
+		// 与ConcurrentHashMap一样扩散高位
+		hash += (hash << 15) ^ 0xffffcd7d;
+		hash ^= (hash >>> 10);
+		hash += (hash << 3);
+		hash ^= (hash >>> 6);
+		hash += (hash << 2) + (hash << 14);
+		return hash ^ (hash >>> 16);
+	}
+
+	private Segment<K, V> getSegment(int hash) {
+		return segments.length == 1 ? segments[0] : segments[hash >>> shift];
+	}
+
+	/**
+	 * 获取值(只使用读锁,不分配对象)
+	 *
+	 * @param key
+	 * @return
+	 */
+	public V get(Object key) {
+		int hash = hash(key);
+		return getSegment(hash).get(key, hash);
+	}
+
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	public V put(K key, V value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		int hash = hash(key);
+		Segment<K, V> segment = getSegment(hash);
+		ReentrantReadWriteLock.WriteLock writeLock = segment.lock.writeLock();
+		writeLock.lock();
+		try {
+			segment.expunge();
+			Node<K, V> node = segment.find(key, hash);
+			if (node != null) {
+				V old = node.value;
+				node.value = value;
+				return old;
+			}
+			segment.insert(key, hash, value);
+			return null;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public V putIfAbsent(K key, V value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		return computeIfAbsent(key, (instance) -> value);
+	}
+
+	/**
+	 * 不存在时计算并放入值(在分段的写锁中计算)
+	 *
+	 * @param key
+	 * @param function
+	 * @return
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		int hash = hash(key);
+		Segment<K, V> segment = getSegment(hash);
+		// 大部分情况下值已经存在,先使用读锁获取
+		V value = segment.get(key, hash);
+		if (value != null) {
+			return value;
+		}
+		ReentrantReadWriteLock.WriteLock writeLock = segment.lock.writeLock();
+		writeLock.lock();
+		try {
+			segment.expunge();
+			Node<K, V> node = segment.find(key, hash);
+			if (node != null) {
+				return node.value;
+			}
+			value = function.apply(key);
+			if (value != null) {
+				segment.insert(key, hash, value);
+			}
+			return value;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * 计算并替换值(在分段的写锁中计算,结果为null时删除)
+	 *
+	 * @param key
+	 * @param function
+	 * @return
+	 */
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+		int hash = hash(key);
+		Segment<K, V> segment = getSegment(hash);
+		ReentrantReadWriteLock.WriteLock writeLock = segment.lock.writeLock();
+		writeLock.lock();
+		try {
+			segment.expunge();
+			Node<K, V> node = segment.find(key, hash);
+			V value = function.apply(key, node == null ? null : node.value);
+			if (node == null) {
+				if (value != null) {
+					segment.insert(key, hash, value);
+				}
+			} else if (value == null) {
+				segment.delete(key, hash);
+			} else {
+				node.value = value;
+			}
+			return value;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	public V remove(Object key) {
+		int hash = hash(key);
+		Segment<K, V> segment = getSegment(hash);
+		ReentrantReadWriteLock.WriteLock writeLock = segment.lock.writeLock();
+		writeLock.lock();
+		try {
+			segment.expunge();
+			Node<K, V> node = segment.delete(key, hash);
+			return node == null ? null : node.value;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * 获取大小(会清理被回收的键)
+	 *
+	 * @return
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			ReentrantReadWriteLock.WriteLock writeLock = segment.lock.writeLock();
+			writeLock.lock();
+			try {
+				segment.expunge();
+				size += segment.size;
+			} finally {
+				writeLock.unlock();
+			}
+		}
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * 获取所有值的快照
+	 *
+	 * @return
+	 */
+	public List<V> values() {
+		List<V> values = new ArrayList<>();
+		for (Segment<K, V> segment : segments) {
+			ReentrantReadWriteLock.ReadLock readLock = segment.lock.readLock();
+			readLock.lock();
+			try {
+				for (Node<K, V> node : segment.table) {
+					for (; node != null; node = node.next) {
+						if (node.get() != null) {
+							values.add(node.value);
+						}
+					}
+				}
+			} finally {
+				readLock.unlock();
+			}
+		}
+		return values;
+	}
+
+	public void clear() {
+		for (Segment<K, V> segment : segments) {
+			ReentrantReadWriteLock.WriteLock writeLock = segment.lock.writeLock();
+			writeLock.lock();
+			try {
+				segment.table = new Node[segment.table.length];
+				segment.size = 0;
+				// 丢弃的条目即使进入引用队列也不会再匹配
+				while (segment.queue.poll() != null) {
+				}
+			} finally {
+				writeLock.unlock();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.jstarcraft.core.cache;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jstarcraft.core.cache.exception.CacheConfigurationException;
+import com.jstarcraft.core.utility.RandomUtility;
+import com.jstarcraft.core.utility.StringUtility;
+
+public class CacheLockManagerTestCase {
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	static int THREAD_SIZE = Runtime.getRuntime().availableProcessors() * 4;
+	static int KEY_SIZE = 1000;
+	static int EXPIRE_SECONDS = 3;
+
+	@Test(expected = CacheConfigurationException.class)
+	public void testConfiguration() {
+		CacheLockManager.instanceOf(100);
+	}
+
+	@Test
+	public void testExclusion() throws Exception {
+		for (CacheLockManager<Integer> manager : new CacheLockManager[] { CacheLockManager.instanceOf(0), CacheLockManager.instanceOf(16) }) {
+			int[] counts = new int[KEY_SIZE];
+			int times = 10000;
+			CountDownLatch latch = new CountDownLatch(THREAD_SIZE);
+			for (int thread = 0; thread < THREAD_SIZE; thread++) {
+				new Thread(() -> {
+					for (int index = 0; index < times; index++) {
+						int key = index % KEY_SIZE;
+						ReentrantLock lock = manager.lockKey(key);
+						try {
+							counts[key]++;
+						} finally {
+							manager.unlockKey(key, lock);
+						}
+					}
+					latch.countDown();
+				}).start();
+			}
+			latch.await();
+			for (int count : counts) {
+				Assert.assertThat(count, CoreMatchers.equalTo(THREAD_SIZE * times / KEY_SIZE));
+			}
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testTryLock() throws Exception {
+		for (CacheLockManager<Integer> manager : new CacheLockManager[] { CacheLockManager.instanceOf(0), CacheLockManager.instanceOf(16) }) {
+			ReentrantLock lock = manager.lockKey(1);
+			try {
+				// 其它线程持有时立即返回null
+				AtomicReference<ReentrantLock> reference = new AtomicReference<>();
+				Thread thread = new Thread(() -> {
+					reference.set(manager.tryLockKey(1));
+				});
+				thread.start();
+				thread.join();
+				Assert.assertNull(reference.get());
+			} finally {
+				manager.unlockKey(1, lock);
+			}
+			lock = manager.tryLockKey(1);
+			Assert.assertNotNull(lock);
+			manager.unlockKey(1, lock);
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testDeadlock() throws Exception {
+		// 同时锁定多个键必须按照统一顺序,否则不同线程之间会互相等待
+		CacheLockManager<CacheIndex> manager = CacheLockManager.instanceOf(4);
+		CountDownLatch latch = new CountDownLatch(THREAD_SIZE);
+		for (int thread = 0; thread < THREAD_SIZE; thread++) {
+			new Thread(() -> {
+				for (int index = 0; index < 10000; index++) {
+					TreeSet<CacheIndex> indexes = new TreeSet<>();
+					indexes.add(new CacheIndex("left", RandomUtility.randomInteger(0, KEY_SIZE)));
+					indexes.add(new CacheIndex("right", RandomUtility.randomInteger(0, KEY_SIZE)));
+					List<ReentrantLock> locks = manager.lockKeys(indexes);
+					manager.unlockKeys(indexes, locks);
+				}
+				latch.countDown();
+			}).start();
+		}
+		latch.await();
+	}
+
+	private long testPerformance(CacheLockManager<Integer> manager) throws Exception {
+		AtomicBoolean run = new AtomicBoolean(true);
+		AtomicLong operationCount = new AtomicLong();
+		for (int index = 0; index < THREAD_SIZE; index++) {
+			Thread thread = new Thread(() -> {
+				while (run.get()) {
+					// 读多写少的热点标识
+					Integer key = RandomUtility.randomInteger(0, KEY_SIZE);
+					ReentrantLock lock = manager.lockKey(key);
+					try {
+						operationCount.incrementAndGet();
+					} finally {
+						manager.unlockKey(key, lock);
+					}
+				}
+			});
+			thread.setDaemon(true);
+			thread.start();
+		}
+		Thread.sleep(TimeUnit.MILLISECONDS.convert(EXPIRE_SECONDS, TimeUnit.SECONDS));
+		run.set(false);
+		return operationCount.get();
+	}
+
+	@Test
+	public void testPerformance() throws Exception {
+		long mapCount = testPerformance(CacheLockManager.instanceOf(0));
+		String message = StringUtility.format("映射锁{}条线程在{}秒内执行{}次锁操作", THREAD_SIZE, EXPIRE_SECONDS, mapCount);
+		logger.debug(message);
+		for (int stripes : new int[] { 16, 64, 256 }) {
+			long stripeCount = testPerformance(CacheLockManager.instanceOf(stripes));
+			message = StringUtility.format("条纹锁[{}]{}条线程在{}秒内执行{}次锁操作", stripes, THREAD_SIZE, EXPIRE_SECONDS, stripeCount);
+			logger.debug(message);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.jstarcraft.core.cache;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CacheMetricsTestCase {
+
+	@Test
+	public void testCount() {
+		CacheMetrics metrics = new CacheMetrics(MockEntityObject.class.getName());
+		Assert.assertThat(metrics.getHitRatio(), CoreMatchers.equalTo(0D));
+		for (int index = 0; index < 3; index++) {
+			metrics.recordHit();
+		}
+		metrics.recordMiss();
+		metrics.recordLoad(10);
+		metrics.recordCreate();
+		metrics.recordIndexHit();
+		metrics.recordIndexLoad();
+		metrics.recordAbsenceHit();
+		Assert.assertThat(metrics.getHitCount(), CoreMatchers.equalTo(3L));
+		Assert.assertThat(metrics.getMissCount(), CoreMatchers.equalTo(1L));
+		Assert.assertThat(metrics.getHitRatio(), CoreMatchers.equalTo(0.75D));
+		Assert.assertThat(metrics.getLoadCount(), CoreMatchers.equalTo(10L));
+		Assert.assertThat(metrics.getCreateCount(), CoreMatchers.equalTo(1L));
+		Assert.assertThat(metrics.getIndexHitCount(), CoreMatchers.equalTo(1L));
+		Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(1L));
+		Assert.assertThat(metrics.getAbsenceHitCount(), CoreMatchers.equalTo(1L));
+	}
+
+	@Test
+	public void testHistogram() {
+		CacheMetrics metrics = new CacheMetrics(MockEntityObject.class.getName());
+		Assert.assertThat(metrics.getFetchPercentile(0.5D), CoreMatchers.equalTo(0L));
+		long now = System.nanoTime();
+		// 90次约100微秒,10次约10毫秒
+		for (int index = 0; index < 90; index++) {
+			metrics.recordFetch(now - 100000L);
+		}
+		for (int index = 0; index < 10; index++) {
+			metrics.recordFetch(now - 10000000L);
+		}
+		Assert.assertThat(metrics.getFetchCount(), CoreMatchers.equalTo(100L));
+		Assert.assertTrue(metrics.getFetchTime() >= 90L * 100000L + 10L * 10000000L);
+		long[] histogram = metrics.getFetchHistogram();
+		long total = 0L;
+		for (long count : histogram) {
+			total += count;
+		}
+		Assert.assertThat(total, CoreMatchers.equalTo(100L));
+		long median = metrics.getFetchPercentile(0.5D);
+		Assert.assertTrue(median >= 100L && median < 10000L);
+		long maximum = metrics.getFetchPercentile(1D);
+		Assert.assertTrue(maximum >= 10000L);
+	}
+
+}
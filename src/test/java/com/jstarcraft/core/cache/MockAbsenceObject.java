@@ -0,0 +1,61 @@
+package com.jstarcraft.core.cache;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import com.jstarcraft.core.cache.annotation.CacheConfiguration;
+import com.jstarcraft.core.cache.annotation.CacheConfiguration.Unit;
+
+@Entity
+@CacheConfiguration(unit = Unit.ENTITY, indexes = { "name" }, transienceStrategy = "lruMemoryStrategy", persistenceStrategy = "queuePersistenceStrategy", absenceSize = 1000)
+public class MockAbsenceObject implements CacheObject<Integer> {
+
+	@Id
+	private Integer id;
+
+	private String name;
+
+	MockAbsenceObject() {
+	}
+
+	@Override
+	public Integer getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (object == null)
+			return false;
+		if (!(object instanceof MockAbsenceObject))
+			return false;
+		MockAbsenceObject that = (MockAbsenceObject) object;
+		EqualsBuilder equal = new EqualsBuilder();
+		equal.append(this.getId(), that.getId());
+		return equal.isEquals();
+	}
+
+	@Override
+	public int hashCode() {
+		HashCodeBuilder hash = new HashCodeBuilder();
+		hash.append(getId());
+		return hash.toHashCode();
+	}
+
+	public static MockAbsenceObject instanceOf(Integer id, String name) {
+		MockAbsenceObject instance = new MockAbsenceObject();
+		instance.id = id;
+		instance.name = name;
+		return instance;
+	}
+
+}
@@ -64,6 +64,11 @@ public class MockEntityObject implements CacheObject<Integer> {
 		return result;
 	}
 
+	@CacheChange(fields = { "money" })
+	public void increaseMoney(int money) {
+		this.money += money;
+	}
+
 	@Override
 	public boolean equals(Object object) {
 		if (this == object)
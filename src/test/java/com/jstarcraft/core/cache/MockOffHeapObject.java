@@ -0,0 +1,74 @@
+package com.jstarcraft.core.cache;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import com.jstarcraft.core.cache.annotation.CacheChange;
+import com.jstarcraft.core.cache.annotation.CacheConfiguration;
+import com.jstarcraft.core.cache.annotation.CacheConfiguration.Unit;
+
+@Entity
+@CacheConfiguration(unit = Unit.ENTITY, transienceStrategy = "lruMemoryStrategy", persistenceStrategy = "queuePersistenceStrategy", offHeapCapacity = 1024L * 1024L)
+public class MockOffHeapObject implements CacheObject<Integer> {
+
+	@Id
+	private Integer id;
+
+	private String name;
+
+	private int money;
+
+	MockOffHeapObject() {
+	}
+
+	@Override
+	public Integer getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMoney() {
+		return money;
+	}
+
+	@CacheChange
+	public void setMoney(int money) {
+		this.money = money;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (object == null)
+			return false;
+		if (!(object instanceof MockOffHeapObject))
+			return false;
+		MockOffHeapObject that = (MockOffHeapObject) object;
+		EqualsBuilder equal = new EqualsBuilder();
+		equal.append(this.getId(), that.getId());
+		return equal.isEquals();
+	}
+
+	@Override
+	public int hashCode() {
+		HashCodeBuilder hash = new HashCodeBuilder();
+		hash.append(getId());
+		return hash.toHashCode();
+	}
+
+	public static MockOffHeapObject instanceOf(Integer id, String name, int money) {
+		MockOffHeapObject instance = new MockOffHeapObject();
+		instance.id = id;
+		instance.name = name;
+		instance.money = money;
+		return instance;
+	}
+
+}
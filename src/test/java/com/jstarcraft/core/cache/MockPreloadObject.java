@@ -0,0 +1,68 @@
+package com.jstarcraft.core.cache;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import com.jstarcraft.core.cache.annotation.CacheConfiguration;
+import com.jstarcraft.core.cache.annotation.CacheConfiguration.Unit;
+
+@Entity
+@CacheConfiguration(unit = Unit.ENTITY, indexes = { "name", "token" }, transienceStrategy = "lruMemoryStrategy", persistenceStrategy = "queuePersistenceStrategy", preloadSize = 1000)
+public class MockPreloadObject implements CacheObject<Integer> {
+
+	@Id
+	private Integer id;
+
+	private String name;
+
+	private int token;
+
+	MockPreloadObject() {
+	}
+
+	@Override
+	public Integer getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getToken() {
+		return token;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (object == null)
+			return false;
+		if (!(object instanceof MockPreloadObject))
+			return false;
+		MockPreloadObject that = (MockPreloadObject) object;
+		EqualsBuilder equal = new EqualsBuilder();
+		equal.append(this.getId(), that.getId());
+		return equal.isEquals();
+	}
+
+	@Override
+	public int hashCode() {
+		HashCodeBuilder hash = new HashCodeBuilder();
+		hash.append(getId());
+		return hash.toHashCode();
+	}
+
+	public static MockPreloadObject instanceOf(Integer id, String name, int token) {
+		MockPreloadObject instance = new MockPreloadObject();
+		instance.id = id;
+		instance.name = name;
+		instance.token = token;
+		return instance;
+	}
+
+}
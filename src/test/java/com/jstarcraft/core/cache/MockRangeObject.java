@@ -0,0 +1,61 @@
+package com.jstarcraft.core.cache;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import com.jstarcraft.core.cache.annotation.CacheConfiguration;
+import com.jstarcraft.core.cache.annotation.CacheConfiguration.Unit;
+
+@Entity
+@CacheConfiguration(unit = Unit.REGION, indexes = { "score" }, rangeIndex = true, transienceStrategy = "lruMemoryStrategy", persistenceStrategy = "queuePersistenceStrategy")
+public class MockRangeObject implements CacheObject<Integer> {
+
+	@Id
+	private Integer id;
+
+	private int score;
+
+	MockRangeObject() {
+	}
+
+	@Override
+	public Integer getId() {
+		return id;
+	}
+
+	public int getScore() {
+		return score;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (object == null)
+			return false;
+		if (!(object instanceof MockRangeObject))
+			return false;
+		MockRangeObject that = (MockRangeObject) object;
+		EqualsBuilder equal = new EqualsBuilder();
+		equal.append(this.getId(), that.getId());
+		return equal.isEquals();
+	}
+
+	@Override
+	public int hashCode() {
+		HashCodeBuilder hash = new HashCodeBuilder();
+		hash.append(getId());
+		return hash.toHashCode();
+	}
+
+	public static MockRangeObject instanceOf(Integer id, int score) {
+		MockRangeObject instance = new MockRangeObject();
+		instance.id = id;
+		instance.score = score;
+		return instance;
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.jstarcraft.core.cache;
+
+import java.util.concurrent.CountDownLatch;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import com.jstarcraft.core.cache.annotation.CacheChange;
+import com.jstarcraft.core.cache.annotation.CacheConfiguration;
+import com.jstarcraft.core.cache.annotation.CacheConfiguration.Unit;
+
+@Entity
+@CacheConfiguration(unit = Unit.ENTITY, indexes = { "name" }, transienceStrategy = "lruMemoryStrategy", persistenceStrategy = "queuePersistenceStrategy", refreshInterval = 1)
+public class MockRefreshObject implements CacheObject<Integer> {
+
+	@Id
+	private Integer id;
+
+	private String name;
+
+	private int money;
+
+	MockRefreshObject() {
+	}
+
+	@Override
+	public Integer getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMoney() {
+		return money;
+	}
+
+	/**
+	 * 修改金额(修改以后等待释放,模拟修改与记录修改之间的窗口)
+	 * 
+	 * @param money
+	 * @param modified
+	 * @param release
+	 */
+	@CacheChange
+	public void modifyMoney(int money, CountDownLatch modified, CountDownLatch release) {
+		this.money = money;
+		modified.countDown();
+		while (release.getCount() > 0) {
+			try {
+				release.await();
+			} catch (InterruptedException exception) {
+			}
+		}
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (object == null)
+			return false;
+		if (!(object instanceof MockRefreshObject))
+			return false;
+		MockRefreshObject that = (MockRefreshObject) object;
+		EqualsBuilder equal = new EqualsBuilder();
+		equal.append(this.getId(), that.getId());
+		return equal.isEquals();
+	}
+
+	@Override
+	public int hashCode() {
+		HashCodeBuilder hash = new HashCodeBuilder();
+		hash.append(getId());
+		return hash.toHashCode();
+	}
+
+	public static MockRefreshObject instanceOf(Integer id, String name, int money) {
+		MockRefreshObject instance = new MockRefreshObject();
+		instance.id = id;
+		instance.name = name;
+		instance.money = money;
+		return instance;
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.jstarcraft.core.cache.aspect;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ChainLockProfilerTestCase {
+
+	@Test
+	public void testProfile() throws Exception {
+		ChainLockProfiler profiler = new ChainLockProfiler();
+		Method method = MockCacheObject.class.getMethod("getId");
+		String name = MockCacheObject.class.getName() + ".getId()";
+		ChainLockProfile profile = profiler.getProfile(method);
+		Assert.assertThat(profiler.getProfile(method), CoreMatchers.sameInstance(profile));
+		Assert.assertArrayEquals(new String[] { name }, profiler.getMethodNames());
+
+		Comparable hot = new MockCacheObject<>("hot");
+		Comparable cold = new MockCacheObject<>("cold");
+		// 没有竞争时不记录锁
+		try (ChainLock lock = ChainLock.instanceOf(cold)) {
+			lock.open(profiler);
+		}
+		Assert.assertThat(profiler.getContendedKeys(10).length, CoreMatchers.equalTo(0));
+
+		CountDownLatch latch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		ChainLock lock = ChainLock.instanceOf(hot);
+		lock.open();
+		executor.submit(() -> {
+			ChainLock contention = ChainLock.instanceOf(hot, cold);
+			long begin = System.nanoTime();
+			contention.open(profiler);
+			long acquire = System.nanoTime();
+			contention.close();
+			profile.record(acquire - begin, System.nanoTime() - acquire);
+			latch.countDown();
+		});
+		Thread.sleep(100L);
+		lock.close();
+		Assert.assertTrue(latch.await(1000L, TimeUnit.MILLISECONDS));
+		executor.shutdown();
+
+		Assert.assertThat(profiler.getLockCount(name), CoreMatchers.equalTo(1L));
+		Assert.assertTrue(profiler.getWaitTime(name) >= TimeUnit.MILLISECONDS.toNanos(50L));
+		long count = 0L;
+		for (long bucket : profiler.getWaitHistogram(name)) {
+			count += bucket;
+		}
+		Assert.assertThat(count, CoreMatchers.equalTo(1L));
+		String[] keys = profiler.getContendedKeys(10);
+		Assert.assertThat(keys.length, CoreMatchers.equalTo(1));
+		Assert.assertTrue(keys[0].startsWith(MockCacheObject.class.getName() + "["));
+		Assert.assertThat(profiler.getLockCount("unknown"), CoreMatchers.equalTo(0L));
+
+		profiler.reset();
+		Assert.assertThat(profiler.getMethodNames().length, CoreMatchers.equalTo(0));
+		Assert.assertThat(profiler.getContendedKeys(10).length, CoreMatchers.equalTo(0));
+	}
+
+	@Test
+	public void testRegister() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(ChainLockAspect.PROFILER_NAME);
+		Assert.assertNull(new ChainLockAspect().getProfiler());
+		ChainLockAspect aspect = new ChainLockAspect(true);
+		Assert.assertNotNull(aspect.getProfiler());
+		Assert.assertTrue(server.isRegistered(name));
+		Assert.assertThat(server.getAttribute(name, "MethodNames"), CoreMatchers.instanceOf(String[].class));
+		aspect.close();
+		Assert.assertFalse(server.isRegistered(name));
+	}
+
+}
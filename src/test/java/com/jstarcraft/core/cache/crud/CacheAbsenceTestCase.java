@@ -0,0 +1,103 @@
+package com.jstarcraft.core.cache.crud;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheMetricsMonitor;
+import com.jstarcraft.core.cache.CacheObjectFactory;
+import com.jstarcraft.core.cache.CacheService;
+import com.jstarcraft.core.cache.EntityManager;
+import com.jstarcraft.core.cache.MockAbsenceObject;
+import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TransienceConfiguration;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+// 与CacheCrudTestCase共享上下文(缓存指标只能注册一次)
+@ContextConfiguration(locations = "classpath:com/jstarcraft/core/cache/crud/CacheCrudTestCase-context.xml")
+public class CacheAbsenceTestCase {
+
+	@Autowired
+	private OrmAccessor accessor;
+
+	private CacheService getCacheService() {
+		Map<String, String> transienceParameters = new HashMap<>();
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MINIMUN_SIZE, "16");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, "10000");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, "10");
+		Map<String, TransienceConfiguration> transienceConfigurations = new HashMap<>();
+		transienceConfigurations.put("lruMemoryStrategy", new TransienceConfiguration("lruMemoryStrategy", TransienceType.LEAST_RECENTLY_UESED, transienceParameters));
+		Map<String, PersistenceConfiguration> persistenceConfigurations = new HashMap<>();
+		persistenceConfigurations.put("queuePersistenceStrategy", new PersistenceConfiguration("queuePersistenceStrategy", PersistenceType.PROMPT, new HashMap<>()));
+		return new CacheService(Collections.singleton((Class) MockAbsenceObject.class), accessor, transienceConfigurations, persistenceConfigurations);
+	}
+
+	@After
+	public void clean() {
+		for (int id = 1; id <= 3; id++) {
+			if (accessor.get(MockAbsenceObject.class, id) != null) {
+				accessor.delete(MockAbsenceObject.class, id);
+			}
+		}
+	}
+
+	@Test
+	public void testAbsence() {
+		accessor.create(MockAbsenceObject.class, MockAbsenceObject.instanceOf(1, "birdy"));
+		CacheService cacheService = getCacheService();
+		cacheService.start();
+		try {
+			EntityManager<Integer, MockAbsenceObject> manager = cacheService.getEntityManager(MockAbsenceObject.class);
+			CacheMetricsMonitor metrics = cacheService.getMetrics(MockAbsenceObject.class);
+
+			// 批量获取时不存在的主键记录为缺失,不再查询持久层
+			Assert.assertThat(manager.getInstances(Arrays.asList(1, 2)).size(), CoreMatchers.equalTo(1));
+			long fetchCount = metrics.getFetchCount();
+			Assert.assertNull(manager.getInstance(2));
+			Assert.assertThat(metrics.getFetchCount(), CoreMatchers.equalTo(fetchCount));
+			Assert.assertThat(metrics.getAbsenceHitCount(), CoreMatchers.equalTo(1L));
+
+			// 单个获取时不存在的主键同样记录为缺失
+			Assert.assertNull(manager.getInstance(3));
+			fetchCount = metrics.getFetchCount();
+			Assert.assertNull(manager.getInstance(3));
+			Assert.assertThat(metrics.getFetchCount(), CoreMatchers.equalTo(fetchCount));
+			Assert.assertThat(metrics.getAbsenceHitCount(), CoreMatchers.equalTo(2L));
+
+			// 加载时缺失的主键直接使用工厂创建,并且缺失失效
+			MockAbsenceObject absence = manager.loadInstance(2, new CacheObjectFactory<Integer, MockAbsenceObject>() {
+				@Override
+				public MockAbsenceObject instanceOf(Integer id) {
+					return MockAbsenceObject.instanceOf(id, "birdy");
+				}
+			});
+			Assert.assertTrue(absence == manager.getInstance(2));
+			Assert.assertNotNull(accessor.get(MockAbsenceObject.class, 2));
+			Assert.assertThat(metrics.getAbsenceHitCount(), CoreMatchers.equalTo(3L));
+
+			// 删除以后重复查询不需要访问持久层
+			manager.deleteInstance(1);
+			fetchCount = metrics.getFetchCount();
+			Assert.assertNull(manager.getInstance(1));
+			Assert.assertThat(metrics.getFetchCount(), CoreMatchers.equalTo(fetchCount));
+			Assert.assertThat(metrics.getAbsenceHitCount(), CoreMatchers.equalTo(4L));
+		} finally {
+			cacheService.stop();
+		}
+	}
+
+}
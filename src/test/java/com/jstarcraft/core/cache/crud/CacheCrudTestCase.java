@@ -1,6 +1,16 @@
 package com.jstarcraft.core.cache.crud;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
@@ -12,6 +22,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.jstarcraft.core.cache.CacheIndex;
+import com.jstarcraft.core.cache.CacheMetrics;
 import com.jstarcraft.core.cache.CacheObjectFactory;
 import com.jstarcraft.core.cache.CacheService;
 import com.jstarcraft.core.cache.EntityManager;
@@ -57,7 +68,7 @@ public class CacheCrudTestCase {
 	}
 
 	@Test
-	public void testCRUD() {
+	public void testCRUD() throws Exception {
 		for (int index = 1; index <= SIZE; index++) {
 			// 测试创建
 			MockEntityObject entity = entityManager.loadInstance(index, new CacheObjectFactory<Integer, MockEntityObject>() {
@@ -108,13 +119,84 @@ public class CacheCrudTestCase {
 			cacheIndex = new CacheIndex("owner", index);
 			Collection<MockRegionObject> regions = regionManager.getInstances(cacheIndex);
 			Assert.assertThat(regions.size(), CoreMatchers.equalTo(SIZE));
+			// 测试快照(没有修改时读取相同的快照,修改时替换为新的快照)
+			Assert.assertTrue(regions == regionManager.getInstances(cacheIndex));
+			// 创建/删除内部读取快照不影响命中指标
+			long hitCount = regionManager.getMetrics().getHitCount();
+			long missCount = regionManager.getMetrics().getMissCount();
+			MockRegionObject region = regionManager.createInstance(MockRegionObject.instanceOf(-index, index));
+			Assert.assertThat(regionManager.getMetrics().getHitCount(), CoreMatchers.equalTo(hitCount));
+			Assert.assertThat(regionManager.getMetrics().getMissCount(), CoreMatchers.equalTo(missCount));
+			Assert.assertThat(regions.size(), CoreMatchers.equalTo(SIZE));
+			Assert.assertThat(regionManager.getInstances(cacheIndex).size(), CoreMatchers.equalTo(SIZE + 1));
+			Assert.assertThat(regionManager.getMetrics().getHitCount(), CoreMatchers.equalTo(hitCount + 1));
+			regionManager.deleteInstance(region);
+			Assert.assertThat(regionManager.getInstances(cacheIndex).size(), CoreMatchers.equalTo(SIZE));
 		}
 
 		// 测试查询
 		Assert.assertThat(entityManager.getInstanceCount(), CoreMatchers.equalTo(SIZE));
 		Assert.assertThat(regionManager.getInstanceCount(), CoreMatchers.equalTo(SIZE * SIZE));
 
+		// 测试批量获取(负数主键的实体最初不在缓存中)
+		List<Integer> ids = new ArrayList<>();
+		for (int index = 1; index <= SIZE; index++) {
+			ids.add(index);
+			ids.add(-index);
+		}
+		ids.add(-SIZE - 1);
+		Map<Integer, MockEntityObject> entities = entityManager.getInstances(ids);
+		Assert.assertThat(entities.size(), CoreMatchers.equalTo(SIZE * 2));
+		for (Entry<Integer, MockEntityObject> keyValue : entities.entrySet()) {
+			Assert.assertTrue(keyValue.getValue() == entityManager.getInstance(keyValue.getKey()));
+		}
+		Assert.assertThat(entityManager.getInstanceCount(), CoreMatchers.equalTo(SIZE * 2));
+
+		// 测试批量加载
+		entities = entityManager.loadInstances(Arrays.asList(-1, SIZE + 1), new CacheObjectFactory<Integer, MockEntityObject>() {
+			@Override
+			public MockEntityObject instanceOf(Integer id) {
+				return MockEntityObject.instanceOf(id, "birdy:" + id, "hong", id, id);
+			}
+		});
+		Assert.assertThat(entities.size(), CoreMatchers.equalTo(2));
+		Assert.assertTrue(entities.get(SIZE + 1) == entityManager.getInstance(SIZE + 1));
+		Assert.assertThat(entityManager.getInstanceCount(), CoreMatchers.equalTo(SIZE * 2 + 1));
+
+		// 测试异步获取(同一个主键并发的未命中只查询一次持久层)
+		accessor.create(MockEntityObject.class, MockEntityObject.instanceOf(-SIZE - 2, "birdy:" + (-SIZE - 2), "hong", 0, 0));
+		long fetchCount = entityManager.getMetrics().getFetchCount();
+		CompletableFuture<MockEntityObject> left = entityManager.getInstanceAsync(-SIZE - 2);
+		CompletableFuture<MockEntityObject> right = entityManager.getInstanceAsync(-SIZE - 2);
+		Assert.assertTrue(left.get() == right.get());
+		Assert.assertThat(entityManager.getMetrics().getFetchCount(), CoreMatchers.equalTo(fetchCount + 1));
+		// 内存命中时立即完成
+		CompletableFuture<MockEntityObject> hit = entityManager.getInstanceAsync(-SIZE - 2);
+		Assert.assertTrue(hit.isDone());
+		Assert.assertTrue(hit.get() == left.get());
+		Assert.assertNull(entityManager.getInstanceAsync(-SIZE - 3).get());
+		MockEntityObject load = entityManager.loadInstanceAsync(SIZE + 2, new CacheObjectFactory<Integer, MockEntityObject>() {
+			@Override
+			public MockEntityObject instanceOf(Integer id) {
+				return MockEntityObject.instanceOf(id, "birdy:" + id, "hong", id, id);
+			}
+		}).get();
+		Assert.assertTrue(load == entityManager.getInstance(SIZE + 2));
+
+		// 测试指标
+		CacheMetrics metrics = cacheService.getMetrics(MockEntityObject.class);
+		Assert.assertTrue(metrics == entityManager.getMetrics());
+		Assert.assertTrue(metrics.getHitCount() > 0L);
+		Assert.assertTrue(metrics.getMissCount() > 0L);
+		Assert.assertTrue(metrics.getCreateCount() > 0L);
+		Assert.assertTrue(metrics.getFetchCount() > 0L);
+		Assert.assertTrue(regionManager.getMetrics().getIndexLoadCount() > 0L);
+		ObjectName name = new ObjectName("com.jstarcraft.core.cache:type=CacheMetrics,name=" + MockEntityObject.class.getName());
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		Assert.assertThat(server.getAttribute(name, "HitCount"), CoreMatchers.equalTo(metrics.getHitCount()));
+
 		cacheService.stop();
+		Assert.assertFalse(server.isRegistered(name));
 	}
 
 }
@@ -0,0 +1,129 @@
+package com.jstarcraft.core.cache.crud;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheIndex;
+import com.jstarcraft.core.cache.CacheObject;
+import com.jstarcraft.core.cache.CacheService;
+import com.jstarcraft.core.cache.EntityManager;
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.MockRegionObject;
+import com.jstarcraft.core.cache.RegionManager;
+import com.jstarcraft.core.cache.invalidation.LocalInvalidationChannel;
+import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TransienceConfiguration;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+// 与CacheCrudTestCase共享上下文(缓存指标只能注册一次)
+@ContextConfiguration(locations = "classpath:com/jstarcraft/core/cache/crud/CacheCrudTestCase-context.xml")
+public class CacheInvalidationTestCase {
+
+	private static final String TOPIC = "CacheInvalidationTestCase";
+
+	@Autowired
+	private OrmAccessor accessor;
+
+	/** 修改数据的节点 */
+	private CacheService leftService;
+	/** 观察失效的节点 */
+	private CacheService rightService;
+
+	private CacheService getCacheService() {
+		Map<String, String> transienceParameters = new HashMap<>();
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MINIMUN_SIZE, "16");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, "10000");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, "10");
+		Map<String, TransienceConfiguration> transienceConfigurations = new HashMap<>();
+		transienceConfigurations.put("lruMemoryStrategy", new TransienceConfiguration("lruMemoryStrategy", TransienceType.LEAST_RECENTLY_UESED, transienceParameters));
+		Map<String, PersistenceConfiguration> persistenceConfigurations = new HashMap<>();
+		persistenceConfigurations.put("queuePersistenceStrategy", new PersistenceConfiguration("queuePersistenceStrategy", PersistenceType.PROMPT, new HashMap<>()));
+		Set<Class<CacheObject>> cacheClasses = new HashSet<>();
+		cacheClasses.add((Class) MockEntityObject.class);
+		cacheClasses.add((Class) MockRegionObject.class);
+		return new CacheService(cacheClasses, accessor, transienceConfigurations, persistenceConfigurations, new LocalInvalidationChannel(TOPIC), 10L);
+	}
+
+	private static void await(BooleanSupplier condition) throws Exception {
+		long expire = System.currentTimeMillis() + 5000L;
+		while (!condition.getAsBoolean()) {
+			Assert.assertTrue(System.currentTimeMillis() < expire);
+			Thread.sleep(10L);
+		}
+	}
+
+	@Before
+	public void start() {
+		leftService = getCacheService();
+		rightService = getCacheService();
+		leftService.start();
+		rightService.start();
+	}
+
+	@After
+	public void stop() {
+		leftService.stop();
+		rightService.stop();
+	}
+
+	@Test
+	public void testEntity() throws Exception {
+		int id = 30001;
+		accessor.create(MockEntityObject.class, MockEntityObject.instanceOf(id, "invalidation", "hong", 0, 0));
+		EntityManager<Integer, MockEntityObject> leftManager = leftService.getEntityManager(MockEntityObject.class);
+		EntityManager<Integer, MockEntityObject> rightManager = rightService.getEntityManager(MockEntityObject.class);
+		MockEntityObject left = leftManager.getInstance(id);
+		MockEntityObject right = rightManager.getInstance(id);
+		Assert.assertThat(right.getMoney(), CoreMatchers.equalTo(0));
+
+		// 修改节点持久以后,观察节点重新加载
+		left.increaseMoney(100);
+		await(() -> rightManager.getInstance(id) != right);
+		Assert.assertThat(rightManager.getInstance(id).getMoney(), CoreMatchers.equalTo(100));
+		// 修改节点不会收到自己的消息
+		Assert.assertTrue(leftManager.getInstance(id) == left);
+
+		// 删除同样失效
+		leftManager.deleteInstance(id);
+		await(() -> rightManager.getInstance(id) == null);
+	}
+
+	@Test
+	public void testRegion() throws Exception {
+		int id = 30001;
+		CacheIndex from = new CacheIndex("owner", 30001);
+		CacheIndex to = new CacheIndex("owner", 30002);
+		accessor.create(MockRegionObject.class, MockRegionObject.instanceOf(id, 30001));
+		RegionManager<Integer, MockRegionObject> leftManager = leftService.getRegionManager(MockRegionObject.class);
+		RegionManager<Integer, MockRegionObject> rightManager = rightService.getRegionManager(MockRegionObject.class);
+		Assert.assertThat(rightManager.getInstances(from).size(), CoreMatchers.equalTo(1));
+		Assert.assertThat(rightManager.getInstances(to).size(), CoreMatchers.equalTo(0));
+
+		// 修改索引值以后,旧的索引与新的索引同时失效
+		MockRegionObject left = leftManager.getInstance(from, id);
+		left.modify(30002, true);
+		await(() -> rightManager.getInstances(to).size() == 1);
+		Assert.assertThat(rightManager.getInstances(from).size(), CoreMatchers.equalTo(0));
+
+		leftManager.deleteInstance(leftManager.getInstance(to, id));
+		await(() -> rightManager.getInstances(to).isEmpty());
+	}
+
+}
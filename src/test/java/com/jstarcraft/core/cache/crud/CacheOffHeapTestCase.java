@@ -0,0 +1,142 @@
+package com.jstarcraft.core.cache.crud;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheService;
+import com.jstarcraft.core.cache.EntityManager;
+import com.jstarcraft.core.cache.MockOffHeapObject;
+import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.cache.persistence.QueuePersistenceStrategy;
+import com.jstarcraft.core.cache.proxy.ProxyObject;
+import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TransienceConfiguration;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+// 与CacheCrudTestCase共享上下文(缓存指标只能注册一次)
+@ContextConfiguration(locations = "classpath:com/jstarcraft/core/cache/crud/CacheCrudTestCase-context.xml")
+public class CacheOffHeapTestCase {
+
+	private static final int SIZE = 16;
+
+	@Autowired
+	private OrmAccessor accessor;
+
+	/**
+	 * 获取统计读取并且可以阻塞写操作的访问器
+	 * 
+	 * @param gets
+	 *            读取次数
+	 * @param entered
+	 *            写操作开始时倒数
+	 * @param release
+	 *            释放写操作
+	 * @return
+	 */
+	private OrmAccessor getCountedAccessor(AtomicInteger gets, CountDownLatch entered, CountDownLatch release) {
+		return (OrmAccessor) Proxy.newProxyInstance(OrmAccessor.class.getClassLoader(), new Class<?>[] { OrmAccessor.class }, (proxy, method, arguments) -> {
+			String name = method.getName();
+			if (name.equals("get") || name.equals("getInstances")) {
+				gets.incrementAndGet();
+			}
+			if (name.startsWith("update")) {
+				entered.countDown();
+				while (release.getCount() > 0) {
+					try {
+						release.await();
+					} catch (InterruptedException exception) {
+					}
+				}
+			}
+			try {
+				return method.invoke(accessor, arguments);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		});
+	}
+
+	private CacheService getCacheService(OrmAccessor accessor) {
+		Map<String, String> transienceParameters = new HashMap<>();
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MINIMUN_SIZE, String.valueOf(SIZE));
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, String.valueOf(SIZE));
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, "1");
+		Map<String, TransienceConfiguration> transienceConfigurations = new HashMap<>();
+		transienceConfigurations.put("lruMemoryStrategy", new TransienceConfiguration("lruMemoryStrategy", TransienceType.LEAST_RECENTLY_UESED, transienceParameters));
+		Map<String, String> persistenceParameters = new HashMap<>();
+		persistenceParameters.put(QueuePersistenceStrategy.PARAMETER_SIZE, "0");
+		Map<String, PersistenceConfiguration> persistenceConfigurations = new HashMap<>();
+		persistenceConfigurations.put("queuePersistenceStrategy", new PersistenceConfiguration("queuePersistenceStrategy", PersistenceType.QUEUE, persistenceParameters));
+		return new CacheService(Collections.singleton((Class) MockOffHeapObject.class), accessor, transienceConfigurations, persistenceConfigurations);
+	}
+
+	@After
+	public void clean() {
+		for (int id = 0; id < SIZE * 3; id++) {
+			accessor.delete(MockOffHeapObject.class, id);
+		}
+	}
+
+	@Test
+	public void testPromotion() throws Exception {
+		for (int id = 0; id < SIZE * 3; id++) {
+			accessor.create(MockOffHeapObject.class, MockOffHeapObject.instanceOf(id, "birdy" + id, id));
+		}
+		AtomicInteger gets = new AtomicInteger();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CacheService cacheService = getCacheService(getCountedAccessor(gets, entered, release));
+		cacheService.start();
+		try {
+			EntityManager<Integer, MockOffHeapObject> manager = cacheService.getEntityManager(MockOffHeapObject.class);
+			// [0, SIZE)被淘汰到堆外,[SIZE, SIZE * 2)在内存
+			for (int id = 0; id < SIZE * 2; id++) {
+				Assert.assertThat(manager.getInstance(id).getMoney(), CoreMatchers.equalTo(id));
+			}
+			Assert.assertThat(gets.get(), CoreMatchers.equalTo(SIZE * 2));
+
+			// 保持无关的写操作等待持久
+			manager.getInstance(SIZE * 2 - 1).setMoney(-1);
+			Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+			MockOffHeapObject pending = manager.getInstance(SIZE * 2 - 2);
+			pending.setMoney(-2);
+
+			// 其它标识等待持久时,堆外的实例仍然直接取回
+			gets.set(0);
+			for (int id = 0; id < SIZE; id++) {
+				Assert.assertThat(manager.getInstance(id).getMoney(), CoreMatchers.equalTo(id));
+			}
+			Assert.assertThat(gets.get(), CoreMatchers.equalTo(0));
+
+			// 等待持久的实例被淘汰到堆外以后,取回等待持久的同一个实例
+			MockOffHeapObject promotion = manager.getInstance(SIZE * 2 - 2);
+			Assert.assertThat(gets.get(), CoreMatchers.equalTo(0));
+			Assert.assertThat(promotion.getMoney(), CoreMatchers.equalTo(-2));
+			Assert.assertTrue(((ProxyObject) promotion).getInstance() == ((ProxyObject) pending).getInstance());
+		} finally {
+			release.countDown();
+			cacheService.stop();
+		}
+		Assert.assertThat(accessor.get(MockOffHeapObject.class, SIZE * 2 - 1).getMoney(), CoreMatchers.equalTo(-1));
+		Assert.assertThat(accessor.get(MockOffHeapObject.class, SIZE * 2 - 2).getMoney(), CoreMatchers.equalTo(-2));
+	}
+
+}
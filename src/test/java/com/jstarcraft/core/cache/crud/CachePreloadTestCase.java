@@ -0,0 +1,82 @@
+package com.jstarcraft.core.cache.crud;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheIndex;
+import com.jstarcraft.core.cache.CacheService;
+import com.jstarcraft.core.cache.EntityManager;
+import com.jstarcraft.core.cache.MockPreloadObject;
+import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TransienceConfiguration;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+// 与CacheCrudTestCase共享上下文(缓存指标只能注册一次)
+@ContextConfiguration(locations = "classpath:com/jstarcraft/core/cache/crud/CacheCrudTestCase-context.xml")
+public class CachePreloadTestCase {
+
+	private static final int SIZE = 500;
+
+	@Autowired
+	private OrmAccessor accessor;
+
+	private CacheService getCacheService() {
+		Map<String, String> transienceParameters = new HashMap<>();
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MINIMUN_SIZE, "16");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, "10000");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, "10");
+		Map<String, TransienceConfiguration> transienceConfigurations = new HashMap<>();
+		transienceConfigurations.put("lruMemoryStrategy", new TransienceConfiguration("lruMemoryStrategy", TransienceType.LEAST_RECENTLY_UESED, transienceParameters));
+		Map<String, PersistenceConfiguration> persistenceConfigurations = new HashMap<>();
+		persistenceConfigurations.put("queuePersistenceStrategy", new PersistenceConfiguration("queuePersistenceStrategy", PersistenceType.PROMPT, new HashMap<>()));
+		return new CacheService(Collections.singleton((Class) MockPreloadObject.class), accessor, transienceConfigurations, persistenceConfigurations);
+	}
+
+	@After
+	public void clean() {
+		for (int index = 0; index <= SIZE; index++) {
+			if (accessor.get(MockPreloadObject.class, index) != null) {
+				accessor.delete(MockPreloadObject.class, index);
+			}
+		}
+	}
+
+	@Test
+	public void testPreload() {
+		for (int index = 1; index <= SIZE; index++) {
+			accessor.create(MockPreloadObject.class, MockPreloadObject.instanceOf(index, "preload", index % 10));
+		}
+
+		CacheService cacheService = getCacheService();
+		// 启动时预加载所有实例与索引
+		cacheService.start();
+		try {
+			EntityManager<Integer, MockPreloadObject> manager = cacheService.getEntityManager(MockPreloadObject.class);
+			Assert.assertThat(manager.getInstanceCount(), CoreMatchers.equalTo(SIZE));
+			Assert.assertThat(manager.getIndexesCount().get("token"), CoreMatchers.equalTo(10));
+			Assert.assertThat(manager.getIdentities(new CacheIndex("name", "preload")).size(), CoreMatchers.equalTo(SIZE));
+
+			// 索引来自预加载,绕过缓存直接写入数据库的实例不可见
+			accessor.create(MockPreloadObject.class, MockPreloadObject.instanceOf(0, "preload", 0));
+			Assert.assertThat(manager.getIdentities(new CacheIndex("name", "preload")).size(), CoreMatchers.equalTo(SIZE));
+			Assert.assertNotNull(manager.getInstance(1));
+		} finally {
+			cacheService.stop();
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.jstarcraft.core.cache.crud;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheIndex;
+import com.jstarcraft.core.cache.CacheMetricsMonitor;
+import com.jstarcraft.core.cache.CacheService;
+import com.jstarcraft.core.cache.MockRangeObject;
+import com.jstarcraft.core.cache.RegionManager;
+import com.jstarcraft.core.cache.exception.CacheException;
+import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TransienceConfiguration;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+// 与CacheCrudTestCase共享上下文(缓存指标只能注册一次)
+@ContextConfiguration(locations = "classpath:com/jstarcraft/core/cache/crud/CacheCrudTestCase-context.xml")
+public class CacheRangeTestCase {
+
+	@Autowired
+	private OrmAccessor accessor;
+
+	private CacheService getCacheService() {
+		Map<String, String> transienceParameters = new HashMap<>();
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MINIMUN_SIZE, "16");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, "10000");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, "10");
+		Map<String, TransienceConfiguration> transienceConfigurations = new HashMap<>();
+		transienceConfigurations.put("lruMemoryStrategy", new TransienceConfiguration("lruMemoryStrategy", TransienceType.LEAST_RECENTLY_UESED, transienceParameters));
+		Map<String, PersistenceConfiguration> persistenceConfigurations = new HashMap<>();
+		persistenceConfigurations.put("queuePersistenceStrategy", new PersistenceConfiguration("queuePersistenceStrategy", PersistenceType.PROMPT, new HashMap<>()));
+		return new CacheService(Collections.singleton((Class) MockRangeObject.class), accessor, transienceConfigurations, persistenceConfigurations);
+	}
+
+	private static List<Integer> getScores(Collection<MockRangeObject> instances) {
+		List<Integer> scores = new ArrayList<>(instances.size());
+		for (MockRangeObject instance : instances) {
+			scores.add(instance.getScore());
+		}
+		return scores;
+	}
+
+	@Test
+	public void testRange() {
+		int size = 20;
+		for (int index = 1; index <= size; index++) {
+			accessor.create(MockRangeObject.class, MockRangeObject.instanceOf(60000 + index, index % 10));
+		}
+		CacheService cacheService = getCacheService();
+		cacheService.start();
+		try {
+			RegionManager<Integer, MockRangeObject> manager = cacheService.getRegionManager(MockRangeObject.class);
+			CacheMetricsMonitor metrics = cacheService.getMetrics(MockRangeObject.class);
+
+			// 未加载的范围下推到持久层,结果按照索引值升序
+			Assert.assertThat(getScores(manager.getInstances("score", 3, 5)), CoreMatchers.equalTo(Arrays.asList(3, 3, 4, 4, 5, 5)));
+			Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(1L));
+			// 已经加载的范围(包括其中的索引值)不再访问持久层
+			Assert.assertThat(manager.getInstances("score", 4, 5).size(), CoreMatchers.equalTo(4));
+			Assert.assertThat(manager.getInstances(new CacheIndex("score", 4)).size(), CoreMatchers.equalTo(2));
+			Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(1L));
+
+			// 范围内没有实例的索引值视为空区域
+			Assert.assertThat(manager.getInstances("score", 8, 12).size(), CoreMatchers.equalTo(4));
+			Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(2L));
+			Assert.assertTrue(manager.getInstances(new CacheIndex("score", 11)).isEmpty());
+			Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(2L));
+
+			// 创建与删除维护已经加载的范围
+			MockRangeObject instance = manager.createInstance(MockRangeObject.instanceOf(60000 + size + 1, 11));
+			Assert.assertThat(getScores(manager.getInstances("score", 9, 11)), CoreMatchers.equalTo(Arrays.asList(9, 9, 11)));
+			manager.deleteInstance(instance);
+			Assert.assertThat(getScores(manager.getInstances("score", 9, 11)), CoreMatchers.equalTo(Arrays.asList(9, 9)));
+			Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(2L));
+
+			// 前N个
+			Assert.assertThat(getScores(manager.getInstances("score", 0, 9, 3, true)), CoreMatchers.equalTo(Arrays.asList(9, 9, 8)));
+			Assert.assertThat(getScores(manager.getInstances("score", 0, 9, 3, false)), CoreMatchers.equalTo(Arrays.asList(0, 0, 1)));
+			Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(3L));
+			// 合并以后的范围
+			Assert.assertThat(manager.getInstances("score", 0, 12).size(), CoreMatchers.equalTo(size));
+			Assert.assertThat(metrics.getIndexLoadCount(), CoreMatchers.equalTo(3L));
+
+			try {
+				manager.getInstances("score", 5, 3);
+				Assert.fail();
+			} catch (CacheException exception) {
+			}
+		} finally {
+			cacheService.stop();
+			for (int index = 1; index <= size + 1; index++) {
+				accessor.delete(MockRangeObject.class, 60000 + index);
+			}
+		}
+	}
+
+}
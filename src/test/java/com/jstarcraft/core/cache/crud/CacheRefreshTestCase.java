@@ -0,0 +1,146 @@
+package com.jstarcraft.core.cache.crud;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheIndex;
+import com.jstarcraft.core.cache.CacheMetricsMonitor;
+import com.jstarcraft.core.cache.CacheService;
+import com.jstarcraft.core.cache.EntityManager;
+import com.jstarcraft.core.cache.MockRefreshObject;
+import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TransienceConfiguration;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+// 与CacheCrudTestCase共享上下文(缓存指标只能注册一次)
+@ContextConfiguration(locations = "classpath:com/jstarcraft/core/cache/crud/CacheCrudTestCase-context.xml")
+public class CacheRefreshTestCase {
+
+	@Autowired
+	private OrmAccessor accessor;
+
+	private CacheService getCacheService() {
+		Map<String, String> transienceParameters = new HashMap<>();
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MINIMUN_SIZE, "16");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, "10000");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, "10");
+		Map<String, TransienceConfiguration> transienceConfigurations = new HashMap<>();
+		transienceConfigurations.put("lruMemoryStrategy", new TransienceConfiguration("lruMemoryStrategy", TransienceType.LEAST_RECENTLY_UESED, transienceParameters));
+		Map<String, PersistenceConfiguration> persistenceConfigurations = new HashMap<>();
+		persistenceConfigurations.put("queuePersistenceStrategy", new PersistenceConfiguration("queuePersistenceStrategy", PersistenceType.PROMPT, new HashMap<>()));
+		return new CacheService(Collections.singleton((Class) MockRefreshObject.class), accessor, transienceConfigurations, persistenceConfigurations);
+	}
+
+	@Test
+	public void testRefresh() throws Exception {
+		int id = 50001;
+		accessor.create(MockRefreshObject.class, MockRefreshObject.instanceOf(id, "birdy", 1));
+		CacheService cacheService = getCacheService();
+		cacheService.start();
+		try {
+			EntityManager<Integer, MockRefreshObject> manager = cacheService.getEntityManager(MockRefreshObject.class);
+			CacheMetricsMonitor metrics = cacheService.getMetrics(MockRefreshObject.class);
+			Assert.assertThat(manager.getInstance(id).getMoney(), CoreMatchers.equalTo(1));
+			Assert.assertTrue(manager.getIdentities(new CacheIndex("name", "birdy")).contains(id));
+			// 首次命中开始计算刷新间隔
+			Assert.assertThat(manager.getInstance(id).getMoney(), CoreMatchers.equalTo(1));
+
+			// 绕过缓存修改持久层
+			accessor.update(MockRefreshObject.class, MockRefreshObject.instanceOf(id, "mickey", 2));
+			Thread.sleep(1500L);
+			Assert.assertThat(metrics.getRefreshCount(), CoreMatchers.equalTo(0L));
+			// 到期以后的命中仍然返回旧的状态,同时提交后台刷新
+			MockRefreshObject instance = manager.getInstance(id);
+			Assert.assertThat(instance.getMoney(), CoreMatchers.equalTo(1));
+			long wait = System.currentTimeMillis() + 5000L;
+			while (metrics.getRefreshCount() == 0L && System.currentTimeMillis() < wait) {
+				Thread.sleep(10L);
+			}
+			Assert.assertThat(metrics.getRefreshCount(), CoreMatchers.equalTo(1L));
+			Assert.assertThat(metrics.getRefreshFailureCount(), CoreMatchers.equalTo(0L));
+			Assert.assertTrue(metrics.getRefreshMaximumLag() >= 0L);
+			// 刷新复制状态到已经缓存的实例,调用者持有的实例仍然有效
+			Assert.assertTrue(instance == manager.getInstance(id));
+			Assert.assertThat(instance.getMoney(), CoreMatchers.equalTo(2));
+			// 索引值变化时失效旧的索引与新的索引
+			Assert.assertTrue(manager.getIdentities(new CacheIndex("name", "birdy")).isEmpty());
+			Assert.assertTrue(manager.getIdentities(new CacheIndex("name", "mickey")).contains(id));
+			// 刷新以后重新计算间隔
+			Assert.assertThat(metrics.getRefreshCount(), CoreMatchers.equalTo(1L));
+
+			// 持久层删除以后,刷新从内存删除
+			accessor.delete(MockRefreshObject.class, id);
+			Thread.sleep(1500L);
+			manager.getInstance(id);
+			wait = System.currentTimeMillis() + 5000L;
+			while (metrics.getRefreshCount() == 1L && System.currentTimeMillis() < wait) {
+				Thread.sleep(10L);
+			}
+			Assert.assertThat(metrics.getRefreshCount(), CoreMatchers.equalTo(2L));
+			Assert.assertNull(manager.getInstance(id));
+			Assert.assertTrue(manager.getIdentities(new CacheIndex("name", "mickey")).isEmpty());
+		} finally {
+			cacheService.stop();
+			accessor.delete(MockRefreshObject.class, id);
+		}
+	}
+
+	@Test
+	public void testModification() throws Exception {
+		int id = 50002;
+		accessor.create(MockRefreshObject.class, MockRefreshObject.instanceOf(id, "birdy", 1));
+		CacheService cacheService = getCacheService();
+		cacheService.start();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			EntityManager<Integer, MockRefreshObject> manager = cacheService.getEntityManager(MockRefreshObject.class);
+			CacheMetricsMonitor metrics = cacheService.getMetrics(MockRefreshObject.class);
+			MockRefreshObject instance = manager.getInstance(id);
+			// 首次命中开始计算刷新间隔
+			manager.getInstance(id);
+			accessor.update(MockRefreshObject.class, MockRefreshObject.instanceOf(id, "birdy", 2));
+			Thread.sleep(1500L);
+
+			// 修改以后尚未记录修改时,到期的刷新不能覆盖修改
+			CountDownLatch modified = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+			Future<?> future = executor.submit(() -> {
+				instance.modifyMoney(10, modified, release);
+			});
+			Assert.assertTrue(modified.await(10, TimeUnit.SECONDS));
+			long count = metrics.getRefreshCount();
+			Assert.assertTrue(instance == manager.getInstance(id));
+			// 等待刷新线程查询持久层并且等待实例的监视器
+			Thread.sleep(500L);
+			release.countDown();
+			future.get(10, TimeUnit.SECONDS);
+			Thread.sleep(500L);
+			Assert.assertThat(metrics.getRefreshCount(), CoreMatchers.equalTo(count));
+			Assert.assertThat(instance.getMoney(), CoreMatchers.equalTo(10));
+			Assert.assertThat(accessor.get(MockRefreshObject.class, id).getMoney(), CoreMatchers.equalTo(10));
+		} finally {
+			executor.shutdown();
+			cacheService.stop();
+			accessor.delete(MockRefreshObject.class, id);
+		}
+	}
+
+}
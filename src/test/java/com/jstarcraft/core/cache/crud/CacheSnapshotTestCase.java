@@ -0,0 +1,97 @@
+package com.jstarcraft.core.cache.crud;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheIndex;
+import com.jstarcraft.core.cache.CacheService;
+import com.jstarcraft.core.cache.EntityManager;
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.persistence.PersistenceConfiguration;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.cache.transience.LeastRecentlyUesedTransienceStrategy;
+import com.jstarcraft.core.cache.transience.TransienceConfiguration;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+// 与CacheCrudTestCase共享上下文(缓存指标只能注册一次)
+@ContextConfiguration(locations = "classpath:com/jstarcraft/core/cache/crud/CacheCrudTestCase-context.xml")
+public class CacheSnapshotTestCase {
+
+	@Autowired
+	private OrmAccessor accessor;
+
+	private CacheService getCacheService(File file) {
+		Map<String, String> transienceParameters = new HashMap<>();
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MINIMUN_SIZE, "16");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, "10000");
+		transienceParameters.put(LeastRecentlyUesedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, "10");
+		Map<String, TransienceConfiguration> transienceConfigurations = new HashMap<>();
+		transienceConfigurations.put("lruMemoryStrategy", new TransienceConfiguration("lruMemoryStrategy", TransienceType.LEAST_RECENTLY_UESED, transienceParameters));
+		Map<String, PersistenceConfiguration> persistenceConfigurations = new HashMap<>();
+		persistenceConfigurations.put("queuePersistenceStrategy", new PersistenceConfiguration("queuePersistenceStrategy", PersistenceType.PROMPT, new HashMap<>()));
+		return new CacheService(Collections.singleton((Class) MockEntityObject.class), accessor, transienceConfigurations, persistenceConfigurations, null, 0L, file);
+	}
+
+	@Test
+	public void testSnapshot() {
+		File file = new File("target/cache/CacheSnapshotTestCase.snapshot");
+		file.delete();
+		int size = 10;
+		for (int index = 1; index <= size; index++) {
+			int id = 40000 + index;
+			accessor.create(MockEntityObject.class, MockEntityObject.instanceOf(id, "snapshot", "hong", id, 0));
+		}
+		CacheIndex cacheIndex = new CacheIndex("firstName", "snapshot");
+
+		CacheService cacheService = getCacheService(file);
+		cacheService.start();
+		EntityManager<Integer, MockEntityObject> manager = cacheService.getEntityManager(MockEntityObject.class);
+		for (int index = 1; index <= size; index++) {
+			Assert.assertNotNull(manager.getInstance(40000 + index));
+		}
+		Assert.assertThat(manager.getIdentities(cacheIndex).size(), CoreMatchers.equalTo(size));
+		// 绕过缓存直接写入数据库的实例不在快照的索引中
+		accessor.create(MockEntityObject.class, MockEntityObject.instanceOf(40000 + size + 1, "snapshot", "hong", 0, 0));
+		cacheService.stop();
+		Assert.assertTrue(file.exists());
+
+		// 从快照恢复实例与索引,不访问持久层
+		cacheService = getCacheService(file);
+		cacheService.start();
+		Assert.assertFalse(file.exists());
+		manager = cacheService.getEntityManager(MockEntityObject.class);
+		Assert.assertThat(manager.getIdentities(cacheIndex).size(), CoreMatchers.equalTo(size));
+		Assert.assertThat(manager.getInstance(40001).getMoney(), CoreMatchers.equalTo(40001));
+		Assert.assertThat(manager.getMetrics().getIndexLoadCount(), CoreMatchers.equalTo(0L));
+		Assert.assertThat(manager.getMetrics().getFetchCount(), CoreMatchers.equalTo(0L));
+		cacheService.stop();
+		Assert.assertTrue(file.exists());
+
+		// 停机期间持久层的数量变化,丢弃快照
+		accessor.create(MockEntityObject.class, MockEntityObject.instanceOf(40000 + size + 2, "snapshot", "hong", 0, 0));
+		cacheService = getCacheService(file);
+		cacheService.start();
+		Assert.assertFalse(file.exists());
+		manager = cacheService.getEntityManager(MockEntityObject.class);
+		Assert.assertThat(manager.getIdentities(cacheIndex).size(), CoreMatchers.equalTo(size + 2));
+		cacheService.stop();
+
+		file.delete();
+		for (int index = 1; index <= size + 2; index++) {
+			accessor.delete(MockEntityObject.class, 40000 + index);
+		}
+	}
+
+}
@@ -4,7 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ CacheCrudTestCase.class })
+@Suite.SuiteClasses({ CacheAbsenceTestCase.class, CacheCrudTestCase.class, CacheInvalidationTestCase.class, CacheOffHeapTestCase.class, CachePreloadTestCase.class, CacheRangeTestCase.class, CacheRefreshTestCase.class, CacheSnapshotTestCase.class })
 public class CrudTestSuite {
 
 }
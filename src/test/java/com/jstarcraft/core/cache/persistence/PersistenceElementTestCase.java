@@ -1,5 +1,8 @@
 package com.jstarcraft.core.cache.persistence;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
@@ -134,4 +137,38 @@ public class PersistenceElementTestCase {
 		}
 	}
 
+	@Test
+	public void testFields() {
+		Integer cacheId = 0;
+		MockEntityObject cacheObject = MockEntityObject.instanceOf(cacheId, "birdy", "hong", 100, 100);
+		{
+			// 部分更新合并字段
+			PersistenceElement element = new PersistenceElement(PersistenceOperation.UPDATE, cacheId, cacheObject, new String[] { "money" });
+			Assert.assertThat(element.getFields(), CoreMatchers.equalTo(new HashSet<>(Arrays.asList("money"))));
+			element.modify(new PersistenceElement(PersistenceOperation.UPDATE, cacheId, cacheObject, new String[] { "lastName" }));
+			Assert.assertThat(element.getFields(), CoreMatchers.equalTo(new HashSet<>(Arrays.asList("money", "lastName"))));
+			// 任意一次整体更新则退化为整体更新
+			element.modify(new PersistenceElement(PersistenceOperation.UPDATE, cacheId, cacheObject));
+			Assert.assertNull(element.getFields());
+			element.modify(new PersistenceElement(PersistenceOperation.UPDATE, cacheId, cacheObject, new String[] { "money" }));
+			Assert.assertNull(element.getFields());
+		}
+
+		{
+			// 创建与删除不需要字段
+			PersistenceElement element = new PersistenceElement(PersistenceOperation.CREATE, cacheId, cacheObject);
+			element.modify(new PersistenceElement(PersistenceOperation.UPDATE, cacheId, cacheObject, new String[] { "money" }));
+			Assert.assertThat(element.getOperation(), CoreMatchers.equalTo(PersistenceOperation.CREATE));
+			Assert.assertNull(element.getFields());
+
+			element = new PersistenceElement(PersistenceOperation.UPDATE, cacheId, cacheObject, new String[] { "money" });
+			element.modify(new PersistenceElement(PersistenceOperation.DELETE, cacheId, null));
+			Assert.assertThat(element.getOperation(), CoreMatchers.equalTo(PersistenceOperation.DELETE));
+			Assert.assertNull(element.getFields());
+			element.modify(new PersistenceElement(PersistenceOperation.CREATE, cacheId, cacheObject));
+			Assert.assertThat(element.getOperation(), CoreMatchers.equalTo(PersistenceOperation.UPDATE));
+			Assert.assertNull(element.getFields());
+		}
+	}
+
 }
@@ -0,0 +1,42 @@
+package com.jstarcraft.core.cache.persistence;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.core.cache.CacheInformation;
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+
+public class PersistenceIndexTestCase {
+
+	@Test
+	public void testIndex() {
+		PersistenceIndex indexes = new PersistenceIndex(CacheInformation.instanceOf(MockEntityObject.class));
+		MockEntityObject cacheObject = MockEntityObject.instanceOf(0, "birdy", "hong", 100, 100);
+		PersistenceElement element = new PersistenceElement(PersistenceOperation.CREATE, 0, cacheObject);
+		indexes.index(element);
+		Assert.assertThat(indexes.getIdentities("firstName", "birdy").size(), CoreMatchers.equalTo(1));
+		Assert.assertThat(indexes.getIdentities("token", 100).size(), CoreMatchers.equalTo(1));
+		Assert.assertTrue(indexes.checkValue(0, "token", 100));
+
+		// 修改索引值以后需要重新索引
+		cacheObject = MockEntityObject.instanceOf(0, "birdy", "hong", 100, 200);
+		element.modify(new PersistenceElement(PersistenceOperation.UPDATE, 0, cacheObject));
+		indexes.index(element);
+		Assert.assertTrue(indexes.getIdentities("token", 100).isEmpty());
+		Assert.assertThat(indexes.getIdentities("token", 200).size(), CoreMatchers.equalTo(1));
+		Assert.assertFalse(indexes.checkValue(0, "token", 100));
+
+		// 删除的元素不存在索引值
+		element.modify(new PersistenceElement(PersistenceOperation.DELETE, 0, null));
+		indexes.index(element);
+		Assert.assertTrue(indexes.getIdentities("firstName", "birdy").isEmpty());
+		Assert.assertFalse(indexes.checkValue(0, "token", 200));
+
+		indexes.unindex(0);
+		Assert.assertTrue(indexes.getIdentities("token", 200).isEmpty());
+		Assert.assertTrue(indexes.getIdentities("unknown", 200).isEmpty());
+	}
+
+}
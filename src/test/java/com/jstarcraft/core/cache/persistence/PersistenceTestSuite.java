@@ -4,7 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ PersistenceElementTestCase.class, PromptPersistenceStrategyTestCase.class, QueuePersistenceStrategyTestCase.class, SchedulePersistenceStrategyTestCase.class })
+@Suite.SuiteClasses({ PersistenceElementTestCase.class, PersistenceIndexTestCase.class, PromptPersistenceStrategyTestCase.class, QueuePersistenceStrategyTestCase.class, QueueBatchPersistenceStrategyTestCase.class, QueuePartitionPersistenceStrategyTestCase.class, QueueJournalPersistenceStrategyTestCase.class, SchedulePersistenceStrategyTestCase.class, ScheduleParallelPersistenceStrategyTestCase.class })
 public class PersistenceTestSuite {
 
 }
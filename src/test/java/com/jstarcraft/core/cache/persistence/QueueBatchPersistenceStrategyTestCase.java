@@ -0,0 +1,96 @@
+package com.jstarcraft.core.cache.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheObject;
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.utility.StringUtility;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "QueuePersistenceStrategyTestCase-context.xml")
+public class QueueBatchPersistenceStrategyTestCase extends QueuePersistenceStrategyTestCase {
+
+	private static final int BATCH_SIZE = 100;
+
+	@Override
+	protected PersistenceConfiguration getPersistenceConfiguration() {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(QueuePersistenceStrategy.PARAMETER_SIZE, "0");
+		parameters.put(QueuePersistenceStrategy.PARAMETER_BATCH_SIZE, String.valueOf(BATCH_SIZE));
+		parameters.put(QueuePersistenceStrategy.PARAMETER_BATCH_WAIT, "10");
+		PersistenceConfiguration configuration = new PersistenceConfiguration("strategy", PersistenceType.QUEUE, parameters);
+		return configuration;
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		int size = 10000;
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		AtomicInteger operateTimes = new AtomicInteger();
+		AtomicInteger flushTimes = new AtomicInteger();
+		AtomicInteger flushSize = new AtomicInteger();
+		AtomicLong flushLatency = new AtomicLong();
+		manager.setMonitor(new PersistenceMonitor() {
+
+			@Override
+			public void notifyOperate(PersistenceOperation operation, Object id, CacheObject<?> object, Exception exception) {
+				Assert.assertNull(exception);
+				operateTimes.incrementAndGet();
+			}
+
+			@Override
+			public void notifyFlush(int size, long latency) {
+				Assert.assertTrue(size <= BATCH_SIZE);
+				flushTimes.incrementAndGet();
+				flushSize.addAndGet(size);
+				flushLatency.addAndGet(latency);
+			}
+
+		});
+
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		Assert.assertThat(manager.getCreatedCount(), CoreMatchers.equalTo((long) size));
+		Assert.assertThat(flushSize.get(), CoreMatchers.equalTo(size));
+		Assert.assertTrue(flushTimes.get() < size);
+		String message = StringUtility.format("创建{}数据分为{}个批次,总刷新延迟:{}毫秒", size, flushTimes.get(), flushLatency.get());
+		logger.debug(message);
+
+		for (int index = 0; index < size; index++) {
+			manager.deleteInstance(index);
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		Assert.assertThat(manager.getDeletedCount(), CoreMatchers.equalTo((long) size));
+		Assert.assertThat(operateTimes.get(), CoreMatchers.equalTo(size * 2));
+		Assert.assertNull(accessor.get(MockEntityObject.class, 0));
+
+		strategy.stop();
+	}
+
+}
@@ -0,0 +1,304 @@
+package com.jstarcraft.core.cache.persistence;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.io.FileUtils;
+import org.hamcrest.CoreMatchers;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.orm.OrmAccessor;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "QueuePersistenceStrategyTestCase-context.xml")
+public class QueueJournalPersistenceStrategyTestCase extends QueuePersistenceStrategyTestCase {
+
+	private static final File DIRECTORY = new File(System.getProperty("java.io.tmpdir"), "jstarcraft-journal");
+
+	@AfterClass
+	public static void afterClass() throws Exception {
+		FileUtils.deleteDirectory(DIRECTORY);
+	}
+
+	@Override
+	protected PersistenceConfiguration getPersistenceConfiguration() {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(QueuePersistenceStrategy.PARAMETER_SIZE, "0");
+		parameters.put(QueuePersistenceStrategy.PARAMETER_JOURNAL, DIRECTORY.getPath());
+		// 故意使用很小的日志分段,触发分段轮换
+		parameters.put(QueuePersistenceStrategy.PARAMETER_JOURNAL_SIZE, "1024");
+		PersistenceConfiguration configuration = new PersistenceConfiguration("strategy", PersistenceType.QUEUE, parameters);
+		return configuration;
+	}
+
+	@Test
+	public void testJournal() throws Exception {
+		int size = 100;
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		synchronized (accessor) {
+			for (int index = 0; index < size; index++) {
+				manager.createInstance(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+			}
+			// 持久以前日志不为空,并且已经轮换分段
+			List<File> segments = getSegments();
+			Assert.assertThat(segments.size(), CoreMatchers.not(1));
+			Assert.assertThat(readLength(segments.get(0)), CoreMatchers.not(0));
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		// 持久以后删除较早的分段并且截断当前分段
+		List<File> segments = getSegments();
+		Assert.assertThat(segments.size(), CoreMatchers.equalTo(1));
+		Assert.assertThat(readLength(segments.get(0)), CoreMatchers.equalTo(0));
+		for (int index = 0; index < size; index++) {
+			manager.deleteInstance(index);
+		}
+		strategy.stop();
+		segments = getSegments();
+		Assert.assertThat(segments.size(), CoreMatchers.equalTo(1));
+		Assert.assertThat(readLength(segments.get(0)), CoreMatchers.equalTo(0));
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		int size = 100;
+		// 模拟异常退出:只写日志,不持久
+		PersistenceJournal journal = PersistenceJournal.instanceOf(DIRECTORY, MockEntityObject.class, 1, 1024 * 1024, accessor)[0];
+		for (int index = 0; index < size; index++) {
+			MockEntityObject instance = MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index);
+			journal.append(instance.getId(), journal.encode(PersistenceOperation.CREATE, instance.getId(), instance));
+		}
+		for (int index = 0; index < size; index += 2) {
+			MockEntityObject instance = MockEntityObject.instanceOf(index, "xiao" + index, "xiao", index, index);
+			journal.append(instance.getId(), journal.encode(PersistenceOperation.UPDATE, instance.getId(), instance));
+		}
+		for (int index = 1; index < size; index += 2) {
+			journal.append(index, journal.encode(PersistenceOperation.DELETE, index, null));
+		}
+		journal.close();
+
+		// 启动时回放日志
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, getPersistenceConfiguration());
+		for (int index = 0; index < size; index++) {
+			MockEntityObject instance = accessor.get(MockEntityObject.class, index);
+			if (index % 2 == 0) {
+				Assert.assertThat(instance.getFirstName(), CoreMatchers.equalTo("xiao" + index));
+			} else {
+				Assert.assertNull(instance);
+			}
+		}
+		strategy.stop();
+
+		// 回放是幂等的,已经截断的日志不会再次回放
+		strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		for (int index = 0; index < size; index += 2) {
+			manager.deleteInstance(index);
+		}
+		strategy.stop();
+		for (int index = 0; index < size; index++) {
+			Assert.assertNull(accessor.get(MockEntityObject.class, index));
+		}
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		int size = 10;
+		// 模拟数据库创建操作失败
+		OrmAccessor failure = (OrmAccessor) Proxy.newProxyInstance(OrmAccessor.class.getClassLoader(), new Class<?>[] { OrmAccessor.class }, (proxy, method, arguments) -> {
+			if (method.getName().startsWith("create")) {
+				throw new IllegalStateException();
+			}
+			try {
+				return method.invoke(accessor, arguments);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		});
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(failure, cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0 && manager.getExceptionCount() >= size) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		// 持久失败的元素保留在日志中
+		Assert.assertThat(readLength(getSegments().get(0)), CoreMatchers.not(0));
+		strategy.stop();
+		for (int index = 0; index < size; index++) {
+			Assert.assertNull(accessor.get(MockEntityObject.class, index));
+		}
+
+		// 启动时回放失败的元素
+		strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, getPersistenceConfiguration());
+		manager = strategy.getPersistenceManager(MockEntityObject.class);
+		List<File> segments = getSegments();
+		Assert.assertThat(segments.size(), CoreMatchers.equalTo(1));
+		Assert.assertThat(readLength(segments.get(0)), CoreMatchers.equalTo(0));
+		for (int index = 0; index < size; index++) {
+			Assert.assertThat(accessor.get(MockEntityObject.class, index).getFirstName(), CoreMatchers.equalTo("birdy" + index));
+			manager.deleteInstance(index);
+		}
+		strategy.stop();
+		for (int index = 0; index < size; index++) {
+			Assert.assertNull(accessor.get(MockEntityObject.class, index));
+		}
+	}
+
+	@Test
+	public void testRetry() throws Exception {
+		int size = 10;
+		// 模拟数据库创建操作暂时失败
+		AtomicBoolean unavailable = new AtomicBoolean(true);
+		OrmAccessor failure = (OrmAccessor) Proxy.newProxyInstance(OrmAccessor.class.getClassLoader(), new Class<?>[] { OrmAccessor.class }, (proxy, method, arguments) -> {
+			if (unavailable.get() && method.getName().startsWith("create")) {
+				throw new IllegalStateException();
+			}
+			try {
+				return method.invoke(accessor, arguments);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		});
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(failure, cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0 && manager.getExceptionCount() >= size) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		Assert.assertThat(readLength(getSegments().get(0)), CoreMatchers.not(0));
+
+		// 数据库恢复以后,失败的元素在重试间隔以后持久
+		unavailable.set(false);
+		long deadline = System.currentTimeMillis() + PersistenceElement.MAXIMUM_RETRY_INTERVAL;
+		for (int index = 0; index < size; index++) {
+			while (accessor.get(MockEntityObject.class, index) == null) {
+				Assert.assertTrue(System.currentTimeMillis() < deadline);
+				Thread.sleep(10);
+			}
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		List<File> segments = getSegments();
+		Assert.assertThat(segments.size(), CoreMatchers.equalTo(1));
+		Assert.assertThat(readLength(segments.get(0)), CoreMatchers.equalTo(0));
+		for (int index = 0; index < size; index++) {
+			manager.deleteInstance(index);
+		}
+		strategy.stop();
+		for (int index = 0; index < size; index++) {
+			Assert.assertNull(accessor.get(MockEntityObject.class, index));
+		}
+	}
+
+	@Test
+	public void testMerge() throws Exception {
+		// 模拟数据库创建与更新操作暂时失败
+		AtomicBoolean unavailable = new AtomicBoolean(true);
+		OrmAccessor failure = (OrmAccessor) Proxy.newProxyInstance(OrmAccessor.class.getClassLoader(), new Class<?>[] { OrmAccessor.class }, (proxy, method, arguments) -> {
+			if (unavailable.get() && (method.getName().startsWith("create") || method.getName().startsWith("update"))) {
+				throw new IllegalStateException();
+			}
+			try {
+				return method.invoke(accessor, arguments);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		});
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(failure, cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		MockEntityObject instance = MockEntityObject.instanceOf(0, "birdy", "hong", 0, 0);
+		manager.createInstance(instance);
+		while (true) {
+			if (manager.getWaitSize() == 0 && manager.getExceptionCount() >= 1) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		// 失败的部分更新合并到失败的创建,不能覆盖
+		instance.increaseMoney(100);
+		manager.updateInstance(instance, new String[] { "money" });
+		while (true) {
+			if (manager.getWaitSize() == 0 && manager.getExceptionCount() >= 2) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+
+		unavailable.set(false);
+		long deadline = System.currentTimeMillis() + PersistenceElement.MAXIMUM_RETRY_INTERVAL;
+		while (accessor.get(MockEntityObject.class, 0) == null) {
+			Assert.assertTrue(System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+		Assert.assertThat(accessor.get(MockEntityObject.class, 0).getMoney(), CoreMatchers.equalTo(100));
+		manager.deleteInstance(0);
+		strategy.stop();
+		Assert.assertNull(accessor.get(MockEntityObject.class, 0));
+	}
+
+	/**
+	 * 获取第0个分区的日志分段(按照分段顺序排列)
+	 * 
+	 * @return
+	 */
+	private List<File> getSegments() {
+		String prefix = MockEntityObject.class.getName() + ".0.";
+		TreeMap<Long, File> segments = new TreeMap<>();
+		for (File file : DIRECTORY.listFiles()) {
+			String name = file.getName();
+			if (name.startsWith(prefix) && name.endsWith(".journal")) {
+				segments.put(Long.valueOf(name.substring(prefix.length(), name.length() - ".journal".length())), file);
+			}
+		}
+		return new ArrayList<>(segments.values());
+	}
+
+	private int readLength(File file) throws Exception {
+		try (RandomAccessFile access = new RandomAccessFile(file, "r")) {
+			return access.readInt();
+		}
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.jstarcraft.core.cache.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "QueuePersistenceStrategyTestCase-context.xml")
+public class QueuePartitionPersistenceStrategyTestCase extends QueuePersistenceStrategyTestCase {
+
+	private static final int PARTITION = 4;
+
+	@Override
+	protected PersistenceConfiguration getPersistenceConfiguration() {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(QueuePersistenceStrategy.PARAMETER_SIZE, "0");
+		parameters.put(QueuePersistenceStrategy.PARAMETER_PARTITION, String.valueOf(PARTITION));
+		PersistenceConfiguration configuration = new PersistenceConfiguration("strategy", PersistenceType.QUEUE, parameters);
+		return configuration;
+	}
+
+	@Test
+	public void testPartition() throws Exception {
+		int size = 1000;
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, getPersistenceConfiguration());
+		PartitionPersistenceManager<Integer, MockEntityObject> manager = (PartitionPersistenceManager) strategy.getPersistenceManager(MockEntityObject.class);
+		Assert.assertThat(manager.getPartitionSize(), CoreMatchers.equalTo(PARTITION));
+
+		synchronized (accessor) {
+			for (int index = 0; index < size; index++) {
+				manager.createInstance(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+			}
+			// 元素按照主键分散到各个分区
+			int waitSize = 0;
+			for (int partition = 0; partition < PARTITION; partition++) {
+				Assert.assertTrue(manager.getWaitSize(partition) > 0);
+				waitSize += manager.getWaitSize(partition);
+			}
+			Assert.assertThat(waitSize, CoreMatchers.equalTo(size));
+			Assert.assertThat(manager.getInstances("token", 0).size(), CoreMatchers.equalTo(1));
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		Assert.assertThat(manager.getCreatedCount(), CoreMatchers.equalTo((long) size));
+
+		for (int index = 0; index < size; index++) {
+			manager.deleteInstance(index);
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		Assert.assertThat(manager.getDeletedCount(), CoreMatchers.equalTo((long) size));
+		Assert.assertTrue(manager.getInstances("token", 0).isEmpty());
+
+		strategy.stop();
+	}
+
+}
@@ -1,7 +1,16 @@
 package com.jstarcraft.core.cache.persistence;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -11,6 +20,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.jstarcraft.core.cache.MockEntityObject;
 import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+import com.jstarcraft.core.orm.OrmAccessor;
 import com.jstarcraft.core.utility.RandomUtility;
 import com.jstarcraft.core.utility.StringUtility;
 
@@ -93,4 +103,166 @@ public class QueuePersistenceStrategyTestCase extends PersistenceStrategyTestCas
 		strategy.stop();
 	}
 
+	/**
+	 * 获取写操作缓慢的访问器
+	 * 
+	 * @param delay
+	 * @return
+	 */
+	private OrmAccessor getSlowAccessor(long delay) {
+		return (OrmAccessor) Proxy.newProxyInstance(OrmAccessor.class.getClassLoader(), new Class<?>[] { OrmAccessor.class }, (proxy, method, arguments) -> {
+			String name = method.getName();
+			if (name.startsWith("create") || name.startsWith("update") || name.startsWith("delete")) {
+				// 模拟不响应中断的数据库操作
+				long deadline = System.currentTimeMillis() + delay;
+				while (System.currentTimeMillis() < deadline) {
+					try {
+						Thread.sleep(Math.max(deadline - System.currentTimeMillis(), 0L));
+					} catch (InterruptedException exception) {
+					}
+				}
+			}
+			try {
+				return method.invoke(accessor, arguments);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		});
+	}
+
+	@Test
+	public void testLatency() throws Exception {
+		int size = 100;
+		long delay = 50L;
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(getSlowAccessor(delay), cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		MockEntityObject[] instances = new MockEntityObject[size];
+		for (int index = 0; index < size; index++) {
+			instances[index] = MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index);
+			manager.createInstance(instances[index]);
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+
+		// 持续修改保证持久线程一直在访问数据库
+		AtomicBoolean run = new AtomicBoolean(true);
+		Thread thread = new Thread(() -> {
+			int index = 0;
+			while (run.get()) {
+				MockEntityObject instance = instances[RandomUtility.randomInteger(0, size)];
+				synchronized (instance) {
+					instance.modify("xiao" + index, index, true);
+				}
+				manager.updateInstance(instance);
+				index++;
+			}
+		});
+		thread.start();
+
+		// 读取不在等待中的数据与修改正在持久的实例,都不需要等待数据库写操作
+		int times = 1000;
+		long[] latencies = new long[times];
+		for (int index = 0; index < times; index++) {
+			MockEntityObject instance = instances[index % size];
+			long begin = System.nanoTime();
+			Assert.assertNull(manager.getInstance(-1 - index));
+			synchronized (instance) {
+				instance.modify("hong" + index, index, true);
+			}
+			latencies[index] = System.nanoTime() - begin;
+		}
+		run.set(false);
+		thread.join();
+		Arrays.sort(latencies);
+		long p99 = latencies[times * 99 / 100] / 1000000L;
+		String message = StringUtility.format("数据库写操作延迟{}毫秒时,读取的p99延迟:{}毫秒", delay, p99);
+		logger.debug(message);
+		Assert.assertTrue(message, p99 < delay);
+
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		for (int index = 0; index < size; index++) {
+			manager.deleteInstance(index);
+		}
+		strategy.stop();
+		Assert.assertNull(accessor.get(MockEntityObject.class, 0));
+	}
+
+	/**
+	 * 获取写操作阻塞的访问器
+	 * 
+	 * @param entered
+	 *            写操作开始时倒数
+	 * @param release
+	 *            释放写操作
+	 * @return
+	 */
+	private OrmAccessor getBlockedAccessor(CountDownLatch entered, CountDownLatch release) {
+		return (OrmAccessor) Proxy.newProxyInstance(OrmAccessor.class.getClassLoader(), new Class<?>[] { OrmAccessor.class }, (proxy, method, arguments) -> {
+			String name = method.getName();
+			if (name.startsWith("create") || name.startsWith("update") || name.startsWith("delete")) {
+				entered.countDown();
+				// 模拟不响应中断的数据库操作
+				while (release.getCount() > 0) {
+					try {
+						release.await();
+					} catch (InterruptedException exception) {
+					}
+				}
+			}
+			try {
+				return method.invoke(accessor, arguments);
+			} catch (InvocationTargetException exception) {
+				throw exception.getCause();
+			}
+		});
+	}
+
+	@Test
+	public void testBlocking() throws Exception {
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(getBlockedAccessor(entered, release), cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			manager.createInstance(MockEntityObject.instanceOf(0, "birdy", "hong", 0, 0));
+			// 等待持久线程阻塞在数据库写操作
+			Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+			// 数据库写操作期间不持有写锁,读取与修改不需要等待写操作
+			Future<MockEntityObject> future = executor.submit(() -> {
+				Assert.assertNull(manager.getInstance(-1));
+				manager.updateInstance(MockEntityObject.instanceOf(0, "xiao", "xiao", 1, 1));
+				return manager.getInstance(0);
+			});
+			MockEntityObject instance = future.get(10, TimeUnit.SECONDS);
+			Assert.assertEquals("xiao", instance.getFirstName());
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		Assert.assertEquals("xiao", accessor.get(MockEntityObject.class, 0).getFirstName());
+		manager.deleteInstance(0);
+		strategy.stop();
+		Assert.assertNull(accessor.get(MockEntityObject.class, 0));
+	}
+
 }
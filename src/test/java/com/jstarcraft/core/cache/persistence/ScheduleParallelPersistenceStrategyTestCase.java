@@ -0,0 +1,144 @@
+package com.jstarcraft.core.cache.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.jstarcraft.core.cache.CacheObject;
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceOperation;
+import com.jstarcraft.core.cache.persistence.PersistenceStrategy.PersistenceType;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "SchedulePersistenceStrategyTestCase-context.xml")
+public class ScheduleParallelPersistenceStrategyTestCase extends SchedulePersistenceStrategyTestCase {
+
+	private static final int BATCH_SIZE = 100;
+
+	private static final int PARALLELISM = 4;
+
+	private Map<String, String> getParameters() {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(SchedulePersistenceStrategy.PARAMETER_CRON, "* * * ? * *");
+		parameters.put(SchedulePersistenceStrategy.PARAMETER_BATCH_SIZE, String.valueOf(BATCH_SIZE));
+		parameters.put(SchedulePersistenceStrategy.PARAMETER_PARALLELISM, String.valueOf(PARALLELISM));
+		return parameters;
+	}
+
+	@Override
+	protected PersistenceConfiguration getPersistenceConfiguration() {
+		PersistenceConfiguration configuration = new PersistenceConfiguration("schedulePersistenceStrategy", PersistenceType.SCHEDULE, getParameters());
+		return configuration;
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		int size = 10000;
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, getPersistenceConfiguration());
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+		AtomicInteger operateTimes = new AtomicInteger();
+		AtomicInteger flushTimes = new AtomicInteger();
+		AtomicInteger flushSize = new AtomicInteger();
+		manager.setMonitor(new PersistenceMonitor() {
+
+			@Override
+			public void notifyOperate(PersistenceOperation operation, Object id, CacheObject<?> object, Exception exception) {
+				Assert.assertNull(exception);
+				operateTimes.incrementAndGet();
+			}
+
+			@Override
+			public void notifyFlush(int size, long latency) {
+				Assert.assertTrue(size <= BATCH_SIZE);
+				flushTimes.incrementAndGet();
+				flushSize.addAndGet(size);
+			}
+
+		});
+
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		// 监控器在释放锁以后才通知
+		while (operateTimes.get() < size || flushSize.get() < size) {
+			Thread.sleep(1);
+		}
+		Assert.assertThat(manager.getCreatedCount(), CoreMatchers.equalTo((long) size));
+		Assert.assertThat(flushSize.get(), CoreMatchers.equalTo(size));
+		Assert.assertTrue(flushTimes.get() >= size / BATCH_SIZE);
+
+		for (int index = 0; index < size; index++) {
+			manager.deleteInstance(index);
+		}
+		while (true) {
+			if (manager.getWaitSize() == 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		while (operateTimes.get() < size * 2) {
+			Thread.sleep(1);
+		}
+		Assert.assertThat(manager.getDeletedCount(), CoreMatchers.equalTo((long) size));
+		Assert.assertThat(operateTimes.get(), CoreMatchers.equalTo(size * 2));
+		Assert.assertNull(accessor.get(MockEntityObject.class, 0));
+
+		strategy.stop();
+	}
+
+	@Test
+	public void testDeadline() throws Exception {
+		int size = 10000;
+		Map<String, String> parameters = getParameters();
+		parameters.put(SchedulePersistenceStrategy.PARAMETER_DEADLINE, "20");
+		PersistenceStrategy strategy = getPersistenceStrategy();
+		strategy.start(accessor, cacheInformations, new PersistenceConfiguration("schedulePersistenceStrategy", PersistenceType.SCHEDULE, parameters));
+		PersistenceManager<Integer, MockEntityObject> manager = strategy.getPersistenceManager(MockEntityObject.class);
+
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		while (true) {
+			if (manager.getCreatedCount() > 0) {
+				break;
+			}
+			Thread.sleep(1);
+		}
+		// 超过期限的批次延迟到下次定时
+		Assert.assertTrue(manager.getWaitSize() > 0);
+
+		// 修改被延迟的元素时必须与之合并(CREATE->UPDATE仍然为CREATE)
+		for (int index = 0; index < size; index++) {
+			manager.updateInstance(MockEntityObject.instanceOf(index, "xiao" + index, "xiao", index * index, 100));
+		}
+		// 停止时不受期限限制
+		strategy.stop();
+		Assert.assertThat(manager.getWaitSize(), CoreMatchers.equalTo(0));
+		Assert.assertThat(manager.getCreatedCount(), CoreMatchers.equalTo((long) size));
+		Assert.assertThat(manager.getExceptionCount(), CoreMatchers.equalTo(0L));
+		List<Integer> ids = new ArrayList<>(size);
+		for (int index = 0; index < size; index++) {
+			MockEntityObject object = accessor.get(MockEntityObject.class, index);
+			Assert.assertThat(object.getFirstName(), CoreMatchers.equalTo("xiao" + index));
+			ids.add(index);
+		}
+		accessor.deleteInstances(MockEntityObject.class, ids);
+	}
+
+}
@@ -47,6 +47,25 @@ public class JavassistEntityProxyTestCase {
 		Assert.assertThat(proxyEntity.getMoney(), CoreMatchers.equalTo(10));
 		// Assert.assertEquals(0, newModifyIndexesTimes - oldModifyIndexesTimes);
 		Assert.assertEquals(0, newModifyDatasTimes - oldModifyDatasTimes);
+		Assert.assertNull(mockProxyManager.getModifyFields());
+	}
+
+	@Test
+	public void testFieldChange() {
+		MockEntityObject mockEntity = MockEntityObject.instanceOf(0, "birdy", "hong", 0, 0);
+		MockEntityObject proxyEntity = entityProxy.transform(mockEntity);
+
+		// 声明了变更字段的方法只通知这些字段
+		int oldModifyDatasTimes = mockProxyManager.getModifyDatas();
+		proxyEntity.increaseMoney(10);
+		int newModifyDatasTimes = mockProxyManager.getModifyDatas();
+		Assert.assertThat(proxyEntity.getMoney(), CoreMatchers.equalTo(10));
+		Assert.assertEquals(1, newModifyDatasTimes - oldModifyDatasTimes);
+		Assert.assertArrayEquals(new String[] { "money" }, mockProxyManager.getModifyFields());
+
+		// 未声明变更字段的方法通知整个对象
+		proxyEntity.modify("xiao", 20, true);
+		Assert.assertNull(mockProxyManager.getModifyFields());
 	}
 
 }
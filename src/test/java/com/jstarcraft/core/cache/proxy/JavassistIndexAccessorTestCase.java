@@ -0,0 +1,71 @@
+package com.jstarcraft.core.cache.proxy;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.core.cache.MockEntityObject;
+
+public class JavassistIndexAccessorTestCase {
+
+	public static class MockIndexObject {
+
+		/** 包内可见字段 */
+		String visible;
+
+		/** 私有字段与简单Getter */
+		private int simple;
+
+		/** 私有字段与复杂Getter */
+		private long complex;
+
+		/** 私有布尔字段与简单Getter */
+		private boolean flag;
+
+		public int getSimple() {
+			return simple;
+		}
+
+		public long getComplex() {
+			return complex + 1L;
+		}
+
+		public boolean isFlag() {
+			return flag;
+		}
+
+	}
+
+	@Test
+	public void testAccessor() throws Exception {
+		MockIndexObject object = new MockIndexObject();
+		object.visible = "birdy";
+		object.simple = 10;
+		object.complex = 100L;
+		object.flag = true;
+
+		IndexAccessor visible = JavassistIndexAccessor.instanceOf(MockIndexObject.class.getDeclaredField("visible"));
+		IndexAccessor simple = JavassistIndexAccessor.instanceOf(MockIndexObject.class.getDeclaredField("simple"));
+		IndexAccessor complex = JavassistIndexAccessor.instanceOf(MockIndexObject.class.getDeclaredField("complex"));
+		IndexAccessor flag = JavassistIndexAccessor.instanceOf(MockIndexObject.class.getDeclaredField("flag"));
+		Assert.assertThat(visible.getValue(object), CoreMatchers.equalTo("birdy"));
+		Assert.assertThat(simple.getValue(object), CoreMatchers.equalTo(10));
+		// 复杂Getter不能代替字段,必须读取字段本身
+		Assert.assertThat(complex.getValue(object), CoreMatchers.equalTo(100L));
+		Assert.assertThat(flag.getValue(object), CoreMatchers.equalTo(true));
+
+		// 只读取字段或者简单Getter的使用生成的访问器
+		Assert.assertTrue(visible.getClass().getName().endsWith("$INDEX$visible"));
+		Assert.assertTrue(simple.getClass().getName().endsWith("$INDEX$simple"));
+		Assert.assertFalse(complex.getClass().getName().endsWith("$INDEX$complex"));
+		Assert.assertTrue(flag.getClass().getName().endsWith("$INDEX$flag"));
+
+		// 访问器由所有缓存信息共享
+		Assert.assertSame(simple, JavassistIndexAccessor.instanceOf(MockIndexObject.class.getDeclaredField("simple")));
+
+		MockEntityObject entity = MockEntityObject.instanceOf(0, "birdy", "hong", 10, 20);
+		IndexAccessor token = JavassistIndexAccessor.instanceOf(MockEntityObject.class.getDeclaredField("token"));
+		Assert.assertThat(token.getValue(entity), CoreMatchers.equalTo(20));
+	}
+
+}
@@ -6,13 +6,26 @@ public class MockProxyManager implements ProxyManager<Integer, CacheObject<Integ
 
 	private int modifyDatas;
 
+	private String[] modifyFields;
+
 	public int getModifyDatas() {
 		return modifyDatas;
 	}
 
+	public String[] getModifyFields() {
+		return modifyFields;
+	}
+
 	@Override
 	public void modifyInstance(CacheObject<Integer> object) {
 		this.modifyDatas++;
+		this.modifyFields = null;
+	}
+
+	@Override
+	public void modifyInstance(CacheObject<Integer> object, String[] fields) {
+		this.modifyDatas++;
+		this.modifyFields = fields;
 	}
 
 }
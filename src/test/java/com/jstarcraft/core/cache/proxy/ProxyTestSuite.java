@@ -4,7 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class) 
-@Suite.SuiteClasses({JavassistEntityProxyTestCase.class, JavassistRegionProxyTestCase.class}) 
+@Suite.SuiteClasses({JavassistEntityProxyTestCase.class, JavassistIndexAccessorTestCase.class, JavassistRegionProxyTestCase.class}) 
 public class ProxyTestSuite {
 
 }
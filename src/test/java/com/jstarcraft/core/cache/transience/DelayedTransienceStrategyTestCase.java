@@ -55,6 +55,7 @@ public class DelayedTransienceStrategyTestCase {
 		// 等待到期事件
 		Thread.sleep(1000);
 		Assert.assertThat(expireCount.get(), CoreMatchers.equalTo(DATA_SIZE));
+		strategy.stop();
 	}
 
 	@Test
@@ -96,6 +97,7 @@ public class DelayedTransienceStrategyTestCase {
 
 		String message = StringUtility.format("{}策略{}条线程在{}秒内执行{}次读写操作", strategy.getName(), threadSize, EXPIRE_SECONDS, operationCount.get());
 		logger.debug(message);
+		strategy.stop();
 	}
 
 }
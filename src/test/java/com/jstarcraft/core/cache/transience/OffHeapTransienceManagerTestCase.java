@@ -0,0 +1,77 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.codec.ProtocolContentCodec;
+import com.jstarcraft.core.codec.specification.CodecDefinition;
+
+public class OffHeapTransienceManagerTestCase {
+
+	private OffHeapTransienceManager<Integer, MockEntityObject> getManager(long capacity) {
+		CodecDefinition definition = CodecDefinition.instanceOf(Collections.<Type>singleton(MockEntityObject.class));
+		return new OffHeapTransienceManager<>(MockEntityObject.class, new ProtocolContentCodec(definition), capacity);
+	}
+
+	@Test
+	public void testCrud() {
+		OffHeapTransienceManager<Integer, MockEntityObject> manager = getManager(1024 * 1024);
+		int size = 1000;
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(index, MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		Assert.assertThat(manager.getSize(), CoreMatchers.equalTo(size));
+		for (int index = 0; index < size; index++) {
+			MockEntityObject object = manager.retrieveInstance(index);
+			Assert.assertThat(object, CoreMatchers.equalTo(MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index)));
+			Assert.assertThat(object.getMoney(), CoreMatchers.equalTo(index));
+		}
+
+		// 覆盖
+		manager.createInstance(0, MockEntityObject.instanceOf(0, "birdy", "wolf", 100, 100));
+		Assert.assertThat(manager.getSize(), CoreMatchers.equalTo(size));
+		Assert.assertThat(manager.retrieveInstance(0).getLastName(), CoreMatchers.equalTo("wolf"));
+		Assert.assertThat(manager.retrieveInstance(0).getMoney(), CoreMatchers.equalTo(100));
+
+		// 删除
+		for (int index = 0; index < size; index++) {
+			Assert.assertThat(manager.deleteInstance(index).getId(), CoreMatchers.equalTo(index));
+			Assert.assertNull(manager.retrieveInstance(index));
+		}
+		Assert.assertThat(manager.getSize(), CoreMatchers.equalTo(0));
+	}
+
+	@Test
+	public void testCapacity() {
+		// 4个分片
+		OffHeapTransienceManager<Integer, MockEntityObject> manager = getManager(OffHeapTransienceManager.SLAB_SIZE * 4L);
+		int size = 500000;
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(index, MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		// 容量不足时淘汰最早写入的实例
+		int count = manager.getSize();
+		Assert.assertTrue(count > 0 && count < size);
+		Assert.assertNull(manager.retrieveInstance(0));
+		Assert.assertThat(manager.retrieveInstance(size - 1).getId(), CoreMatchers.equalTo(size - 1));
+		for (int index = size - count; index < size; index++) {
+			Assert.assertThat(manager.retrieveInstance(index).getId(), CoreMatchers.equalTo(index));
+		}
+
+		// 容量不是分片大小的整数倍时,最后一个分片只分配剩余的容量
+		long capacity = OffHeapTransienceManager.SLAB_SIZE + 1000L;
+		manager = getManager(capacity);
+		Assert.assertThat(manager.getCapacity(), CoreMatchers.equalTo(capacity));
+		for (int index = 0; index < size; index++) {
+			manager.createInstance(index, MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+			Assert.assertThat(manager.retrieveInstance(index).getId(), CoreMatchers.equalTo(index));
+		}
+		Assert.assertThat(manager.getCapacity(), CoreMatchers.equalTo(capacity));
+	}
+
+}
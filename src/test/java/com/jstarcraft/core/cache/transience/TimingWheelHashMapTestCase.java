@@ -0,0 +1,79 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimingWheelHashMapTestCase {
+
+	@Test
+	public void testExpire() throws Exception {
+		Map<Object, Object> exchanges = new HashMap<>();
+		// 不使用调度器,由测试转动时间轮(4个刻度为一轮)
+		TimingWheelHashMap<Integer, String> map = TimingWheelHashMap.instanceOf(2, 4, new TransienceMonitor() {
+
+			@Override
+			public void notifyExchanged(Object key, Object value) {
+				synchronized (exchanges) {
+					Assert.assertNull(exchanges.put(key, value));
+				}
+			}
+
+		}, null);
+		map.put(0, "birdy");
+		map.put(1, "birdy");
+		map.put(2, "birdy");
+		Assert.assertThat(map.size(), CoreMatchers.equalTo(3));
+		map.tick();
+		map.tick();
+		// 覆盖会重新计算到期时间
+		Assert.assertThat(map.put(1, "wolf"), CoreMatchers.equalTo("birdy"));
+		Assert.assertThat(map.remove(2), CoreMatchers.equalTo("birdy"));
+		map.tick();
+		// 不足一轮不会到期
+		Assert.assertTrue(map.containsKey(0));
+		map.tick();
+		Assert.assertFalse(map.containsKey(0));
+		Assert.assertThat(map.get(1), CoreMatchers.equalTo("wolf"));
+		map.tick();
+		Assert.assertThat(map.get(1), CoreMatchers.equalTo("wolf"));
+		map.tick();
+		Assert.assertTrue(map.isEmpty());
+
+		// 删除的数据不通知,覆盖的数据只通知最新值
+		synchronized (exchanges) {
+			Assert.assertThat(exchanges.size(), CoreMatchers.equalTo(2));
+			Assert.assertThat(exchanges.get(0), CoreMatchers.equalTo("birdy"));
+			Assert.assertThat(exchanges.get(1), CoreMatchers.equalTo("wolf"));
+		}
+	}
+
+	@Test
+	public void testSchedule() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+		try {
+			TimingWheelHashMap<Integer, String> map = TimingWheelHashMap.instanceOf(1, 2, new TransienceMonitor() {
+
+				@Override
+				public void notifyExchanged(Object key, Object value) {
+					latch.countDown();
+				}
+
+			}, scheduler);
+			map.put(0, "birdy");
+			// 由调度器转动时间轮
+			Assert.assertTrue(latch.await(10L, TimeUnit.SECONDS));
+			Assert.assertTrue(map.isEmpty());
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+import com.jstarcraft.core.utility.RandomUtility;
+import com.jstarcraft.core.utility.StringUtility;
+
+public class TinyLeastFrequentlyUsedTransienceStrategyTestCase {
+
+	private final Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	static int MINIMUN_SIZE = 5000;
+	static int MAXIMUN_SIZE = 10000;
+	static int THREAD_SIZE = Runtime.getRuntime().availableProcessors();
+	static int EXPIRE_SECONDS = 5;
+
+	private TransienceStrategy getStrategy(TransienceType type, int minimunSize, int maximunSize) {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(TinyLeastFrequentlyUsedTransienceStrategy.PARAMETER_MINIMUN_SIZE, String.valueOf(minimunSize));
+		parameters.put(TinyLeastFrequentlyUsedTransienceStrategy.PARAMETER_MAXIMUN_SIZE, String.valueOf(maximunSize));
+		parameters.put(TinyLeastFrequentlyUsedTransienceStrategy.PARAMETER_CONCURRENCY_LEVEL, String.valueOf(THREAD_SIZE));
+		TransienceConfiguration configuration = new TransienceConfiguration(type.name(), type, parameters);
+		TransienceStrategy strategy = type == TransienceType.LEAST_RECENTLY_UESED ? new LeastRecentlyUesedTransienceStrategy() : new TinyLeastFrequentlyUsedTransienceStrategy();
+		strategy.start(configuration);
+		return strategy;
+	}
+
+	@Test(timeout = 20000)
+	public void testExpire() {
+		TransienceStrategy strategy = getStrategy(TransienceType.TINY_LEAST_FREQUENTLY_USED, MINIMUN_SIZE, MAXIMUN_SIZE);
+		AtomicInteger expireCount = new AtomicInteger();
+		TransienceManager manager = strategy.getTransienceManager(new TransienceMonitor() {
+			@Override
+			public void notifyExchanged(Object key, Object value) {
+				Assert.assertThat(((MockEntityObject) value).getId(), CoreMatchers.equalTo(key));
+				expireCount.incrementAndGet();
+			}
+		});
+
+		for (int index = 0; index < MAXIMUN_SIZE + MINIMUN_SIZE; index++) {
+			manager.createInstance(index, MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+		}
+		Assert.assertThat(manager.getSize(), CoreMatchers.equalTo(MAXIMUN_SIZE));
+		Assert.assertThat(expireCount.get(), CoreMatchers.equalTo(MINIMUN_SIZE));
+		for (int index = 0; index < MAXIMUN_SIZE + MINIMUN_SIZE; index++) {
+			manager.deleteInstance(index);
+		}
+		Assert.assertThat(manager.getSize(), CoreMatchers.equalTo(0));
+	}
+
+	@Test(timeout = 20000)
+	public void testScan() {
+		int hotSize = MINIMUN_SIZE;
+		for (TransienceType type : new TransienceType[] { TransienceType.LEAST_RECENTLY_UESED, TransienceType.TINY_LEAST_FREQUENTLY_USED }) {
+			TransienceStrategy strategy = getStrategy(type, MINIMUN_SIZE, MAXIMUN_SIZE);
+			TransienceManager manager = strategy.getTransienceManager(null);
+			// 热点数据被反复访问
+			for (int times = 0; times < 5; times++) {
+				for (int index = 0; index < hotSize; index++) {
+					if (manager.retrieveInstance(index) == null) {
+						manager.createInstance(index, MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+					}
+				}
+			}
+			// 扫描式的一次性访问
+			for (int index = hotSize; index < hotSize + MAXIMUN_SIZE * 10; index++) {
+				if (manager.retrieveInstance(index) == null) {
+					manager.createInstance(index, MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index));
+				}
+			}
+			int hitCount = 0;
+			for (int index = 0; index < hotSize; index++) {
+				if (manager.retrieveInstance(index) != null) {
+					hitCount++;
+				}
+			}
+			String message = StringUtility.format("{}策略扫描以后热点数据保留{}/{}", type, hitCount, hotSize);
+			logger.debug(message);
+			if (type == TransienceType.TINY_LEAST_FREQUENTLY_USED) {
+				Assert.assertTrue(message, hitCount > hotSize * 9 / 10);
+			}
+		}
+	}
+
+	/**
+	 * 生成Zipf分布的访问轨迹
+	 * 
+	 * @param size
+	 * @param exponent
+	 * @param length
+	 * @return
+	 */
+	private int[] getZipfTrace(int size, double exponent, int length) {
+		double[] probabilities = new double[size];
+		double sum = 0D;
+		for (int index = 0; index < size; index++) {
+			sum += 1D / Math.pow(index + 1, exponent);
+			probabilities[index] = sum;
+		}
+		Random random = new Random(0L);
+		int[] trace = new int[length];
+		for (int index = 0; index < length; index++) {
+			int position = Arrays.binarySearch(probabilities, random.nextDouble() * sum);
+			trace[index] = position < 0 ? -position - 1 : position;
+		}
+		return trace;
+	}
+
+	@Test
+	public void testHitRatio() {
+		int capacity = 1000;
+		int[] trace = getZipfTrace(100000, 0.9D, 1000000);
+		Map<TransienceType, Double> ratios = new HashMap<>();
+		for (TransienceType type : new TransienceType[] { TransienceType.LEAST_RECENTLY_UESED, TransienceType.TINY_LEAST_FREQUENTLY_USED }) {
+			TransienceStrategy strategy = getStrategy(type, capacity, capacity);
+			TransienceManager manager = strategy.getTransienceManager(null);
+			int hitCount = 0;
+			for (int id : trace) {
+				if (manager.retrieveInstance(id) == null) {
+					manager.createInstance(id, MockEntityObject.instanceOf(id, "birdy" + id, "hong", id, id));
+				} else {
+					hitCount++;
+				}
+			}
+			double ratio = hitCount * 1D / trace.length;
+			ratios.put(type, ratio);
+			String message = StringUtility.format("{}策略在Zipf(0.9)轨迹上的命中率:{}", type, ratio);
+			logger.debug(message);
+		}
+		Assert.assertTrue(ratios.get(TransienceType.TINY_LEAST_FREQUENTLY_USED) > ratios.get(TransienceType.LEAST_RECENTLY_UESED));
+	}
+
+	@Test
+	public void testPerformance() throws Exception {
+		TransienceStrategy strategy = getStrategy(TransienceType.TINY_LEAST_FREQUENTLY_USED, MINIMUN_SIZE, MAXIMUN_SIZE);
+		TransienceManager manager = strategy.getTransienceManager(null);
+
+		// 多线程并发读写操作
+		int threadSize = 100;
+		AtomicBoolean run = new AtomicBoolean(true);
+		AtomicLong operationCount = new AtomicLong();
+		for (int index = 0; index < threadSize; index++) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					while (run.get()) {
+						int readId = RandomUtility.randomInteger(0, MAXIMUN_SIZE + MINIMUN_SIZE);
+						int wirteId = RandomUtility.randomInteger(0, MAXIMUN_SIZE + MINIMUN_SIZE);
+						manager.createInstance(wirteId, MockEntityObject.instanceOf(wirteId, "birdy" + wirteId, "hong", 0, 0));
+						manager.retrieveInstance(readId);
+						operationCount.incrementAndGet();
+					}
+				}
+			});
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		Thread.sleep(TimeUnit.MILLISECONDS.convert(EXPIRE_SECONDS, TimeUnit.SECONDS));
+		run.set(false);
+		if (manager.getSize() == 0) {
+			Assert.fail();
+		}
+
+		String message = StringUtility.format("{}策略{}条线程在{}秒内执行{}次读写操作", strategy.getName(), threadSize, EXPIRE_SECONDS, operationCount.get());
+		logger.debug(message);
+	}
+
+}
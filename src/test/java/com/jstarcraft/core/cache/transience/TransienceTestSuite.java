@@ -4,7 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({ WeakElementManagerTestCase.class, DelayedTransienceStrategyTestCase.class, LeastRecentlyUesedTransienceStrategyTestCase.class })
+@Suite.SuiteClasses({ WeakElementManagerTestCase.class, DelayedTransienceStrategyTestCase.class, LeastRecentlyUesedTransienceStrategyTestCase.class, TinyLeastFrequentlyUsedTransienceStrategyTestCase.class, OffHeapTransienceManagerTestCase.class, TimingWheelHashMapTestCase.class, UserDefinedTransienceStrategyTestCase.class })
 public class TransienceTestSuite {
 
 }
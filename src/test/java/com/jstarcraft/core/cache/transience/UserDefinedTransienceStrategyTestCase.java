@@ -0,0 +1,82 @@
+package com.jstarcraft.core.cache.transience;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.core.cache.CacheInformation;
+import com.jstarcraft.core.cache.MockEntityObject;
+import com.jstarcraft.core.cache.transience.TransienceStrategy.TransienceType;
+
+public class UserDefinedTransienceStrategyTestCase {
+
+	static int SIZE = 10000;
+	static int THREAD_SIZE = Runtime.getRuntime().availableProcessors();
+
+	private UserDefinedTransienceStrategy getStrategy() {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(UserDefinedTransienceStrategy.PARAMETER_CAPACITY, String.valueOf(SIZE));
+		parameters.put("factor", "0.75");
+		parameters.put("concurrencyLevel", String.valueOf(THREAD_SIZE));
+		TransienceConfiguration configuration = new TransienceConfiguration("userDefinedMemoryStrategy", TransienceType.USER_DEFINED, parameters);
+		UserDefinedTransienceStrategy strategy = new UserDefinedTransienceStrategy();
+		strategy.start(configuration);
+		return strategy;
+	}
+
+	@Test
+	public void testPrimitive() throws Exception {
+		UserDefinedTransienceStrategy strategy = getStrategy();
+		CacheInformation information = CacheInformation.instanceOf(MockEntityObject.class);
+		Assert.assertTrue(information.getIdClass() == Integer.class);
+		Assert.assertThat(strategy.getTransienceManager(information.getIdClass(), null), CoreMatchers.instanceOf(PrimitiveTransienceManager.class));
+		Assert.assertThat(strategy.getTransienceManager(String.class, null), CoreMatchers.instanceOf(UserDefinedTransienceManager.class));
+
+		TransienceManager<Integer, MockEntityObject> manager = strategy.getTransienceManager(information.getIdClass(), null);
+		// 多线程并发写入不相交的标识
+		CountDownLatch latch = new CountDownLatch(THREAD_SIZE);
+		AtomicInteger errorCount = new AtomicInteger();
+		for (int thread = 0; thread < THREAD_SIZE; thread++) {
+			int offset = thread;
+			new Thread(() -> {
+				try {
+					for (int index = offset; index < SIZE; index += THREAD_SIZE) {
+						MockEntityObject object = MockEntityObject.instanceOf(index, "birdy" + index, "hong", index, index);
+						manager.createInstance(index, object);
+						if (manager.retrieveInstance(index) != object) {
+							errorCount.incrementAndGet();
+						}
+					}
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+		latch.await();
+		Assert.assertThat(errorCount.get(), CoreMatchers.equalTo(0));
+		Assert.assertThat(manager.getSize(), CoreMatchers.equalTo(SIZE));
+
+		for (int index = 0; index < SIZE; index += 2) {
+			Assert.assertThat(manager.deleteInstance(index).getId(), CoreMatchers.equalTo(index));
+		}
+		Assert.assertNull(manager.retrieveInstance(0));
+		Assert.assertNull(manager.deleteInstance(0));
+		Assert.assertNotNull(manager.retrieveInstance(1));
+		Assert.assertThat(manager.getSize(), CoreMatchers.equalTo(SIZE / 2));
+		// 遍历时还原标识的类型
+		AtomicInteger iterateCount = new AtomicInteger();
+		manager.iterateInstances((id, object) -> {
+			Assert.assertTrue(id instanceof Integer);
+			Assert.assertThat(object.getId(), CoreMatchers.equalTo(id));
+			iterateCount.incrementAndGet();
+		});
+		Assert.assertThat(iterateCount.get(), CoreMatchers.equalTo(SIZE / 2));
+		strategy.stop();
+	}
+
+}
@@ -7,6 +7,7 @@ import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.jstarcraft.core.cache.CacheObject;
 import com.jstarcraft.core.cache.MockEntityObject;
 import com.jstarcraft.core.cache.transience.TransienceElement;
 import com.jstarcraft.core.cache.transience.WeakElementManager;
@@ -52,4 +53,58 @@ public class WeakElementManagerTestCase {
 		Assert.assertThat(elementManager.getCount(), CoreMatchers.equalTo(0));
 	}
 
+	/**
+	 * 原始类型标识的对象
+	 * 
+	 * <pre>
+	 * 每次{@link #getId()}都重新装箱,标识不能作为弱引用键.
+	 * </pre>
+	 */
+	private static class MockPrimitiveObject implements CacheObject<Integer> {
+
+		private int id;
+
+		private MockPrimitiveObject(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public Integer getId() {
+			return new Integer(id);
+		}
+
+	}
+
+	@Test
+	public void testPrimitive() throws Exception {
+		int size = 1000;
+		Map<Integer, TransienceElement> elementHolder = new HashMap<>();
+		WeakElementManager<Integer, MockPrimitiveObject> elementManager = new WeakElementManager<>(null);
+
+		for (int index = -size; index < size; index++) {
+			MockPrimitiveObject object = new MockPrimitiveObject(index);
+			elementHolder.put(index, elementManager.putElement(object));
+		}
+
+		// 元素存活时,即使标识没有被引用也不会被回收
+		System.gc();
+		Thread.sleep(1000);
+		Assert.assertThat(elementManager.getCount(), CoreMatchers.equalTo(size * 2));
+		for (int index = -size; index < size; index++) {
+			MockPrimitiveObject object = new MockPrimitiveObject(index);
+			Assert.assertSame(elementHolder.get(index), elementManager.getElement(object));
+			Assert.assertSame(elementHolder.get(index), elementManager.putElement(object));
+		}
+
+		// 元素被回收以后,映射被清理并且可以重新放入
+		elementHolder.clear();
+		System.gc();
+		Thread.sleep(1000);
+		Assert.assertThat(elementManager.getCount(), CoreMatchers.equalTo(0));
+		MockPrimitiveObject object = new MockPrimitiveObject(0);
+		TransienceElement element = elementManager.putElement(object);
+		Assert.assertSame(object, element.getCacheObject());
+		Assert.assertSame(element, elementManager.retrieveElement(0));
+	}
+
 }
@@ -1,6 +1,8 @@
 package com.jstarcraft.core.orm.berkeley;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 
 import org.hamcrest.CoreMatchers;
 import org.junit.Assert;
@@ -76,6 +78,12 @@ public class BerkeleyAccessorTestCase {
 		Collection<Pack> packs = accessor.queryInstances(Pack.class, "personId", birdy.getId());
 		Assert.assertThat(packs.size(), CoreMatchers.equalTo(size));
 
+		// 批量获取对象(不存在的主键被忽略)
+		Map<Long, Pack> instances = accessor.getInstances(Pack.class, Arrays.asList((long) size - 1, 0L, (long) size));
+		Assert.assertThat(instances.size(), CoreMatchers.equalTo(2));
+		Assert.assertThat(instances.get(0L).getId(), CoreMatchers.equalTo(0L));
+		Assert.assertNull(instances.get((long) size));
+
 		accessor.delete(Person.class, 1L);
 
 		// 由于级联操作,所有Pack的personId会被重置为null
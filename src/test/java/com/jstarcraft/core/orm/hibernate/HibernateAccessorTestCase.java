@@ -1,6 +1,7 @@
 package com.jstarcraft.core.orm.hibernate;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,12 @@ public class HibernateAccessorTestCase {
 			Assert.assertThat(instance, CoreMatchers.equalTo(object));
 		}
 
+		// 批量获取对象(不存在的主键被忽略)
+		Map<Integer, MockObject> instances = accessor.getInstances(MockObject.class, Arrays.asList(0, size / 2, size - 1, size));
+		Assert.assertThat(instances.size(), CoreMatchers.equalTo(3));
+		Assert.assertThat(instances.get(size / 2), CoreMatchers.equalTo(accessor.get(MockObject.class, size / 2)));
+		Assert.assertNull(instances.get(size));
+
 		// 查询对象的最大标识
 		int maximum = accessor.maximumIdentity(MockObject.class, -size, size);
 		Assert.assertThat(maximum, CoreMatchers.equalTo(size - 1));
@@ -120,6 +127,33 @@ public class HibernateAccessorTestCase {
 		Assert.assertTrue(objects.size() == count);
 	}
 
+	@Test
+	public void testUpdateFields() {
+		int id = 1000;
+		MockObject object = MockObject.instanceOf(id, "birdy", "mickey", 5, Instant.now(), MockEnumeration.TERRAN);
+		accessor.create(MockObject.class, object);
+
+		// 只更新指定的字段,其它字段保持数据库中的值
+		MockObject modify = MockObject.instanceOf(id, "xiao", "hong", 3, object.getInstant(), MockEnumeration.TERRAN);
+		accessor.update(MockObject.class, modify, Arrays.asList("name"));
+		MockObject instance = accessor.get(MockObject.class, id);
+		Assert.assertThat(instance.getName(), CoreMatchers.equalTo("xiao"));
+		Assert.assertThat(instance.getMoney(), CoreMatchers.equalTo(5));
+		Assert.assertThat(instance.getChildren(), CoreMatchers.equalTo(object.getChildren()));
+
+		// JSON字段使用映射类型写入
+		accessor.update(MockObject.class, modify, Arrays.asList("money", "children"));
+		instance = accessor.get(MockObject.class, id);
+		Assert.assertThat(instance, CoreMatchers.equalTo(modify));
+
+		// 部分更新不递增版本,整体更新仍然可以执行
+		object.setName("mickey");
+		accessor.update(MockObject.class, object);
+		instance = accessor.get(MockObject.class, id);
+		Assert.assertThat(instance, CoreMatchers.equalTo(object));
+		accessor.delete(MockObject.class, id);
+	}
+
 	@Test
 	public void testQuery() {
 		int size = 10;
@@ -1,6 +1,7 @@
 package com.jstarcraft.core.orm.mongo;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,12 @@ public class MongoAccessorTestCase {
 			Assert.assertThat(instance, CoreMatchers.equalTo(object));
 		}
 
+		// 批量获取对象(不存在的主键被忽略)
+		Map<Integer, MockObject> instances = accessor.getInstances(MockObject.class, Arrays.asList(0, size / 2, size - 1, size));
+		Assert.assertThat(instances.size(), CoreMatchers.equalTo(3));
+		Assert.assertThat(instances.get(size / 2), CoreMatchers.equalTo(accessor.get(MockObject.class, size / 2)));
+		Assert.assertNull(instances.get(size));
+
 		// 查询对象的最大标识
 		int maximum = accessor.maximumIdentity(MockObject.class, -size, size);
 		Assert.assertThat(maximum, CoreMatchers.equalTo(size - 1));
@@ -0,0 +1,91 @@
+package com.jstarcraft.core.utility.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.jstarcraft.core.utility.ConcurrentWeakHashMap;
+
+public class ConcurrentWeakHashMapTestCase {
+
+	@Test
+	public void testOperation() {
+		ConcurrentWeakHashMap<String, Integer> map = new ConcurrentWeakHashMap<>(4, 2);
+		List<String> keys = new ArrayList<>();
+		for (int index = 0; index < 1000; index++) {
+			String key = String.valueOf(index);
+			keys.add(key);
+			Assert.assertNull(map.put(key, index));
+		}
+		Assert.assertThat(map.size(), CoreMatchers.equalTo(1000));
+		for (int index = 0; index < 1000; index++) {
+			// 使用相等但是不同的实例查询
+			Assert.assertThat(map.get(new String(keys.get(index))), CoreMatchers.equalTo(index));
+		}
+		Assert.assertThat(map.put(keys.get(0), -1), CoreMatchers.equalTo(0));
+		Assert.assertThat(map.putIfAbsent(keys.get(0), 0), CoreMatchers.equalTo(-1));
+		Assert.assertThat(map.remove(keys.get(0)), CoreMatchers.equalTo(-1));
+		Assert.assertNull(map.get(keys.get(0)));
+		Assert.assertThat(map.compute(keys.get(1), (key, value) -> value + 1), CoreMatchers.equalTo(2));
+		Assert.assertNull(map.compute(keys.get(1), (key, value) -> null));
+		Assert.assertFalse(map.containsKey(keys.get(1)));
+		Assert.assertThat(map.size(), CoreMatchers.equalTo(998));
+		Assert.assertThat(map.values().size(), CoreMatchers.equalTo(998));
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+	}
+
+	@Test
+	public void testCollect() throws Exception {
+		ConcurrentWeakHashMap<Object, Integer> map = new ConcurrentWeakHashMap<>();
+		List<Object> holder = new ArrayList<>();
+		for (int index = 0; index < 1000; index++) {
+			Object key = new Object();
+			holder.add(key);
+			map.put(key, index);
+		}
+		System.gc();
+		Thread.sleep(1000);
+		Assert.assertThat(map.size(), CoreMatchers.equalTo(1000));
+		holder.clear();
+		System.gc();
+		Thread.sleep(1000);
+		Assert.assertThat(map.size(), CoreMatchers.equalTo(0));
+	}
+
+	@Test
+	public void testConcurrent() throws Exception {
+		ConcurrentWeakHashMap<Integer, AtomicInteger> map = new ConcurrentWeakHashMap<>();
+		int threadSize = Runtime.getRuntime().availableProcessors() * 2;
+		int size = 1000;
+		// 强引用所有键,避免被回收
+		Integer[] keys = new Integer[size];
+		for (int index = 0; index < size; index++) {
+			keys[index] = new Integer(index);
+		}
+		CountDownLatch latch = new CountDownLatch(threadSize);
+		for (int thread = 0; thread < threadSize; thread++) {
+			new Thread(() -> {
+				try {
+					for (int index = 0; index < size; index++) {
+						// 并发时每个键只能创建一个值
+						map.computeIfAbsent(keys[index], (key) -> new AtomicInteger()).incrementAndGet();
+					}
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+		latch.await();
+		Assert.assertThat(map.size(), CoreMatchers.equalTo(size));
+		for (int index = 0; index < size; index++) {
+			Assert.assertThat(map.get(index).get(), CoreMatchers.equalTo(threadSize));
+		}
+	}
+
+}